@@ -1,19 +1,28 @@
 package com.alok.ecsystem.application;
 
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStreamReader;
 
 import com.alok.ecsystem.core.ElevatorControlInterface;
+import com.alok.ecsystem.core.ElevatorControlInterface.DIRECTION;
+import com.alok.ecsystem.core.ElevatorControlInterface.STATE;
+import com.alok.ecsystem.core.ElevatorSnapshot;
 import com.alok.ecsystem.core.ElevatorSystemControl;
 import com.alok.ecsystem.core.FloorControlInterface;
+import com.alok.ecsystem.core.dispatch.ArrivalEstimate;
 import com.alok.ecsystem.core.impl.BaseFloorControl;
+import com.alok.ecsystem.core.simulation.TrafficRecorder;
+import com.alok.ecsystem.core.util.ServedFloors;
 
 /**
  * Interactive stand alone command line application with simulated Elevator.
  * 
  * This command line application initialize  
  * 
+ * Requests can be recorded for later replay by giving file path in "ecsRecordFile" system property.
+ * 
  * @author Alok Kushwah (akushwah)
  */
 public class App {
@@ -22,9 +31,18 @@ public class App {
 	private ElevatorControlInterface elevatorControl;
 	private ElevatorSystemControl control = new ElevatorSystemControl();
 	private BufferedReader reader = new BufferedReader(new InputStreamReader(System.in));
+	private TrafficRecorder recorder;
 
 	public App() {
-		floorControl = control.getFloorControl(0);
+		String recordFile = System.getProperty("ecsRecordFile");
+		if (recordFile != null) {
+			try {
+				recorder = new TrafficRecorder(new File(recordFile), control.getConfig().getScheduler());
+			} catch (IOException e) {
+				throw new RuntimeException("Unable to create recording file=" + recordFile, e);
+			}
+		}
+		floorControl = floor(0);
 	}
 
 	public static void main(String[] args) throws InterruptedException {
@@ -40,6 +58,7 @@ public class App {
 				System.err.println("Please select a command from menu.");
 				continue;
 			} else if ("X".equalsIgnoreCase(command)) {
+				closeRecorder();
 				System.out.println("Good bye.");
 				return;
 			}
@@ -58,29 +77,104 @@ public class App {
 		// request elevator from any floor
 		if (command.startsWith("R")) {
 			int index = parseCommand(command);
-			FloorControlInterface fControl = control.getFloorControl(index);
+			FloorControlInterface fControl = floor(index);
 			fControl.setElevatorRequest(true);
 			System.out.println("Pressed button at:" + index);
 			return;
 		}
+		// show predicted arrival at any floor
+		if (command.startsWith("E")) {
+			int index = parseCommand(command);
+			for (DIRECTION direction : new DIRECTION[] { null, DIRECTION.UP, DIRECTION.DOWN }) {
+				ArrivalEstimate estimate = control.getHallCallArrival(index, direction);
+				if (estimate != null) {
+					System.out.println("Called " + (direction == null ? "" : direction + " ") + "elevator " + estimate.getElevator().getId() 
+							+ " arrives in " + estimate.getMillis() + "ms");
+				}
+			}
+			ArrivalEstimate estimate = control.getEstimatedArrival(index, null);
+			if (estimate != null) {
+				System.out.println("Nearest elevator " + estimate.getElevator().getId() + " can arrive in " + estimate.getMillis() + "ms");
+			}
+			return;
+		}
+		// take elevator out of service or back to service
+		if (command.startsWith("F")) {
+			int id = parseCommand(command);
+			if (control.getElevetorControl(id).getState() == STATE.OUT_OF_ORDER) {
+				control.returnToService(id);
+				System.out.println("Elevator " + id + " is back in service.");
+			} else {
+				int calls = control.takeOutOfService(id);
+				System.out.println("Elevator " + id + " is out of service, " + calls + " calls moved to other elevators.");
+			}
+			return;
+		}
 		// go to any floor of building
 		if (command.startsWith("G")) {
 			int index = parseCommand(command);
-			floorControl = control.getFloorControl(index);
+			floorControl = floor(index);
 			System.out.println("You appeared at floor:" + index);
 			return;
 		}
 
-		// press up button on floor
+		// press request button on floor
 		if ("P".equalsIgnoreCase(command)) {
 			System.out.println("Pressed request button.");
 			floorControl.setElevatorRequest(true);
 			return;
 		}
 
+		// press up or down button on floor
+		if ("U".equalsIgnoreCase(command) || "D".equalsIgnoreCase(command)) {
+			DIRECTION direction = "U".equalsIgnoreCase(command) ? DIRECTION.UP : DIRECTION.DOWN;
+			System.out.println("Pressed " + direction + " button.");
+			floorControl.setElevatorRequest(direction, true);
+			return;
+		}
+
+		// enter destination on floor
+		if (command.startsWith("T")) {
+			int index = parseCommand(command);
+			ElevatorControlInterface assigned = floorControl.requestDestination(index);
+			if (assigned != null) {
+				System.out.println("Take elevator:" + assigned.getId() + " to floor:" + index);
+			} else {
+				System.err.println("No elevator can take you to floor:" + index);
+			}
+			return;
+		}
+
+		// show dispatch decision statistics
+		if ("S".equalsIgnoreCase(command)) {
+			System.out.println("Dispatch strategy:" + control.getDispatchStrategy() + " " + control.getDispatchStrategy().getStatistics());
+			if (control.getBatchDispatcher() != null) {
+				System.out.println("Batch dispatch:" + control.getBatchDispatcher().getStatistics());
+			}
+			if (control.getReoptimizer() != null) {
+				System.out.println("Re-optimized requests:" + control.getReoptimizer().getReassignmentCount());
+			}
+			if (control.getParkingPolicy() != null) {
+				System.out.println("Parked elevators:" + control.getParkingPolicy().getParkingCount());
+			}
+			if (control.getDestinationDispatcher() != null) {
+				System.out.println("Destination dispatch:" + control.getDestinationDispatcher());
+			}
+			if (control.getBypassReassignmentCount() > 0) {
+				System.out.println("Load bypass reassigned calls:" + control.getBypassReassignmentCount());
+			}
+			if (control.getFailoverReassignmentCount() > 0) {
+				System.out.println("Out of service reassigned calls:" + control.getFailoverReassignmentCount());
+			}
+			return;
+		}
+
 		if ("I".equalsIgnoreCase(command)) {
 			elevatorControl = floorControl.getElevatorControl();
-			if (elevatorControl != null) {
+			if (elevatorControl != null && elevatorControl.passengersBoarded(1) == 0) {
+				System.err.println("Elevator is full.");
+				elevatorControl = null;
+			} else if (elevatorControl != null) {
 				System.out.println("Hopped in elevetor at floor:" + floorControl.getId());
 				floorControl = null;
 			} else {
@@ -96,10 +190,11 @@ public class App {
 
 		if ("O".equalsIgnoreCase(command)) {
 			if (elevatorControl.openDoorRequest()) {
-				int index = elevatorControl.getCurrentFloor();
+				elevatorControl.passengersAlighted(1);
+				int index = elevatorControl.getSnapshot().getCurrentFloor();
 				elevatorControl = null;
 				System.out.println("Hopped out at " + index + " floor.");
-				floorControl = control.getFloorControl(index);
+				floorControl = floor(index);
 			} else {
 				System.err.println("Unable to get out try again.");
 			}
@@ -116,13 +211,21 @@ public class App {
 		if (floorControl != null) {
 			System.out.println("Your are at Floor:" + floorControl.getId());
 			System.out.println("P - Call elevator to your floor.");
+			System.out.println("U / D - Call elevator to your floor to go up / down.");
+			if (control.getDestinationDispatcher() != null) {
+				System.out.println("T <floorIndex> - Enter destination <floorIndex> and get elevator to take.");
+			}
 			if (floorControl.getElevatorControl() != null) {
 				System.out.println("I - Hope in elevator.");
 			}
 		} else if (elevatorControl != null) {
-			System.out.println("Your are inside elevator. Elevator at floor:" + elevatorControl.getCurrentFloor());
+			ElevatorSnapshot snapshot = elevatorControl.getSnapshot();
+			System.out.println("Your are inside elevator. Elevator at floor:" + snapshot.getCurrentFloor() + " " + snapshot.getState()
+					+ " stops:" + snapshot.getPendingCount() + " route:" + snapshot.getRouteLength() + " floors"
+					+ (snapshot.getCapacity() > 0 ? " load:" + snapshot.getLoad() + "/" + snapshot.getCapacity() : ""));
 			System.out.println("Choose Floor:");
-			for (int i : elevatorControl.getAllowedFloorList()) {
+			ServedFloors floors = elevatorControl.getServedFloors();
+			for (int i = floors.first(); i != -1; i = floors.next(i + 1)) {
 				System.out.print(i + ",");
 			}
 			System.out.println();
@@ -130,9 +233,32 @@ public class App {
 		}
 		System.out.println("R <floorIndex> - request to move elevotor at <floorIndex>");
 		System.out.println("G <floorIndex> - apear at <floorIndex>");
+		System.out.println("E <floorIndex> - Show when elevator arrives at <floorIndex>");
+		System.out.println("F <elevatorId> - Take elevator <elevatorId> out of service or back to service");
+		System.out.println("S - Show dispatch statistics");
 		System.out.println("X - Quit the program");
 	}
 
+	/**
+	 * Returns floor interface, wrapped by recorder in case requests are recorded.
+	 */
+	private FloorControlInterface floor(int index) {
+		FloorControlInterface fControl = control.getFloorControl(index);
+		return recorder == null ? fControl : recorder.floor(fControl);
+	}
+
+	private void closeRecorder() {
+		if (recorder == null) {
+			return;
+		}
+		try {
+			recorder.close();
+			System.out.println("Recorded " + recorder.getEventCount() + " requests.");
+		} catch (IOException e) {
+			System.err.println("Unable to close recording.");
+		}
+	}
+
 	private String readCommand() {
 		try {
 			return reader.readLine().trim();
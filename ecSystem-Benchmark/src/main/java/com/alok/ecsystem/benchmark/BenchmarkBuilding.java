@@ -0,0 +1,36 @@
+package com.alok.ecsystem.benchmark;
+
+import java.util.Properties;
+
+import com.alok.ecsystem.core.ElevatorSystemControl;
+import com.alok.ecsystem.core.config.ElevatorSystemConfig;
+
+/**
+ * Creates {@link ElevatorSystemControl} with given number of floors and {@link BenchmarkElevator}.
+ * 
+ * @author Alok Kushwah (akushwah)
+ */
+final class BenchmarkBuilding {
+
+	private BenchmarkBuilding() {
+	}
+
+	/**
+	 * Creates a new building. All elevators serve all floors.
+	 * @param floorCount - number of floors
+	 * @param elevatorCount - number of elevators
+	 * @return {@link ElevatorSystemControl}
+	 */
+	static ElevatorSystemControl create(int floorCount, int elevatorCount) {
+		Properties properties = new Properties();
+		properties.setProperty("building.name", "Benchmark");
+		properties.setProperty("floor.count", String.valueOf(floorCount));
+		properties.setProperty("elevator.count", String.valueOf(elevatorCount));
+		for (int i = 0; i < elevatorCount; i++) {
+			properties.setProperty("elevator." + i + ".className", BenchmarkElevator.class.getName());
+			properties.setProperty("elevator." + i + ".minIndex", "0");
+			properties.setProperty("elevator." + i + ".maxIndex", String.valueOf(floorCount - 1));
+		}
+		return new ElevatorSystemControl(new ElevatorSystemConfig(properties));
+	}
+}
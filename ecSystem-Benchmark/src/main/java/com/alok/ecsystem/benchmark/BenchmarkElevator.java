@@ -0,0 +1,46 @@
+package com.alok.ecsystem.benchmark;
+
+import com.alok.ecsystem.core.impl.AbstractBaseElevatorControl;
+
+/**
+ * Elevator which never moves or operates door. It keeps benchmarks free of simulator timings and threads 
+ * so only control logic is measured.
+ * 
+ * @author Alok Kushwah (akushwah)
+ */
+public class BenchmarkElevator extends AbstractBaseElevatorControl {
+
+	public BenchmarkElevator(int id, int minFloor, int maxFloor) {
+		super(id, minFloor, maxFloor);
+	}
+
+	/**
+	 * Moves elevator one step, to next floor or through door operation, as simulator would do after some time.
+	 */
+	public synchronized void step() {
+		if (state == STATE.MOVING) {
+			movedToNewFloor();
+		} else if (state != STATE.IDLE) {
+			doorClosed();
+		}
+	}
+
+	/**
+	 * Plans next movement from "IDLE" state same as after door is closed.
+	 */
+	public void replan() {
+		doorClosed();
+	}
+
+	@Override
+	protected void startDoorClosing() {
+	}
+
+	@Override
+	protected void startDoorOpening() {
+	}
+
+	@Override
+	protected void startMoving() {
+	}
+}
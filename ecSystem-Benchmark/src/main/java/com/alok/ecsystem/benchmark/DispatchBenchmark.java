@@ -0,0 +1,136 @@
+package com.alok.ecsystem.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.alok.ecsystem.core.ElevatorControlInterface;
+import com.alok.ecsystem.core.ElevatorSystemControl;
+import com.alok.ecsystem.core.FloorControlInterface;
+import com.alok.ecsystem.core.dispatch.ArrivalEstimate;
+import com.alok.ecsystem.core.dispatch.DispatchStrategy;
+import com.alok.ecsystem.core.event.FloorEvent;
+
+/**
+ * Measures hall call dispatch of {@link ElevatorSystemControl} for different fleet and building sizes.
+ * 
+ * Elevators are spread over the building with a few pending stops each, so cost evaluation is not trivial.
+ * Full scan and floor index are measured separately, same for cost of whole fleet per elevator and from fleet columns.
+ * 
+ * @author Alok Kushwah (akushwah)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class DispatchBenchmark {
+
+	@Param({ "1", "10", "100", "1000" })
+	public int elevatorCount;
+
+	@Param({ "10", "100" })
+	public int floorCount;
+
+	private ElevatorSystemControl control;
+	private List<ElevatorControlInterface> elevators;
+	private FloorEvent[] buttonPresses;
+	private int[] costs;
+	private int nextFloor;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		control = BenchmarkBuilding.create(floorCount, elevatorCount);
+		Random random = new Random(1);
+		elevators = new ArrayList<ElevatorControlInterface>();
+		for (int i = 0; i < elevatorCount; i++) {
+			BenchmarkElevator elevator = (BenchmarkElevator) control.getElevetorControl(i);
+			for (int s = 0; s < 3; s++) {
+				elevator.addFloorRequest(1 + random.nextInt(floorCount - 1));
+			}
+			for (int s = random.nextInt(floorCount); s > 0; s--) {
+				elevator.step();
+			}
+			elevators.add(elevator);
+		}
+		costs = new int[elevatorCount];
+		buttonPresses = new FloorEvent[floorCount];
+		for (int i = 0; i < floorCount; i++) {
+			buttonPresses[i] = new FloorEvent(control.getFloorControl(i), FloorControlInterface.FLOOR_EVENT.BUTTON_PRESSED, null, null);
+		}
+	}
+
+	/**
+	 * Strategy decision only, scanning all elevators.
+	 */
+	@Benchmark
+	public ElevatorControlInterface selectElevator() {
+		return control.getDispatchStrategy().selectElevator(next(), null, elevators);
+	}
+
+	/**
+	 * Strategy decision only, using floor index of elevators.
+	 */
+	@Benchmark
+	public ElevatorControlInterface selectElevatorIndexed() {
+		return control.getDispatchStrategy().selectElevator(next(), null, control.getElevatorIndex());
+	}
+
+	/**
+	 * Cost of every elevator, calling elevators one by one.
+	 */
+	@Benchmark
+	public int[] costsPerElevator() {
+		int floorIndex = next();
+		DispatchStrategy strategy = control.getDispatchStrategy();
+		for (int i = 0; i < elevatorCount; i++) {
+			costs[i] = strategy.cost(elevators.get(i), floorIndex, null);
+		}
+		return costs;
+	}
+
+	/**
+	 * Cost of every elevator from fleet columns.
+	 */
+	@Benchmark
+	public int[] costsFromFleetState() {
+		control.getDispatchStrategy().costs(control.getFleetState(), next(), null, costs);
+		return costs;
+	}
+
+	/**
+	 * Predicted arrival at a floor as polled by lobby displays. Elevators do not move, so estimates come from cached tables.
+	 */
+	@Benchmark
+	public ArrivalEstimate estimatedArrival() {
+		return control.getEstimatedArrival(next(), null);
+	}
+
+	/**
+	 * Full button press handling including assignment.
+	 */
+	@Benchmark
+	public void update() {
+		control.onEvent(buttonPresses[next()]);
+	}
+
+	private int next() {
+		nextFloor = nextFloor + 1 == floorCount ? 1 : nextFloor + 1;
+		return nextFloor;
+	}
+}
@@ -0,0 +1,85 @@
+package com.alok.ecsystem.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.alok.ecsystem.core.impl.AbstractBaseElevatorControl;
+
+/**
+ * Measures request handling of {@link AbstractBaseElevatorControl} with large stop sets.
+ * 
+ * Elevator is at ground floor and has a stop at every "stopSpacing" floor.
+ * 
+ * @author Alok Kushwah (akushwah)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ElevatorControlBenchmark {
+
+	@Param({ "64", "1024", "4096" })
+	public int floorCount;
+
+	@Param({ "2", "16" })
+	public int stopSpacing;
+
+	private BenchmarkElevator elevator;
+	private int nextFloor;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		elevator = new BenchmarkElevator(0, 0, floorCount - 1);
+		for (int floor = stopSpacing; floor < floorCount; floor += stopSpacing) {
+			elevator.addFloorRequest(floor);
+		}
+	}
+
+	/**
+	 * Add a hall call at floor without stop and withdraw it again.
+	 */
+	@Benchmark
+	public boolean addAndWithdrawHallCall() {
+		int floor = nextFreeFloor();
+		elevator.addHallCall(floor, null);
+		return elevator.withdrawHallCall(floor, null);
+	}
+
+	/**
+	 * Plan next movement from "IDLE" state.
+	 */
+	@Benchmark
+	public void calculateNextState() {
+		elevator.replan();
+	}
+
+	/**
+	 * Cost of a floor request.
+	 */
+	@Benchmark
+	public int estimatedFloorRequestCost() {
+		nextFloor = nextFloor + 1 == floorCount ? 0 : nextFloor + 1;
+		return elevator.estimatedFloorRequestCost(nextFloor, null);
+	}
+
+	private int nextFreeFloor() {
+		do {
+			nextFloor = nextFloor + 1 == floorCount ? 1 : nextFloor + 1;
+		} while (nextFloor % stopSpacing == 0);
+		return nextFloor;
+	}
+}
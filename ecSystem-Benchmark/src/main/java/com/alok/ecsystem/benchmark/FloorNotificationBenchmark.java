@@ -0,0 +1,74 @@
+package com.alok.ecsystem.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.alok.ecsystem.core.event.EventSubscriber;
+import com.alok.ecsystem.core.event.FloorEvent;
+import com.alok.ecsystem.core.impl.BaseFloorControl;
+
+/**
+ * Measures event fan-out of {@link BaseFloorControl} to synchronous subscribers of its event bus.
+ * 
+ * @author Alok Kushwah (akushwah)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class FloorNotificationBenchmark {
+
+	@Param({ "0", "1", "10", "100" })
+	public int subscriberCount;
+
+	private BaseFloorControl floor;
+	private BenchmarkElevator elevator;
+	private int notifications;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		floor = new BaseFloorControl(0);
+		elevator = new BenchmarkElevator(0, 0, 0);
+		for (int i = 0; i < subscriberCount; i++) {
+			floor.getEvents().subscribe(new EventSubscriber<FloorEvent>() {
+				public void onEvent(FloorEvent event) {
+					notifications++;
+				}
+			});
+		}
+	}
+
+	/**
+	 * Elevator arrives at floor and leaves it.
+	 */
+	@Benchmark
+	public int arrivedAndLeft() {
+		floor.elevatorArrived(elevator, null);
+		floor.elevatorLeft(elevator);
+		return notifications;
+	}
+
+	/**
+	 * Hall button is pressed and reset.
+	 */
+	@Benchmark
+	public int buttonPressedAndReset() {
+		floor.setElevatorRequest(true);
+		floor.setElevatorRequest(false);
+		return notifications;
+	}
+}
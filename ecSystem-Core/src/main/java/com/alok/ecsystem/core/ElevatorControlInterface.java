@@ -1,8 +1,9 @@
 package com.alok.ecsystem.core;
 
-import java.util.List;
 import java.util.Set;
 
+import com.alok.ecsystem.core.util.ServedFloors;
+
 /**
  * Interface to define user and control interface for an elevator.
  * This interface is use by client of system to interact with individual elevator. 
@@ -33,10 +34,10 @@ public interface ElevatorControlInterface {
 	public int getId();
 	
 	/**
-	 * Return list of floor index this elevator can serve. 
-	 * @return {@link List}
+	 * Return floors this elevator can serve. 
+	 * @return {@link ServedFloors}
 	 */
-	public List<Integer> getAllowedFloorList();
+	public ServedFloors getServedFloors();
 
 	/**
 	 * Returns state of elevator.
@@ -56,12 +57,31 @@ public interface ElevatorControlInterface {
 	 */
 	public int getCurrentFloor();
 	
+	/**
+	 * Returns latest consistent view of elevator state. It must not block.
+	 * @return {@link ElevatorSnapshot}
+	 */
+	public ElevatorSnapshot getSnapshot();
+	
+	/**
+	 * Register listener to be notified on every new {@link ElevatorSnapshot}.
+	 * @param listener
+	 */
+	public void addStateListener(ElevatorStateListener listener);
+	
+	/**
+	 * Unregister listener added by {@link #addStateListener(ElevatorStateListener)}.
+	 * @param listener
+	 */
+	public void removeStateListener(ElevatorStateListener listener);
+	
 	/**
 	 * Returns cost estimation to go to given floor from the current state.
 	 * @param requestedFloorIndex 
+	 * @param callDirection - direction rider wants to go from the floor, null in case it is not known
 	 * @return int - cost
 	 */
-	public int estimatedFloorRequestCost(int requestedFloorIndex);
+	public int estimatedFloorRequestCost(int requestedFloorIndex, DIRECTION callDirection);
 
 	/**
 	 * Request to go to particular floor. It may throw {@link RuntimeException} in case floor index is invalid.
@@ -69,12 +89,92 @@ public interface ElevatorControlInterface {
 	 */
 	public void addFloorRequest(int requestedFoorId);
 	
+	/**
+	 * Request to stop at particular floor to serve a hall call assigned by {@link ElevatorSystemControl}. 
+	 * Unlike {@link #addFloorRequest(int)} this request can be withdrawn later by {@link #withdrawHallCall(int, DIRECTION)}.
+	 * Hall call with direction is served when elevator leaves the floor in that direction, 
+	 * elevator does not stop for it while passing the floor in other direction.
+	 * It may throw {@link RuntimeException} in case floor index is invalid.
+	 * @param floorIndex - floor index
+	 * @param direction - direction rider wants to go, null in case it is not known
+	 */
+	public void addHallCall(int floorIndex, DIRECTION direction);
+	
+	/**
+	 * Withdraw a hall call which is not served yet so it can be assigned to another elevator. 
+	 * Hall call is not withdrawn in case elevator has to stop at the floor for a floor request from inside the elevator.
+	 * @param floorIndex - floor index
+	 * @param direction - direction of hall call, null in case it is not known
+	 * @return boolean - true if elevator will not stop at the floor for this call anymore, false in case hall call was already served or cannot be withdrawn.
+	 */
+	public boolean withdrawHallCall(int floorIndex, DIRECTION direction);
+	
 	/**
 	 * Get the list of pending requests.
 	 * @return Set<Integer>
 	 */
 	public Set<Integer> getFloorRequests();
 	
+	/**
+	 * Get the number of pending requests. It is cheaper than size of {@link #getFloorRequests()}.
+	 * @return int
+	 */
+	public int getFloorRequestCount();
+	
+	/**
+	 * Maximum number of passengers elevator carries.
+	 * @return int - 0 in case load is not limited
+	 */
+	public int getCapacity();
+
+	/**
+	 * Number of passengers inside elevator.
+	 * @return int
+	 */
+	public int getLoad();
+
+	/**
+	 * Passengers entered elevator at current floor. Only as many as fit in are accepted.
+	 * @param count - number of passengers which want to enter
+	 * @return int - number of passengers which entered
+	 */
+	public int passengersBoarded(int count);
+
+	/**
+	 * Passengers left elevator at current floor.
+	 * @param count - number of passengers
+	 */
+	public void passengersAlighted(int count);
+
+	/**
+	 * Sends elevator which is "IDLE" without any request to given floor to wait there for next call, e.g. lobby before morning peak. 
+	 * Door is not opened at parking floor. Parking is cancelled by any new hall call or floor request, so elevator 
+	 * serves it as if it was idle.
+	 * @param floorIndex - floor index, it must be served by elevator
+	 * @return boolean - true in case elevator is parking, false in case it is busy or does not serve the floor
+	 */
+	public boolean park(int floorIndex);
+
+	/**
+	 * Floor elevator is parked at or on the way to.
+	 * @return int - floor index, -1 in case elevator is not parking
+	 */
+	public int getParkingFloor();
+
+	/**
+	 * Takes elevator out of service, e.g. on a fault. Elevator stops where it is and its state is "OUT_OF_ORDER". 
+	 * Hall calls and floor requests which are not served yet are dropped and new ones are rejected, 
+	 * {@link ElevatorSystemControl#takeOutOfService(int)} gives its hall calls to other elevators.
+	 * @return boolean - true in case elevator was in service
+	 */
+	public boolean takeOutOfService();
+
+	/**
+	 * Puts elevator which is out of service back to service. Elevator is "IDLE" at the floor it stopped.
+	 * @return boolean - true in case elevator was out of service
+	 */
+	public boolean returnToService();
+
 	/**
 	 * Request to open the door. Request may be denied in case system cannot open door due to state. Client should retry. 
 	 * @return boolean - true if accepted or false in case denied.
@@ -0,0 +1,283 @@
+package com.alok.ecsystem.core;
+
+import com.alok.ecsystem.core.ElevatorControlInterface.DIRECTION;
+import com.alok.ecsystem.core.ElevatorControlInterface.STATE;
+import com.alok.ecsystem.core.util.FloorBitSet;
+import com.alok.ecsystem.core.util.ServedFloors;
+
+/**
+ * Immutable view of an elevator at a point of time.
+ * 
+ * Elevator publishes a new snapshot every time its state changes. Readers get consistent combination of 
+ * floor, direction, state and pending stops without locking the elevator. 
+ * Version increases with every published snapshot of the elevator.
+ * 
+ * @author Alok Kushwah (akushwah)
+ */
+public final class ElevatorSnapshot {
+
+	private final int id;
+	private final long version;
+	private final STATE state;
+	private final DIRECTION direction;
+	private final int currentFloor;
+	private final int nextStop;
+	private final int firstStop;
+	private final int lastStop;
+	private final int pendingCount;
+	private final long[] stops;
+	private final int routeLength;
+	private final int load;
+	private final int capacity;
+	private final boolean loadBypass;
+	private final ServedFloors servedFloors;
+	private final int minFloor;
+	private final int maxFloor;
+
+	/**
+	 * Creates a new snapshot.
+	 * @param id - elevator id
+	 * @param version - snapshot version
+	 * @param state - state of elevator
+	 * @param direction - direction of elevator
+	 * @param currentFloor - current floor index
+	 * @param nextStop - floor index elevator is moving to, -1 if none
+	 * @param firstStop - lowest pending stop, -1 if none
+	 * @param lastStop - highest pending stop, -1 if none
+	 * @param pendingCount - number of pending stops
+	 * @param stops - bit words of pending stops as given by {@link FloorBitSet#toWords()}, must not be modified afterwards
+	 * @param routeLength - number of floors elevator travels to serve all pending stops
+	 * @param load - number of passengers inside elevator
+	 * @param capacity - maximum number of passengers, 0 in case load is not limited
+	 * @param loadBypass - true in case elevator is too full to stop for hall calls
+	 * @param servedFloors - floors elevator stops at
+	 * @param minFloor - minimum floor index elevator can go
+	 * @param maxFloor - maximum floor index elevator can go
+	 */
+	public ElevatorSnapshot(int id, long version, STATE state, DIRECTION direction, int currentFloor, int nextStop, int firstStop, int lastStop,
+			int pendingCount, long[] stops, int routeLength, int load, int capacity, 
+			boolean loadBypass, ServedFloors servedFloors, int minFloor, int maxFloor) {
+		this.id = id;
+		this.version = version;
+		this.state = state;
+		this.direction = direction;
+		this.currentFloor = currentFloor;
+		this.nextStop = nextStop;
+		this.firstStop = firstStop;
+		this.lastStop = lastStop;
+		this.pendingCount = pendingCount;
+		this.stops = stops;
+		this.routeLength = routeLength;
+		this.load = load;
+		this.capacity = capacity;
+		this.loadBypass = loadBypass;
+		this.servedFloors = servedFloors;
+		this.minFloor = minFloor;
+		this.maxFloor = maxFloor;
+	}
+
+	public int getId() {
+		return id;
+	}
+
+	public long getVersion() {
+		return version;
+	}
+
+	public STATE getState() {
+		return state;
+	}
+
+	public DIRECTION getDirection() {
+		return direction;
+	}
+
+	public int getCurrentFloor() {
+		return currentFloor;
+	}
+
+	public int getNextStop() {
+		return nextStop;
+	}
+
+	public int getFirstStop() {
+		return firstStop;
+	}
+
+	public int getLastStop() {
+		return lastStop;
+	}
+
+	public int getPendingCount() {
+		return pendingCount;
+	}
+
+	/**
+	 * Bit words of pending stops, to be read by {@link FloorBitSet#count(long[], int, int)}. 
+	 * Array is shared and must not be modified.
+	 * @return long[]
+	 */
+	public long[] getStops() {
+		return stops;
+	}
+
+	/**
+	 * Number of floors elevator travels until it served all pending stops, as planned by its route.
+	 * @return int
+	 */
+	public int getRouteLength() {
+		return routeLength;
+	}
+
+	public int getLoad() {
+		return load;
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Returns true in case elevator is too full to stop for hall calls. Such elevator must not be assigned a hall call.
+	 * @return boolean
+	 */
+	public boolean isLoadBypass() {
+		return loadBypass;
+	}
+
+	/**
+	 * Adds load of elevator to given cost, see {@link #loadedCost(int, int, int, boolean, int)}.
+	 * @param cost - cost of elevator to serve a hall call
+	 * @param fullLoadCost - cost added for full elevator
+	 * @return int - cost
+	 */
+	public int loadedCost(int cost, int fullLoadCost) {
+		return loadedCost(cost, load, capacity, loadBypass, fullLoadCost);
+	}
+
+	/**
+	 * Adds load of elevator to given cost. Cost grows with share of capacity which is taken, so less loaded elevator wins a close call. 
+	 * Elevator in load bypass cannot serve hall call at all.
+	 * @param cost - cost of elevator to serve a hall call
+	 * @param load - number of passengers inside elevator
+	 * @param capacity - maximum number of passengers, 0 in case load is not limited
+	 * @param loadBypass - true in case elevator is too full to stop for hall calls
+	 * @param fullLoadCost - cost added for full elevator
+	 * @return int - cost, {@link Integer#MAX_VALUE} in case elevator cannot serve the call
+	 */
+	public static int loadedCost(int cost, int load, int capacity, boolean loadBypass, int fullLoadCost) {
+		if (loadBypass) {
+			return Integer.MAX_VALUE;
+		}
+		if (capacity <= 0 || load <= 0 || cost == Integer.MAX_VALUE) {
+			return cost;
+		}
+		long loaded = cost + (long) fullLoadCost * Math.min(load, capacity) / capacity;
+		return (int) Math.min(loaded, Integer.MAX_VALUE - 1);
+	}
+
+	/**
+	 * Floors elevator stops at. Floors of a zone elevator do not have to be contiguous, it passes floors between without stopping.
+	 * @return {@link ServedFloors}
+	 */
+	public ServedFloors getServedFloors() {
+		return servedFloors;
+	}
+
+	/**
+	 * Returns true in case elevator is in service and stops at given floor.
+	 * @param floorIndex
+	 * @return boolean
+	 */
+	public boolean serves(int floorIndex) {
+		return state != STATE.OUT_OF_ORDER && servedFloors.contains(floorIndex);
+	}
+
+	public int getMinFloor() {
+		return minFloor;
+	}
+
+	public int getMaxFloor() {
+		return maxFloor;
+	}
+
+	/**
+	 * Returns cost estimation to go to given floor from the state of this snapshot. 
+	 * Cost is distance to the floor plus twice the distance to farthest stop in case elevator has to reverse.
+	 * With direction of hall call, moving elevator which passes the floor in other direction has to reach its farthest stop 
+	 * and come back, so it costs the whole way.
+	 * @param requestedFloorIndex
+	 * @param callDirection - direction rider wants to go, null in case it is not known
+	 * @return int - cost, {@link Integer#MAX_VALUE} in case elevator does not serve the floor or is out of service
+	 */
+	public int estimatedFloorRequestCost(int requestedFloorIndex, DIRECTION callDirection) {
+		if (!serves(requestedFloorIndex)) {
+			return Integer.MAX_VALUE;
+		}
+		return estimatedFloorRequestCost(requestedFloorIndex, callDirection, state == STATE.MOVING, direction == DIRECTION.UP, currentFloor, firstStop, lastStop,
+				minFloor, maxFloor);
+	}
+
+	/**
+	 * Cost estimation of {@link #estimatedFloorRequestCost(int, DIRECTION)} from primitive state. 
+	 * It is shared with column store of fleet so both always give same cost.
+	 * @param requestedFloorIndex
+	 * @param callDirection - direction rider wants to go, null in case it is not known
+	 * @param moving - true in case elevator is "MOVING"
+	 * @param up - true in case elevator direction is "UP"
+	 * @param currentFloor - current floor index
+	 * @param firstStop - lowest pending stop, -1 if none
+	 * @param lastStop - highest pending stop, -1 if none
+	 * @param minFloor - minimum floor index elevator can go
+	 * @param maxFloor - maximum floor index elevator can go
+	 * @return int - cost, {@link Integer#MAX_VALUE} in case floor is out of range of elevator
+	 */
+	public static int estimatedFloorRequestCost(int requestedFloorIndex, DIRECTION callDirection, boolean moving, boolean up, int currentFloor, 
+			int firstStop, int lastStop, int minFloor, int maxFloor) {
+		if (requestedFloorIndex < minFloor || requestedFloorIndex > maxFloor) {
+			return Integer.MAX_VALUE;
+		}
+		int cost = Math.abs(currentFloor - requestedFloorIndex);
+		if (!moving) {
+			return cost;
+		}
+		if (callDirection == null) {
+			if (up) {
+				if (requestedFloorIndex < currentFloor && lastStop != -1) {
+					cost += Math.abs((currentFloor - lastStop) * 2);
+				}
+			} else { // moving down
+				if (requestedFloorIndex > currentFloor && firstStop != -1) {
+					cost += Math.abs((currentFloor - firstStop) * 2);
+				}
+			}
+			return cost;
+		}
+		if (up) {
+			if (callDirection == DIRECTION.UP && requestedFloorIndex >= currentFloor) {
+				return cost;
+			}
+			int top = Math.max(Math.max(lastStop, currentFloor), requestedFloorIndex);
+			if (callDirection == DIRECTION.DOWN) {
+				return (top - currentFloor) + (top - requestedFloorIndex);
+			}
+			int bottom = firstStop == -1 ? requestedFloorIndex : Math.min(firstStop, requestedFloorIndex);
+			return (top - currentFloor) + (top - bottom) + (requestedFloorIndex - bottom);
+		}
+		if (callDirection == DIRECTION.DOWN && requestedFloorIndex <= currentFloor) {
+			return cost;
+		}
+		int bottom = firstStop == -1 ? Math.min(currentFloor, requestedFloorIndex) : Math.min(Math.min(firstStop, currentFloor), requestedFloorIndex);
+		if (callDirection == DIRECTION.UP) {
+			return (currentFloor - bottom) + (requestedFloorIndex - bottom);
+		}
+		int top = Math.max(lastStop, requestedFloorIndex);
+		return (currentFloor - bottom) + (top - bottom) + (top - requestedFloorIndex);
+	}
+
+	@Override
+	public String toString() {
+		return "id=" + id + " version=" + version + " state=" + state + " direction=" + direction + " currentFloor=" + currentFloor + " nextStop="
+				+ nextStop + " pendingCount=" + pendingCount + " routeLength=" + routeLength + " load=" + load + (loadBypass ? " loadBypass" : "");
+	}
+}
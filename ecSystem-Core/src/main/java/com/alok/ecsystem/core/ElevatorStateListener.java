@@ -0,0 +1,19 @@
+package com.alok.ecsystem.core;
+
+/**
+ * Listener which is notified every time an elevator publishes a new {@link ElevatorSnapshot}.
+ * 
+ * It is called while elevator holds its monitor, so it must be quick and must not call back into elevator.
+ * 
+ * @author Alok Kushwah (akushwah)
+ */
+public interface ElevatorStateListener {
+
+	/**
+	 * Called after elevator changed its state, direction, floor or pending stops.
+	 * @param elevator - elevator which changed
+	 * @param previous - snapshot before change
+	 * @param current - snapshot after change
+	 */
+	public void snapshotPublished(ElevatorControlInterface elevator, ElevatorSnapshot previous, ElevatorSnapshot current);
+}
@@ -1,34 +1,133 @@
 package com.alok.ecsystem.core;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
-import java.util.Observable;
-import java.util.Observer;
 import org.apache.log4j.Logger;
 import com.alok.ecsystem.core.config.ElevatorSystemConfig;
+import com.alok.ecsystem.core.ElevatorControlInterface.DIRECTION;
+import com.alok.ecsystem.core.dispatch.ArrivalEstimate;
+import com.alok.ecsystem.core.dispatch.ArrivalEstimator;
+import com.alok.ecsystem.core.dispatch.BatchDispatcher;
+import com.alok.ecsystem.core.dispatch.DestinationDispatcher;
+import com.alok.ecsystem.core.dispatch.DispatchStrategy;
+import com.alok.ecsystem.core.dispatch.ElevatorFloorIndex;
+import com.alok.ecsystem.core.dispatch.FleetState;
+import com.alok.ecsystem.core.dispatch.HallCall;
+import com.alok.ecsystem.core.dispatch.HallCallRegistry;
+import com.alok.ecsystem.core.dispatch.HallCallReoptimizer;
+import com.alok.ecsystem.core.dispatch.ParkingPolicy;
+import com.alok.ecsystem.core.dispatch.TripPlanner;
+import com.alok.ecsystem.core.event.EventSubscriber;
+import com.alok.ecsystem.core.event.FloorEvent;
+import com.alok.ecsystem.core.impl.BaseFloorControl;
+import com.alok.ecsystem.core.util.SerialExecutor;
 
 /**
- * This class is central elevator control system. It keeps eye on all the floor. 
- * It also assign requests to elevators based on minimum costs.
+ * This class is central elevator control system. It keeps eye on all the floor through floor event bus of building. 
+ * It also assign requests to elevators as decided by configured {@link DispatchStrategy}. Elevators are looked up 
+ * through {@link ElevatorFloorIndex}, so only elevators near the request are evaluated.
+ * In "BATCH" dispatch mode requests are collected for a short window and assigned together by {@link BatchDispatcher}.
+ * Assigned requests can be moved to better elevator later by {@link HallCallReoptimizer}.
+ * Up and down calls of a floor are assigned separately. With "dispatch.destination.enabled" floors also accept 
+ * destination requests which are assigned by {@link DestinationDispatcher}. In a zoned building with "dispatch.transferFloors" 
+ * riders are taken through transfer floors as planned by {@link TripPlanner}.
+ * Predicted arrival at a floor or of an outstanding hall call is given by {@link ArrivalEstimator}.
+ * Hall calls of elevator which enters load bypass are given to other elevators. Elevator which is taken out of service 
+ * hands over all its hall calls at once as a batch solved by {@link BatchDispatcher}.
+ * Idle elevators are parked at floors likely to call next by {@link ParkingPolicy}.
  * 
  * @author Alok Kushwah (akushwah)
  */
-public class ElevatorSystemControl implements Observer {
+public class ElevatorSystemControl implements EventSubscriber<FloorEvent> {
 
 	private static final Logger logger = Logger.getLogger(ElevatorSystemControl.class);
-	private ElevatorSystemConfig config;
+	private final ElevatorSystemConfig config;
+	private final HallCallRegistry hallCallRegistry = new HallCallRegistry();
+	private final ElevatorFloorIndex elevatorIndex;
+	private final FleetState fleetState;
+	private final ArrivalEstimator arrivalEstimator;
+	private final SerialExecutor eventLoop;
+	private BatchDispatcher batchDispatcher;
+	private final BatchDispatcher failoverDispatcher;
+	private HallCallReoptimizer reoptimizer;
+	private ParkingPolicy parkingPolicy;
+	private DestinationDispatcher destinationDispatcher;
+	private final AtomicLong bypassReassignmentCount = new AtomicLong();
+	private final AtomicLong failoverReassignmentCount = new AtomicLong();
 	
 	/**
 	 * Constructor to create new ElevatorSystemControl.
 	 * 
-	 * It initialize the system configuration with help of {@link ElevatorSystemConfig}
+	 * It initialize the system configuration with help of {@link ElevatorSystemConfig#load()}
 	 * 
-	 * Add itslef as observer to all floor interface controllers.
+	 * Subscribes itself to events of all floor interface controllers.
 	 */
 	public ElevatorSystemControl() {
-		config =  ElevatorSystemConfig.getConfig();
-		int total  = config.topFloorIndex();
-		for (int i = 0; i <= total; i++) {
-			((Observable)config.getFloorInterface(i)).addObserver(this);
+		this(ElevatorSystemConfig.load());
+	}
+	
+	/**
+	 * Constructor to create new ElevatorSystemControl for given building. 
+	 * Each building needs its own {@link ElevatorSystemConfig} instance.
+	 * 
+	 * Subscribes itself to events of all floor interface controllers.
+	 * @param config - building configuration
+	 */
+	public ElevatorSystemControl(final ElevatorSystemConfig config) {
+		this.config = config;
+		elevatorIndex = new ElevatorFloorIndex(config.getElevetors(), config.topFloorIndex() + 1);
+		fleetState = new FleetState(config.getElevetors());
+		arrivalEstimator = new ArrivalEstimator(config.getTravelTimeModel(), config.getElevetors(), config.topFloorIndex() + 1);
+		eventLoop = config.isEventLoop() ? config.newEventLoop("Dispatcher") : null;
+		if (config.isBatchDispatch()) {
+			batchDispatcher = new BatchDispatcher(config.getDispatchStrategy(), fleetState, hallCallRegistry, config.getScheduler(), config.getBatchWindowMillis(), config.getBatchSlotPenalty());
+		}
+		failoverDispatcher = batchDispatcher != null ? batchDispatcher 
+				: new BatchDispatcher(config.getDispatchStrategy(), fleetState, hallCallRegistry, config.getScheduler(), 0, config.getBatchSlotPenalty());
+		if (config.getReoptimizePeriodMillis() > 0) {
+			reoptimizer = new HallCallReoptimizer(config.getDispatchStrategy(), fleetState, hallCallRegistry, config.getReoptimizeThreshold());
+			reoptimizer.start(config.getScheduler(), config.getReoptimizePeriodMillis());
+		}
+		config.getFloorEvents().subscribe(this);
+		if (config.getParkingPeriodMillis() > 0) {
+			parkingPolicy = new ParkingPolicy(config.getElevetors(), config.topFloorIndex() + 1, config.getParkingFleetPercent(), 
+					config.getParkingSlotMinutes(), config.getParkingStartMinute(), config.getParkingPeriodMillis());
+			config.getFloorEvents().subscribe(parkingPolicy);
+			parkingPolicy.start(config.getScheduler());
+		}
+		ElevatorStateListener bypassListener = new ElevatorStateListener() {
+			public void snapshotPublished(final ElevatorControlInterface elevator, ElevatorSnapshot previous, ElevatorSnapshot current) {
+				if (current.isLoadBypass() && !previous.isLoadBypass()) {
+					// elevator holds its lock, calls are moved on another thread
+					Runnable task = new Runnable() {
+						public void run() {
+							reassignHallCalls(elevator);
+						}
+					};
+					if (eventLoop != null) {
+						eventLoop.execute(task);
+					} else {
+						config.getScheduler().execute(task);
+					}
+				}
+			}
+		};
+		for (ElevatorControlInterface elevator : config.getElevetors()) {
+			elevator.addStateListener(bypassListener);
+		}
+		if (config.isDestinationDispatch()) {
+			TripPlanner planner = config.getTransferFloors() == null ? null : new TripPlanner(config.getElevetors(), config.getTransferFloors());
+			destinationDispatcher = new DestinationDispatcher(config.getDispatchStrategy(), config.getElevetors(), config.getDestinationStopPenalty(), 
+					planner);
+			// it calls other elevators, floor events come while arrived elevator holds its lock
+			config.getFloorEvents().subscribe(destinationDispatcher, config.getScheduler());
+			for (int i = 0; i <= config.topFloorIndex(); i++) {
+				if (config.getFloorInterface(i) instanceof BaseFloorControl) {
+					((BaseFloorControl) config.getFloorInterface(i)).setDestinationDispatcher(destinationDispatcher);
+				}
+			}
 		}
 	}
 	
@@ -36,32 +135,183 @@ public class ElevatorSystemControl implements Observer {
 	 * Gets notification from floor interface controllers and react as per the event.
 	 * 
 	 * It react of FLOOR_EVENT.BUTTON_PRESSED event. On button press it creates and assign 
-	 * floor request to and elevator based on minimum cost. 
+	 * floor request to an elevator selected by {@link DispatchStrategy}. 
+	 * On FLOOR_EVENT.ELEVATOR_ARRIVED event requests of the direction are marked as served, 
+	 * elevator which was assigned to a request served by another one withdraws it.
+	 * 
+	 * In case building runs on event loops, event is only added to mailbox of dispatcher and thread of caller returns immediately.
 	 */
-	public void update(Observable observable, Object arg) {
+	public void onEvent(FloorEvent event) {
 
-		if(FloorControlInterface.FLOOR_EVENT.BUTTON_PRESSED != arg) {
+		final FloorControlInterface floorControl = event.getFloor();
+		final FloorControlInterface.FLOOR_EVENT arg = event.getType();
+		final DIRECTION direction = event.getDirection();
+		final ElevatorControlInterface elevator = event.getElevator();
+		if (eventLoop != null) {
+			if (FloorControlInterface.FLOOR_EVENT.ELEVATOR_ARRIVED == arg || FloorControlInterface.FLOOR_EVENT.BUTTON_PRESSED == arg) {
+				eventLoop.execute(new Runnable() {
+					public void run() {
+						handle(floorControl, arg, direction, elevator);
+					}
+				});
+			}
 			return;
 		}
+		handle(floorControl, arg, direction, elevator);
+	}
 
-		FloorControlInterface floorControl = (FloorControlInterface)observable;
-		int minCost = Integer.MAX_VALUE;
-		ElevatorControlInterface selected = null;
-		for (ElevatorControlInterface elevertor: config.getElevetors()) {
-			int cost = elevertor.estimatedFloorRequestCost(floorControl.getId());
-			if(cost<minCost){
-				minCost = cost;
-				selected = elevertor;
+	private void handle(FloorControlInterface floorControl, FloorControlInterface.FLOOR_EVENT arg, DIRECTION direction, ElevatorControlInterface elevator) {
+		if(FloorControlInterface.FLOOR_EVENT.ELEVATOR_ARRIVED == arg) {
+			Map<HallCall, ElevatorControlInterface> foreign = hallCallRegistry.arrived(floorControl.getId(), direction, elevator);
+			if (!foreign.isEmpty()) {
+				withdrawServedCalls(foreign);
 			}
+			return;
+		}
+
+		if(FloorControlInterface.FLOOR_EVENT.BUTTON_PRESSED != arg) {
+			return;
+		}
+
+		if (batchDispatcher != null) {
+			batchDispatcher.submit(floorControl, direction);
+			return;
 		}
+		ElevatorControlInterface selected = config.getDispatchStrategy().selectElevator(floorControl.getId(), direction, elevatorIndex);
 
 		if(selected==null) {
 			logger.error("No elevetor is available to serve the request.");
-			floorControl.setElevatorRequest(false); 
+			floorControl.setElevatorRequest(direction, false); 
 			return;
 		}
-		logger.debug("Assigning request to elevetor=" +  selected + " to floor=" + floorControl.getId());
-		selected.addFloorRequest(floorControl.getId());
+		try {
+			hallCallRegistry.assign(floorControl, direction, selected);
+		} catch (RuntimeException e) {
+			// e.g. elevator went out of service after it was selected
+			logger.error("Unable to assign request to elevetor=" + selected + " floor=" + floorControl.getId(), e);
+			floorControl.setElevatorRequest(direction, false);
+		}
+	}
+
+	/**
+	 * Withdraws hall calls which another elevator served from elevators they were assigned to, so those do not stop 
+	 * at the floor for nobody. Without event loop the arrived elevator holds its lock, so calls are withdrawn on another thread. 
+	 * Call which was assigned to same elevator again in the meantime is given back to it.
+	 * @param served - served call to elevator it was assigned to
+	 */
+	private void withdrawServedCalls(final Map<HallCall, ElevatorControlInterface> served) {
+		Runnable task = new Runnable() {
+			public void run() {
+				for (Map.Entry<HallCall, ElevatorControlInterface> entry : served.entrySet()) {
+					HallCall call = entry.getKey();
+					ElevatorControlInterface assigned = entry.getValue();
+					if (assigned.withdrawHallCall(call.getFloorIndex(), call.getDirection()) 
+							&& hallCallRegistry.getAssignedElevator(call.getFloorIndex(), call.getDirection()) == assigned) {
+						assigned.addHallCall(call.getFloorIndex(), call.getDirection());
+					}
+				}
+			}
+		};
+		if (eventLoop != null) {
+			task.run();
+		} else {
+			config.getScheduler().execute(task);
+		}
+	}
+
+	/**
+	 * Gives unserved hall calls of elevator in load bypass to other elevators. Call stays with the elevator in case no other 
+	 * elevator can serve it, it is served after passengers leave.
+	 * @param from - elevator in load bypass
+	 */
+	private void reassignHallCalls(ElevatorControlInterface from) {
+		for (Map.Entry<HallCall, ElevatorControlInterface> entry : hallCallRegistry.getAssignments().entrySet()) {
+			if (entry.getValue() != from) {
+				continue;
+			}
+			HallCall call = entry.getKey();
+			ElevatorControlInterface to = config.getDispatchStrategy().selectElevator(call.getFloorIndex(), call.getDirection(), elevatorIndex);
+			if (to != null && to != from && hallCallRegistry.reassign(call, from, to)) {
+				logger.debug("Load bypass of elevetor=" + from + " moved floor=" + call + " to elevetor=" + to);
+				bypassReassignmentCount.incrementAndGet();
+			}
+		}
+	}
+
+	/**
+	 * Takes elevator out of service, e.g. on a fault, and hands over all its unserved hall calls to other elevators 
+	 * as one batch, so floors it was going to serve do not wait for it. Riders of destination dispatch assigned to it 
+	 * get another elevator too. Call which no other elevator can serve is turned off at its floor, so it can be made again.
+	 * @param elevatorId - elevator id
+	 * @return int - number of hall calls handed over
+	 * @throws RuntimeException in case invalid id
+	 */
+	public int takeOutOfService(int elevatorId){
+		ElevatorControlInterface elevator = getElevetorControl(elevatorId);
+		if (!elevator.takeOutOfService()) {
+			return 0;
+		}
+		Map<HallCall, FloorControlInterface> calls = new LinkedHashMap<HallCall, FloorControlInterface>();
+		for (HallCall call : hallCallRegistry.release(elevator)) {
+			calls.put(call, getFloorControl(call.getFloorIndex()));
+		}
+		logger.info("Elevetor=" + elevator + " is out of service, handing over hall calls=" + calls.keySet());
+		failoverDispatcher.dispatch(calls);
+		failoverReassignmentCount.addAndGet(calls.size());
+		if (destinationDispatcher != null) {
+			destinationDispatcher.reassign(elevator);
+		}
+		return calls.size();
+	}
+
+	/**
+	 * Puts elevator which was taken out of service back to service.
+	 * @param elevatorId - elevator id
+	 * @return boolean - true in case elevator was out of service
+	 * @throws RuntimeException in case invalid id
+	 */
+	public boolean returnToService(int elevatorId){
+		return getElevetorControl(elevatorId).returnToService();
+	}
+
+	/**
+	 * Number of hall calls handed over to another elevator because assigned elevator was taken out of service.
+	 * @return long
+	 */
+	public long getFailoverReassignmentCount(){
+		return failoverReassignmentCount.get();
+	}
+
+	/**
+	 * Number of hall calls given to another elevator because assigned elevator entered load bypass.
+	 * @return long
+	 */
+	public long getBypassReassignmentCount(){
+		return bypassReassignmentCount.get();
+	}
+
+	/**
+	 * Stops batch dispatch, re-optimization, parking and scheduler of building.
+	 */
+	public void shutdown(){
+		if (batchDispatcher != null) {
+			batchDispatcher.shutdown();
+		}
+		if (reoptimizer != null) {
+			reoptimizer.shutdown();
+		}
+		if (parkingPolicy != null) {
+			parkingPolicy.shutdown();
+		}
+		config.shutdown();
+	}
+
+	/**
+	 * Return configuration of building.
+	 * @return {@link ElevatorSystemConfig}
+	 */
+	public ElevatorSystemConfig getConfig(){
+		return config;
 	}
 
 	/**
@@ -74,6 +324,115 @@ public class ElevatorSystemControl implements Observer {
 		return config.getFloorInterface(index);
 	}
 
+	/**
+	 * Number of floors in building.
+	 * @return int
+	 */
+	public int getFloorCount(){
+		return config.topFloorIndex() + 1;
+	}
+
+	/**
+	 * Number of elevators in building.
+	 * @return int
+	 */
+	public int getElevatorCount(){
+		return config.getElevetors().size();
+	}
+
+	/**
+	 * Return dispatch strategy used to assign floor requests.
+	 * @return {@link DispatchStrategy}
+	 */
+	public DispatchStrategy getDispatchStrategy(){
+		return config.getDispatchStrategy();
+	}
+
+	/**
+	 * Return batch dispatcher in case system is running in "BATCH" dispatch mode.
+	 * @return {@link BatchDispatcher} - null in case requests are assigned immediately.
+	 */
+	public BatchDispatcher getBatchDispatcher(){
+		return batchDispatcher;
+	}
+
+	/**
+	 * Return hall call re-optimizer in case it is enabled.
+	 * @return {@link HallCallReoptimizer} - null in case assigned requests are never re-evaluated.
+	 */
+	public HallCallReoptimizer getReoptimizer(){
+		return reoptimizer;
+	}
+
+	/**
+	 * Return parking policy of idle elevators in case it is enabled.
+	 * @return {@link ParkingPolicy} - null in case idle elevators stay where they stopped.
+	 */
+	public ParkingPolicy getParkingPolicy(){
+		return parkingPolicy;
+	}
+
+	/**
+	 * Returns elevator which is predicted to arrive first at given floor. 
+	 * @param floorIndex - floor index
+	 * @param direction - direction rider wants to go, null in case it is not known
+	 * @return {@link ArrivalEstimate} - null in case no elevator can serve the floor
+	 */
+	public ArrivalEstimate getEstimatedArrival(int floorIndex, DIRECTION direction){
+		return arrivalEstimator.estimate(floorIndex, direction);
+	}
+
+	/**
+	 * Returns predicted arrival of elevator assigned to outstanding hall call of given floor and direction.
+	 * @param floorIndex - floor index
+	 * @param direction - direction of hall call, null for single call button
+	 * @return {@link ArrivalEstimate} - null in case there is no outstanding hall call assigned to an elevator
+	 */
+	public ArrivalEstimate getHallCallArrival(int floorIndex, DIRECTION direction){
+		ElevatorControlInterface assigned = hallCallRegistry.getAssignedElevator(floorIndex, direction);
+		return assigned == null ? null : arrivalEstimator.estimate(assigned, floorIndex, direction);
+	}
+
+	/**
+	 * Return estimator of arrival times of elevators.
+	 * @return {@link ArrivalEstimator}
+	 */
+	public ArrivalEstimator getArrivalEstimator(){
+		return arrivalEstimator;
+	}
+
+	/**
+	 * Return destination dispatcher in case floors accept destination requests.
+	 * @return {@link DestinationDispatcher} - null in case destination dispatch is not enabled.
+	 */
+	public DestinationDispatcher getDestinationDispatcher(){
+		return destinationDispatcher;
+	}
+
+	/**
+	 * Return index of elevators by current floor used for dispatching.
+	 * @return {@link ElevatorFloorIndex}
+	 */
+	public ElevatorFloorIndex getElevatorIndex(){
+		return elevatorIndex;
+	}
+
+	/**
+	 * Return column store of elevator state used where all elevators are evaluated.
+	 * @return {@link FleetState}
+	 */
+	public FleetState getFleetState(){
+		return fleetState;
+	}
+
+	/**
+	 * Return registry of assigned hall calls which are not served yet.
+	 * @return {@link HallCallRegistry}
+	 */
+	public HallCallRegistry getHallCallRegistry(){
+		return hallCallRegistry;
+	}
+
 	/**
 	 * Return Elevator Control Interface for a particular elevator.
 	 * @param index - elevator id
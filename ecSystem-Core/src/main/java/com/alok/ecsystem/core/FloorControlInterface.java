@@ -1,10 +1,16 @@
 package com.alok.ecsystem.core;
 
+import com.alok.ecsystem.core.ElevatorControlInterface.DIRECTION;
+
 /**
  * Interface to define user and control interface for an floor control board.
  * This interface is use by client of system to interact with individual floor board. 
  * This also use by {@link ElevatorSystemControl} to get floor requests.
  * 
+ * Floor can have one call button or separate up and down buttons. Call of single button has no direction and is served 
+ * by any elevator which arrives. Call with direction is served only by elevator which leaves the floor in that direction.
+ * With destination dispatch, rider enters destination floor instead and is told which elevator to take.
+ * 
  * @author Alok Kushwah (akushwah)
  */
 public interface FloorControlInterface {
@@ -26,12 +32,35 @@ public interface FloorControlInterface {
 	 */
 	public void setElevatorRequest(boolean requsted);
 	
+	/**
+	 * Should be called when up or down button is pressed to call elevator.
+	 * @param direction - direction rider wants to go, null for single call button
+	 * @param requsted - boolean true if button is pressed or false to reset.
+	 */
+	public void setElevatorRequest(DIRECTION direction, boolean requsted);
+	
 	/**
 	 * Return status of request 
-	 * @return boolean - true if elevator request is pending otherwise false.
+	 * @return boolean - true if elevator request of any direction is pending otherwise false.
 	 */
 	public boolean getElevatorRequest();
 	
+	/**
+	 * Return status of request of given direction
+	 * @param direction - direction rider wants to go, null for single call button
+	 * @return boolean - true if elevator request is pending otherwise false.
+	 */
+	public boolean getElevatorRequest(DIRECTION direction);
+	
+	/**
+	 * Should be called when rider enters destination floor on destination panel of the floor. 
+	 * Elevator stops at destination once it has picked the rider up.
+	 * @param destinationFloorIndex - floor rider wants to go
+	 * @return {@link ElevatorControlInterface} - elevator rider should take, null in case none can serve the request.
+	 * @throws RuntimeException in case destination dispatch is not enabled or destination is invalid.
+	 */
+	public ElevatorControlInterface requestDestination(int destinationFloorIndex);
+	
 	/**
 	 * Returns Elevator interface in case elevator is serving the floor. 
 	 * @return {@link ElevatorControlInterface}
@@ -39,10 +68,12 @@ public interface FloorControlInterface {
 	public ElevatorControlInterface getElevatorControl();
 	
 	/**
-	 * This method is called by elevator to announce elevator arrived on request.
+	 * This method is called by elevator to announce elevator arrived on request. 
+	 * Calls without direction and calls for direction elevator is going to leave in are served.
 	 * @param elevator
+	 * @param direction - direction elevator leaves in, null in case it serves all calls of the floor
 	 */
-	public void elevatorArrived(ElevatorControlInterface elevator);
+	public void elevatorArrived(ElevatorControlInterface elevator, DIRECTION direction);
 	
 	/**
 	 * This method is called by elevator to announce elevator left.
@@ -2,57 +2,150 @@ package com.alok.ecsystem.core.config;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.alok.ecsystem.core.ElevatorControlInterface;
+import com.alok.ecsystem.core.ElevatorSnapshot;
+import com.alok.ecsystem.core.ElevatorStateListener;
 import com.alok.ecsystem.core.FloorControlInterface;
+import com.alok.ecsystem.core.dispatch.DispatchStrategy;
+import com.alok.ecsystem.core.dispatch.LoadBalancingDispatchStrategy;
+import com.alok.ecsystem.core.dispatch.TravelTimeModel;
+import com.alok.ecsystem.core.event.ElevatorEvent;
+import com.alok.ecsystem.core.event.EventBus;
+import com.alok.ecsystem.core.event.FloorEvent;
 import com.alok.ecsystem.core.impl.AbstractBaseElevatorControl;
 import com.alok.ecsystem.core.impl.BaseFloorControl;
 import com.alok.ecsystem.core.util.PropertyUtil;
+import com.alok.ecsystem.core.util.SerialExecutor;
+import com.alok.ecsystem.core.util.ServedFloors;
 
 /**
- * It load and make elevator configuration from properties files.
+ * It load and make elevator configuration from properties.
  * 
- * It initialize the system based on classpath resource "ecSystem.properties". 
+ * Default configuration is given by classpath resource "ecSystem.properties". 
  * Properties can be override by external property file. Path for can be defined in "ecsPropFile" system properties.
  * 
- * It instantiate all floor control interfaces and elevators based on configuration.
+ * It instantiate all floor control interfaces, elevators and dispatch strategy based on configuration.
  * 
- * It is a singleton class to keep the configuration centralized and easily accessible.
+ * Each instance is an independent building. Many buildings can run in same JVM, each one has its own 
+ * properties, floors, elevators and scheduler. Nothing is shared between buildings.
+ * 
+ * Scheduler of building runs dispatching and elevator timings. It is a real time thread pool of "building.threads" size (default 1)
+ * or instance of "building.scheduler.className" in case it is configured.
+ * 
+ * With "building.eventLoop=true" each elevator and the dispatcher process their commands from own mailbox on building scheduler, 
+ * instead of on the thread of caller. See {@link #newEventLoop(String)}.
+ * 
+ * Floors publish on {@link #getFloorEvents()} and elevators publish their state transitions on {@link #getElevatorEvents()}.
  * 
  * @author Alok Kushwah (akushwah)
  */
 public final class ElevatorSystemConfig  {
 	
-	private static ElevatorSystemConfig instance =  new ElevatorSystemConfig();
+	private static final AtomicInteger buildingCount = new AtomicInteger();
+	private final String name;
+	private final Properties properties;
 	private final List<FloorControlInterface> floorInputBoards =  new ArrayList<FloorControlInterface>();
 	private final List<ElevatorControlInterface> elevetors = new ArrayList<ElevatorControlInterface>();
+	private final Map<String, ServedFloors> servedFloors = new HashMap<String, ServedFloors>();
+	private final DispatchStrategy dispatchStrategy;
+	private final boolean batchDispatch;
+	private final long batchWindowMillis;
+	private final int batchSlotPenalty;
+	private final long reoptimizePeriodMillis;
+	private final int reoptimizeThreshold;
+	private final long parkingPeriodMillis;
+	private final int parkingFleetPercent;
+	private final int parkingSlotMinutes;
+	private final int parkingStartMinute;
+	private final boolean eventLoop;
+	private final boolean destinationDispatch;
+	private final TravelTimeModel travelTimeModel;
+	private final int destinationStopPenalty;
+	private final int loadBypassPercent;
+	private final int loadPenalty;
+	private final EventBus<FloorEvent> floorEvents;
+	private final EventBus<ElevatorEvent> elevatorEvents;
+	private ScheduledExecutorService scheduler;
 	
 	/**
-	 * Private constructor to create singleton instance.
-	 * It loads the properties in initialize the system. 
+	 * Loads configuration from classpath resource "ecSystem.properties" and file given in "ecsPropFile" system property.
+	 * @return {@link ElevatorSystemConfig}
 	 */
-	private ElevatorSystemConfig()  {
-		PropertyUtil.load("ecSystem.properties");
+	public static ElevatorSystemConfig load() {
 		String externalPropertyFile = System.getProperty("ecsPropFile");
-		if(externalPropertyFile!=null){
-			PropertyUtil.load(new File(externalPropertyFile));
+		return load(externalPropertyFile == null ? null : new File(externalPropertyFile));
+	}
+	
+	/**
+	 * Loads configuration from classpath resource "ecSystem.properties" overridden by given file.
+	 * @param file - building specific properties, can be null
+	 * @return {@link ElevatorSystemConfig}
+	 */
+	public static ElevatorSystemConfig load(File file) {
+		Properties properties = new Properties();
+		PropertyUtil.load(properties, "ecSystem.properties");
+		if(file!=null){
+			PropertyUtil.load(properties, file);
 		}
+		return new ElevatorSystemConfig(properties);
+	}
+	
+	/**
+	 * Creates a new building from given properties. 
+	 * 
+	 * Elevator classes can have constructor (ElevatorSystemConfig, int id, int minFloor, int maxFloor) to get their building, 
+	 * otherwise (int id, int minFloor, int maxFloor) constructor is used. 
+	 * Same way dispatch strategy can have (ElevatorSystemConfig) constructor, otherwise default constructor is used.
+	 * 
+	 * Elevator of a zoned building serves floors of its zone only, see {@link #getServedFloors(int)}. 
+	 * Its "minIndex" and "maxIndex" can be left out, then they are lowest and highest served floor.
+	 * 
+	 * @param properties - building properties. Name of building is given by "building.name".
+	 */
+	public ElevatorSystemConfig(Properties properties)  {
+		this.properties = properties;
+		this.name = getProperty("building.name", "Building-" + buildingCount.incrementAndGet());
+		this.floorEvents = new EventBus<FloorEvent>(name + "-FloorEvents");
+		this.elevatorEvents = new EventBus<ElevatorEvent>(name + "-ElevatorEvents");
 		
-		int floorCount =  Integer.parseInt(PropertyUtil.getProperty("floor.count"));
+		int floorCount =  Integer.parseInt(getProperty("floor.count"));
 		
 		for (int i = 0; i < floorCount; i++) {
-			BaseFloorControl baseFloorControl = new BaseFloorControl(i);
+			BaseFloorControl baseFloorControl = new BaseFloorControl(i, floorEvents);
 			floorInputBoards.add(baseFloorControl);
 		}
 		
-		int elevatorCount =  Integer.parseInt(PropertyUtil.getProperty("elevator.count"));
+		// read by elevators while they are created
+		eventLoop = Boolean.parseBoolean(getProperty("building.eventLoop", "false"));
+		loadBypassPercent = getIntProperty("elevator.loadBypassPercent", 80);
+		
+		int elevatorCount =  Integer.parseInt(getProperty("elevator.count"));
+		ElevatorStateListener transitionPublisher = new ElevatorStateListener() {
+			public void snapshotPublished(ElevatorControlInterface elevator, ElevatorSnapshot previous, ElevatorSnapshot current) {
+				if (elevatorEvents.hasSubscribers() && ElevatorEvent.isTransition(previous, current)) {
+					elevatorEvents.publish(new ElevatorEvent(elevator, previous, current));
+				}
+			}
+		};
 		
 		for (int i = 0; i < elevatorCount; i++) {
-			String className =  PropertyUtil.getProperty("elevator." + i + ".className");
-			int minIndex =  Integer.parseInt(PropertyUtil.getProperty("elevator." + i + ".minIndex"));
-			int maxIndex =  Integer.parseInt(PropertyUtil.getProperty("elevator." + i + ".maxIndex"));
-			Class classObject;
+			String className =  getProperty("elevator." + i + ".className");
+			ServedFloors zoneFloors = getServedFloors(i);
+			int minIndex =  Integer.parseInt(getProperty("elevator." + i + ".minIndex", 
+					zoneFloors == null ? null : String.valueOf(zoneFloors.first())));
+			int maxIndex =  Integer.parseInt(getProperty("elevator." + i + ".maxIndex", 
+					zoneFloors == null ? null : String.valueOf(zoneFloors.last())));
+			Class<?> classObject;
 			try {
 				classObject = Class.forName(className);
 			} catch (ClassNotFoundException e) {
@@ -60,21 +153,185 @@ public final class ElevatorSystemConfig  {
 			}
 			AbstractBaseElevatorControl elevator;
 			try {
-				elevator = (AbstractBaseElevatorControl) classObject.getConstructor(int.class,int.class,int.class).newInstance(i,minIndex,maxIndex);
+				try {
+					elevator = (AbstractBaseElevatorControl) classObject.getConstructor(ElevatorSystemConfig.class,int.class,int.class,int.class).newInstance(this,i,minIndex,maxIndex);
+				} catch (NoSuchMethodException e) {
+					elevator = (AbstractBaseElevatorControl) classObject.getConstructor(int.class,int.class,int.class).newInstance(i,minIndex,maxIndex);
+				}
 			} catch (Exception e) {
 				throw new RuntimeException("Unable to instantiate class=" +  className, e);
 			}
+			elevator.addStateListener(transitionPublisher);
 			elevetors.add(elevator);
 		}
 		
+		travelTimeModel = new TravelTimeModel(this);
+		loadPenalty = getIntProperty("dispatch.loadPenalty", 4);
+		dispatchStrategy = createDispatchStrategy(getProperty("dispatch.strategy.className", LoadBalancingDispatchStrategy.class.getName()));
+		
+		batchDispatch = "BATCH".equalsIgnoreCase(getProperty("dispatch.mode", "IMMEDIATE"));
+		batchWindowMillis = getLongProperty("dispatch.batch.windowMillis", 200);
+		batchSlotPenalty = getIntProperty("dispatch.batch.slotPenalty", 2);
+		reoptimizePeriodMillis = getLongProperty("dispatch.reoptimize.periodMillis", 0);
+		reoptimizeThreshold = getIntProperty("dispatch.reoptimize.threshold", 3);
+		parkingPeriodMillis = getLongProperty("dispatch.parking.periodMillis", 0);
+		parkingFleetPercent = getIntProperty("dispatch.parking.maxFleetPercent", 50);
+		parkingSlotMinutes = getIntProperty("dispatch.parking.slotMinutes", 15);
+		parkingStartMinute = getIntProperty("dispatch.parking.startMinuteOfDay", 0);
+		if (parkingFleetPercent < 0 || parkingFleetPercent > 100 || parkingSlotMinutes <= 0 || 24 * 60 % parkingSlotMinutes != 0) {
+			throw new RuntimeException("Invalid parking configuration. maxFleetPercent=" + parkingFleetPercent + " slotMinutes=" + parkingSlotMinutes);
+		}
+		destinationDispatch = Boolean.parseBoolean(getProperty("dispatch.destination.enabled", "false"));
+		destinationStopPenalty = getIntProperty("dispatch.destination.stopPenalty", 4);
+	}
+	
+	private DispatchStrategy createDispatchStrategy(String className) {
+		try {
+			Class<?> classObject = Class.forName(className);
+			try {
+				return (DispatchStrategy) classObject.getConstructor(ElevatorSystemConfig.class).newInstance(this);
+			} catch (NoSuchMethodException e) {
+				return (DispatchStrategy) classObject.getConstructor().newInstance();
+			}
+		} catch (Exception e) {
+			throw new RuntimeException("Unable to instantiate dispatch strategy class=" +  className, e);
+		}
 	}
 	
 	/**
-	 * getter for singleton config instance.
-	 * @return
+	 * Name of building ("building.name"). Default is generated.
+	 * @return String
 	 */
-	public static ElevatorSystemConfig getConfig(){
-		return instance;
+	public String getName(){
+		return name;
+	}
+	
+	/**
+	 * Returns building property.
+	 * @param name - property name
+	 * @return String - trimmed value, null in case property is not defined
+	 */
+	public String getProperty(String name){
+		String value = properties.getProperty(name);
+		return value == null ? null : value.trim();
+	}
+	
+	/**
+	 * Returns building property.
+	 * @param name - property name
+	 * @param defaultValue - value in case property is not defined
+	 * @return String
+	 */
+	public String getProperty(String name, String defaultValue){
+		String value = getProperty(name);
+		return value == null ? defaultValue : value;
+	}
+	
+	/**
+	 * Returns building property as int.
+	 * @param name - property name
+	 * @param defaultValue - value in case property is not defined
+	 * @return int
+	 */
+	public int getIntProperty(String name, int defaultValue){
+		String value = getProperty(name);
+		return value == null ? defaultValue : Integer.parseInt(value);
+	}
+	
+	/**
+	 * Returns building property as long.
+	 * @param name - property name
+	 * @param defaultValue - value in case property is not defined
+	 * @return long
+	 */
+	public long getLongProperty(String name, long defaultValue){
+		String value = getProperty(name);
+		return value == null ? defaultValue : Long.parseLong(value);
+	}
+	
+	/**
+	 * Returns scheduler of building. It is created on first use as per configuration.
+	 * @return {@link ScheduledExecutorService}
+	 */
+	public synchronized ScheduledExecutorService getScheduler(){
+		if (scheduler == null) {
+			String schedulerClassName = getProperty("building.scheduler.className");
+			if (schedulerClassName != null) {
+				try {
+					scheduler = (ScheduledExecutorService) Class.forName(schedulerClassName).getConstructor().newInstance();
+				} catch (Exception e) {
+					throw new RuntimeException("Unable to instantiate scheduler class=" +  schedulerClassName, e);
+				}
+			} else {
+				scheduler = Executors.newScheduledThreadPool(getIntProperty("building.threads", 1), new ThreadFactory() {
+					private final AtomicInteger count = new AtomicInteger();
+
+					public Thread newThread(Runnable r) {
+						Thread t = new Thread(r, name + "-Thread-" + count.incrementAndGet());
+						t.setDaemon(true);
+						return t;
+					}
+				});
+			}
+		}
+		return scheduler;
+	}
+	
+	/**
+	 * Returns true in case elevators and dispatcher run their commands on event loops ("building.eventLoop"). Default is false.
+	 * @return boolean
+	 */
+	public boolean isEventLoop(){
+		return eventLoop;
+	}
+	
+	/**
+	 * Creates a new mailbox processed by one event loop on scheduler of building. 
+	 * Scheduler is looked up on every turn, so it can still be replaced by {@link #setScheduler(ScheduledExecutorService)} before start.
+	 * @param loopName - name of the owner for log messages
+	 * @return {@link SerialExecutor}
+	 */
+	public SerialExecutor newEventLoop(String loopName){
+		return new SerialExecutor(name + "-" + loopName, new Executor() {
+			public void execute(Runnable command) {
+				getScheduler().execute(command);
+			}
+		});
+	}
+	
+	/**
+	 * Bus on which all floors of building publish button and arrival events.
+	 * @return {@link EventBus}
+	 */
+	public EventBus<FloorEvent> getFloorEvents(){
+		return floorEvents;
+	}
+	
+	/**
+	 * Bus on which all elevators of building publish changes of state, direction and current floor.
+	 * Synchronous subscribers are called while elevator holds its monitor, so they must be quick and must not call back into elevator. 
+	 * Dashboards and metrics should subscribe asynchronously, e.g. on {@link #getScheduler()}.
+	 * @return {@link EventBus}
+	 */
+	public EventBus<ElevatorEvent> getElevatorEvents(){
+		return elevatorEvents;
+	}
+	
+	/**
+	 * Replace scheduler of building. It must be called before system is started. Used by simulation drivers and Junit test cases.
+	 * @param newScheduler
+	 */
+	public synchronized void setScheduler(ScheduledExecutorService newScheduler){
+		scheduler = newScheduler;
+	}
+	
+	/**
+	 * Stops scheduler of building. Pending elevator timings and dispatching are dropped.
+	 */
+	public synchronized void shutdown(){
+		if (scheduler != null) {
+			scheduler.shutdownNow();
+		}
 	}
 	
 	/**
@@ -85,6 +342,180 @@ public final class ElevatorSystemConfig  {
 		return elevetors;
 	}
 	
+	/**
+	 * getter for dispatch strategy used to assign floor requests to elevators.
+	 * @return {@link DispatchStrategy}
+	 */
+	public DispatchStrategy getDispatchStrategy(){
+		return dispatchStrategy;
+	}
+	
+	/**
+	 * Returns true in case hall calls are collected and assigned in batches ("dispatch.mode=BATCH").
+	 * @return boolean
+	 */
+	public boolean isBatchDispatch(){
+		return batchDispatch;
+	}
+	
+	/**
+	 * Time to collect hall calls for a batch ("dispatch.batch.windowMillis"). Default is 200.
+	 * @return long - milli seconds
+	 */
+	public long getBatchWindowMillis(){
+		return batchWindowMillis;
+	}
+	
+	/**
+	 * Additional cost for every extra call assigned to same elevator in a batch ("dispatch.batch.slotPenalty"). Default is 2.
+	 * @return int
+	 */
+	public int getBatchSlotPenalty(){
+		return batchSlotPenalty;
+	}
+	
+	/**
+	 * Time between two re-evaluations of assigned hall calls ("dispatch.reoptimize.periodMillis"). 
+	 * Default is 0 which means hall calls are never re-evaluated.
+	 * @return long - milli seconds
+	 */
+	public long getReoptimizePeriodMillis(){
+		return reoptimizePeriodMillis;
+	}
+	
+	/**
+	 * Minimum cost improvement to move hall call to another elevator ("dispatch.reoptimize.threshold"). Default is 3.
+	 * @return int
+	 */
+	public int getReoptimizeThreshold(){
+		return reoptimizeThreshold;
+	}
+	
+	/**
+	 * Time between two rounds of parking idle elevators ("dispatch.parking.periodMillis"). 
+	 * Default is 0 which means idle elevators stay where they stopped.
+	 * @return long - milli seconds
+	 */
+	public long getParkingPeriodMillis(){
+		return parkingPeriodMillis;
+	}
+	
+	/**
+	 * Maximum share of elevators which are parked at same time ("dispatch.parking.maxFleetPercent"). Default is 50.
+	 * @return int - percent of elevators
+	 */
+	public int getParkingFleetPercent(){
+		return parkingFleetPercent;
+	}
+	
+	/**
+	 * Length of time of day slot hall calls are counted in for parking ("dispatch.parking.slotMinutes"), it must divide a day. 
+	 * Default is 15.
+	 * @return int - minutes
+	 */
+	public int getParkingSlotMinutes(){
+		return parkingSlotMinutes;
+	}
+	
+	/**
+	 * Time of day when building starts ("dispatch.parking.startMinuteOfDay"). Default is 0, midnight.
+	 * @return int - minutes after midnight
+	 */
+	public int getParkingStartMinute(){
+		return parkingStartMinute;
+	}
+	
+	/**
+	 * Returns timings of elevators of this building used to estimate time of arrival.
+	 * @return {@link TravelTimeModel}
+	 */
+	public TravelTimeModel getTravelTimeModel(){
+		return travelTimeModel;
+	}
+	
+	/**
+	 * Returns true in case floors accept destination requests ("dispatch.destination.enabled"). Default is false.
+	 * @return boolean
+	 */
+	public boolean isDestinationDispatch(){
+		return destinationDispatch;
+	}
+	
+	/**
+	 * Cost of an extra stop for destination which is not near any stop of elevator ("dispatch.destination.stopPenalty"). Default is 4.
+	 * @return int
+	 */
+	public int getDestinationStopPenalty(){
+		return destinationStopPenalty;
+	}
+	
+	/**
+	 * Maximum number of passengers of given elevator ("elevator.[id].capacity", otherwise "elevator.capacity"). 
+	 * Default is 0 which means load is not limited.
+	 * @param elevatorId - elevator id
+	 * @return int
+	 */
+	public int getElevatorCapacity(int elevatorId){
+		return getIntProperty("elevator." + elevatorId + ".capacity", getIntProperty("elevator.capacity", 0));
+	}
+	
+	/**
+	 * Floors given elevator stops at in a zoned building. They are given by "elevator.[id].floors" or by zone of elevator 
+	 * "elevator.[id].zone" as "zone.[zone].floors", in format of {@link ServedFloors#parse(String)}, 
+	 * e.g. "0,20-39" for an express elevator which serves lobby and high rise floors or "0,1-39/2" for skip-stop service. 
+	 * Elevators with same floors share one instance.
+	 * @param elevatorId - elevator id
+	 * @return {@link ServedFloors} - null in case elevator serves every floor between its minimum and maximum floor
+	 * @throws RuntimeException in case floors are not valid
+	 */
+	public synchronized ServedFloors getServedFloors(int elevatorId){
+		String floors = getProperty("elevator." + elevatorId + ".floors");
+		if (floors == null) {
+			String zone = getProperty("elevator." + elevatorId + ".zone");
+			if (zone == null) {
+				return null;
+			}
+			floors = getProperty("zone." + zone + ".floors");
+			if (floors == null) {
+				throw new RuntimeException("Floors of zone are not defined. zone=" + zone + " elevator=" + elevatorId);
+			}
+		}
+		ServedFloors served = servedFloors.get(floors);
+		if (served == null) {
+			served = ServedFloors.parse(floors);
+			servedFloors.put(floors, served);
+		}
+		return served;
+	}
+	
+	/**
+	 * Floors where riders can change elevator in a zoned building ("dispatch.transferFloors"), e.g. lobby and sky lobbies. 
+	 * They are used with destination dispatch only, as journey depends on destination.
+	 * @return {@link ServedFloors} - null in case riders do not change elevators
+	 */
+	public ServedFloors getTransferFloors(){
+		String floors = getProperty("dispatch.transferFloors");
+		return floors == null ? null : ServedFloors.parse(floors);
+	}
+	
+	/**
+	 * Load in percent of capacity from which elevator stops only for floor requests of its passengers 
+	 * and its hall calls are given to other elevators ("elevator.loadBypassPercent"). Default is 80.
+	 * @return int
+	 */
+	public int getLoadBypassPercent(){
+		return loadBypassPercent;
+	}
+	
+	/**
+	 * Cost added for a full elevator when it is considered for a hall call, in floors ("dispatch.loadPenalty"). 
+	 * Less loaded elevators get proportionally less. Default is 4.
+	 * @return int
+	 */
+	public int getLoadPenalty(){
+		return loadPenalty;
+	}
+	
 	/**
 	 * 
 	 * @param index
@@ -0,0 +1,172 @@
+package com.alok.ecsystem.core.dispatch;
+
+import java.util.List;
+
+import com.alok.ecsystem.core.ElevatorControlInterface;
+import com.alok.ecsystem.core.ElevatorControlInterface.DIRECTION;
+import com.alok.ecsystem.core.config.ElevatorSystemConfig;
+
+/**
+ * Abstract base implementation of {@link DispatchStrategy}. 
+ * 
+ * It scans all elevators and selects the one with minimum cost. In case of tie first elevator in the list wins.
+ * With {@link ElevatorFloorIndex} elevators are scanned floor by floor moving away from the request, until 
+ * {@link #costLowerBound(int)} of next distance is higher than best cost found. It gives same result with much fewer evaluations.
+ * Only banks of elevators which stop at the requested floor are scanned, elevators of other zones are skipped without evaluation.
+ * It also records decision latency.
+ * 
+ * Implementor only needs to define cost of an elevator for a floor request. Cost should include load of elevator, 
+ * with {@link #loadedCost(ElevatorControlInterface, int)} or {@link #loadedCosts(FleetState, int[])}, so that elevator in load bypass 
+ * is never selected and less loaded elevator wins a close call.
+ * 
+ * @author Alok Kushwah (akushwah)
+ */
+public abstract class AbstractDispatchStrategy implements DispatchStrategy {
+
+	private final DispatchStatistics statistics = new DispatchStatistics();
+	private final int loadPenalty;
+
+	/**
+	 * Creates strategy with default load penalty of 4 floors for full elevator.
+	 */
+	protected AbstractDispatchStrategy() {
+		this.loadPenalty = 4;
+	}
+
+	/**
+	 * Creates strategy with load penalty of building ("dispatch.loadPenalty").
+	 * @param config - building configuration
+	 */
+	protected AbstractDispatchStrategy(ElevatorSystemConfig config) {
+		this.loadPenalty = config.getLoadPenalty();
+	}
+
+	/**
+	 * Select elevator with minimum cost to serve the request at given floor.
+	 * @param floorIndex - floor index of request
+	 * @param direction - direction of request, null in case it is not known
+	 * @param elevators - elevators to choose from
+	 * @return {@link ElevatorControlInterface} - selected elevator or null in case none can serve the request.
+	 */
+	public ElevatorControlInterface selectElevator(int floorIndex, DIRECTION direction, List<ElevatorControlInterface> elevators) {
+		long start = System.nanoTime();
+		int minCost = Integer.MAX_VALUE;
+		ElevatorControlInterface selected = null;
+		for (ElevatorControlInterface elevator : elevators) {
+			int cost = cost(elevator, floorIndex, direction);
+			if (cost < minCost) {
+				minCost = cost;
+				selected = elevator;
+			}
+		}
+		statistics.record(System.nanoTime() - start, elevators.size());
+		return selected;
+	}
+
+	/**
+	 * Select elevator with minimum cost to serve the request at given floor. Elevators are visited in increasing distance from 
+	 * the floor. In case of tie elevator which comes first in the list wins, same as {@link #selectElevator(int, DIRECTION, List)}.
+	 * @param floorIndex - floor index of request
+	 * @param direction - direction of request, null in case it is not known
+	 * @param index - elevators to choose from, indexed by current floor
+	 * @return {@link ElevatorControlInterface} - selected elevator or null in case none can serve the request.
+	 */
+	public ElevatorControlInterface selectElevator(int floorIndex, DIRECTION direction, ElevatorFloorIndex index) {
+		int floorCount = index.getFloorCount();
+		if (floorIndex < 0 || floorIndex >= floorCount) {
+			return selectElevator(floorIndex, direction, index.getElevators());
+		}
+		long start = System.nanoTime();
+		int minCost = Integer.MAX_VALUE;
+		int minOrder = Integer.MAX_VALUE;
+		int candidates = 0;
+		ElevatorControlInterface selected = null;
+		ElevatorFloorIndex.Bank[] banks = index.getBanks(floorIndex);
+		int maxDistance = Math.max(floorIndex, floorCount - 1 - floorIndex);
+		for (int distance = 0; banks.length > 0 && distance <= maxDistance && costLowerBound(distance) <= minCost; distance++) {
+			for (int floor = floorIndex - distance; floor <= floorIndex + distance; floor += distance == 0 ? 1 : 2 * distance) {
+				if (floor < 0 || floor >= floorCount) {
+					continue;
+				}
+				for (ElevatorFloorIndex.Bank bank : banks) {
+					for (ElevatorFloorIndex.Entry entry : bank.getEntries(floor)) {
+						candidates++;
+						int cost = cost(entry.elevator, floorIndex, direction);
+						if (cost < minCost || (cost == minCost && cost != Integer.MAX_VALUE && entry.order < minOrder)) {
+							minCost = cost;
+							minOrder = entry.order;
+							selected = entry.elevator;
+						}
+					}
+				}
+			}
+		}
+		statistics.record(System.nanoTime() - start, candidates);
+		return selected;
+	}
+
+	/**
+	 * Calculates cost of every elevator of fleet by calling {@link #cost(ElevatorControlInterface, int, DIRECTION)} one by one. 
+	 * Strategy which can calculate its cost from {@link FleetState} columns should override it.
+	 * @param fleet - column store of elevators
+	 * @param floorIndex
+	 * @param direction - direction of request, null in case it is not known
+	 * @param costs - receives cost at position of elevator in fleet, length must be at least size of fleet
+	 */
+	public void costs(FleetState fleet, int floorIndex, DIRECTION direction, int[] costs) {
+		for (int i = 0; i < fleet.size(); i++) {
+			costs[i] = cost(fleet.getElevator(i), floorIndex, direction);
+		}
+	}
+
+	/**
+	 * Adds load of elevator to given cost. 
+	 * @param elevator
+	 * @param cost - cost to serve the request without load
+	 * @return int - cost, {@link Integer#MAX_VALUE} in case elevator is in load bypass
+	 */
+	protected int loadedCost(ElevatorControlInterface elevator, int cost) {
+		return elevator.getSnapshot().loadedCost(cost, loadPenalty * getFloorCost());
+	}
+
+	/**
+	 * Adds load of every elevator of fleet to its cost, same as {@link #loadedCost(ElevatorControlInterface, int)}.
+	 * @param fleet - column store of elevators
+	 * @param costs - cost at position of elevator in fleet without load
+	 */
+	protected void loadedCosts(FleetState fleet, int[] costs) {
+		fleet.loadedCosts(loadPenalty * getFloorCost(), costs);
+	}
+
+	/**
+	 * Lowest possible cost of an elevator which is given number of floors away from the request. 
+	 * Default is the distance itself, it holds for costs which include travel distance. 
+	 * Strategy with cost lower than distance must override it, returning 0 disables pruning.
+	 * @param distance - number of floors between elevator and request
+	 * @return int
+	 */
+	protected int costLowerBound(int distance) {
+		return distance;
+	}
+
+	/**
+	 * Cost of travelling one floor. Default is 1, for costs which count floors.
+	 * @return int
+	 */
+	public int getFloorCost() {
+		return 1;
+	}
+
+	/**
+	 * Returns decision latency statistics of this strategy.
+	 * @return {@link DispatchStatistics}
+	 */
+	public DispatchStatistics getStatistics() {
+		return statistics;
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName();
+	}
+}
@@ -0,0 +1,52 @@
+package com.alok.ecsystem.core.dispatch;
+
+import com.alok.ecsystem.core.ElevatorControlInterface;
+import com.alok.ecsystem.core.ElevatorControlInterface.DIRECTION;
+
+/**
+ * Predicted arrival of an elevator at a floor, as given by {@link ArrivalEstimator}.
+ *
+ * @author Alok Kushwah (akushwah)
+ */
+public final class ArrivalEstimate {
+
+	private final ElevatorControlInterface elevator;
+	private final int floorIndex;
+	private final DIRECTION direction;
+	private final int millis;
+
+	/**
+	 * Creates a new estimate.
+	 * @param elevator - elevator which arrives
+	 * @param floorIndex - floor index
+	 * @param direction - direction rider wants to go, null in case it is not known
+	 * @param millis - milli seconds until arrival, counted from last state change of elevator
+	 */
+	public ArrivalEstimate(ElevatorControlInterface elevator, int floorIndex, DIRECTION direction, int millis) {
+		this.elevator = elevator;
+		this.floorIndex = floorIndex;
+		this.direction = direction;
+		this.millis = millis;
+	}
+
+	public ElevatorControlInterface getElevator() {
+		return elevator;
+	}
+
+	public int getFloorIndex() {
+		return floorIndex;
+	}
+
+	public DIRECTION getDirection() {
+		return direction;
+	}
+
+	public int getMillis() {
+		return millis;
+	}
+
+	@Override
+	public String toString() {
+		return "elevator=" + elevator.getId() + " floor=" + floorIndex + (direction == null ? "" : " direction=" + direction) + " millis=" + millis;
+	}
+}
@@ -0,0 +1,113 @@
+package com.alok.ecsystem.core.dispatch;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.alok.ecsystem.core.ElevatorControlInterface;
+import com.alok.ecsystem.core.ElevatorControlInterface.DIRECTION;
+import com.alok.ecsystem.core.ElevatorSnapshot;
+
+/**
+ * Answers when elevators arrive at floors, for riders and lobby displays.
+ *
+ * Every elevator has a table of arrival times per floor and direction which belongs to one version of its {@link ElevatorSnapshot}.
+ * Table is replaced only for elevator which published a new snapshot, others keep theirs. Entries are estimated by
+ * {@link TravelTimeModel} on first query and read from table afterwards, so polling displays mostly read arrays.
+ * Queries take no lock. Two threads may fill same entry, they write same value.
+ *
+ * Times are counted from last state change of elevator, which is at most one floor travel or door movement old.
+ *
+ * @author Alok Kushwah (akushwah)
+ */
+public class ArrivalEstimator {
+
+	private static final int UNKNOWN = -1;
+
+	private final TravelTimeModel model;
+	private final List<ElevatorControlInterface> elevators;
+	private final int floorCount;
+	private final AtomicReferenceArray<Table> tables;
+
+	/**
+	 * Creates a new estimator.
+	 * @param model - timings of elevators
+	 * @param elevators - elevators of building
+	 * @param floorCount - number of floors of building
+	 */
+	public ArrivalEstimator(TravelTimeModel model, List<ElevatorControlInterface> elevators, int floorCount) {
+		this.model = model;
+		this.elevators = elevators;
+		this.floorCount = floorCount;
+		this.tables = new AtomicReferenceArray<Table>(elevators.size());
+	}
+
+	/**
+	 * Returns elevator which arrives first at given floor.
+	 * @param floorIndex - floor index
+	 * @param direction - direction rider wants to go, null in case it is not known
+	 * @return {@link ArrivalEstimate} - null in case no elevator can serve the floor
+	 */
+	public ArrivalEstimate estimate(int floorIndex, DIRECTION direction) {
+		int best = -1;
+		int minMillis = Integer.MAX_VALUE;
+		for (int i = 0; i < elevators.size(); i++) {
+			int millis = estimatedArrivalMillis(i, floorIndex, direction);
+			if (millis < minMillis) {
+				minMillis = millis;
+				best = i;
+			}
+		}
+		return best == -1 ? null : new ArrivalEstimate(elevators.get(best), floorIndex, direction, minMillis);
+	}
+
+	/**
+	 * Returns arrival of given elevator at given floor.
+	 * @param elevator - elevator of building
+	 * @param floorIndex - floor index
+	 * @param direction - direction rider wants to go, null in case it is not known
+	 * @return {@link ArrivalEstimate} - null in case elevator cannot serve the floor
+	 */
+	public ArrivalEstimate estimate(ElevatorControlInterface elevator, int floorIndex, DIRECTION direction) {
+		int position = elevators.indexOf(elevator);
+		if (position == -1) {
+			throw new RuntimeException("Elevator is not part of building. elevator=" + elevator);
+		}
+		int millis = estimatedArrivalMillis(position, floorIndex, direction);
+		return millis == Integer.MAX_VALUE ? null : new ArrivalEstimate(elevator, floorIndex, direction, millis);
+	}
+
+	private int estimatedArrivalMillis(int position, int floorIndex, DIRECTION direction) {
+		if (floorIndex < 0 || floorIndex >= floorCount) {
+			return Integer.MAX_VALUE;
+		}
+		ElevatorSnapshot snapshot = elevators.get(position).getSnapshot();
+		Table table = tables.get(position);
+		if (table == null || table.version != snapshot.getVersion()) {
+			table = new Table(snapshot.getVersion(), floorCount);
+			tables.set(position, table);
+		}
+		int entry = floorIndex * 3 + (direction == null ? 0 : direction.ordinal() + 1);
+		int millis = table.millis[entry];
+		if (millis == UNKNOWN) {
+			millis = model.estimatedArrivalMillis(snapshot, floorIndex, direction);
+			table.millis[entry] = millis;
+		}
+		return millis;
+	}
+
+	/**
+	 * Arrival times of one elevator for one snapshot version, 3 entries per floor for no direction, up and down.
+	 */
+	private static final class Table {
+
+		private final long version;
+		private final int[] millis;
+
+		Table(long version, int floorCount) {
+			this.version = version;
+			this.millis = new int[floorCount * 3];
+			Arrays.fill(millis, UNKNOWN);
+		}
+	}
+}
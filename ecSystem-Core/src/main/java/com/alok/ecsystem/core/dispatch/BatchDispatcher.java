@@ -0,0 +1,247 @@
+package com.alok.ecsystem.core.dispatch;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.Logger;
+
+import com.alok.ecsystem.core.ElevatorControlInterface;
+import com.alok.ecsystem.core.ElevatorControlInterface.DIRECTION;
+import com.alok.ecsystem.core.ElevatorSystemControl;
+import com.alok.ecsystem.core.FloorControlInterface;
+
+/**
+ * Dispatcher which collects hall calls for a short window and assigns all of them together.
+ * 
+ * First hall call of a batch starts the window. When window is over all collected calls are solved 
+ * against all elevators as one assignment problem with {@link HungarianAssignment}. 
+ * Cost of all elevators for a call is given by {@link DispatchStrategy} from {@link FleetState} columns in one pass. Each elevator can take more than one call 
+ * of a batch, every additional call on the same elevator costs "slot penalty" more than previous one.
+ * Slots are sized as if every elevator can serve every call. Call which is left without a feasible slot, e.g. because only 
+ * few elevators serve its zone or others are out of service, is given to its cheapest feasible elevator with same slot penalty.
+ * 
+ * It is used by {@link ElevatorSystemControl} when "dispatch.mode" is "BATCH", and in any mode to hand over hall calls 
+ * of an elevator which went out of service.
+ * 
+ * @author Alok Kushwah (akushwah)
+ */
+public class BatchDispatcher {
+
+	private static final Logger logger = Logger.getLogger(BatchDispatcher.class);
+
+	/**
+	 * Cost used for elevators which cannot serve a call.
+	 */
+	private static final long INFEASIBLE_COST = Integer.MAX_VALUE;
+
+	/**
+	 * Maximum slots per elevator when there are enough elevators to take all calls.
+	 */
+	private static final int MAX_SLOTS_PER_ELEVATOR = 4;
+
+	private final DispatchStrategy strategy;
+	private final FleetState fleet;
+	private final HallCallRegistry registry;
+	private final long windowMillis;
+	private final int slotPenalty;
+	private final BatchStatistics statistics = new BatchStatistics();
+	private final ScheduledExecutorService executor;
+
+	private Map<HallCall, FloorControlInterface> pendingCalls = new LinkedHashMap<HallCall, FloorControlInterface>();
+	private ScheduledFuture<?> window;
+
+	/**
+	 * Creates a new batch dispatcher.
+	 * @param strategy - strategy to calculate cost of elevator for a call
+	 * @param fleet - elevators to assign calls to
+	 * @param registry - registry to record assigned hall calls
+	 * @param executor - scheduler of building to run batches on
+	 * @param windowMillis - time to collect calls before solving them
+	 * @param slotPenalty - additional cost for every extra call assigned to same elevator in a batch, in floors as scaled by 
+	 * {@link DispatchStrategy#getFloorCost()}
+	 */
+	public BatchDispatcher(DispatchStrategy strategy, FleetState fleet, HallCallRegistry registry, ScheduledExecutorService executor, long windowMillis, int slotPenalty) {
+		this.strategy = strategy;
+		this.fleet = fleet;
+		this.registry = registry;
+		this.windowMillis = windowMillis;
+		this.slotPenalty = slotPenalty * strategy.getFloorCost();
+		this.executor = executor;
+	}
+
+	/**
+	 * Adds hall call to current batch. Starts a new window in case this is first call of the batch.
+	 * @param floorControl - floor where call is made
+	 * @param direction - direction of call, null for single call button
+	 */
+	public synchronized void submit(FloorControlInterface floorControl, DIRECTION direction) {
+		boolean first = pendingCalls.isEmpty();
+		pendingCalls.put(new HallCall(floorControl.getId(), direction), floorControl);
+		if (first) {
+			window = executor.schedule(new Runnable() {
+				public void run() {
+					flush();
+				}
+			}, windowMillis, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/**
+	 * Solves and assigns all calls collected so far. Normally called when window is over.
+	 */
+	public void flush() {
+		Map<HallCall, FloorControlInterface> calls;
+		synchronized (this) {
+			if (pendingCalls.isEmpty()) {
+				return;
+			}
+			calls = pendingCalls;
+			pendingCalls = new LinkedHashMap<HallCall, FloorControlInterface>();
+			window = null;
+		}
+		try {
+			assign(calls);
+		} catch (RuntimeException e) {
+			logger.error("Unable to dispatch batch of size=" + calls.size(), e);
+		}
+	}
+
+	/**
+	 * Solves and assigns given calls as one batch right away, without waiting for a window. 
+	 * It is used to hand over hall calls of an elevator which went out of service. Call which no elevator can serve 
+	 * is turned off at its floor, so it can be made again.
+	 * @param calls - hall calls with their floors
+	 */
+	public void dispatch(Map<HallCall, FloorControlInterface> calls) {
+		if (calls.isEmpty()) {
+			return;
+		}
+		try {
+			assign(calls);
+		} catch (RuntimeException e) {
+			logger.error("Unable to dispatch batch of size=" + calls.size(), e);
+			for (Map.Entry<HallCall, FloorControlInterface> entry : calls.entrySet()) {
+				if (registry.getAssignedElevator(entry.getKey().getFloorIndex(), entry.getKey().getDirection()) == null) {
+					entry.getValue().setElevatorRequest(entry.getKey().getDirection(), false);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns batch size and solve time statistics.
+	 * @return {@link BatchStatistics}
+	 */
+	public BatchStatistics getStatistics() {
+		return statistics;
+	}
+
+	/**
+	 * Collection window length.
+	 * @return long - milli seconds
+	 */
+	public long getWindowMillis() {
+		return windowMillis;
+	}
+
+	/**
+	 * Stops the dispatcher. Pending calls are not assigned. Scheduler is shared by building and keeps running.
+	 */
+	public synchronized void shutdown() {
+		if (window != null) {
+			window.cancel(false);
+			window = null;
+		}
+		pendingCalls.clear();
+	}
+
+	private void assign(Map<HallCall, FloorControlInterface> pending) {
+		List<HallCall> calls = new ArrayList<HallCall>(pending.keySet());
+		if (fleet.size() == 0) {
+			for (HallCall call : calls) {
+				logger.error("No elevetor is available to serve the request.");
+				pending.get(call).setElevatorRequest(call.getDirection(), false);
+			}
+			return;
+		}
+		long start = System.nanoTime();
+		int callCount = calls.size();
+		int elevatorCount = fleet.size();
+		int slots = Math.max((callCount + elevatorCount - 1) / elevatorCount, Math.min(callCount, MAX_SLOTS_PER_ELEVATOR));
+
+		long[][] cost = new long[callCount][elevatorCount * slots];
+		int[][] baseCosts = new int[callCount][elevatorCount];
+		for (int c = 0; c < callCount; c++) {
+			strategy.costs(fleet, calls.get(c).getFloorIndex(), calls.get(c).getDirection(), baseCosts[c]);
+			for (int e = 0; e < elevatorCount; e++) {
+				int baseCost = baseCosts[c][e];
+				for (int s = 0; s < slots; s++) {
+					cost[c][e * slots + s] = baseCost == Integer.MAX_VALUE ? INFEASIBLE_COST : (long) baseCost + (long) s * slotPenalty;
+				}
+			}
+		}
+		int[] assignment = HungarianAssignment.solve(cost);
+		int[] taken = new int[elevatorCount];
+		int[] selectedIndexes = new int[callCount];
+		for (int c = 0; c < callCount; c++) {
+			selectedIndexes[c] = cost[c][assignment[c]] >= INFEASIBLE_COST ? -1 : assignment[c] / slots;
+			if (selectedIndexes[c] != -1) {
+				taken[selectedIndexes[c]]++;
+			}
+		}
+		for (int c = 0; c < callCount; c++) {
+			if (selectedIndexes[c] == -1) {
+				selectedIndexes[c] = cheapestFeasible(baseCosts[c], taken);
+			}
+		}
+		statistics.record(callCount, System.nanoTime() - start);
+
+		for (int c = 0; c < callCount; c++) {
+			HallCall call = calls.get(c);
+			FloorControlInterface floorControl = pending.get(call);
+			if (selectedIndexes[c] == -1) {
+				logger.error("No elevetor is available to serve the request at floor=" + call);
+				floorControl.setElevatorRequest(call.getDirection(), false);
+				continue;
+			}
+			ElevatorControlInterface selected = fleet.getElevator(selectedIndexes[c]);
+			try {
+				registry.assign(floorControl, call.getDirection(), selected);
+			} catch (RuntimeException e) {
+				logger.error("Unable to assign request to elevetor=" + selected + " floor=" + call, e);
+				floorControl.setElevatorRequest(call.getDirection(), false);
+			}
+		}
+	}
+
+	/**
+	 * helper method to give call which did not get a feasible slot to elevator with minimum cost, counting slot penalty 
+	 * for calls it already got in this batch.
+	 * @param baseCosts - cost of every elevator for the call
+	 * @param taken - number of calls of this batch per elevator, updated for selected elevator
+	 * @return int - position of elevator in fleet, -1 in case no elevator can serve the call
+	 */
+	private int cheapestFeasible(int[] baseCosts, int[] taken) {
+		int selected = -1;
+		long minCost = INFEASIBLE_COST;
+		for (int e = 0; e < baseCosts.length; e++) {
+			if (baseCosts[e] == Integer.MAX_VALUE) {
+				continue;
+			}
+			long cost = (long) baseCosts[e] + (long) taken[e] * slotPenalty;
+			if (cost < minCost || selected == -1) {
+				minCost = cost;
+				selected = e;
+			}
+		}
+		if (selected != -1) {
+			taken[selected]++;
+		}
+		return selected;
+	}
+}
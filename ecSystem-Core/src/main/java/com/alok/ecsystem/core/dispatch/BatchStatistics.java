@@ -0,0 +1,98 @@
+package com.alok.ecsystem.core.dispatch;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps batch size and solve time of {@link BatchDispatcher}.
+ * 
+ * It is thread safe and can be read while dispatching is going on.
+ * 
+ * @author Alok Kushwah (akushwah)
+ */
+public class BatchStatistics {
+
+	private final DispatchStatistics solveStatistics = new DispatchStatistics();
+	private final AtomicLong callCount = new AtomicLong();
+	private final AtomicLong maxBatchSize = new AtomicLong();
+	private volatile int lastBatchSize;
+	private volatile long lastSolveNanos;
+
+	/**
+	 * Record a solved batch.
+	 * @param batchSize - number of hall calls in batch
+	 * @param nanos - time taken to solve the batch in nano seconds
+	 */
+	public void record(int batchSize, long nanos) {
+		solveStatistics.record(nanos);
+		callCount.addAndGet(batchSize);
+		lastBatchSize = batchSize;
+		lastSolveNanos = nanos;
+		long max = maxBatchSize.get();
+		while (batchSize > max && !maxBatchSize.compareAndSet(max, batchSize)) {
+			max = maxBatchSize.get();
+		}
+	}
+
+	/**
+	 * Number of solved batches.
+	 * @return long
+	 */
+	public long getBatchCount() {
+		return solveStatistics.getDecisionCount();
+	}
+
+	/**
+	 * Number of hall calls dispatched in all batches.
+	 * @return long
+	 */
+	public long getCallCount() {
+		return callCount.get();
+	}
+
+	/**
+	 * Size of last batch.
+	 * @return int
+	 */
+	public int getLastBatchSize() {
+		return lastBatchSize;
+	}
+
+	/**
+	 * Largest batch.
+	 * @return long
+	 */
+	public long getMaxBatchSize() {
+		return maxBatchSize.get();
+	}
+
+	/**
+	 * Average number of hall calls per batch.
+	 * @return double
+	 */
+	public double getAverageBatchSize() {
+		long batches = getBatchCount();
+		return batches == 0 ? 0 : (double) callCount.get() / batches;
+	}
+
+	/**
+	 * Solve time of last batch.
+	 * @return long - nano seconds
+	 */
+	public long getLastSolveNanos() {
+		return lastSolveNanos;
+	}
+
+	/**
+	 * Solve time of all batches.
+	 * @return {@link DispatchStatistics}
+	 */
+	public DispatchStatistics getSolveStatistics() {
+		return solveStatistics;
+	}
+
+	@Override
+	public String toString() {
+		return "batches=" + getBatchCount() + " calls=" + getCallCount() + " lastBatchSize=" + getLastBatchSize() + " maxBatchSize="
+				+ getMaxBatchSize() + " avgSolveNanos=" + solveStatistics.getAverageNanos() + " maxSolveNanos=" + solveStatistics.getMaxNanos();
+	}
+}
@@ -0,0 +1,407 @@
+package com.alok.ecsystem.core.dispatch;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.log4j.Logger;
+
+import com.alok.ecsystem.core.ElevatorControlInterface;
+import com.alok.ecsystem.core.ElevatorControlInterface.DIRECTION;
+import com.alok.ecsystem.core.ElevatorSnapshot;
+import com.alok.ecsystem.core.ElevatorSystemControl;
+import com.alok.ecsystem.core.FloorControlInterface;
+import com.alok.ecsystem.core.event.EventSubscriber;
+import com.alok.ecsystem.core.event.FloorEvent;
+import com.alok.ecsystem.core.util.FloorBitSet;
+
+/**
+ * Destination dispatch. Rider enters destination floor at the floor, instead of pressing up or down button,
+ * and is told right away which elevator to take.
+ *
+ * Riders are grouped by destination. Cost of an elevator is its cost to pick the rider up, given by {@link DispatchStrategy},
+ * plus cost of extra stop for the destination. Elevator which already stops at destination costs nothing extra, elevator which
+ * stops near it costs the distance to its nearest stop and other elevators cost "stop penalty" more.
+ * So riders going to same or nearby floors ride together and each elevator makes fewer stops.
+ *
+ * Destination is given to elevator as a floor request when elevator picks the rider up, so it never stops at destination
+ * before the rider is inside. Pick up is not re-optimized, as rider was already told which elevator to take.
+ *
+ * In a zoned building rider may need more than one elevator. With {@link TripPlanner} journey goes through transfer floors and 
+ * each leg is a {@link Trip} leg of its own. Next leg is assigned when rider is picked up, so its elevator is already on the way 
+ * when rider reaches the transfer floor.
+ *
+ * It is created by {@link ElevatorSystemControl} when "dispatch.destination.enabled" is true.
+ *
+ * @author Alok Kushwah (akushwah)
+ */
+public class DestinationDispatcher implements EventSubscriber<FloorEvent> {
+
+	private static final Logger logger = Logger.getLogger(DestinationDispatcher.class);
+
+	private final DispatchStrategy strategy;
+	private final List<ElevatorControlInterface> elevators;
+	private final int stopPenalty;
+	private final TripPlanner planner;
+	private final List<Rider> waiting = new ArrayList<Rider>();
+	private final List<Rider> riding = new ArrayList<Rider>();
+	private final List<Rider> transferring = new ArrayList<Rider>();
+	private final AtomicLong requestCount = new AtomicLong();
+	private final AtomicLong groupedCount = new AtomicLong();
+	private final AtomicLong transferCount = new AtomicLong();
+
+	/**
+	 * Creates a new destination dispatcher.
+	 * @param strategy - strategy to calculate cost of elevator to pick rider up
+	 * @param elevators - elevators to choose from
+	 * @param stopPenalty - cost of an extra stop for destination which is not near any stop of elevator, in floors as scaled by 
+	 * {@link DispatchStrategy#getFloorCost()}
+	 */
+	public DestinationDispatcher(DispatchStrategy strategy, List<ElevatorControlInterface> elevators, int stopPenalty) {
+		this(strategy, elevators, stopPenalty, null);
+	}
+
+	/**
+	 * Creates a new destination dispatcher which plans journeys through transfer floors.
+	 * @param strategy - strategy to calculate cost of elevator to pick rider up
+	 * @param elevators - elevators to choose from
+	 * @param stopPenalty - cost of an extra stop for destination which is not near any stop of elevator, in floors as scaled by 
+	 * {@link DispatchStrategy#getFloorCost()}
+	 * @param planner - planner of journeys through transfer floors, null in case rider must reach destination with one elevator
+	 */
+	public DestinationDispatcher(DispatchStrategy strategy, List<ElevatorControlInterface> elevators, int stopPenalty, TripPlanner planner) {
+		this.strategy = strategy;
+		this.elevators = elevators;
+		this.stopPenalty = stopPenalty;
+		this.planner = planner;
+	}
+
+	/**
+	 * Assigns rider going from given floor to destination to an elevator.
+	 * @param floorControl - floor where rider is waiting
+	 * @param destinationFloorIndex - floor rider wants to go
+	 * @return {@link ElevatorControlInterface} - elevator rider should take, null in case none can serve the request.
+	 * @throws RuntimeException in case destination is same as floor of rider
+	 */
+	public ElevatorControlInterface request(FloorControlInterface floorControl, int destinationFloorIndex) {
+		Trip trip = requestTrip(floorControl.getId(), destinationFloorIndex);
+		return trip == null ? null : trip.getElevator(0);
+	}
+
+	/**
+	 * Plans journey of rider going from given floor to destination and assigns its first leg to an elevator. 
+	 * Following legs are assigned when rider is picked up for previous one.
+	 * @param floorIndex - floor where rider is waiting
+	 * @param destinationFloorIndex - floor rider wants to go
+	 * @return {@link Trip} - null in case destination cannot be reached
+	 * @throws RuntimeException in case destination is same as floor of rider
+	 */
+	public Trip requestTrip(int floorIndex, int destinationFloorIndex) {
+		if (floorIndex == destinationFloorIndex) {
+			throw new RuntimeException("Destination is same as current floor. index=" + floorIndex);
+		}
+		requestCount.incrementAndGet();
+		int[] floors = planner == null ? new int[] { floorIndex, destinationFloorIndex } : planner.plan(floorIndex, destinationFloorIndex);
+		if (floors == null) {
+			logger.error("No journey is available from floor=" + floorIndex + " to floor=" + destinationFloorIndex);
+			return null;
+		}
+		Trip trip = new Trip(floors);
+		if (assignLeg(trip, 0) == null) {
+			return null;
+		}
+		if (trip.getLegCount() > 1) {
+			transferCount.incrementAndGet();
+		}
+		return trip;
+	}
+
+	/**
+	 * helper method to assign a leg of trip to elevator with minimum cost to pick rider up and stop at end of the leg.
+	 * @return {@link ElevatorControlInterface} - null in case none can serve the leg
+	 */
+	private ElevatorControlInterface assignLeg(Trip trip, int leg) {
+		int floorIndex = trip.getFloor(leg);
+		int destinationFloorIndex = trip.getFloor(leg + 1);
+		DIRECTION direction = trip.getDirection(leg);
+
+		int minCost = Integer.MAX_VALUE;
+		int minExtra = 0;
+		ElevatorControlInterface selected = null;
+		for (ElevatorControlInterface elevator : elevators) {
+			ElevatorSnapshot snapshot = elevator.getSnapshot();
+			if (!snapshot.serves(floorIndex) || !snapshot.serves(destinationFloorIndex)) {
+				continue;
+			}
+			int cost = strategy.cost(elevator, floorIndex, direction);
+			if (cost >= minCost) {
+				continue; // extra stop cost can only add to it
+			}
+			int extra = extraStopCost(elevator, floorIndex, direction, destinationFloorIndex) * strategy.getFloorCost();
+			if ((long) cost + extra < minCost) {
+				minCost = cost + extra;
+				minExtra = extra;
+				selected = elevator;
+			}
+		}
+		if (selected == null) {
+			logger.error("No elevetor is available to serve the request from floor=" + floorIndex + " to floor=" + destinationFloorIndex);
+			return null;
+		}
+		if (minExtra == 0) {
+			groupedCount.incrementAndGet();
+		}
+		trip.setElevator(leg, selected);
+		Rider rider = new Rider(trip, leg, selected);
+		synchronized (this) {
+			waiting.add(rider);
+		}
+		logger.debug("Assigned rider from floor=" + floorIndex + " to floor=" + destinationFloorIndex + " to elevetor=" + selected);
+		try {
+			selected.addHallCall(floorIndex, direction);
+		} catch (RuntimeException e) {
+			synchronized (this) {
+				waiting.remove(rider);
+			}
+			throw e;
+		}
+		return selected;
+	}
+
+	/**
+	 * Gives destinations of riders who are picked up to their elevator and assigns their next leg.
+	 * Rider waits for next leg only once its elevator reached the transfer floor. Elevator of next leg is called again then, 
+	 * in case it came earlier. Elevator which is still at the transfer floor is called once an elevator left the floor, 
+	 * so rider is out by the time door opens.
+	 * 
+	 * Floor notifications are published while elevator holds its own lock, so dispatcher must be subscribed with an executor, 
+	 * e.g. scheduler of building. Called on thread of publisher it would lock other elevators and can deadlock with them. 
+	 */
+	public void onEvent(FloorEvent event) {
+		if (event.getElevator() == null) {
+			return;
+		}
+		if (event.getType() == FloorControlInterface.FLOOR_EVENT.ELEVATOR_LEFT) {
+			left(event.getFloor().getId());
+		} else if (event.getType() == FloorControlInterface.FLOOR_EVENT.ELEVATOR_ARRIVED) {
+			arrived(event.getElevator(), event.getFloor().getId(), event.getDirection());
+		}
+	}
+
+	private void arrived(ElevatorControlInterface elevator, int floorIndex, DIRECTION direction) {
+		List<Rider> pickedUp = null;
+		List<Rider> transferred = null;
+		synchronized (this) {
+			for (Iterator<Rider> it = riding.iterator(); it.hasNext();) {
+				Rider rider = it.next();
+				if (rider.elevator.getId() == elevator.getId() && rider.destinationFloorIndex == floorIndex) {
+					it.remove();
+					rider.trip.arrived(rider.leg + 1);
+					if (transferred == null) {
+						transferred = new ArrayList<Rider>();
+					}
+					transferred.add(rider);
+				}
+			}
+			for (Iterator<Rider> it = waiting.iterator(); it.hasNext();) {
+				Rider rider = it.next();
+				if (rider.elevator.getId() == elevator.getId() && rider.floorIndex == floorIndex && rider.trip.getLeg() == rider.leg
+						&& (direction == null || direction == rider.direction)) {
+					it.remove();
+					if (pickedUp == null) {
+						pickedUp = new ArrayList<Rider>();
+					}
+					pickedUp.add(rider);
+					if (rider.leg + 1 < rider.trip.getLegCount()) {
+						riding.add(rider);
+					}
+				}
+			}
+			if (pickedUp != null && !transferring.isEmpty()) {
+				// elevator of next leg came back before elevator of previous leg left
+				for (Iterator<Rider> it = transferring.iterator(); it.hasNext();) {
+					Rider rider = it.next();
+					for (Rider picked : pickedUp) {
+						if (rider.trip == picked.trip) {
+							it.remove();
+							break;
+						}
+					}
+				}
+			}
+		}
+		if (transferred != null) {
+			for (Rider rider : transferred) {
+				ElevatorControlInterface next = rider.trip.getElevator(rider.leg + 1);
+				if (next != null && next.getSnapshot().getCurrentFloor() == floorIndex) {
+					synchronized (this) {
+						transferring.add(rider);
+					}
+				} else if (next != null) {
+					next.addHallCall(floorIndex, rider.trip.getDirection(rider.leg + 1));
+				}
+			}
+		}
+		if (pickedUp != null) {
+			for (Rider rider : pickedUp) {
+				elevator.addFloorRequest(rider.destinationFloorIndex);
+			}
+			for (Rider rider : pickedUp) {
+				if (rider.leg + 1 < rider.trip.getLegCount()) {
+					try {
+						if (assignLeg(rider.trip, rider.leg + 1) == null) {
+							logger.error("Next leg of trip is not assigned. trip=" + rider.trip);
+						}
+					} catch (RuntimeException e) {
+						logger.error("Next leg of trip is not assigned. trip=" + rider.trip, e);
+					}
+				}
+			}
+		}
+	}
+
+	private void left(int floorIndex) {
+		List<Rider> transferred = null;
+		synchronized (this) {
+			for (Iterator<Rider> it = transferring.iterator(); it.hasNext();) {
+				Rider rider = it.next();
+				if (rider.destinationFloorIndex == floorIndex) {
+					it.remove();
+					if (transferred == null) {
+						transferred = new ArrayList<Rider>();
+					}
+					transferred.add(rider);
+				}
+			}
+		}
+		if (transferred != null) {
+			for (Rider rider : transferred) {
+				rider.trip.getElevator(rider.leg + 1).addHallCall(floorIndex, rider.trip.getDirection(rider.leg + 1));
+			}
+		}
+	}
+
+	/**
+	 * Assigns riders waiting for given elevator to other elevators, e.g. because it went out of service. 
+	 * Riders inside the elevator are not followed anymore.
+	 * @param elevator - elevator riders were assigned to
+	 * @return int - number of riders assigned to another elevator
+	 */
+	public int reassign(ElevatorControlInterface elevator) {
+		List<Rider> moved = new ArrayList<Rider>();
+		synchronized (this) {
+			for (Iterator<Rider> it = waiting.iterator(); it.hasNext();) {
+				Rider rider = it.next();
+				if (rider.elevator.getId() == elevator.getId()) {
+					it.remove();
+					moved.add(rider);
+				}
+			}
+			for (Iterator<Rider> it = riding.iterator(); it.hasNext();) {
+				if (it.next().elevator.getId() == elevator.getId()) {
+					it.remove();
+				}
+			}
+		}
+		int count = 0;
+		for (Rider rider : moved) {
+			try {
+				if (assignLeg(rider.trip, rider.leg) == null) {
+					logger.error("No other elevator is available for trip=" + rider.trip);
+				} else {
+					count++;
+				}
+			} catch (RuntimeException e) {
+				logger.error("Unable to assign trip=" + rider.trip + " to another elevator", e);
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Number of riders assigned to an elevator and not picked up yet.
+	 * @return int
+	 */
+	public synchronized int getWaitingCount() {
+		return waiting.size();
+	}
+
+	/**
+	 * Number of destination requests so far.
+	 * @return long
+	 */
+	public long getRequestCount() {
+		return requestCount.get();
+	}
+
+	/**
+	 * Number of legs assigned to elevator which already had to stop at the destination.
+	 * @return long
+	 */
+	public long getGroupedCount() {
+		return groupedCount.get();
+	}
+
+	/**
+	 * Number of requests which take more than one elevator.
+	 * @return long
+	 */
+	public long getTransferCount() {
+		return transferCount.get();
+	}
+
+	/**
+	 * Cost of extra stop for destination. Stops of elevator and destinations of riders waiting for it at the same floor
+	 * which are on the way of the rider are considered. Stops are read from snapshot of elevator without locking it.
+	 */
+	private int extraStopCost(ElevatorControlInterface elevator, int floorIndex, DIRECTION direction, int destinationFloorIndex) {
+		int nearest = stopPenalty;
+		long[] stops = elevator.getSnapshot().getStops();
+		for (int stop = FloorBitSet.nextSetBit(stops, 0); stop != -1 && nearest > 0; stop = FloorBitSet.nextSetBit(stops, stop + 1)) {
+			nearest = Math.min(nearest, distanceOnTheWay(floorIndex, direction, stop, destinationFloorIndex));
+		}
+		synchronized (this) {
+			for (Rider rider : waiting) {
+				if (rider.elevator.getId() == elevator.getId() && rider.floorIndex == floorIndex && rider.direction == direction) {
+					nearest = Math.min(nearest, Math.abs(rider.destinationFloorIndex - destinationFloorIndex));
+				}
+			}
+		}
+		return nearest;
+	}
+
+	private int distanceOnTheWay(int floorIndex, DIRECTION direction, int stop, int destinationFloorIndex) {
+		if (direction == DIRECTION.UP ? stop <= floorIndex : stop >= floorIndex) {
+			return Integer.MAX_VALUE;
+		}
+		return Math.abs(stop - destinationFloorIndex);
+	}
+
+	@Override
+	public String toString() {
+		return "requests=" + getRequestCount() + " grouped=" + getGroupedCount() + " transfers=" + getTransferCount() + " waiting=" + getWaitingCount();
+	}
+
+	/**
+	 * Rider waiting for or riding one leg of its trip.
+	 */
+	private static final class Rider {
+
+		private final Trip trip;
+		private final int leg;
+		private final ElevatorControlInterface elevator;
+		private final int floorIndex;
+		private final DIRECTION direction;
+		private final int destinationFloorIndex;
+
+		Rider(Trip trip, int leg, ElevatorControlInterface elevator) {
+			this.trip = trip;
+			this.leg = leg;
+			this.elevator = elevator;
+			this.floorIndex = trip.getFloor(leg);
+			this.direction = trip.getDirection(leg);
+			this.destinationFloorIndex = trip.getFloor(leg + 1);
+		}
+	}
+}
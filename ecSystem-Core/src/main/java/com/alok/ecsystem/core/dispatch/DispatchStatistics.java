@@ -0,0 +1,98 @@
+package com.alok.ecsystem.core.dispatch;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps decision count and latency of a {@link DispatchStrategy}.
+ * 
+ * It is thread safe and can be read while dispatching is going on.
+ * 
+ * @author Alok Kushwah (akushwah)
+ */
+public class DispatchStatistics {
+
+	private final AtomicLong decisionCount = new AtomicLong();
+	private final AtomicLong totalNanos = new AtomicLong();
+	private final AtomicLong maxNanos = new AtomicLong();
+	private final AtomicLong candidateCount = new AtomicLong();
+
+	/**
+	 * Record a decision.
+	 * @param nanos - time taken to make the decision in nano seconds.
+	 * @param candidates - number of elevators evaluated for the decision.
+	 */
+	public void record(long nanos, int candidates) {
+		candidateCount.addAndGet(candidates);
+		record(nanos);
+	}
+
+	/**
+	 * Record a decision.
+	 * @param nanos - time taken to make the decision in nano seconds.
+	 */
+	public void record(long nanos) {
+		decisionCount.incrementAndGet();
+		totalNanos.addAndGet(nanos);
+		long max = maxNanos.get();
+		while (nanos > max && !maxNanos.compareAndSet(max, nanos)) {
+			max = maxNanos.get();
+		}
+	}
+
+	/**
+	 * Number of decisions made.
+	 * @return long
+	 */
+	public long getDecisionCount() {
+		return decisionCount.get();
+	}
+
+	/**
+	 * Total time spent in making decisions.
+	 * @return long - nano seconds
+	 */
+	public long getTotalNanos() {
+		return totalNanos.get();
+	}
+
+	/**
+	 * Slowest decision.
+	 * @return long - nano seconds
+	 */
+	public long getMaxNanos() {
+		return maxNanos.get();
+	}
+
+	/**
+	 * Average decision time.
+	 * @return long - nano seconds
+	 */
+	public long getAverageNanos() {
+		long count = decisionCount.get();
+		return count == 0 ? 0 : totalNanos.get() / count;
+	}
+
+	/**
+	 * Average number of elevators evaluated per decision.
+	 * @return long
+	 */
+	public long getAverageCandidates() {
+		long count = decisionCount.get();
+		return count == 0 ? 0 : candidateCount.get() / count;
+	}
+
+	/**
+	 * Utility method to reset statistics.
+	 */
+	public void reset() {
+		candidateCount.set(0);
+		decisionCount.set(0);
+		totalNanos.set(0);
+		maxNanos.set(0);
+	}
+
+	@Override
+	public String toString() {
+		return "decisions=" + getDecisionCount() + " avgNanos=" + getAverageNanos() + " maxNanos=" + getMaxNanos() + " avgCandidates=" + getAverageCandidates();
+	}
+}
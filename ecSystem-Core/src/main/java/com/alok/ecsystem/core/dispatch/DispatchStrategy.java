@@ -0,0 +1,72 @@
+package com.alok.ecsystem.core.dispatch;
+
+import java.util.List;
+
+import com.alok.ecsystem.core.ElevatorControlInterface;
+import com.alok.ecsystem.core.ElevatorControlInterface.DIRECTION;
+import com.alok.ecsystem.core.ElevatorSystemControl;
+import com.alok.ecsystem.core.config.ElevatorSystemConfig;
+
+/**
+ * Interface to define how {@link ElevatorSystemControl} picks an elevator for a floor request.
+ * 
+ * Implementation is selected by "dispatch.strategy.className" property in "ecSystem.properties".
+ * Implementation must have public constructor taking {@link ElevatorSystemConfig} or public default constructor.
+ * 
+ * Every request has direction rider wants to go from the floor, null in case floor has single call button.
+ * 
+ * @author Alok Kushwah (akushwah)
+ */
+public interface DispatchStrategy {
+
+	/**
+	 * Select elevator which should serve the request at given floor.
+	 * @param floorIndex - floor index of request
+	 * @param direction - direction of request, null in case it is not known
+	 * @param elevators - elevators to choose from
+	 * @return {@link ElevatorControlInterface} - selected elevator or null in case none can serve the request.
+	 */
+	public ElevatorControlInterface selectElevator(int floorIndex, DIRECTION direction, List<ElevatorControlInterface> elevators);
+
+	/**
+	 * Select elevator which should serve the request at given floor. Elevators close to the floor are evaluated first 
+	 * and search stops when no farther elevator can win. 
+	 * Result must be same as {@link #selectElevator(int, DIRECTION, List)} with all elevators of the index.
+	 * @param floorIndex - floor index of request
+	 * @param direction - direction of request, null in case it is not known
+	 * @param index - elevators to choose from, indexed by current floor
+	 * @return {@link ElevatorControlInterface} - selected elevator or null in case none can serve the request.
+	 */
+	public ElevatorControlInterface selectElevator(int floorIndex, DIRECTION direction, ElevatorFloorIndex index);
+
+	/**
+	 * Returns cost for given elevator to serve request at given floor. Lower is better.
+	 * @param elevator
+	 * @param floorIndex
+	 * @param direction - direction of request, null in case it is not known
+	 * @return int - cost, {@link Integer#MAX_VALUE} in case elevator cannot serve the request.
+	 */
+	public int cost(ElevatorControlInterface elevator, int floorIndex, DIRECTION direction);
+
+	/**
+	 * Calculates cost of every elevator of fleet to serve request at given floor, same as {@link #cost(ElevatorControlInterface, int, DIRECTION)}.
+	 * @param fleet - column store of elevators
+	 * @param floorIndex
+	 * @param direction - direction of request, null in case it is not known
+	 * @param costs - receives cost at position of elevator in fleet, length must be at least size of fleet
+	 */
+	public void costs(FleetState fleet, int floorIndex, DIRECTION direction, int[] costs);
+
+	/**
+	 * Cost of travelling one floor. Penalties and thresholds configured in floors are multiplied by it, 
+	 * so they keep their meaning whatever unit the cost is in.
+	 * @return int
+	 */
+	public int getFloorCost();
+
+	/**
+	 * Returns decision latency statistics of this strategy.
+	 * @return {@link DispatchStatistics}
+	 */
+	public DispatchStatistics getStatistics();
+}
@@ -0,0 +1,239 @@
+package com.alok.ecsystem.core.dispatch;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.alok.ecsystem.core.ElevatorControlInterface;
+import com.alok.ecsystem.core.ElevatorControlInterface.STATE;
+import com.alok.ecsystem.core.ElevatorSnapshot;
+import com.alok.ecsystem.core.ElevatorStateListener;
+import com.alok.ecsystem.core.util.ServedFloors;
+
+/**
+ * Index of elevators by their current floor. It lets {@link DispatchStrategy} look at elevators close to a request first 
+ * and stop as soon as no farther elevator can win, instead of evaluating every elevator.
+ * 
+ * Elevators which stop at same floors form a bank, like low rise, high rise or express elevators of a zoned building. 
+ * Every bank has its own floor buckets and banks which serve a floor are precomputed per floor, 
+ * so elevators of other zones are never looked at for a request.
+ * 
+ * Index is kept up to date by {@link ElevatorStateListener}, elevator moves to new bucket whenever it publishes a snapshot 
+ * with new floor. Each floor bucket is a copy-on-write array, readers never lock. During a move elevator is added to new 
+ * bucket before it is removed from old one, so a reader can see it twice but never miss it.
+ * 
+ * State and direction are not part of the key, they are read from snapshot of candidates found by floor. 
+ * Elevator which is out of service is taken out of its bucket until it is back in service, so it is never scanned.
+ * 
+ * @author Alok Kushwah (akushwah)
+ */
+public class ElevatorFloorIndex {
+
+	private static final Entry[] EMPTY = new Entry[0];
+	private static final Bank[] NO_BANK = new Bank[0];
+
+	private final List<ElevatorControlInterface> elevators;
+	private final int floorCount;
+	private final Bank[][] banksByFloor;
+	private final List<List<ElevatorControlInterface>> candidatesByFloor;
+
+	/**
+	 * Elevator with its position in elevator list. Position breaks ties same way as scanning the list.
+	 */
+	static final class Entry {
+		final ElevatorControlInterface elevator;
+		final int order;
+		final Bank bank;
+		int floorIndex = -1; // guarded by index, -1 while out of service
+		boolean inService = true; // guarded by index
+
+		Entry(ElevatorControlInterface elevator, int order, Bank bank) {
+			this.elevator = elevator;
+			this.order = order;
+			this.bank = bank;
+		}
+	}
+
+	/**
+	 * Elevators which stop at same floors, indexed by their current floor.
+	 */
+	static final class Bank {
+		final ServedFloors servedFloors;
+		private final AtomicReferenceArray<Entry[]> buckets;
+
+		Bank(ServedFloors servedFloors, int floorCount) {
+			this.servedFloors = servedFloors;
+			this.buckets = new AtomicReferenceArray<Entry[]>(floorCount);
+			for (int i = 0; i < floorCount; i++) {
+				buckets.set(i, EMPTY);
+			}
+		}
+
+		/**
+		 * Elevators of bank currently at given floor.
+		 * @param floorIndex
+		 * @return Entry[] - must not be modified
+		 */
+		Entry[] getEntries(int floorIndex) {
+			return buckets.get(floorIndex);
+		}
+	}
+
+	/**
+	 * Creates a new index and starts tracking given elevators.
+	 * @param elevators - elevators to index
+	 * @param floorCount - number of floors in building, it is extended in case an elevator can go higher
+	 */
+	public ElevatorFloorIndex(List<ElevatorControlInterface> elevators, int floorCount) {
+		this.elevators = elevators;
+		for (ElevatorControlInterface elevator : elevators) {
+			floorCount = Math.max(floorCount, elevator.getServedFloors().last() + 1);
+		}
+		this.floorCount = floorCount;
+		List<Bank> banks = new ArrayList<Bank>();
+		List<Entry> entries = new ArrayList<Entry>();
+		for (int i = 0; i < elevators.size(); i++) {
+			ElevatorControlInterface elevator = elevators.get(i);
+			ServedFloors servedFloors = elevator.getServedFloors();
+			Bank bank = null;
+			for (Bank existing : banks) {
+				if (existing.servedFloors.equals(servedFloors)) {
+					bank = existing;
+					break;
+				}
+			}
+			if (bank == null) {
+				bank = new Bank(servedFloors, floorCount);
+				banks.add(bank);
+			}
+			entries.add(new Entry(elevator, i, bank));
+		}
+		this.banksByFloor = new Bank[floorCount][];
+		this.candidatesByFloor = new ArrayList<List<ElevatorControlInterface>>(floorCount);
+		for (int floor = 0; floor < floorCount; floor++) {
+			List<Bank> serving = new ArrayList<Bank>();
+			for (Bank bank : banks) {
+				if (bank.servedFloors.contains(floor)) {
+					serving.add(bank);
+				}
+			}
+			banksByFloor[floor] = serving.toArray(new Bank[serving.size()]);
+			List<ElevatorControlInterface> candidates = new ArrayList<ElevatorControlInterface>();
+			for (Entry entry : entries) {
+				if (serving.contains(entry.bank)) {
+					candidates.add(entry.elevator);
+				}
+			}
+			candidatesByFloor.add(Collections.unmodifiableList(candidates));
+		}
+		for (final Entry entry : entries) {
+			// register first, so no move is lost between reading floor and adding to bucket
+			entry.elevator.addStateListener(new ElevatorStateListener() {
+				public void snapshotPublished(ElevatorControlInterface elevator, ElevatorSnapshot previous, ElevatorSnapshot current) {
+					boolean inService = current.getState() != STATE.OUT_OF_ORDER;
+					if (inService != (previous.getState() != STATE.OUT_OF_ORDER)) {
+						serviceChanged(entry, inService, current.getCurrentFloor());
+					} else if (previous.getCurrentFloor() != current.getCurrentFloor()) {
+						moved(entry, current.getCurrentFloor());
+					}
+				}
+			});
+			ElevatorSnapshot snapshot = entry.elevator.getSnapshot();
+			if (snapshot.getState() == STATE.OUT_OF_ORDER) {
+				serviceChanged(entry, false, snapshot.getCurrentFloor());
+			}
+			place(entry, snapshot.getCurrentFloor());
+		}
+	}
+
+	/**
+	 * All indexed elevators in original order.
+	 * @return List
+	 */
+	public List<ElevatorControlInterface> getElevators() {
+		return elevators;
+	}
+
+	/**
+	 * Elevators which stop at given floor in original order. Lists are built once, so it costs nothing per request.
+	 * @param floorIndex
+	 * @return List - unmodifiable, empty in case no elevator serves the floor
+	 */
+	public List<ElevatorControlInterface> getCandidates(int floorIndex) {
+		if (floorIndex < 0 || floorIndex >= floorCount) {
+			return Collections.emptyList();
+		}
+		return candidatesByFloor.get(floorIndex);
+	}
+
+	/**
+	 * Number of floors in building.
+	 * @return int
+	 */
+	public int getFloorCount() {
+		return floorCount;
+	}
+
+	/**
+	 * Banks of elevators which stop at given floor.
+	 * @param floorIndex
+	 * @return Bank[] - must not be modified, empty in case no elevator serves the floor
+	 */
+	Bank[] getBanks(int floorIndex) {
+		if (floorIndex < 0 || floorIndex >= floorCount) {
+			return NO_BANK;
+		}
+		return banksByFloor[floorIndex];
+	}
+
+	private synchronized void place(Entry entry, int floorIndex) {
+		if (entry.floorIndex == -1) {
+			moved(entry, floorIndex);
+		}
+	}
+
+	private synchronized void serviceChanged(Entry entry, boolean inService, int floorIndex) {
+		entry.inService = inService;
+		if (inService) {
+			moved(entry, floorIndex);
+		} else if (entry.floorIndex != -1) {
+			remove(entry, entry.floorIndex);
+			entry.floorIndex = -1;
+		}
+	}
+
+	private synchronized void moved(Entry entry, int floorIndex) {
+		if (entry.floorIndex == floorIndex || !entry.inService) {
+			return;
+		}
+		add(entry, floorIndex);
+		if (entry.floorIndex != -1) {
+			remove(entry, entry.floorIndex);
+		}
+		entry.floorIndex = floorIndex;
+	}
+
+	private synchronized void add(Entry entry, int floorIndex) {
+		AtomicReferenceArray<Entry[]> buckets = entry.bank.buckets;
+		Entry[] bucket = buckets.get(floorIndex);
+		Entry[] updated = new Entry[bucket.length + 1];
+		System.arraycopy(bucket, 0, updated, 0, bucket.length);
+		updated[bucket.length] = entry;
+		buckets.set(floorIndex, updated);
+	}
+
+	private synchronized void remove(Entry entry, int floorIndex) {
+		AtomicReferenceArray<Entry[]> buckets = entry.bank.buckets;
+		Entry[] bucket = buckets.get(floorIndex);
+		for (int i = 0; i < bucket.length; i++) {
+			if (bucket[i] == entry) {
+				Entry[] updated = new Entry[bucket.length - 1];
+				System.arraycopy(bucket, 0, updated, 0, i);
+				System.arraycopy(bucket, i + 1, updated, i, bucket.length - i - 1);
+				buckets.set(floorIndex, updated);
+				return;
+			}
+		}
+	}
+}
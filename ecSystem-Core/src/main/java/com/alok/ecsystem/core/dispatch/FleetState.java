@@ -0,0 +1,242 @@
+package com.alok.ecsystem.core.dispatch;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.alok.ecsystem.core.ElevatorControlInterface;
+import com.alok.ecsystem.core.ElevatorControlInterface.DIRECTION;
+import com.alok.ecsystem.core.ElevatorControlInterface.STATE;
+import com.alok.ecsystem.core.ElevatorSnapshot;
+import com.alok.ecsystem.core.ElevatorStateListener;
+import com.alok.ecsystem.core.util.ServedFloors;
+
+/**
+ * Column store of fleet state. Floor, direction, state, stops, load and served floors of all elevators are kept in primitive arrays 
+ * indexed by position of elevator in the list, so costs of whole fleet are calculated in one tight loop without calling elevators.
+ * It is used where every elevator must be evaluated, like batch dispatching and re-optimization.
+ * 
+ * Columns are updated by {@link ElevatorStateListener} from every published {@link ElevatorSnapshot}, while elevator holds its lock. 
+ * No lock is shared between elevators: every row has a sequence number which is odd while the row is written, 
+ * writer claims only its own row and reader reads a row again in case its sequence changed meanwhile. 
+ * So a bulk read sees every elevator in a consistent state and never blocks movement of elevators. 
+ * Columns are atomic arrays, as sequence check needs ordered reads of them.
+ * 
+ * Cost calculation is same as {@link ElevatorSnapshot#estimatedFloorRequestCost(int, DIRECTION)} and time calculation is same as 
+ * {@link TravelTimeModel#estimatedArrivalMillis(ElevatorSnapshot, int, DIRECTION)}. 
+ * Elevator which does not serve the floor of request or is out of service always costs {@link Integer#MAX_VALUE}.
+ * Elevators which override {@link ElevatorControlInterface#estimatedFloorRequestCost(int, DIRECTION)} are not reflected.
+ * 
+ * @author Alok Kushwah (akushwah)
+ */
+public class FleetState {
+
+	private final List<ElevatorControlInterface> elevators;
+	private final AtomicLongArray sequence;
+	private final long[] version;
+	private final AtomicIntegerArray currentFloor;
+	private final AtomicReferenceArray<STATE> state;
+	private final AtomicIntegerArray up;
+	private final AtomicIntegerArray firstStop;
+	private final AtomicIntegerArray lastStop;
+	private final AtomicIntegerArray pendingCount;
+	private final AtomicReferenceArray<long[]> stops;
+	private final AtomicIntegerArray load;
+	private final AtomicIntegerArray capacity;
+	private final AtomicIntegerArray loadBypass;
+	private final AtomicReferenceArray<ServedFloors> servedFloors;
+	private final AtomicIntegerArray minFloor;
+	private final AtomicIntegerArray maxFloor;
+
+	/**
+	 * Creates columns for given elevators and starts tracking them.
+	 * @param elevators
+	 */
+	public FleetState(List<ElevatorControlInterface> elevators) {
+		this.elevators = elevators;
+		int size = elevators.size();
+		sequence = new AtomicLongArray(size);
+		version = new long[size];
+		currentFloor = new AtomicIntegerArray(size);
+		state = new AtomicReferenceArray<STATE>(size);
+		up = new AtomicIntegerArray(size);
+		firstStop = new AtomicIntegerArray(size);
+		lastStop = new AtomicIntegerArray(size);
+		pendingCount = new AtomicIntegerArray(size);
+		stops = new AtomicReferenceArray<long[]>(size);
+		load = new AtomicIntegerArray(size);
+		capacity = new AtomicIntegerArray(size);
+		loadBypass = new AtomicIntegerArray(size);
+		servedFloors = new AtomicReferenceArray<ServedFloors>(size);
+		minFloor = new AtomicIntegerArray(size);
+		maxFloor = new AtomicIntegerArray(size);
+		for (int i = 0; i < size; i++) {
+			final int position = i;
+			version[i] = -1;
+			ElevatorControlInterface elevator = elevators.get(i);
+			elevator.addStateListener(new ElevatorStateListener() {
+				public void snapshotPublished(ElevatorControlInterface elevator, ElevatorSnapshot previous, ElevatorSnapshot current) {
+					update(position, current);
+				}
+			});
+			update(i, elevator.getSnapshot());
+		}
+	}
+
+	/**
+	 * Number of elevators.
+	 * @return int
+	 */
+	public int size() {
+		return elevators.size();
+	}
+
+	/**
+	 * Elevator at given position.
+	 * @param position
+	 * @return {@link ElevatorControlInterface}
+	 */
+	public ElevatorControlInterface getElevator(int position) {
+		return elevators.get(position);
+	}
+
+	/**
+	 * All elevators in order of their position.
+	 * @return List
+	 */
+	public List<ElevatorControlInterface> getElevators() {
+		return elevators;
+	}
+
+	/**
+	 * Calculates distance of every elevator from given floor.
+	 * @param floorIndex - floor index of request
+	 * @param costs - receives distance at position of elevator, length must be at least {@link #size()}
+	 */
+	public void distances(int floorIndex, int[] costs) {
+		int size = version.length;
+		for (int i = 0; i < size; i++) {
+			long seq;
+			int cost;
+			do {
+				seq = beginRead(i);
+				cost = serves(i, floorIndex) ? Math.abs(currentFloor.get(i) - floorIndex) : Integer.MAX_VALUE;
+			} while (sequence.get(i) != seq);
+			costs[i] = cost;
+		}
+	}
+
+	/**
+	 * Calculates estimated cost of every elevator for request at given floor, plus penalty for every pending stop.
+	 * @param floorIndex - floor index of request
+	 * @param direction - direction of request, null in case it is not known
+	 * @param stopPenalty - cost added for each pending stop of elevator, 0 for plain estimation
+	 * @param costs - receives cost at position of elevator, length must be at least {@link #size()}
+	 */
+	public void estimatedFloorRequestCosts(int floorIndex, DIRECTION direction, int stopPenalty, int[] costs) {
+		int size = version.length;
+		for (int i = 0; i < size; i++) {
+			long seq;
+			int cost;
+			do {
+				seq = beginRead(i);
+				cost = !serves(i, floorIndex) ? Integer.MAX_VALUE 
+						: ElevatorSnapshot.estimatedFloorRequestCost(floorIndex, direction, state.get(i) == STATE.MOVING, up.get(i) != 0, 
+								currentFloor.get(i), firstStop.get(i), lastStop.get(i), minFloor.get(i), maxFloor.get(i)) 
+							+ stopPenalty * pendingCount.get(i);
+			} while (sequence.get(i) != seq);
+			costs[i] = cost;
+		}
+	}
+
+	/**
+	 * Estimates time of arrival of every elevator at given floor.
+	 * @param model - timings of elevators
+	 * @param floorIndex - floor index of request
+	 * @param direction - direction of request, null in case it is not known
+	 * @param costs - receives milli seconds at position of elevator, length must be at least {@link #size()}
+	 */
+	public void estimatedArrivalMillis(TravelTimeModel model, int floorIndex, DIRECTION direction, int[] costs) {
+		int size = version.length;
+		for (int i = 0; i < size; i++) {
+			long seq;
+			int cost;
+			do {
+				seq = beginRead(i);
+				cost = !serves(i, floorIndex) ? Integer.MAX_VALUE 
+						: model.estimatedArrivalMillis(floorIndex, direction, state.get(i), up.get(i) != 0, currentFloor.get(i), 
+								firstStop.get(i), lastStop.get(i), stops.get(i), minFloor.get(i), maxFloor.get(i));
+			} while (sequence.get(i) != seq);
+			costs[i] = cost;
+		}
+	}
+
+	/**
+	 * Adds load of every elevator to its cost, same as {@link ElevatorSnapshot#loadedCost(int, int)}.
+	 * @param fullLoadCost - cost added for full elevator
+	 * @param costs - cost at position of elevator without load, length must be at least {@link #size()}
+	 */
+	public void loadedCosts(int fullLoadCost, int[] costs) {
+		int size = version.length;
+		for (int i = 0; i < size; i++) {
+			long seq;
+			int cost;
+			do {
+				seq = beginRead(i);
+				cost = ElevatorSnapshot.loadedCost(costs[i], load.get(i), capacity.get(i), loadBypass.get(i) != 0, fullLoadCost);
+			} while (sequence.get(i) != seq);
+			costs[i] = cost;
+		}
+	}
+
+	/**
+	 * helper method to check whether elevator at given position is in service and stops at given floor, same as {@link ElevatorSnapshot#serves(int)}.
+	 */
+	private boolean serves(int position, int floorIndex) {
+		return state.get(position) != STATE.OUT_OF_ORDER && servedFloors.get(position).contains(floorIndex);
+	}
+
+	/**
+	 * helper method to wait until row is not written and return its sequence. Reader checks sequence again after reading the row.
+	 */
+	private long beginRead(int position) {
+		long seq;
+		while (((seq = sequence.get(position)) & 1) != 0) {
+			Thread.yield(); // writer copies one snapshot, it is done soon
+		}
+		return seq;
+	}
+
+	/**
+	 * helper method to copy snapshot to row of elevator. Row is claimed by making its sequence odd, 
+	 * as initial read of constructor can race with listener of same elevator.
+	 */
+	private void update(int position, ElevatorSnapshot snapshot) {
+		long seq;
+		do {
+			seq = sequence.get(position);
+		} while ((seq & 1) != 0 || !sequence.compareAndSet(position, seq, seq + 1));
+		try {
+			if (snapshot.getVersion() <= version[position]) {
+				return; // initial read raced with a newer snapshot
+			}
+			version[position] = snapshot.getVersion();
+			currentFloor.set(position, snapshot.getCurrentFloor());
+			state.set(position, snapshot.getState());
+			up.set(position, snapshot.getDirection() == DIRECTION.UP ? 1 : 0);
+			firstStop.set(position, snapshot.getFirstStop());
+			lastStop.set(position, snapshot.getLastStop());
+			pendingCount.set(position, snapshot.getPendingCount());
+			stops.set(position, snapshot.getStops());
+			load.set(position, snapshot.getLoad());
+			capacity.set(position, snapshot.getCapacity());
+			loadBypass.set(position, snapshot.isLoadBypass() ? 1 : 0);
+			servedFloors.set(position, snapshot.getServedFloors());
+			minFloor.set(position, snapshot.getMinFloor());
+			maxFloor.set(position, snapshot.getMaxFloor());
+		} finally {
+			sequence.set(position, seq + 2);
+		}
+	}
+}
@@ -0,0 +1,51 @@
+package com.alok.ecsystem.core.dispatch;
+
+import com.alok.ecsystem.core.ElevatorControlInterface.DIRECTION;
+
+/**
+ * Hall call of a floor. Floor can have one call without direction, or one call for each direction.
+ * 
+ * @author Alok Kushwah (akushwah)
+ */
+public final class HallCall {
+
+	private final int floorIndex;
+	private final DIRECTION direction;
+
+	/**
+	 * Creates a new hall call.
+	 * @param floorIndex - floor where call is made
+	 * @param direction - direction rider wants to go, null for single call button
+	 */
+	public HallCall(int floorIndex, DIRECTION direction) {
+		this.floorIndex = floorIndex;
+		this.direction = direction;
+	}
+
+	public int getFloorIndex() {
+		return floorIndex;
+	}
+
+	public DIRECTION getDirection() {
+		return direction;
+	}
+
+	@Override
+	public int hashCode() {
+		return floorIndex * 3 + (direction == null ? 0 : direction.ordinal() + 1);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (!(obj instanceof HallCall)) {
+			return false;
+		}
+		HallCall other = (HallCall) obj;
+		return floorIndex == other.floorIndex && direction == other.direction;
+	}
+
+	@Override
+	public String toString() {
+		return direction == null ? String.valueOf(floorIndex) : floorIndex + " " + direction;
+	}
+}
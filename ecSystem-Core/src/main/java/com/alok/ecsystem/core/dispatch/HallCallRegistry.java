@@ -0,0 +1,151 @@
+package com.alok.ecsystem.core.dispatch;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.log4j.Logger;
+
+import com.alok.ecsystem.core.ElevatorControlInterface;
+import com.alok.ecsystem.core.ElevatorControlInterface.DIRECTION;
+import com.alok.ecsystem.core.FloorControlInterface;
+
+/**
+ * Keeps track of hall calls which are assigned to elevators but not served yet. Up and down calls of a floor are tracked separately.
+ * 
+ * All hall call assignments must go through this registry so assignment can be moved to another elevator later.
+ * 
+ * @author Alok Kushwah (akushwah)
+ */
+public class HallCallRegistry {
+
+	private static final Logger logger = Logger.getLogger(HallCallRegistry.class);
+
+	private final ConcurrentMap<HallCall, ElevatorControlInterface> assignments = new ConcurrentHashMap<HallCall, ElevatorControlInterface>();
+
+	/**
+	 * Assigns hall call of given floor to elevator.
+	 * @param floorControl - floor where call is made
+	 * @param direction - direction of call, null for single call button
+	 * @param elevator - elevator to serve the call
+	 * @throws RuntimeException in case elevator cannot serve the floor
+	 */
+	public void assign(FloorControlInterface floorControl, DIRECTION direction, ElevatorControlInterface elevator) {
+		HallCall call = new HallCall(floorControl.getId(), direction);
+		logger.debug("Assigning request to elevetor=" + elevator + " to floor=" + call);
+		assignments.put(call, elevator);
+		try {
+			elevator.addHallCall(call.getFloorIndex(), direction);
+		} catch (RuntimeException e) {
+			assignments.remove(call);
+			throw e;
+		}
+	}
+
+	/**
+	 * Moves unserved hall call from one elevator to another. Call is not moved in case it was already served 
+	 * or elevator has to stop at the floor anyway.
+	 * 
+	 * Call is withdrawn from old elevator before it is given to new one, so floor is never served by both.
+	 * No lock is held while calling elevators, as elevators call back {@link #arrived(int, DIRECTION, ElevatorControlInterface)} 
+	 * while holding their own lock.
+	 * 
+	 * @param call - hall call
+	 * @param from - currently assigned elevator
+	 * @param to - new elevator
+	 * @return boolean - true if call is moved
+	 */
+	public boolean reassign(HallCall call, ElevatorControlInterface from, ElevatorControlInterface to) {
+		int floorIndex = call.getFloorIndex();
+		if (assignments.get(call) != from || !from.withdrawHallCall(floorIndex, call.getDirection())) {
+			return false;
+		}
+		if (!assignments.replace(call, from, to)) {
+			return false; // served by another elevator in the meantime
+		}
+		logger.debug("Moving request of floor=" + call + " from elevetor=" + from + " to elevetor=" + to);
+		try {
+			to.addHallCall(floorIndex, call.getDirection());
+		} catch (RuntimeException e) {
+			logger.error("Unable to move request of floor=" + call + " to elevetor=" + to + ". Assigning it back to elevetor=" + from, e);
+			assignments.replace(call, to, from);
+			from.addHallCall(floorIndex, call.getDirection());
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Removes all hall calls assigned to given elevator, e.g. because it is out of service and will not serve them.
+	 * @param elevator - assigned elevator
+	 * @return List - removed hall calls in no particular order
+	 */
+	public List<HallCall> release(ElevatorControlInterface elevator) {
+		List<HallCall> released = new ArrayList<HallCall>();
+		for (Map.Entry<HallCall, ElevatorControlInterface> entry : assignments.entrySet()) {
+			// served or moved by another thread in the meantime in case remove fails
+			if (entry.getValue() == elevator && assignments.remove(entry.getKey(), elevator)) {
+				released.add(entry.getKey());
+			}
+		}
+		return released;
+	}
+
+	/**
+	 * Should be called when an elevator arrives at floor. Hall calls of the direction it leaves in are served and removed 
+	 * from registry, whichever elevator they were assigned to. 
+	 * Call served by another elevator is returned, its assigned elevator still has the stop and should withdraw it.
+	 * @param floorIndex - floor index
+	 * @param direction - direction elevator leaves in, null in case it serves all calls of the floor
+	 * @param elevator - arrived elevator, null in case it is not known
+	 * @return Map - served calls which were assigned to another elevator, empty in case there is none
+	 */
+	public Map<HallCall, ElevatorControlInterface> arrived(int floorIndex, DIRECTION direction, ElevatorControlInterface elevator) {
+		Map<HallCall, ElevatorControlInterface> foreign = served(new HallCall(floorIndex, null), elevator, null);
+		if (direction != DIRECTION.DOWN) {
+			foreign = served(new HallCall(floorIndex, DIRECTION.UP), elevator, foreign);
+		}
+		if (direction != DIRECTION.UP) {
+			foreign = served(new HallCall(floorIndex, DIRECTION.DOWN), elevator, foreign);
+		}
+		return foreign == null ? Collections.<HallCall, ElevatorControlInterface>emptyMap() : foreign;
+	}
+
+	/**
+	 * helper method to remove served call. Map of foreign calls is created on first one only, arrival at floor without call 
+	 * of another elevator allocates nothing more.
+	 */
+	private Map<HallCall, ElevatorControlInterface> served(HallCall call, ElevatorControlInterface elevator, Map<HallCall, ElevatorControlInterface> foreign) {
+		ElevatorControlInterface assigned = assignments.remove(call);
+		if (assigned == null || assigned == elevator) {
+			return foreign;
+		}
+		if (foreign == null) {
+			foreign = new HashMap<HallCall, ElevatorControlInterface>(4);
+		}
+		foreign.put(call, assigned);
+		return foreign;
+	}
+
+	/**
+	 * Returns elevator assigned to serve hall call of given floor.
+	 * @param floorIndex - floor index
+	 * @param direction - direction of call, null for single call button
+	 * @return {@link ElevatorControlInterface} - null in case there is no pending hall call.
+	 */
+	public ElevatorControlInterface getAssignedElevator(int floorIndex, DIRECTION direction) {
+		return assignments.get(new HallCall(floorIndex, direction));
+	}
+
+	/**
+	 * Returns copy of all pending assignments.
+	 * @return Map - hall call to elevator
+	 */
+	public Map<HallCall, ElevatorControlInterface> getAssignments() {
+		return new HashMap<HallCall, ElevatorControlInterface>(assignments);
+	}
+}
@@ -0,0 +1,119 @@
+package com.alok.ecsystem.core.dispatch;
+
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.log4j.Logger;
+
+import com.alok.ecsystem.core.ElevatorControlInterface;
+import com.alok.ecsystem.core.ElevatorSystemControl;
+
+/**
+ * Background task which periodically re-evaluates all unserved hall calls against current state of elevators.
+ * 
+ * Call is moved to another elevator when its cost is lower than cost of assigned elevator by at least threshold.
+ * Cost is given by {@link DispatchStrategy}.
+ * 
+ * It is started by {@link ElevatorSystemControl} when "dispatch.reoptimize.periodMillis" is more than 0.
+ * 
+ * @author Alok Kushwah (akushwah)
+ */
+public class HallCallReoptimizer implements Runnable {
+
+	private static final Logger logger = Logger.getLogger(HallCallReoptimizer.class);
+
+	private final DispatchStrategy strategy;
+	private final FleetState fleet;
+	private final HallCallRegistry registry;
+	private final int threshold;
+	private final AtomicLong reassignmentCount = new AtomicLong();
+	private ScheduledFuture<?> task;
+
+	/**
+	 * Creates a new re-optimizer.
+	 * @param strategy - strategy to calculate cost of elevator for a call
+	 * @param fleet - elevators to move calls between
+	 * @param registry - registry of assigned hall calls
+	 * @param threshold - minimum cost improvement to move a call, in floors as scaled by {@link DispatchStrategy#getFloorCost()}
+	 */
+	public HallCallReoptimizer(DispatchStrategy strategy, FleetState fleet, HallCallRegistry registry, int threshold) {
+		this.strategy = strategy;
+		this.fleet = fleet;
+		this.registry = registry;
+		this.threshold = threshold * strategy.getFloorCost();
+	}
+
+	/**
+	 * Starts periodic re-evaluation.
+	 * @param executor - scheduler of building to run re-evaluation on
+	 * @param periodMillis - time between two re-evaluations
+	 */
+	public synchronized void start(ScheduledExecutorService executor, long periodMillis) {
+		if (task != null) {
+			return;
+		}
+		task = executor.scheduleWithFixedDelay(this, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Stops periodic re-evaluation.
+	 */
+	public synchronized void shutdown() {
+		if (task != null) {
+			task.cancel(false);
+			task = null;
+		}
+	}
+
+	/**
+	 * Re-evaluates all unserved hall calls once.
+	 */
+	public void run() {
+		try {
+			int[] costs = new int[fleet.size()];
+			for (Map.Entry<HallCall, ElevatorControlInterface> entry : registry.getAssignments().entrySet()) {
+				reoptimize(entry.getKey(), entry.getValue(), costs);
+			}
+		} catch (RuntimeException e) {
+			logger.error("Unable to re-optimize hall calls.", e);
+		}
+	}
+
+	/**
+	 * Number of hall calls moved so far.
+	 * @return long
+	 */
+	public long getReassignmentCount() {
+		return reassignmentCount.get();
+	}
+
+	private void reoptimize(HallCall call, ElevatorControlInterface assigned, int[] costs) {
+		int floorIndex = call.getFloorIndex();
+		strategy.costs(fleet, floorIndex, call.getDirection(), costs);
+		int assignedCost = Integer.MAX_VALUE;
+		int minCost = Integer.MAX_VALUE;
+		ElevatorControlInterface best = null;
+		for (int i = 0; i < costs.length; i++) {
+			ElevatorControlInterface elevator = fleet.getElevator(i);
+			if (elevator == assigned) {
+				assignedCost = costs[i];
+			} else if (costs[i] < minCost) {
+				minCost = costs[i];
+				best = elevator;
+			}
+		}
+		if (assignedCost == Integer.MAX_VALUE) {
+			assignedCost = strategy.cost(assigned, floorIndex, call.getDirection()); // not part of fleet
+		}
+		if (best == null || minCost == Integer.MAX_VALUE || (long) assignedCost - minCost < threshold) {
+			return;
+		}
+		if (registry.reassign(call, assigned, best)) {
+			reassignmentCount.incrementAndGet();
+			logger.info("Moved request of floor " + call + " from elevator " + assigned + " (cost=" + assignedCost + ") to elevator " + best + " (cost=" + minCost + ")");
+		}
+	}
+}
@@ -0,0 +1,90 @@
+package com.alok.ecsystem.core.dispatch;
+
+import java.util.Arrays;
+
+/**
+ * Solves rectangular assignment problem with Hungarian method in O(n^2 * m) time.
+ * 
+ * Each row is assigned to exactly one distinct column so that total cost is minimum. 
+ * Number of rows must not be more than number of columns.
+ * 
+ * @author Alok Kushwah (akushwah)
+ */
+public final class HungarianAssignment {
+
+	private HungarianAssignment() {
+	}
+
+	/**
+	 * Solves assignment problem for given cost matrix.
+	 * @param cost - cost[row][column] matrix, rows &lt;= columns
+	 * @return int[] - assigned column index for each row
+	 * @throws IllegalArgumentException in case there are more rows than columns
+	 */
+	public static int[] solve(long[][] cost) {
+		int n = cost.length;
+		if (n == 0) {
+			return new int[0];
+		}
+		int m = cost[0].length;
+		if (n > m) {
+			throw new IllegalArgumentException("Rows=" + n + " must not be more than columns=" + m);
+		}
+		// potentials and matching are 1 based, column 0 is a virtual column
+		long[] u = new long[n + 1];
+		long[] v = new long[m + 1];
+		int[] match = new int[m + 1];
+		int[] way = new int[m + 1];
+		long[] minv = new long[m + 1];
+		boolean[] used = new boolean[m + 1];
+
+		for (int i = 1; i <= n; i++) {
+			match[0] = i;
+			int j0 = 0;
+			Arrays.fill(minv, Long.MAX_VALUE);
+			Arrays.fill(used, false);
+			do {
+				used[j0] = true;
+				int i0 = match[j0];
+				long delta = Long.MAX_VALUE;
+				int j1 = 0;
+				long[] row = cost[i0 - 1];
+				for (int j = 1; j <= m; j++) {
+					if (!used[j]) {
+						long current = row[j - 1] - u[i0] - v[j];
+						if (current < minv[j]) {
+							minv[j] = current;
+							way[j] = j0;
+						}
+						if (minv[j] < delta) {
+							delta = minv[j];
+							j1 = j;
+						}
+					}
+				}
+				for (int j = 0; j <= m; j++) {
+					if (used[j]) {
+						u[match[j]] += delta;
+						v[j] -= delta;
+					} else {
+						minv[j] -= delta;
+					}
+				}
+				j0 = j1;
+			} while (match[j0] != 0);
+			do {
+				int j1 = way[j0];
+				match[j0] = match[j1];
+				j0 = j1;
+			} while (j0 != 0);
+		}
+
+		int[] assignment = new int[n];
+		for (int j = 1; j <= m; j++) {
+			if (match[j] != 0) {
+				assignment[match[j] - 1] = j - 1;
+			}
+		}
+		return assignment;
+	}
+}
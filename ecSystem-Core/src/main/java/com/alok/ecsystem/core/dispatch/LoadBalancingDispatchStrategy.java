@@ -0,0 +1,48 @@
+package com.alok.ecsystem.core.dispatch;
+
+import com.alok.ecsystem.core.ElevatorControlInterface;
+import com.alok.ecsystem.core.ElevatorControlInterface.DIRECTION;
+import com.alok.ecsystem.core.config.ElevatorSystemConfig;
+
+/**
+ * Strategy which adds penalty for each pending stop of elevator on top of estimated time of arrival. 
+ * It keeps requests from piling up on one elevator while others are idle.
+ * 
+ * Penalty per pending stop can be configured by "dispatch.loadBalancing.stopPenalty" property. Default is 2.
+ * 
+ * This is the default strategy.
+ * 
+ * @author Alok Kushwah (akushwah)
+ */
+public class LoadBalancingDispatchStrategy extends AbstractDispatchStrategy {
+
+	private final int stopPenalty;
+
+	public LoadBalancingDispatchStrategy() {
+		this(2);
+	}
+
+	public LoadBalancingDispatchStrategy(ElevatorSystemConfig config) {
+		super(config);
+		this.stopPenalty = config.getIntProperty("dispatch.loadBalancing.stopPenalty", 2);
+	}
+
+	public LoadBalancingDispatchStrategy(int stopPenalty) {
+		this.stopPenalty = stopPenalty;
+	}
+
+	@Override
+	public int cost(ElevatorControlInterface elevator, int floorIndex, DIRECTION direction) {
+		int cost = elevator.estimatedFloorRequestCost(floorIndex, direction);
+		if (cost == Integer.MAX_VALUE) {
+			return cost;
+		}
+		return loadedCost(elevator, cost + stopPenalty * elevator.getFloorRequestCount());
+	}
+
+	@Override
+	public void costs(FleetState fleet, int floorIndex, DIRECTION direction, int[] costs) {
+		fleet.estimatedFloorRequestCosts(floorIndex, direction, stopPenalty, costs);
+		loadedCosts(fleet, costs);
+	}
+}
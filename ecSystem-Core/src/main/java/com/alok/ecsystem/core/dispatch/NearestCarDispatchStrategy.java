@@ -0,0 +1,37 @@
+package com.alok.ecsystem.core.dispatch;
+
+import com.alok.ecsystem.core.ElevatorControlInterface;
+import com.alok.ecsystem.core.ElevatorControlInterface.DIRECTION;
+import com.alok.ecsystem.core.ElevatorSnapshot;
+import com.alok.ecsystem.core.config.ElevatorSystemConfig;
+
+/**
+ * Greedy strategy which assigns request to the elevator closest to requested floor 
+ * without considering direction of elevator or request, or pending requests. Only load of elevator is added to distance.
+ * 
+ * @author Alok Kushwah (akushwah)
+ */
+public class NearestCarDispatchStrategy extends AbstractDispatchStrategy {
+
+	public NearestCarDispatchStrategy() {
+	}
+
+	public NearestCarDispatchStrategy(ElevatorSystemConfig config) {
+		super(config);
+	}
+
+	@Override
+	public int cost(ElevatorControlInterface elevator, int floorIndex, DIRECTION direction) {
+		ElevatorSnapshot snapshot = elevator.getSnapshot();
+		if (!snapshot.serves(floorIndex)) {
+			return Integer.MAX_VALUE;
+		}
+		return loadedCost(elevator, Math.abs(snapshot.getCurrentFloor() - floorIndex));
+	}
+
+	@Override
+	public void costs(FleetState fleet, int floorIndex, DIRECTION direction, int[] costs) {
+		fleet.distances(floorIndex, costs);
+		loadedCosts(fleet, costs);
+	}
+}
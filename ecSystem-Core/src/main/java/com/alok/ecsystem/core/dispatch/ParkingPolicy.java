@@ -0,0 +1,254 @@
+package com.alok.ecsystem.core.dispatch;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.log4j.Logger;
+
+import com.alok.ecsystem.core.ElevatorControlInterface;
+import com.alok.ecsystem.core.ElevatorSnapshot;
+import com.alok.ecsystem.core.ElevatorSystemControl;
+import com.alok.ecsystem.core.FloorControlInterface;
+import com.alok.ecsystem.core.ElevatorControlInterface.STATE;
+import com.alok.ecsystem.core.event.EventSubscriber;
+import com.alok.ecsystem.core.event.FloorEvent;
+
+/**
+ * Background task which parks idle elevators at floors which are likely to call next, e.g. lobby before morning peak.
+ *
+ * Hall calls are counted per floor from floor events. Demand of a floor is its recent calls, which fade out with half life
+ * of one slot, plus calls of same time of day slot on previous days for the slot ahead. Day is split in slots of
+ * "dispatch.parking.slotMinutes". Time of day is counted by this task from "dispatch.parking.startMinuteOfDay" with every round,
+ * so it follows virtual clock of a simulation too.
+ *
+ * Every round floors with most demand get the nearest elevator which was idle since last round, one elevator per floor.
+ * Elevator which is already at the floor stays there. Parked elevators are at most "dispatch.parking.maxFleetPercent" of fleet,
+ * parked elevator is moved again only once its floor has no demand left. Parking ends with next request of elevator.
+ *
+ * It is started by {@link ElevatorSystemControl} when "dispatch.parking.periodMillis" is more than 0.
+ *
+ * @author Alok Kushwah (akushwah)
+ */
+public class ParkingPolicy implements EventSubscriber<FloorEvent>, Runnable {
+
+	private static final Logger logger = Logger.getLogger(ParkingPolicy.class);
+
+	private static final long MILLIS_PER_DAY = 24 * 60 * 60 * 1000L;
+	/** weight of latest day in history of a slot */
+	private static final float HISTORY_WEIGHT = 0.5f;
+	/** expected calls for floor to be worth a parked elevator */
+	private static final float MIN_DEMAND = 1f;
+
+	private final List<ElevatorControlInterface> elevators;
+	private final int maxParked;
+	private final long periodMillis;
+	private final long slotMillis;
+	private final AtomicIntegerArray calls;
+	private final int[] slotCalls;
+	private final float[] recent;
+	private final float decay;
+	private final float[][] history;
+	private final boolean[] learned;
+	private final boolean[] idle;
+	private final AtomicLong parkingCount = new AtomicLong();
+	private long time;
+	private ScheduledFuture<?> task;
+
+	/**
+	 * Creates a new parking policy.
+	 * @param elevators - elevators to park
+	 * @param floorCount - number of floors
+	 * @param maxFleetPercent - maximum share of elevators which are parked at same time
+	 * @param slotMinutes - length of time of day slot, it must divide a day
+	 * @param startMinuteOfDay - time of day of first round
+	 * @param periodMillis - time between two rounds
+	 */
+	public ParkingPolicy(List<ElevatorControlInterface> elevators, int floorCount, int maxFleetPercent, int slotMinutes,
+			int startMinuteOfDay, long periodMillis) {
+		this.elevators = elevators;
+		this.maxParked = elevators.size() * maxFleetPercent / 100;
+		this.periodMillis = periodMillis;
+		this.slotMillis = slotMinutes * 60 * 1000L;
+		this.calls = new AtomicIntegerArray(floorCount);
+		this.slotCalls = new int[floorCount];
+		this.recent = new float[floorCount];
+		this.decay = (float) Math.pow(0.5, (double) periodMillis / slotMillis);
+		this.history = new float[(int) (MILLIS_PER_DAY / slotMillis)][floorCount];
+		this.learned = new boolean[history.length];
+		this.idle = new boolean[elevators.size()];
+		this.time = startMinuteOfDay * 60 * 1000L;
+	}
+
+	/**
+	 * Starts periodic parking.
+	 * @param executor - scheduler of building to run parking on
+	 */
+	public synchronized void start(ScheduledExecutorService executor) {
+		if (task != null) {
+			return;
+		}
+		task = executor.scheduleAtFixedRate(this, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Stops periodic parking.
+	 */
+	public synchronized void shutdown() {
+		if (task != null) {
+			task.cancel(false);
+			task = null;
+		}
+	}
+
+	/**
+	 * Counts hall calls of floors.
+	 */
+	public void onEvent(FloorEvent event) {
+		if (event.getType() == FloorControlInterface.FLOOR_EVENT.BUTTON_PRESSED) {
+			calls.incrementAndGet(event.getFloor().getId());
+		}
+	}
+
+	/**
+	 * Runs one round, time of day moves by one period.
+	 */
+	public void run() {
+		try {
+			count();
+			park();
+		} catch (RuntimeException e) {
+			logger.error("Unable to park elevators.", e);
+		}
+	}
+
+	/**
+	 * Number of elevators sent to a parking floor so far.
+	 * @return long
+	 */
+	public long getParkingCount() {
+		return parkingCount.get();
+	}
+
+	/**
+	 * Expected hall calls of floor in next slot.
+	 * @param floorIndex - floor index
+	 * @return float
+	 */
+	public float getDemand(int floorIndex) {
+		return recent[floorIndex] + history[slot(time + slotMillis)][floorIndex];
+	}
+
+	/**
+	 * helper method to move calls counted since last round to recent calls and history of current slot.
+	 */
+	private void count() {
+		int slot = slot(time);
+		time += periodMillis;
+		for (int floor = 0; floor < recent.length; floor++) {
+			int count = calls.getAndSet(floor, 0);
+			slotCalls[floor] += count;
+			recent[floor] = recent[floor] * decay + count;
+		}
+		if (slot(time) == slot) {
+			return;
+		}
+		float[] slotHistory = history[slot];
+		for (int floor = 0; floor < slotHistory.length; floor++) {
+			slotHistory[floor] = learned[slot] ? slotHistory[floor] + HISTORY_WEIGHT * (slotCalls[floor] - slotHistory[floor]) : slotCalls[floor];
+			slotCalls[floor] = 0;
+		}
+		learned[slot] = true;
+	}
+
+	private int slot(long millis) {
+		return (int) (millis % MILLIS_PER_DAY / slotMillis);
+	}
+
+	/**
+	 * helper method to send free elevators to floors with most demand.
+	 */
+	private void park() {
+		final float[] demand = new float[recent.length];
+		Integer[] floors = new Integer[recent.length];
+		for (int floor = 0; floor < demand.length; floor++) {
+			demand[floor] = getDemand(floor);
+			floors[floor] = floor;
+		}
+		Arrays.sort(floors, new Comparator<Integer>() {
+			public int compare(Integer floor, Integer other) {
+				return Float.compare(demand[other], demand[floor]);
+			}
+		});
+
+		// elevator parked at a floor without demand can be moved, idle elevator only up to share of fleet
+		int size = elevators.size();
+		boolean[] free = new boolean[size];
+		boolean[] used = new boolean[size];
+		int parked = 0;
+		int available = 0;
+		for (int i = 0; i < size; i++) {
+			ElevatorControlInterface elevator = elevators.get(i);
+			ElevatorSnapshot snapshot = elevator.getSnapshot();
+			int parkingFloor = elevator.getParkingFloor();
+			boolean nowIdle = snapshot.getState() == STATE.IDLE && snapshot.getPendingCount() == 0;
+			if (parkingFloor != -1) {
+				parked++;
+				free[i] = nowIdle && demand[parkingFloor] < MIN_DEMAND;
+			} else {
+				free[i] = nowIdle && idle[i];
+			}
+			idle[i] = nowIdle;
+			if (free[i]) {
+				available++;
+			}
+		}
+
+		for (Integer floor : floors) {
+			if (demand[floor] < MIN_DEMAND || available == 0) {
+				break;
+			}
+			int nearest = -1;
+			int nearestDistance = Integer.MAX_VALUE;
+			boolean covered = false;
+			for (int i = 0; i < size && !covered; i++) {
+				ElevatorControlInterface elevator = elevators.get(i);
+				ElevatorSnapshot snapshot = elevator.getSnapshot();
+				if (used[i] || !snapshot.serves(floor)) {
+					continue;
+				}
+				if (elevator.getParkingFloor() == floor || (idle[i] && snapshot.getCurrentFloor() == floor)) {
+					used[i] = covered = true;
+					if (free[i]) {
+						available--;
+					}
+				} else if (free[i] && (parked < maxParked || elevator.getParkingFloor() != -1)) {
+					int distance = Math.abs(snapshot.getCurrentFloor() - floor);
+					if (distance < nearestDistance) {
+						nearest = i;
+						nearestDistance = distance;
+					}
+				}
+			}
+			if (covered || nearest == -1) {
+				continue;
+			}
+			ElevatorControlInterface elevator = elevators.get(nearest);
+			boolean wasParked = elevator.getParkingFloor() != -1;
+			used[nearest] = true;
+			available--;
+			if (elevator.park(floor)) {
+				if (!wasParked) {
+					parked++;
+				}
+				parkingCount.incrementAndGet();
+				logger.info("Parking elevator " + elevator + " at floor " + floor + " demand=" + demand[floor]);
+			}
+		}
+	}
+}
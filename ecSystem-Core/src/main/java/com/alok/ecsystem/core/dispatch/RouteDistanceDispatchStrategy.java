@@ -0,0 +1,34 @@
+package com.alok.ecsystem.core.dispatch;
+
+import com.alok.ecsystem.core.ElevatorControlInterface;
+import com.alok.ecsystem.core.ElevatorControlInterface.DIRECTION;
+import com.alok.ecsystem.core.config.ElevatorSystemConfig;
+
+/**
+ * Strategy which assigns request to the elevator with shortest distance along its route, in floors, 
+ * as given by {@link ElevatorControlInterface#estimatedFloorRequestCost(int, DIRECTION)}. Elevator going away from the floor 
+ * counts floors to its farthest stop and back. Door cycles of stops on the way are not counted, 
+ * {@link TravelTimeDispatchStrategy} estimates time of arrival including them.
+ * 
+ * @author Alok Kushwah (akushwah)
+ */
+public class RouteDistanceDispatchStrategy extends AbstractDispatchStrategy {
+
+	public RouteDistanceDispatchStrategy() {
+	}
+
+	public RouteDistanceDispatchStrategy(ElevatorSystemConfig config) {
+		super(config);
+	}
+
+	@Override
+	public int cost(ElevatorControlInterface elevator, int floorIndex, DIRECTION direction) {
+		return loadedCost(elevator, elevator.estimatedFloorRequestCost(floorIndex, direction));
+	}
+
+	@Override
+	public void costs(FleetState fleet, int floorIndex, DIRECTION direction, int[] costs) {
+		fleet.estimatedFloorRequestCosts(floorIndex, direction, 0, costs);
+		loadedCosts(fleet, costs);
+	}
+}
@@ -0,0 +1,53 @@
+package com.alok.ecsystem.core.dispatch;
+
+import com.alok.ecsystem.core.ElevatorControlInterface;
+import com.alok.ecsystem.core.ElevatorControlInterface.DIRECTION;
+import com.alok.ecsystem.core.config.ElevatorSystemConfig;
+
+/**
+ * Strategy which assigns request to the elevator which arrives first, as estimated in milli seconds by {@link TravelTimeModel}.
+ * Unlike {@link RouteDistanceDispatchStrategy}, which counts floors only, it accounts for door cycles of every stop the elevator
+ * makes on the way, so it minimizes real waiting time and busy elevators lose to idle ones by the time their stops take.
+ *
+ * Timings are taken from {@link ElevatorSystemConfig#getTravelTimeModel()}.
+ *
+ * @author Alok Kushwah (akushwah)
+ */
+public class TravelTimeDispatchStrategy extends AbstractDispatchStrategy {
+
+	private final TravelTimeModel model;
+
+	public TravelTimeDispatchStrategy() {
+		this(new TravelTimeModel());
+	}
+
+	public TravelTimeDispatchStrategy(ElevatorSystemConfig config) {
+		super(config);
+		this.model = config.getTravelTimeModel();
+	}
+
+	public TravelTimeDispatchStrategy(TravelTimeModel model) {
+		this.model = model;
+	}
+
+	@Override
+	public int cost(ElevatorControlInterface elevator, int floorIndex, DIRECTION direction) {
+		return loadedCost(elevator, model.estimatedArrivalMillis(elevator.getSnapshot(), floorIndex, direction));
+	}
+
+	@Override
+	public void costs(FleetState fleet, int floorIndex, DIRECTION direction, int[] costs) {
+		fleet.estimatedArrivalMillis(model, floorIndex, direction, costs);
+		loadedCosts(fleet, costs);
+	}
+
+	@Override
+	public int getFloorCost() {
+		return model.lowerBound(1);
+	}
+
+	@Override
+	protected int costLowerBound(int distance) {
+		return model.lowerBound(distance);
+	}
+}
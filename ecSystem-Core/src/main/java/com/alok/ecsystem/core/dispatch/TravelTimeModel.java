@@ -0,0 +1,184 @@
+package com.alok.ecsystem.core.dispatch;
+
+import com.alok.ecsystem.core.ElevatorControlInterface.DIRECTION;
+import com.alok.ecsystem.core.ElevatorControlInterface.STATE;
+import com.alok.ecsystem.core.ElevatorSnapshot;
+import com.alok.ecsystem.core.config.ElevatorSystemConfig;
+import com.alok.ecsystem.core.util.FloorBitSet;
+
+/**
+ * Estimates time in milli seconds until an elevator arrives at a floor.
+ *
+ * Elevator follows its current direction to the farthest pending stop before it turns, same route as
+ * {@link ElevatorSnapshot#estimatedFloorRequestCost(int, DIRECTION)}. Time is the sum of
+ * <ul>
+ * <li>rest of current door cycle,</li>
+ * <li>travel time of every floor on the route,</li>
+ * <li>door opening, dwell and closing time plus stop overhead for every pending stop on the route,</li>
+ * <li>stop overhead for arrival at the floor itself.</li>
+ * </ul>
+ * Stop overhead covers acceleration and deceleration. Movement between two floors which has already started is not taken into account.
+ *
+ * Timings are configured by "dispatch.time.floorTravelMillis", "dispatch.time.doorOpeningMillis", "dispatch.time.doorDwellMillis",
+ * "dispatch.time.doorClosingMillis" and "dispatch.time.stopOverheadMillis". Travel and door timings default to timings of simulated elevator,
+ * dwell and stop overhead default to 0. Estimation allocates nothing, so it can run for every elevator on every call.
+ *
+ * @author Alok Kushwah (akushwah)
+ */
+public class TravelTimeModel {
+
+	private final long floorTravelMillis;
+	private final long doorOpeningMillis;
+	private final long doorDwellMillis;
+	private final long doorClosingMillis;
+	private final long stopOverheadMillis;
+
+	/**
+	 * Creates a new model with timings of simulated elevator.
+	 */
+	public TravelTimeModel() {
+		this(3000, 1000, 0, 3000, 0);
+	}
+
+	/**
+	 * Creates a new model with timings of given building.
+	 * @param config
+	 */
+	public TravelTimeModel(ElevatorSystemConfig config) {
+		this(config.getLongProperty("dispatch.time.floorTravelMillis", config.getLongProperty("simulator.floorTravelMillis", 3000)),
+				config.getLongProperty("dispatch.time.doorOpeningMillis", config.getLongProperty("simulator.doorOpeningMillis", 1000)),
+				config.getLongProperty("dispatch.time.doorDwellMillis", 0),
+				config.getLongProperty("dispatch.time.doorClosingMillis", config.getLongProperty("simulator.doorClosingMillis", 3000)),
+				config.getLongProperty("dispatch.time.stopOverheadMillis", 0));
+	}
+
+	/**
+	 * Creates a new model.
+	 * @param floorTravelMillis - time to travel one floor
+	 * @param doorOpeningMillis - time to open door
+	 * @param doorDwellMillis - time door stays open
+	 * @param doorClosingMillis - time to close door
+	 * @param stopOverheadMillis - acceleration and deceleration time of every stop
+	 */
+	public TravelTimeModel(long floorTravelMillis, long doorOpeningMillis, long doorDwellMillis, long doorClosingMillis, long stopOverheadMillis) {
+		this.floorTravelMillis = floorTravelMillis;
+		this.doorOpeningMillis = doorOpeningMillis;
+		this.doorDwellMillis = doorDwellMillis;
+		this.doorClosingMillis = doorClosingMillis;
+		this.stopOverheadMillis = stopOverheadMillis;
+	}
+
+	/**
+	 * Estimates time until elevator of given snapshot arrives at the floor.
+	 * @param snapshot - state of elevator
+	 * @param floorIndex - floor index of request
+	 * @param direction - direction rider wants to go, null in case it is not known
+	 * @return int - milli seconds, {@link Integer#MAX_VALUE} in case elevator cannot serve the floor
+	 */
+	public int estimatedArrivalMillis(ElevatorSnapshot snapshot, int floorIndex, DIRECTION direction) {
+		if (!snapshot.serves(floorIndex)) {
+			return Integer.MAX_VALUE;
+		}
+		return estimatedArrivalMillis(floorIndex, direction, snapshot.getState(), snapshot.getDirection() == DIRECTION.UP, snapshot.getCurrentFloor(),
+				snapshot.getFirstStop(), snapshot.getLastStop(), snapshot.getStops(), snapshot.getMinFloor(), snapshot.getMaxFloor());
+	}
+
+	/**
+	 * Estimation of {@link #estimatedArrivalMillis(ElevatorSnapshot, int, DIRECTION)} from primitive state.
+	 * It is shared with column store of fleet so both always give same time.
+	 * @param floorIndex - floor index of request
+	 * @param direction - direction rider wants to go, null in case it is not known
+	 * @param state - state of elevator
+	 * @param up - true in case elevator direction is "UP"
+	 * @param currentFloor - current floor index
+	 * @param firstStop - lowest pending stop, -1 if none
+	 * @param lastStop - highest pending stop, -1 if none
+	 * @param stops - bit words of pending stops
+	 * @param minFloor - minimum floor index elevator can go
+	 * @param maxFloor - maximum floor index elevator can go
+	 * @return int - milli seconds, {@link Integer#MAX_VALUE} in case elevator cannot serve the floor
+	 */
+	public int estimatedArrivalMillis(int floorIndex, DIRECTION direction, STATE state, boolean up, int currentFloor, int firstStop, int lastStop,
+			long[] stops, int minFloor, int maxFloor) {
+		if (floorIndex < minFloor || floorIndex > maxFloor || state == STATE.OUT_OF_ORDER) {
+			return Integer.MAX_VALUE;
+		}
+		if (floorIndex == currentFloor && state != STATE.MOVING) {
+			return 0;
+		}
+		int travel;
+		int stopCount;
+		if (state == STATE.IDLE || (up && floorIndex > currentFloor && direction != DIRECTION.DOWN)
+				|| (!up && floorIndex < currentFloor && direction != DIRECTION.UP)) {
+			// floor is on the way, moving elevator has already left its current floor
+			travel = Math.abs(floorIndex - currentFloor);
+			stopCount = FloorBitSet.count(stops, Math.min(floorIndex, currentFloor) + 1, Math.max(floorIndex, currentFloor) - 1);
+		} else {
+			int bottom;
+			int top;
+			if (up) {
+				top = Math.max(Math.max(lastStop, currentFloor), floorIndex);
+				if (direction != DIRECTION.UP) {
+					bottom = Math.min(currentFloor, floorIndex);
+					travel = (top - currentFloor) + (top - floorIndex);
+				} else {
+					bottom = firstStop == -1 ? floorIndex : Math.min(firstStop, floorIndex);
+					travel = (top - currentFloor) + (top - bottom) + (floorIndex - bottom);
+				}
+			} else {
+				bottom = firstStop == -1 ? Math.min(currentFloor, floorIndex) : Math.min(Math.min(firstStop, currentFloor), floorIndex);
+				if (direction != DIRECTION.DOWN) {
+					top = Math.max(currentFloor, floorIndex);
+					travel = (currentFloor - bottom) + (floorIndex - bottom);
+				} else {
+					top = lastStop == -1 ? floorIndex : Math.max(lastStop, floorIndex);
+					travel = (currentFloor - bottom) + (top - bottom) + (top - floorIndex);
+				}
+			}
+			// every pending stop of swept floors is made once, except the requested floor itself
+			stopCount = FloorBitSet.count(stops, bottom, top) - FloorBitSet.count(stops, floorIndex, floorIndex);
+		}
+		long millis = remainingDoorMillis(state) + travel * floorTravelMillis + stopCount * getStopMillis() + stopOverheadMillis;
+		return (int) Math.min(millis, Integer.MAX_VALUE - 1);
+	}
+
+	/**
+	 * Lowest possible time for an elevator which is given number of floors away.
+	 * @param distance - number of floors
+	 * @return int - milli seconds
+	 */
+	public int lowerBound(int distance) {
+		return (int) Math.min(distance * floorTravelMillis, Integer.MAX_VALUE - 1);
+	}
+
+	/**
+	 * Time of a stop on the way, door cycle plus stop overhead.
+	 * @return long - milli seconds
+	 */
+	public long getStopMillis() {
+		return doorOpeningMillis + doorDwellMillis + doorClosingMillis + stopOverheadMillis;
+	}
+
+	public long getFloorTravelMillis() {
+		return floorTravelMillis;
+	}
+
+	private long remainingDoorMillis(STATE state) {
+		switch (state) {
+		case DOOR_OPENING:
+			return doorOpeningMillis + doorDwellMillis + doorClosingMillis;
+		case DOOR_OPEN:
+			return doorDwellMillis + doorClosingMillis;
+		case DOOR_CLOSING:
+			return doorClosingMillis;
+		default:
+			return 0;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "floorTravelMillis=" + floorTravelMillis + " doorOpeningMillis=" + doorOpeningMillis + " doorDwellMillis=" + doorDwellMillis
+				+ " doorClosingMillis=" + doorClosingMillis + " stopOverheadMillis=" + stopOverheadMillis;
+	}
+}
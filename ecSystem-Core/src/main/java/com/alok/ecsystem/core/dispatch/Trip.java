@@ -0,0 +1,96 @@
+package com.alok.ecsystem.core.dispatch;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.alok.ecsystem.core.ElevatorControlInterface;
+import com.alok.ecsystem.core.ElevatorControlInterface.DIRECTION;
+
+/**
+ * Journey of one rider from origin to destination, planned by {@link TripPlanner}. Rider reaches a floor which no single
+ * elevator serves by changing elevator at transfer floors, e.g. express elevator to sky lobby and local elevator from there.
+ *
+ * Each leg is assigned an elevator by {@link DestinationDispatcher}. Next leg is assigned as soon as rider is picked up,
+ * so its elevator is on the way to transfer floor before rider gets there.
+ *
+ * @author Alok Kushwah (akushwah)
+ */
+public final class Trip {
+
+	private final int[] floors;
+	private final AtomicReferenceArray<ElevatorControlInterface> elevators;
+	private volatile int leg;
+
+	/**
+	 * Creates a new trip.
+	 * @param floors - origin, transfer floors and destination, must not be modified afterwards
+	 */
+	public Trip(int[] floors) {
+		this.floors = floors;
+		this.elevators = new AtomicReferenceArray<ElevatorControlInterface>(floors.length - 1);
+	}
+
+	public int getOrigin() {
+		return floors[0];
+	}
+
+	public int getDestination() {
+		return floors[floors.length - 1];
+	}
+
+	/**
+	 * Number of legs, 1 in case rider does not change elevator.
+	 * @return int
+	 */
+	public int getLegCount() {
+		return floors.length - 1;
+	}
+
+	/**
+	 * Floor where given leg starts, leg count gives destination.
+	 * @param leg - leg index
+	 * @return int - floor index
+	 */
+	public int getFloor(int leg) {
+		return floors[leg];
+	}
+
+	/**
+	 * Direction of given leg.
+	 * @param leg - leg index
+	 * @return {@link DIRECTION}
+	 */
+	public DIRECTION getDirection(int leg) {
+		return floors[leg + 1] > floors[leg] ? DIRECTION.UP : DIRECTION.DOWN;
+	}
+
+	/**
+	 * Elevator assigned to given leg.
+	 * @param leg - leg index
+	 * @return {@link ElevatorControlInterface} - null in case leg is not assigned yet
+	 */
+	public ElevatorControlInterface getElevator(int leg) {
+		return elevators.get(leg);
+	}
+
+	void setElevator(int leg, ElevatorControlInterface elevator) {
+		elevators.set(leg, elevator);
+	}
+
+	/**
+	 * Leg rider is waiting for or riding. Rider is at floor of this leg until it is picked up.
+	 * @return int - leg index, leg count once rider reached destination
+	 */
+	public int getLeg() {
+		return leg;
+	}
+
+	void arrived(int newLeg) {
+		leg = newLeg;
+	}
+
+	@Override
+	public String toString() {
+		return "floors=" + Arrays.toString(floors) + " leg=" + leg;
+	}
+}
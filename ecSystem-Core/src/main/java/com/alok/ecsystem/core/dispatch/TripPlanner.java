@@ -0,0 +1,114 @@
+package com.alok.ecsystem.core.dispatch;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.alok.ecsystem.core.ElevatorControlInterface;
+import com.alok.ecsystem.core.util.ServedFloors;
+
+/**
+ * Plans journeys through transfer floors ("dispatch.transferFloors") of a zoned building, e.g. sky lobbies of a supertall building
+ * where express elevators run from lobby to sky lobby and local elevators serve floors above it.
+ *
+ * Two floors are linked in case an elevator serves both. Journey with fewest legs wins, in case of tie the one with shortest travel.
+ * Elevators with same floors are considered once, so planning does not grow with size of fleet.
+ *
+ * @author Alok Kushwah (akushwah)
+ */
+public class TripPlanner {
+
+	private final List<ServedFloors> banks = new ArrayList<ServedFloors>();
+	private final ServedFloors transferFloors;
+
+	/**
+	 * Creates a new planner.
+	 * @param elevators - elevators of building
+	 * @param transferFloors - floors where riders can change elevator
+	 */
+	public TripPlanner(List<ElevatorControlInterface> elevators, ServedFloors transferFloors) {
+		this.transferFloors = transferFloors;
+		for (ElevatorControlInterface elevator : elevators) {
+			if (!banks.contains(elevator.getServedFloors())) {
+				banks.add(elevator.getServedFloors());
+			}
+		}
+	}
+
+	public ServedFloors getTransferFloors() {
+		return transferFloors;
+	}
+
+	/**
+	 * Plans journey from origin to destination.
+	 * @param origin - floor index of rider
+	 * @param destination - floor index rider wants to go
+	 * @return int[] - origin, transfer floors and destination, null in case destination cannot be reached
+	 */
+	public int[] plan(int origin, int destination) {
+		if (linked(origin, destination)) {
+			return new int[] { origin, destination };
+		}
+		// origin, transfer floors, destination
+		int[] nodes = new int[transferFloors.size() + 2];
+		int count = 0;
+		nodes[count++] = origin;
+		for (int floor = transferFloors.first(); floor != -1; floor = transferFloors.next(floor + 1)) {
+			if (floor != origin && floor != destination) {
+				nodes[count++] = floor;
+			}
+		}
+		nodes[count++] = destination;
+
+		// fewest legs first, then shortest travel, fleet is small enough for plain Dijkstra
+		long[] cost = new long[count];
+		int[] previous = new int[count];
+		boolean[] done = new boolean[count];
+		Arrays.fill(cost, Long.MAX_VALUE);
+		cost[0] = 0;
+		previous[0] = -1;
+		while (true) {
+			int current = -1;
+			for (int i = 0; i < count; i++) {
+				if (!done[i] && cost[i] != Long.MAX_VALUE && (current == -1 || cost[i] < cost[current])) {
+					current = i;
+				}
+			}
+			if (current == -1) {
+				return null;
+			}
+			if (current == count - 1) {
+				break;
+			}
+			done[current] = true;
+			for (int next = 1; next < count; next++) {
+				if (done[next] || !linked(nodes[current], nodes[next])) {
+					continue;
+				}
+				long nextCost = cost[current] + (1L << 32) + Math.abs(nodes[next] - nodes[current]);
+				if (nextCost < cost[next]) {
+					cost[next] = nextCost;
+					previous[next] = current;
+				}
+			}
+		}
+		int legs = (int) (cost[count - 1] >>> 32);
+		int[] floors = new int[legs + 1];
+		for (int i = count - 1, j = legs; i != -1; i = previous[i], j--) {
+			floors[j] = nodes[i];
+		}
+		return floors;
+	}
+
+	/**
+	 * helper method to check whether an elevator serves both floors.
+	 */
+	private boolean linked(int floorIndex, int otherFloorIndex) {
+		for (ServedFloors bank : banks) {
+			if (bank.contains(floorIndex) && bank.contains(otherFloorIndex)) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
@@ -0,0 +1,58 @@
+package com.alok.ecsystem.core.event;
+
+import com.alok.ecsystem.core.ElevatorControlInterface;
+import com.alok.ecsystem.core.ElevatorSnapshot;
+
+/**
+ * Event published when an elevator changes its state, direction or current floor.
+ * Changes of pending stops alone are not published.
+ *
+ * @author Alok Kushwah (akushwah)
+ */
+public final class ElevatorEvent {
+
+	private final ElevatorControlInterface elevator;
+	private final ElevatorSnapshot previous;
+	private final ElevatorSnapshot current;
+
+	/**
+	 * Creates a new event.
+	 * @param elevator - elevator which changed
+	 * @param previous - snapshot before change
+	 * @param current - snapshot after change
+	 */
+	public ElevatorEvent(ElevatorControlInterface elevator, ElevatorSnapshot previous, ElevatorSnapshot current) {
+		this.elevator = elevator;
+		this.previous = previous;
+		this.current = current;
+	}
+
+	/**
+	 * Returns true in case given change of snapshot is published as event.
+	 * @param previous - snapshot before change
+	 * @param current - snapshot after change
+	 * @return boolean
+	 */
+	public static boolean isTransition(ElevatorSnapshot previous, ElevatorSnapshot current) {
+		return previous.getState() != current.getState() || previous.getDirection() != current.getDirection()
+				|| previous.getCurrentFloor() != current.getCurrentFloor();
+	}
+
+	public ElevatorControlInterface getElevator() {
+		return elevator;
+	}
+
+	public ElevatorSnapshot getPrevious() {
+		return previous;
+	}
+
+	public ElevatorSnapshot getCurrent() {
+		return current;
+	}
+
+	@Override
+	public String toString() {
+		return "ElevatorEvent [elevator=" + current.getId() + ", state=" + previous.getState() + "->" + current.getState()
+				+ ", floor=" + previous.getCurrentFloor() + "->" + current.getCurrentFloor() + ", direction=" + current.getDirection() + "]";
+	}
+}
@@ -0,0 +1,150 @@
+package com.alok.ecsystem.core.event;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.log4j.Logger;
+
+import com.alok.ecsystem.core.util.SerialExecutor;
+
+/**
+ * Typed publish/subscribe channel.
+ *
+ * Subscribers are kept in a copy-on-write array, so publishing takes no lock and allocates nothing in case
+ * there is no subscriber. Subscribing and unsubscribing replace the array with compare and set.
+ *
+ * Synchronous subscribers are called on thread of publisher, one after another in order of subscription.
+ * Asynchronous subscribers get events through own {@link SerialExecutor}, in order of publication,
+ * and publisher only adds the event to the mailbox. Failure of a subscriber is logged and does not stop delivery to others.
+ *
+ * @param <E> - type of event
+ * @author Alok Kushwah (akushwah)
+ */
+public class EventBus<E> {
+
+	private static final Logger logger = Logger.getLogger(EventBus.class);
+
+	private static final Subscription<?>[] NO_SUBSCRIPTIONS = new Subscription<?>[0];
+
+	private final String name;
+	private final AtomicReference<Subscription<?>[]> subscriptions = new AtomicReference<Subscription<?>[]>(NO_SUBSCRIPTIONS);
+
+	/**
+	 * Creates a new bus without subscribers.
+	 * @param name - name used in log messages
+	 */
+	public EventBus(String name) {
+		this.name = name;
+	}
+
+	/**
+	 * Adds subscriber which is called on thread of publisher. It must be quick, as it adds to latency of publisher.
+	 * @param subscriber - subscriber to add
+	 */
+	public void subscribe(EventSubscriber<? super E> subscriber) {
+		add(new Subscription<E>(subscriber, null));
+	}
+
+	/**
+	 * Adds subscriber which is called on given executor. Events are delivered one at a time in order of publication.
+	 * @param subscriber - subscriber to add
+	 * @param executor - executor to deliver events on, e.g. scheduler of building
+	 */
+	public void subscribe(EventSubscriber<? super E> subscriber, Executor executor) {
+		add(new Subscription<E>(subscriber, new SerialExecutor(name + "-" + subscriber, executor)));
+	}
+
+	/**
+	 * Removes subscriber. Events already in its mailbox are still delivered.
+	 * @param subscriber - subscriber to remove
+	 * @return boolean - true in case subscriber was found
+	 */
+	public boolean unsubscribe(EventSubscriber<? super E> subscriber) {
+		while (true) {
+			Subscription<?>[] current = subscriptions.get();
+			int index = -1;
+			for (int i = 0; i < current.length; i++) {
+				if (current[i].subscriber == subscriber) {
+					index = i;
+					break;
+				}
+			}
+			if (index == -1) {
+				return false;
+			}
+			Subscription<?>[] updated = new Subscription<?>[current.length - 1];
+			System.arraycopy(current, 0, updated, 0, index);
+			System.arraycopy(current, index + 1, updated, index, updated.length - index);
+			if (subscriptions.compareAndSet(current, updated)) {
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Returns true in case there is at least one subscriber.
+	 * Publishers can use it to skip creating events nobody listens to.
+	 * @return boolean
+	 */
+	public boolean hasSubscribers() {
+		return subscriptions.get().length != 0;
+	}
+
+	/**
+	 * Number of subscribers.
+	 * @return int
+	 */
+	public int getSubscriberCount() {
+		return subscriptions.get().length;
+	}
+
+	/**
+	 * Delivers event to all subscribers.
+	 * @param event - event to publish
+	 */
+	@SuppressWarnings("unchecked")
+	public void publish(E event) {
+		for (Subscription<?> subscription : subscriptions.get()) {
+			((Subscription<E>) subscription).deliver(event);
+		}
+	}
+
+	private void add(Subscription<E> subscription) {
+		while (true) {
+			Subscription<?>[] current = subscriptions.get();
+			Subscription<?>[] updated = new Subscription<?>[current.length + 1];
+			System.arraycopy(current, 0, updated, 0, current.length);
+			updated[current.length] = subscription;
+			if (subscriptions.compareAndSet(current, updated)) {
+				return;
+			}
+		}
+	}
+
+	private static final class Subscription<E> {
+
+		private final EventSubscriber<? super E> subscriber;
+		private final SerialExecutor mailbox;
+
+		Subscription(EventSubscriber<? super E> subscriber, SerialExecutor mailbox) {
+			this.subscriber = subscriber;
+			this.mailbox = mailbox;
+		}
+
+		void deliver(final E event) {
+			if (mailbox != null) {
+				mailbox.execute(new Runnable() {
+					public void run() {
+						subscriber.onEvent(event);
+					}
+				});
+				return;
+			}
+			try {
+				subscriber.onEvent(event);
+			} catch (RuntimeException e) {
+				logger.error("Subscriber " + subscriber + " failed on event " + event, e);
+			}
+		}
+	}
+}
@@ -0,0 +1,17 @@
+package com.alok.ecsystem.core.event;
+
+/**
+ * Subscriber of events published on an {@link EventBus}.
+ *
+ * @param <E> - type of event
+ * @author Alok Kushwah (akushwah)
+ */
+public interface EventSubscriber<E> {
+
+	/**
+	 * Receives published event.
+	 * Synchronous subscribers are called on thread of publisher, asynchronous ones on their own event loop.
+	 * @param event - published event
+	 */
+	public void onEvent(E event);
+}
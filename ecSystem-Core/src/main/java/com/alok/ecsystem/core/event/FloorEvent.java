@@ -0,0 +1,55 @@
+package com.alok.ecsystem.core.event;
+
+import com.alok.ecsystem.core.ElevatorControlInterface;
+import com.alok.ecsystem.core.ElevatorControlInterface.DIRECTION;
+import com.alok.ecsystem.core.FloorControlInterface;
+import com.alok.ecsystem.core.FloorControlInterface.FLOOR_EVENT;
+
+/**
+ * Event published by a floor when its button is pressed or reset, or when an elevator arrives or leaves.
+ *
+ * @author Alok Kushwah (akushwah)
+ */
+public final class FloorEvent {
+
+	private final FloorControlInterface floor;
+	private final FLOOR_EVENT type;
+	private final DIRECTION direction;
+	private final ElevatorControlInterface elevator;
+
+	/**
+	 * Creates a new event.
+	 * @param floor - floor which published the event
+	 * @param type - what happened
+	 * @param direction - direction of button, or direction elevator leaves in on arrival. Null for single call button, 
+	 * for arrival which serves all calls and for leaving.
+	 * @param elevator - elevator which arrived or left, null for button events
+	 */
+	public FloorEvent(FloorControlInterface floor, FLOOR_EVENT type, DIRECTION direction, ElevatorControlInterface elevator) {
+		this.floor = floor;
+		this.type = type;
+		this.direction = direction;
+		this.elevator = elevator;
+	}
+
+	public FloorControlInterface getFloor() {
+		return floor;
+	}
+
+	public FLOOR_EVENT getType() {
+		return type;
+	}
+
+	public DIRECTION getDirection() {
+		return direction;
+	}
+
+	public ElevatorControlInterface getElevator() {
+		return elevator;
+	}
+
+	@Override
+	public String toString() {
+		return "FloorEvent [floor=" + floor.getId() + ", type=" + type + (direction == null ? "" : ", direction=" + direction) + (elevator == null ? "" : ", elevator=" + elevator.getId()) + "]";
+	}
+}
@@ -1,27 +1,31 @@
 package com.alok.ecsystem.core.impl;
 
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import java.util.Set;
-import java.util.SortedSet;
-import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.apache.log4j.Logger;
 
 import com.alok.ecsystem.core.ElevatorControlInterface;
+import com.alok.ecsystem.core.ElevatorSnapshot;
+import com.alok.ecsystem.core.ElevatorStateListener;
 import com.alok.ecsystem.core.ElevatorSystemControl;
 import com.alok.ecsystem.core.FloorControlInterface;
 import com.alok.ecsystem.core.ElevatorControlInterface.DIRECTION;
 import com.alok.ecsystem.core.ElevatorControlInterface.STATE;
 import com.alok.ecsystem.core.config.ElevatorSystemConfig;
+import com.alok.ecsystem.core.util.FloorBitSet;
+import com.alok.ecsystem.core.util.SerialExecutor;
+import com.alok.ecsystem.core.util.ServedFloors;
 
 /**
  * Abstract base implementation of {@link ElevatorControlInterface}. This class controls the elevator.
  * This class must be implemented by all elevator class to be used within system.
  * This class implement defines methods to help {@link ElevatorSystemControl} to assign requests to individual elevators.
  * 
- * This class keeps the queue of requests and complete them one by one.
+ * This class keeps the queue of requests and complete them one by one. Requests are kept in {@link FloorBitSet} 
+ * guarded by monitor of this elevator. Stops are planned by {@link RoutePlan}, which is updated when a request is added 
+ * or removed, so elevator does not plan again on every floor it passes.
  * 
  * Elevator keeps the state of elevator. Elevator can be following state 
  * 
@@ -32,6 +36,33 @@ import com.alok.ecsystem.core.config.ElevatorSystemConfig;
  * 
  * After completion of all the request elevator goes in "IDLE" state.
  * 
+ * Hall calls can have direction. Elevator does not stop for a hall call while passing the floor in other direction, 
+ * unless it is the last stop before turning back. On arrival only hall calls of direction elevator is going to leave in are served.
+ * 
+ * Elevator of a zoned building stops only at floors of its zone ("elevator.[id].zone" or "elevator.[id].floors"), which do not have to be 
+ * contiguous. It travels through other floors between minimum and maximum floor without stopping, like an express elevator 
+ * which serves lobby and upper floors only. Requests for other floors are rejected.
+ * 
+ * Idle elevator can be parked at a floor, e.g. by {@link com.alok.ecsystem.core.dispatch.ParkingPolicy}. Parking floor is a stop 
+ * of its plan until elevator gets there, where it stays "IDLE" without opening the door. Any new request cancels parking.
+ * 
+ * Elevator which is taken out of service is "OUT_OF_ORDER". It stops where it is, drops its hall calls and floor requests and 
+ * rejects new ones until it is back in service. Door and movement completions which come later are ignored. 
+ * Taking out of service and returning to service start a new service epoch, implementor drops timer callbacks which were 
+ * started in an older epoch, see {@link #getServiceEpoch()}.
+ * 
+ * Elevator can have capacity ("elevator.capacity"). Its load is counted from boarding and alighting passengers. 
+ * When load reaches "elevator.loadBypassPercent" of capacity elevator is in load bypass, it stops only for floor requests 
+ * of its passengers and passes floors with hall calls, which are given to other elevators by {@link ElevatorSystemControl}.
+ * 
+ * All changes are made while holding monitor of this elevator. After every change a new {@link ElevatorSnapshot} is published 
+ * through volatile reference. State, direction, current floor and cost estimation are read from latest snapshot without locking.
+ * 
+ * In case building runs on event loops ("building.eventLoop=true") commands are not run on thread of caller. 
+ * Floor requests, hall calls and door requests are added to mailbox of elevator and processed one by one by its event loop, 
+ * implementor should post its movement and door completions there too with {@link #inEventLoop(Runnable)}. 
+ * Only {@link #withdrawHallCall(int, DIRECTION)} is still run on thread of caller because caller needs its result.
+ * 
  * @author Alok Kushwah (akushwah)
  */
 public abstract class AbstractBaseElevatorControl implements ElevatorControlInterface {
@@ -40,35 +71,87 @@ public abstract class AbstractBaseElevatorControl implements ElevatorControlInte
 
 	
 
+	private final ElevatorSystemConfig config;
 	private int id;
 	private int maxFloor;
 	private int minFloor;
-	private List<Integer> validFloorList;
+	private final ServedFloors servedFloors;
 
 	private DIRECTION movingDirection = DIRECTION.UP;
 	protected STATE state = STATE.IDLE;
 	private int currentFloorIndex = 0;
-	private int nextFloorStop;
-
-	private SortedSet<Integer> requestedFloorIndexes = Collections.synchronizedSortedSet(new TreeSet<Integer>());
-	private boolean dirtyRequestedFloorIndexes = false;
+	private int capacity;
+	private int bypassLoad = Integer.MAX_VALUE;
+	private int load;
+	private boolean loadBypass;
+	private int parkingFloorIndex = -1;
+	private boolean parked;
+	private int serviceEpoch;
+
+	private final RoutePlan route;
+	private final FloorBitSet hallCallFloorIndexes;
+	private final FloorBitSet hallCallUpFloorIndexes;
+	private final FloorBitSet hallCallDownFloorIndexes;
+	private final FloorBitSet carCallFloorIndexes;
+
+	private volatile ElevatorSnapshot snapshot;
+	private final SerialExecutor eventLoop;
+	private final List<ElevatorStateListener> stateListeners = new CopyOnWriteArrayList<ElevatorStateListener>();
 
 	/**
-	 * Creates a new elevator and initialize valid floor list.
+	 * Creates a new elevator which is not part of a building. Floors are not notified about its arrival.
 	 * @param id - unique id
 	 * @param minFloor - minimum floor index this elevator can go. 
 	 * @param maxFloor - maximum floor index this elevator can go.
 	 */
 	public AbstractBaseElevatorControl(int id, int minFloor, int maxFloor) {
+		this(null, id, minFloor, maxFloor);
+	}
+
+	/**
+	 * Creates a new elevator and initialize served floors. Elevator starts at its minimum floor.
+	 * @param config - building of elevator, its floors are notified about arrival of elevator and served floors are read from it
+	 * @param id - unique id
+	 * @param minFloor - minimum floor index this elevator can go. 
+	 * @param maxFloor - maximum floor index this elevator can go.
+	 */
+	public AbstractBaseElevatorControl(ElevatorSystemConfig config, int id, int minFloor, int maxFloor) {
+		this.config = config;
 		this.id = id;
 		this.maxFloor = maxFloor;
 		this.minFloor = minFloor;
-		validFloorList = new ArrayList<Integer>();
-		for (int i = minFloor; i <= maxFloor; i++) {
-			validFloorList.add(i);
+		ServedFloors zoneFloors = config == null ? null : config.getServedFloors(id);
+		if (zoneFloors == null) {
+			servedFloors = ServedFloors.range(minFloor, maxFloor);
+		} else if (zoneFloors.previous(maxFloor) < minFloor) {
+			throw new RuntimeException("Elevator serves no floor. id=" + id + " (" + minFloor + "," + maxFloor + ") floors=" + zoneFloors);
+		} else {
+			// elevators of a zone share floors of the zone
+			servedFloors = zoneFloors.within(minFloor, maxFloor);
+		}
+		currentFloorIndex = minFloor;
+		route = new RoutePlan(maxFloor, currentFloorIndex, movingDirection);
+		hallCallFloorIndexes = new FloorBitSet(maxFloor + 1);
+		hallCallUpFloorIndexes = new FloorBitSet(maxFloor + 1);
+		hallCallDownFloorIndexes = new FloorBitSet(maxFloor + 1);
+		carCallFloorIndexes = new FloorBitSet(maxFloor + 1);
+		if (config != null) {
+			capacity = config.getElevatorCapacity(id);
+			bypassLoad = bypassLoad(capacity, config.getLoadBypassPercent());
 		}
+		snapshot = new ElevatorSnapshot(id, 0, state, movingDirection, currentFloorIndex, -1, -1, -1, 0, route.getStopWords(), 0, 
+				load, capacity, loadBypass, servedFloors, minFloor, maxFloor);
+		eventLoop = config != null && config.isEventLoop() ? config.newEventLoop("Elevator-" + id) : null;
 	}
 	
+	/**
+	 * Building of elevator.
+	 * @return {@link ElevatorSystemConfig} - null in case elevator is not part of a building
+	 */
+	protected ElevatorSystemConfig getConfig() {
+		return config;
+	}
+
 	/**
 	 * Unique identification of elevator.
 	 * @return {@link Integer}
@@ -78,11 +161,11 @@ public abstract class AbstractBaseElevatorControl implements ElevatorControlInte
 	}
 
 	/**
-	 * Return list of floor index this elevator can serve. 
-	 * @return {@link List}
+	 * Return floors this elevator can serve. 
+	 * @return {@link ServedFloors}
 	 */
-	public List<Integer> getAllowedFloorList() {
-		return validFloorList;
+	public ServedFloors getServedFloors() {
+		return servedFloors;
 	}
 	
 	/**
@@ -90,7 +173,7 @@ public abstract class AbstractBaseElevatorControl implements ElevatorControlInte
 	 * @return {@link STATE}
 	 */
 	public STATE getState(){
-		return state;
+		return snapshot.getState();
 	}
 
 	/**
@@ -98,7 +181,7 @@ public abstract class AbstractBaseElevatorControl implements ElevatorControlInte
 	 * @return {@link DIRECTION}
 	 */
 	public DIRECTION getDirection(){
-		return movingDirection;
+		return snapshot.getDirection();
 	}
 
 
@@ -107,80 +190,412 @@ public abstract class AbstractBaseElevatorControl implements ElevatorControlInte
 	 * @return int - floor index
 	 */
 	public int getCurrentFloor() {
-		return currentFloorIndex;
+		return snapshot.getCurrentFloor();
+	}
+
+	/**
+	 * Returns latest published state of elevator. It never blocks.
+	 * @return {@link ElevatorSnapshot}
+	 */
+	public ElevatorSnapshot getSnapshot() {
+		return snapshot;
 	}
 
 	/**
 	 * Get the list of pending requests.
-	 * @return Set<Integer>
+	 * @return Set<Integer> - sorted copy of pending requests, it does not change with elevator.
 	 */	
-	public Set<Integer> getFloorRequests() {
-		return requestedFloorIndexes;
+	public synchronized Set<Integer> getFloorRequests() {
+		return route.getStops().toSortedSet();
+	}
+
+	/**
+	 * Get the number of pending requests.
+	 * @return int
+	 */
+	public int getFloorRequestCount() {
+		return snapshot.getPendingCount();
 	}
 	
 	/**
 	 * Returns cost estimation to go to given floor from the current state.
 	 * Helper methdo for {@link ElevatorSystemControl} in deciding which elevator should get the request.
+	 * Cost is calculated from one {@link ElevatorSnapshot} so it always sees consistent state and never blocks.
 	 * 
 	 * This method can be override by implementor in case cost calculation is different.
 	 * 
 	 * @param requestedFloorIndex
+	 * @param callDirection - direction rider wants to go from the floor, null in case it is not known
 	 * @return
 	 */
-	public int estimatedFloorRequestCost(int requestedFloorIndex) {
-		logger.debug("Enter cost() requestedFloorIndex=" + requestedFloorIndex);
-		if (requestedFloorIndex < minFloor && requestedFloorIndex > maxFloor) {
-			throw new RuntimeException("Invalid floor index request. index=" + requestedFloorIndex + " (" + minFloor + "," + maxFloor + ")");
+	public int estimatedFloorRequestCost(int requestedFloorIndex, DIRECTION callDirection) {
+		ElevatorSnapshot current = snapshot;
+		int cost = current.estimatedFloorRequestCost(requestedFloorIndex, callDirection);
+		if (logger.isDebugEnabled()) {
+			logger.debug("cost() requestedFloorIndex=" + requestedFloorIndex + " callDirection=" + callDirection + " snapshot=" + current + " cost=" + cost);
 		}
-		int cost = Math.abs(currentFloorIndex - requestedFloorIndex);
-		if (state == STATE.MOVING) {
-			if (movingDirection == DIRECTION.UP) {
-				if (requestedFloorIndex < currentFloorIndex) {
-					cost += Math.abs((currentFloorIndex - requestedFloorIndexes.last()) * 2);
-				}
-			} else { // moving down
-				if (requestedFloorIndex > currentFloorIndex) {
-					cost += Math.abs((currentFloorIndex - requestedFloorIndexes.first()) * 2);
-				}
-			}
-		}
-		logger.debug("Exit cost() requestedFloorIndex=" + requestedFloorIndex + " currentFloorIndex=" + currentFloorIndex + " movingDirection=" + movingDirection + " cost=" + cost);
 		return cost;
 	}
 
 	
 	/**
-	 * Accepts a new floor request. Initialize movement in case elevator is "IDLE".
+	 * Accepts a new floor request from inside the elevator. Initialize movement in case elevator is "IDLE".
 	 * @param requestedFloorIndex - floor index
 	 * @throws RuntimeException - in case invalid floor index
 	 */
-	public synchronized void addFloorRequest(int requestedFloorIndex) {
+	public void addFloorRequest(int requestedFloorIndex) {
 		logger.debug("Enter floorRequest() requestedFloorIndex=" + requestedFloorIndex);
-		if (requestedFloorIndex >= minFloor && requestedFloorIndex <= maxFloor) {
-			if (!requestedFloorIndexes.contains(requestedFloorIndex)) {
-				logger.debug("added requestedFloorIndex=" + requestedFloorIndex);
-				requestedFloorIndexes.add(requestedFloorIndex);
-				dirtyRequestedFloorIndexes = true;
-				if (state == STATE.IDLE){
-					calculateNextState();
-				}		
+		addStopInEventLoop(requestedFloorIndex, carCallFloorIndexes);
+		logger.debug("Exit floorRequest() requestedFloorIndex=" + requestedFloorIndex);
+	}
+
+	/**
+	 * Accepts a new hall call assigned by {@link ElevatorSystemControl}. Initialize movement in case elevator is "IDLE".
+	 * @param floorIndex - floor index
+	 * @param direction - direction rider wants to go, null in case it is not known
+	 * @throws RuntimeException - in case invalid floor index
+	 */
+	public void addHallCall(int floorIndex, DIRECTION direction) {
+		logger.debug("Enter addHallCall() floorIndex=" + floorIndex + " direction=" + direction);
+		addStopInEventLoop(floorIndex, hallCalls(direction));
+		logger.debug("Exit addHallCall() floorIndex=" + floorIndex + " direction=" + direction);
+	}
+
+	/**
+	 * Withdraw a hall call which is not served yet. Call cannot be withdrawn in case a floor request from inside the elevator 
+	 * needs the floor. Stop is removed only if no other hall call needs it.
+	 * @param floorIndex - floor index
+	 * @param direction - direction of hall call, null in case it is not known
+	 * @return boolean - true if elevator will not stop at the floor for this call anymore.
+	 */
+	public synchronized boolean withdrawHallCall(int floorIndex, DIRECTION direction) {
+		FloorBitSet calls = hallCalls(direction);
+		if (!calls.contains(floorIndex) || carCallFloorIndexes.contains(floorIndex)) {
+			return false;
+		}
+		logger.debug("Withdraw hall call floorIndex=" + floorIndex + " direction=" + direction);
+		calls.remove(floorIndex);
+		updateRoute(floorIndex);
+		publishSnapshot();
+		return true;
+	}
+
+	/**
+	 * helper method to get set of hall calls of given direction.
+	 * @param direction - direction of hall call, null in case it is not known
+	 * @return {@link FloorBitSet}
+	 */
+	private FloorBitSet hallCalls(DIRECTION direction) {
+		if (direction == null) {
+			return hallCallFloorIndexes;
+		}
+		return direction == DIRECTION.UP ? hallCallUpFloorIndexes : hallCallDownFloorIndexes;
+	}
+
+	/**
+	 * helper method to update the plan after calls of given floor are changed. Floor request and hall call without direction 
+	 * stop elevator in both directions.
+	 * @param floorIndex - floor index
+	 * @return boolean - true in case plan is changed
+	 */
+	private boolean updateRoute(int floorIndex) {
+		boolean hallCalls = !loadBypass;
+		boolean both = carCallFloorIndexes.contains(floorIndex) || (hallCalls && hallCallFloorIndexes.contains(floorIndex)) 
+				|| (floorIndex == parkingFloorIndex && !parked);
+		return route.setStop(floorIndex, both || (hallCalls && hallCallUpFloorIndexes.contains(floorIndex)), 
+				both || (hallCalls && hallCallDownFloorIndexes.contains(floorIndex)));
+	}
+
+	/**
+	 * Maximum number of passengers elevator carries.
+	 * @return int - 0 in case load is not limited
+	 */
+	public int getCapacity() {
+		return snapshot.getCapacity();
+	}
+
+	/**
+	 * Number of passengers inside elevator.
+	 * @return int
+	 */
+	public int getLoad() {
+		return snapshot.getLoad();
+	}
+
+	/**
+	 * Changes capacity of elevator. Implementor can call it in case capacity is not configured for the building.
+	 * @param capacity - maximum number of passengers, 0 in case load is not limited
+	 * @param loadBypassPercent - load in percent of capacity from which hall calls are bypassed, 0 to never bypass
+	 */
+	protected synchronized void setCapacity(int capacity, int loadBypassPercent) {
+		this.capacity = capacity;
+		this.bypassLoad = bypassLoad(capacity, loadBypassPercent);
+		updateLoad(Math.min(load, capacity <= 0 ? load : capacity));
+	}
+
+	/**
+	 * Passengers entered elevator at current floor. Only as many as fit in are accepted.
+	 * It is run on thread of caller even with event loop, because caller needs its result.
+	 * @param count - number of passengers which want to enter
+	 * @return int - number of passengers which entered
+	 */
+	public synchronized int passengersBoarded(int count) {
+		int boarded = capacity > 0 ? Math.max(0, Math.min(count, capacity - load)) : count;
+		if (boarded > 0) {
+			updateLoad(load + boarded);
+		}
+		return boarded;
+	}
+
+	/**
+	 * Passengers left elevator at current floor.
+	 * @param count - number of passengers
+	 */
+	public synchronized void passengersAlighted(int count) {
+		if (count > 0) {
+			updateLoad(Math.max(0, load - count));
+		}
+	}
+
+	/**
+	 * helper method to change load. Plan is updated for all floors with hall calls when elevator enters or leaves load bypass.
+	 * @param newLoad - number of passengers
+	 */
+	private void updateLoad(int newLoad) {
+		load = newLoad;
+		boolean bypass = load >= bypassLoad;
+		if (bypass != loadBypass) {
+			logger.info("Elevator " + id + " load bypass=" + bypass + " load=" + load + " capacity=" + capacity);
+			loadBypass = bypass;
+			updateRoute(hallCallFloorIndexes);
+			updateRoute(hallCallUpFloorIndexes);
+			updateRoute(hallCallDownFloorIndexes);
+		}
+		publishSnapshot();
+		if (state == STATE.IDLE && !route.getStops().isEmpty()) {
+			calculateNextState();
+		}
+	}
+
+	/**
+	 * helper method to update the plan for every floor of given set.
+	 * @param floorIndexes
+	 */
+	private void updateRoute(FloorBitSet floorIndexes) {
+		for (int floor = floorIndexes.first(); floor != -1; floor = floorIndexes.nextSetBit(floor + 1)) {
+			updateRoute(floor);
+		}
+	}
+
+	/**
+	 * helper method to calculate load from which hall calls are bypassed.
+	 * @param capacity - maximum number of passengers, 0 in case load is not limited
+	 * @param loadBypassPercent - percent of capacity, 0 to never bypass
+	 * @return int - number of passengers, {@link Integer#MAX_VALUE} in case hall calls are never bypassed
+	 */
+	private static int bypassLoad(int capacity, int loadBypassPercent) {
+		if (capacity <= 0 || loadBypassPercent <= 0) {
+			return Integer.MAX_VALUE;
+		}
+		return Math.max(1, (capacity * loadBypassPercent + 99) / 100);
+	}
+
+	/**
+	 * helper method to add a stop directly or through event loop. Floor index is validated on thread of caller.
+	 * @param requestedFloorIndex - floor index
+	 * @param callFloorIndexes - hall call or floor request set to record the stop in
+	 * @throws RuntimeException - in case invalid floor index
+	 */
+	private void addStopInEventLoop(final int requestedFloorIndex, final FloorBitSet callFloorIndexes) {
+		if (eventLoop == null) {
+			addStop(requestedFloorIndex, callFloorIndexes);
+			return;
+		}
+		validateFloor(requestedFloorIndex);
+		eventLoop.execute(new Runnable() {
+			public void run() {
+				addStop(requestedFloorIndex, callFloorIndexes);
 			}
-		} else {
-			String msg = "Invalid floor index request. index=" + requestedFloorIndex + " (" + minFloor + "," + maxFloor + ")";
+		});
+	}
+
+	/**
+	 * helper method to add a stop and initialize movement in case elevator is "IDLE".
+	 * @param requestedFloorIndex - floor index
+	 * @param callFloorIndexes - hall call or floor request set to record the stop in
+	 * @throws RuntimeException - in case invalid floor index
+	 */
+	private synchronized void addStop(int requestedFloorIndex, FloorBitSet callFloorIndexes) {
+		validateFloor(requestedFloorIndex);
+		boolean cancelled = cancelParking();
+		// call at a floor which already stops elevator in its direction does not change the plan
+		if (callFloorIndexes.add(requestedFloorIndex) && updateRoute(requestedFloorIndex)) {
+			logger.debug("added requestedFloorIndex=" + requestedFloorIndex);
+			publishSnapshot();
+			if (state == STATE.IDLE){
+				calculateNextState();
+			}		
+		} else if (cancelled) {
+			publishSnapshot();
+		}
+	}
+
+	/**
+	 * Sends idle elevator without requests to given floor, it waits there with door closed. 
+	 * It is run on thread of caller even with event loop, because caller needs its result.
+	 * @param floorIndex - floor index
+	 * @return boolean - true in case elevator is parking, false in case it is busy or does not serve the floor
+	 */
+	public synchronized boolean park(int floorIndex) {
+		if (state != STATE.IDLE || !route.getStops().isEmpty() || !servedFloors.contains(floorIndex)) {
+			return false;
+		}
+		cancelParking();
+		logger.debug("Parking elevator " + id + " at floor " + floorIndex + " currentFloorIndex=" + currentFloorIndex);
+		parkingFloorIndex = floorIndex;
+		parked = floorIndex == currentFloorIndex;
+		if (parked) {
+			publishSnapshot();
+			return true;
+		}
+		updateRoute(floorIndex);
+		calculateNextState();
+		return true;
+	}
+
+	/**
+	 * Floor elevator is parked at or on the way to.
+	 * @return int - floor index, -1 in case elevator is not parking
+	 */
+	public synchronized int getParkingFloor() {
+		return parkingFloorIndex;
+	}
+
+	/**
+	 * helper method to cancel parking, stop at parking floor is removed in case elevator is not there yet.
+	 * @return boolean - true in case elevator was parking
+	 */
+	private boolean cancelParking() {
+		if (parkingFloorIndex == -1) {
+			return false;
+		}
+		int floorIndex = parkingFloorIndex;
+		parkingFloorIndex = -1;
+		if (!parked) {
+			updateRoute(floorIndex);
+		}
+		parked = false;
+		return true;
+	}
+
+	/**
+	 * helper method to validate floor index.
+	 * @param requestedFloorIndex - floor index
+	 * @throws RuntimeException - in case invalid floor index or elevator is out of service
+	 */
+	private void validateFloor(int requestedFloorIndex) {
+		if (snapshot.getState() == STATE.OUT_OF_ORDER) {
+			String msg = "Elevator is out of service. id=" + id + " index=" + requestedFloorIndex;
 			logger.error(msg);
 			throw new RuntimeException(msg);
 		}
-		logger.debug("Exit floorRequest() requestedFloorIndex=" + requestedFloorIndex);
+		if (!servedFloors.contains(requestedFloorIndex)) {
+			String msg = "Invalid floor index request. index=" + requestedFloorIndex + " (" + minFloor + "," + maxFloor + ") served=" + servedFloors;
+			logger.error(msg);
+			throw new RuntimeException(msg);
+		}
+	}
+
+	/**
+	 * Takes elevator out of service. It is run on thread of caller even with event loop, so it is out of service 
+	 * before caller gives its hall calls to other elevators.
+	 * @return boolean - true in case elevator was in service
+	 */
+	public synchronized boolean takeOutOfService() {
+		if (state == STATE.OUT_OF_ORDER) {
+			return false;
+		}
+		logger.info("Elevator " + id + " is out of service at floor " + currentFloorIndex + " state=" + state);
+		state = STATE.OUT_OF_ORDER;
+		serviceEpoch++;
+		cancelParking();
+		hallCallFloorIndexes.clear();
+		hallCallUpFloorIndexes.clear();
+		hallCallDownFloorIndexes.clear();
+		carCallFloorIndexes.clear();
+		updateRoute(route.getStops());
+		publishSnapshot();
+		return true;
+	}
+
+	/**
+	 * Puts elevator back to service.
+	 * @return boolean - true in case elevator was out of service
+	 */
+	public synchronized boolean returnToService() {
+		if (state != STATE.OUT_OF_ORDER) {
+			return false;
+		}
+		logger.info("Elevator " + id + " is back in service at floor " + currentFloorIndex);
+		state = STATE.IDLE;
+		serviceEpoch++;
+		publishSnapshot();
+		return true;
+	}
+
+	/**
+	 * Service epoch of elevator, it changes whenever elevator is taken out of service or returned to service. 
+	 * Implementor should remember it when it starts door or movement timer and drop the callback in case epoch changed, 
+	 * otherwise a stale timer moves the elevator again after it is back in service.
+	 * @return int
+	 */
+	protected synchronized int getServiceEpoch() {
+		return serviceEpoch;
 	}
 
 	/**
 	 * Request to open the door. Request may be denied in case system cannot open door due to state. Client should retry. 
+	 * With event loop request is always accepted and processed later, it is dropped in case it is denied then.
+	 * @return boolean - true if accepted or false in case denied.
+	 */
+	public boolean openDoorRequest() {
+		if (eventLoop != null) {
+			eventLoop.execute(new Runnable() {
+				public void run() {
+					openDoor();
+				}
+			});
+			return true;
+		}
+		return openDoor();
+	}
+
+	/**
+	 * Request to close door. Request may be denied in case system cannot close door due to state. Client should retry. 
+	 * With event loop request is always accepted and processed later, it is dropped in case it is denied then.
+	 * @return boolean - true if accepted or false in case denied.
+	 */
+	public boolean closeDoorRequest() {
+		if (eventLoop != null) {
+			eventLoop.execute(new Runnable() {
+				public void run() {
+					closeDoor();
+				}
+			});
+			return true;
+		}
+		return closeDoor();
+	}
+
+	/**
+	 * Opens door in case state allows it.
 	 * @return boolean - true if accepted or false in case denied.
 	 */
-	public synchronized boolean openDoorRequest() {
+	private synchronized boolean openDoor() {
 		logger.info(id + ":Door open request recieved");
 		if (state == STATE.IDLE || state == STATE.DOOR_CLOSING) {
 			state = STATE.DOOR_OPENING;
+			publishSnapshot();
 			startDoorOpening();
 			return true;
 		} else if (state == STATE.DOOR_OPEN || state == STATE.DOOR_OPENING) {
@@ -190,13 +605,14 @@ public abstract class AbstractBaseElevatorControl implements ElevatorControlInte
 	}
 
 	/**
-	 * Request to close door. Request may be denied in case system cannot close door due to state. Client should retry. 
+	 * Closes door in case state allows it.
 	 * @return boolean - true if accepted or false in case denied.
 	 */
-	public synchronized boolean closeDoorRequest() {
+	private synchronized boolean closeDoor() {
 		logger.info(id + ":Door Close request recieved");
 		if (state == STATE.DOOR_OPEN) {
 			state = STATE.DOOR_CLOSING;
+			publishSnapshot();
 			startDoorClosing();
 			return true;
 		}
@@ -208,28 +624,43 @@ public abstract class AbstractBaseElevatorControl implements ElevatorControlInte
 	 * This method must be called by implementor after door is fully opened. 
 	 */
 	protected synchronized void doorOpened() {
+		if (state == STATE.OUT_OF_ORDER) {
+			return;
+		}
 		logger.info("Now elevator " + id + " at floor " + currentFloorIndex + " door is open.");
 		state = STATE.DOOR_OPEN;
+		publishSnapshot();
 	}
 
 	/**
 	 * This method must be called by implementor after door is fully closed. 
 	 */
 	protected synchronized void doorClosed() {
+		if (state == STATE.OUT_OF_ORDER) {
+			return;
+		}
 		logger.info("Now elevator " + id + " at floor " + currentFloorIndex + " door is closed.");
 		state = STATE.IDLE;
+		publishSnapshot();
 		calculateNextState();
 	}
 
 	/**
 	 * This method must be called by implementor after elevator reached to new floor.
-	 * This method recalculate movement of elevator in case floor requests are changed.  
+	 * Elevator follows its {@link RoutePlan}, it stops in case it reached next stop of the plan and turns back in case 
+	 * stops ahead were withdrawn.
 	 */
 	protected synchronized boolean movedToNewFloor() {
+		if (state == STATE.OUT_OF_ORDER) {
+			return false; // stopped where it was
+		}
 
-		logger.debug("Enter movedToNewFloor() currentFloorIndex=" + currentFloorIndex + " movingDirection=" + movingDirection + " nextFloorStop=" + nextFloorStop);
+		int plannedStop = route.getNextStop();
+		logger.debug("Enter movedToNewFloor() currentFloorIndex=" + currentFloorIndex + " movingDirection=" + movingDirection + " plannedStop=" + plannedStop);
 
-		ElevatorSystemConfig.getConfig().getFloorInterface(currentFloorIndex).elevatorLeft(this);
+		if (config != null) {
+			config.getFloorInterface(currentFloorIndex).elevatorLeft(this);
+		}
 
 		if (DIRECTION.UP.equals(movingDirection)) {
 			currentFloorIndex++;
@@ -242,30 +673,91 @@ public abstract class AbstractBaseElevatorControl implements ElevatorControlInte
 				movingDirection = DIRECTION.UP;
 			}
 		}
+		route.moved(currentFloorIndex, movingDirection);
 		logger.info("Now elevator " + id + " at floor " + currentFloorIndex + " moving " + movingDirection);
+		publishSnapshot();
 
-		if(dirtyRequestedFloorIndexes){
-			state = STATE.IDLE;	   
-			calculateNextState();
+		if (currentFloorIndex == plannedStop && plannedStop == parkingFloorIndex) {
+			logger.info("Now elevator " + id + " is parked at floor " + currentFloorIndex);
+			parked = true;
+			updateRoute(currentFloorIndex);
+			state = STATE.IDLE;
+			publishSnapshot();
 			return false;
 		}
-	
-		if (currentFloorIndex == nextFloorStop) {
-			logger.debug("Reached requested floor currentFloorIndex=" + currentFloorIndex + " movingDirection=" + movingDirection + " nextFloorStop=" + nextFloorStop);
+
+		if (currentFloorIndex == plannedStop) {
+			logger.debug("Reached requested floor currentFloorIndex=" + currentFloorIndex + " movingDirection=" + movingDirection + " plannedStop=" + plannedStop);
 			openDoorAndNotify();
 			return false;
 		}
 
-		if (nextFloorStop == -1) {
-			logger.debug("Setting IDLE. currentFloorIndex=" + currentFloorIndex + " movingDirection=" + movingDirection + " nextFloorStop=" + nextFloorStop);
+		if (route.getNextStop() == -1) {
+			logger.debug("Setting IDLE. currentFloorIndex=" + currentFloorIndex + " movingDirection=" + movingDirection + " route=" + route);
 			state = STATE.IDLE;
+			publishSnapshot();
 			return false;
 		}
 
-		logger.debug("Exit movedToNewFloor(). currentFloorIndex=" + currentFloorIndex + " movingDirection=" + movingDirection + " nextFloorStop=" + nextFloorStop);
+		if (route.getNextDirection() != movingDirection) {
+			logger.debug("Turning back. currentFloorIndex=" + currentFloorIndex + " movingDirection=" + movingDirection + " route=" + route);
+			state = STATE.IDLE;
+			calculateNextState();
+			return false;
+		}
+
+		logger.debug("Exit movedToNewFloor(). currentFloorIndex=" + currentFloorIndex + " movingDirection=" + movingDirection + " route=" + route);
 		return true; // keep moving
 	}
 
+	/**
+	 * Publishes a new {@link ElevatorSnapshot} of current state. 
+	 * It is called after every change made by this class. Implementor must call it while holding monitor of this elevator 
+	 * in case it changes {@link #state} directly. Registered {@link ElevatorStateListener} are notified.
+	 */
+	protected synchronized void publishSnapshot() {
+		ElevatorSnapshot previous = snapshot;
+		int nextStop = state == STATE.MOVING ? route.getNextStop() : -1;
+		snapshot = new ElevatorSnapshot(id, previous.getVersion() + 1, state, movingDirection, currentFloorIndex, nextStop,
+				route.getFirstStop(), route.getLastStop(), route.getRemainingStops(), route.getStopWords(), route.getRouteLength(), 
+				load, capacity, loadBypass, servedFloors, minFloor, maxFloor);
+		for (ElevatorStateListener listener : stateListeners) {
+			listener.snapshotPublished(this, previous, snapshot);
+		}
+	}
+
+	/**
+	 * Register listener to be notified on every new {@link ElevatorSnapshot}.
+	 * @param listener
+	 */
+	public void addStateListener(ElevatorStateListener listener) {
+		stateListeners.add(listener);
+	}
+
+	/**
+	 * Unregister listener.
+	 * @param listener
+	 */
+	public void removeStateListener(ElevatorStateListener listener) {
+		stateListeners.remove(listener);
+	}
+
+	/**
+	 * Returns task which runs given task in event loop of this elevator. Implementor should wrap its timer callbacks with it.
+	 * @param task
+	 * @return Runnable - given task in case elevator does not run on event loop
+	 */
+	protected Runnable inEventLoop(final Runnable task) {
+		if (eventLoop == null) {
+			return task;
+		}
+		return new Runnable() {
+			public void run() {
+				eventLoop.execute(task);
+			}
+		};
+	}
+
 	/**
 	 * This method is called to start closing the door.
 	 */
@@ -291,65 +783,72 @@ public abstract class AbstractBaseElevatorControl implements ElevatorControlInte
 			return; // Elevetor is moving or door is active. Wait for IDLE.
 		}
 
-		if (requestedFloorIndexes.isEmpty()) {
-			logger.debug("Empty requestedFloorIndexes setting status IDLE");
+		if (route.getStops().isEmpty()) {
+			logger.debug("Empty route setting status IDLE");
 			state = STATE.IDLE;
+			publishSnapshot();
 			return; // Nothing to do
 		}
-		dirtyRequestedFloorIndexes = false;
-		int downNext = -1;
-		int upNext = -1;
-		int nextStop = -1;
-		for (int i : requestedFloorIndexes) {
-			if (i < currentFloorIndex) {
-				downNext = i;
-			} else if (i == currentFloorIndex) {
-				nextStop = currentFloorIndex;
-			} else {
-				upNext = i;
-				break;
-			}
-		}
-
-		logger.debug("downNext=" + downNext + " nextStop=" + nextStop + " currentFloorIndex=" + currentFloorIndex + " upNext=" + upNext + "requestedFloorIndexes=" + requestedFloorIndexes);
 
-		if (nextStop == currentFloorIndex) {
+		if (route.isStopFor(currentFloorIndex, departureDirection())) {
 			openDoorAndNotify();
 			return;
 		}
 
-		if (DIRECTION.UP == movingDirection) {
-			if (upNext == -1) {
-				movingDirection = DIRECTION.DOWN;
-				nextFloorStop = downNext;
-			} else {
-				nextFloorStop = upNext;
-			}
-		} else if (DIRECTION.DOWN == movingDirection) {
-			if (downNext == -1) {
-				movingDirection = DIRECTION.UP;
-				nextFloorStop = upNext;
-			} else {
-				nextFloorStop = downNext;
-			}
+		if (route.getNextStop() == -1) {
+			logger.warn("calculateNextState() found no stop to move to route=" + route);
+			return;
 		}
+		movingDirection = route.getNextDirection();
+		route.turn(movingDirection);
 
-		logger.debug("Start moving nextFloorStop=" + nextFloorStop + " currentFloorIndex=" + currentFloorIndex + " movingDirection=" + movingDirection + " requestedFloorIndexes=" + requestedFloorIndexes);
+		if (logger.isDebugEnabled()) {
+			logger.debug("Start moving currentFloorIndex=" + currentFloorIndex + " movingDirection=" + movingDirection + " route=" + route);
+		}
 		state = STATE.MOVING;
+		publishSnapshot();
 		startMoving();
 	}
 
 	/**
-	 * help method to declare elevator is arrived and door is opening.
+	 * helper method to decide direction elevator leaves current floor in. Elevator keeps its direction in case it has stops 
+	 * ahead or a hall call for that direction at current floor.
+	 * @return {@link DIRECTION} - null in case elevator has nowhere else to go
+	 */
+	private DIRECTION departureDirection() {
+		DIRECTION reverse = movingDirection == DIRECTION.UP ? DIRECTION.DOWN : DIRECTION.UP;
+		if (route.hasStopBeyond(movingDirection) || hallCalls(movingDirection).contains(currentFloorIndex)) {
+			return movingDirection;
+		}
+		if (route.hasStopBeyond(reverse) || hallCalls(reverse).contains(currentFloorIndex)) {
+			return reverse;
+		}
+		return null;
+	}
+
+	/**
+	 * help method to declare elevator is arrived and door is opening. 
+	 * Hall calls for the other direction than elevator is going to leave in stay pending.
 	 */
 	private void openDoorAndNotify() {
-		logger.debug("Opening door floor currentFloorIndex=" + currentFloorIndex + " movingDirection" + movingDirection + "nextFloorStop" + nextFloorStop);
-		FloorControlInterface floorInputBoard = ElevatorSystemConfig.getConfig().getFloorInterface(currentFloorIndex);
+		logger.debug("Opening door floor currentFloorIndex=" + currentFloorIndex + " movingDirection=" + movingDirection + " route=" + route);
+		FloorControlInterface floorInputBoard = config == null ? null : config.getFloorInterface(currentFloorIndex);
+		DIRECTION departure = departureDirection();
 		state = STATE.DOOR_OPENING;
-		requestedFloorIndexes.remove(currentFloorIndex);
-		nextFloorStop = -1;
+		hallCallFloorIndexes.remove(currentFloorIndex);
+		carCallFloorIndexes.remove(currentFloorIndex);
+		if (departure != DIRECTION.DOWN) {
+			hallCallUpFloorIndexes.remove(currentFloorIndex);
+		}
+		if (departure != DIRECTION.UP) {
+			hallCallDownFloorIndexes.remove(currentFloorIndex);
+		}
+		updateRoute(currentFloorIndex);
+		publishSnapshot();
 		startDoorOpening();
-		floorInputBoard.elevatorArrived(this);
+		if (floorInputBoard != null) {
+			floorInputBoard.elevatorArrived(this, departure);
+		}
 	}
 
 	@Override
@@ -1,30 +1,60 @@
 package com.alok.ecsystem.core.impl;
 
-import java.util.Observable;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 
 import com.alok.ecsystem.core.ElevatorControlInterface;
+import com.alok.ecsystem.core.ElevatorControlInterface.DIRECTION;
 import com.alok.ecsystem.core.ElevatorSystemControl;
 import com.alok.ecsystem.core.FloorControlInterface;
+import com.alok.ecsystem.core.dispatch.DestinationDispatcher;
+import com.alok.ecsystem.core.event.EventBus;
+import com.alok.ecsystem.core.event.FloorEvent;
 
 /**
  * Base implementation for {@link FloorControlInterface}.
- * It also implements {@link Observable} so {@link ElevatorSystemControl} can observe it.
+ * It publishes {@link FloorEvent} on floor event bus of building so {@link ElevatorSystemControl} and others can subscribe to it.
+ * Event object is not created in case bus has no subscriber.
  * 
  * @author Alok Kushwah (akushwah)
  *
  */
-public class BaseFloorControl extends Observable implements FloorControlInterface {
+public class BaseFloorControl implements FloorControlInterface {
 
-	private int id;
-	private boolean requested;
-	private ElevatorControlInterface elevatorControl;
+	/**
+	 * Position of single call button and up and down buttons in {@link #requests}.
+	 */
+	private static final int NONE = 0, UP = 1, DOWN = 2;
+
+	private final int id;
+	private final EventBus<FloorEvent> events;
+	private final AtomicIntegerArray requests = new AtomicIntegerArray(3);
+	private volatile ElevatorControlInterface elevatorControl;
+	private volatile DestinationDispatcher destinationDispatcher;
 
 	/**
-	 * Constructor to create new BaseFloorControl.
+	 * Constructor to create new BaseFloorControl which is not part of a building. It publishes on its own bus.
 	 * @param id - unique floor index/id
 	 */
 	public BaseFloorControl(int id) {
+		this(id, new EventBus<FloorEvent>("Floor-" + id));
+	}
+
+	/**
+	 * Constructor to create new BaseFloorControl.
+	 * @param id - unique floor index/id
+	 * @param events - bus to publish floor events on, usually shared by all floors of building
+	 */
+	public BaseFloorControl(int id, EventBus<FloorEvent> events) {
 		this.id = id;
+		this.events = events;
+	}
+
+	/**
+	 * Bus on which events of this floor are published.
+	 * @return {@link EventBus}
+	 */
+	public EventBus<FloorEvent> getEvents() {
+		return events;
 	}
 
 	/**
@@ -37,23 +67,62 @@ public class BaseFloorControl extends Observable implements FloorControlInterfac
 
 	/**
 	 * Return status of request 
-	 * @return boolean - true if elevator request is pending otherwise false.
+	 * @return boolean - true if elevator request of any direction is pending otherwise false.
 	 */
 	public boolean getElevatorRequest() {
-		return requested;
+		return requests.get(NONE) != 0 || requests.get(UP) != 0 || requests.get(DOWN) != 0;
+	}
+
+	/**
+	 * Return status of request of given direction
+	 * @param direction - direction rider wants to go, null for single call button
+	 * @return boolean - true if elevator request is pending otherwise false.
+	 */
+	public boolean getElevatorRequest(DIRECTION direction) {
+		return requests.get(index(direction)) != 0;
 	}
 
 	/**
 	 * Should be called when button is pressed to call elevator.
-	 * @param requsted - boolean true if button is pressed or false to reset.
+	 * @param requested - boolean true if button is pressed or false to reset.
 	 */
-	public void setElevatorRequest(boolean upRequested) {
-		boolean notify = upRequested != this.requested;
-		this.requested = upRequested;
-		if (notify) {
-			setChanged();
-			notifyObservers(upRequested ? FLOOR_EVENT.BUTTON_PRESSED : FLOOR_EVENT.BUTTON_OFF);
+	public void setElevatorRequest(boolean requested) {
+		setElevatorRequest(null, requested);
+	}
+
+	/**
+	 * Should be called when up or down button is pressed to call elevator. Event is published only when state of button changes, 
+	 * so concurrent presses of same button make one call.
+	 * @param direction - direction rider wants to go, null for single call button
+	 * @param requested - boolean true if button is pressed or false to reset.
+	 */
+	public void setElevatorRequest(DIRECTION direction, boolean requested) {
+		int value = requested ? 1 : 0;
+		if (requests.getAndSet(index(direction), value) != value) {
+			publish(requested ? FLOOR_EVENT.BUTTON_PRESSED : FLOOR_EVENT.BUTTON_OFF, direction, null);
+		}
+	}
+
+	/**
+	 * Assigns rider to an elevator by {@link DestinationDispatcher} of building.
+	 * @param destinationFloorIndex - floor rider wants to go
+	 * @return {@link ElevatorControlInterface} - elevator rider should take, null in case none can serve the request.
+	 * @throws RuntimeException in case destination dispatch is not enabled or destination is invalid.
+	 */
+	public ElevatorControlInterface requestDestination(int destinationFloorIndex) {
+		DestinationDispatcher dispatcher = destinationDispatcher;
+		if (dispatcher == null) {
+			throw new RuntimeException("Destination dispatch is not enabled at floor=" + id);
 		}
+		return dispatcher.request(this, destinationFloorIndex);
+	}
+
+	/**
+	 * Sets dispatcher of destination requests. Called by {@link ElevatorSystemControl} when destination dispatch is enabled.
+	 * @param destinationDispatcher
+	 */
+	public void setDestinationDispatcher(DestinationDispatcher destinationDispatcher) {
+		this.destinationDispatcher = destinationDispatcher;
 	}
 
 	/**
@@ -65,13 +134,18 @@ public class BaseFloorControl extends Observable implements FloorControlInterfac
 	}
 
 	/**
-	 * Receives notification when elevator arrives. 
+	 * Receives notification when elevator arrives. Calls without direction and calls of direction elevator leaves in are reset.
 	 */
-	public void elevatorArrived(ElevatorControlInterface elevator) {
-		requested = false;
+	public void elevatorArrived(ElevatorControlInterface elevator, DIRECTION direction) {
+		requests.set(NONE, 0);
+		if (direction != DIRECTION.DOWN) {
+			requests.set(UP, 0);
+		}
+		if (direction != DIRECTION.UP) {
+			requests.set(DOWN, 0);
+		}
 		elevatorControl = elevator;
-		setChanged();
-		notifyObservers(FLOOR_EVENT.ELEVATOR_ARRIVED);
+		publish(FLOOR_EVENT.ELEVATOR_ARRIVED, direction, elevator);
 	}
 
 	/**
@@ -80,10 +154,18 @@ public class BaseFloorControl extends Observable implements FloorControlInterfac
 	public void elevatorLeft(ElevatorControlInterface elevator) {
 		if (elevatorControl == elevator) {
 			elevatorControl = null;
-			setChanged();
-			notifyObservers(FLOOR_EVENT.ELEVATOR_LEFT);
+			publish(FLOOR_EVENT.ELEVATOR_LEFT, null, elevator);
 		}
 	}
 
+	private void publish(FLOOR_EVENT type, DIRECTION direction, ElevatorControlInterface elevator) {
+		if (events.hasSubscribers()) {
+			events.publish(new FloorEvent(this, type, direction, elevator));
+		}
+	}
+
+	private static int index(DIRECTION direction) {
+		return direction == null ? NONE : direction == DIRECTION.UP ? UP : DOWN;
+	}
 
 }
@@ -0,0 +1,281 @@
+package com.alok.ecsystem.core.impl;
+
+import com.alok.ecsystem.core.ElevatorControlInterface.DIRECTION;
+import com.alok.ecsystem.core.util.FloorBitSet;
+
+/**
+ * Planned route of one elevator under LOOK discipline. Elevator serves every stop ahead in its direction up to the farthest one,
+ * turns back and serves stops of other direction, and finally turns again for calls it skipped on the way.
+ *
+ * Every stop tells for which directions elevator has to stop there. Floor with only hall calls for going down is skipped
+ * while going up unless it is the highest stop, and same for the other direction.
+ *
+ * Plan is updated when a stop is added or removed or elevator turns. Moving along the plan does not change it,
+ * so next stop, next direction, remaining stops and route length are read in constant time.
+ *
+ * Plan is not thread safe, it is guarded by monitor of its elevator.
+ *
+ * @author Alok Kushwah (akushwah)
+ */
+public final class RoutePlan {
+
+	private final FloorBitSet stops;
+	private final FloorBitSet upStops;
+	private final FloorBitSet downStops;
+	private final FloorBitSet upOnlyStops;
+	private final FloorBitSet downOnlyStops;
+	private long[] stopWords;
+
+	private int currentFloor;
+	private DIRECTION direction;
+	private int firstStop = -1;
+	private int lastStop = -1;
+	private int nextStop = -1;
+	private DIRECTION nextDirection;
+	private int routeLength;
+
+	/**
+	 * Creates an empty plan.
+	 * @param maxFloor - maximum floor index of elevator
+	 * @param currentFloor - current floor index
+	 * @param direction - direction of elevator
+	 */
+	public RoutePlan(int maxFloor, int currentFloor, DIRECTION direction) {
+		this.stops = new FloorBitSet(maxFloor + 1);
+		this.upStops = new FloorBitSet(maxFloor + 1);
+		this.downStops = new FloorBitSet(maxFloor + 1);
+		this.upOnlyStops = new FloorBitSet(maxFloor + 1);
+		this.downOnlyStops = new FloorBitSet(maxFloor + 1);
+		this.currentFloor = currentFloor;
+		this.direction = direction;
+		this.nextDirection = direction;
+	}
+
+	/**
+	 * Sets for which directions elevator has to stop at given floor. Stop is removed in case it is for none.
+	 * @param floorIndex - floor index
+	 * @param up - true in case elevator stops there while going up
+	 * @param down - true in case elevator stops there while going down
+	 * @return boolean - true in case plan is changed
+	 */
+	public boolean setStop(int floorIndex, boolean up, boolean down) {
+		boolean changed = up ? upStops.add(floorIndex) : upStops.remove(floorIndex);
+		changed |= down ? downStops.add(floorIndex) : downStops.remove(floorIndex);
+		if (!changed) {
+			return false;
+		}
+		if (up || down ? stops.add(floorIndex) : stops.remove(floorIndex)) {
+			stopWords = null;
+		}
+		if (up && !down) {
+			upOnlyStops.add(floorIndex);
+		} else {
+			upOnlyStops.remove(floorIndex);
+		}
+		if (down && !up) {
+			downOnlyStops.add(floorIndex);
+		} else {
+			downOnlyStops.remove(floorIndex);
+		}
+		replan();
+		return true;
+	}
+
+	/**
+	 * Elevator reached given floor. Plan is kept in case elevator is moving towards next stop, so no work is done on most floors.
+	 * @param floorIndex - floor index
+	 * @param newDirection - direction of elevator after reaching the floor
+	 */
+	public void moved(int floorIndex, DIRECTION newDirection) {
+		boolean onRoute = floorIndex == nextStop || (nextStop != -1 && nextDirection == direction && newDirection == direction);
+		currentFloor = floorIndex;
+		direction = newDirection;
+		if (onRoute) {
+			routeLength--;
+		} else {
+			replan();
+		}
+	}
+
+	/**
+	 * Elevator changes its direction at current floor.
+	 * @param newDirection
+	 */
+	public void turn(DIRECTION newDirection) {
+		if (direction != newDirection) {
+			direction = newDirection;
+			replan();
+		}
+	}
+
+	/**
+	 * Floors elevator has to stop at. Set must not be modified.
+	 * @return {@link FloorBitSet}
+	 */
+	public FloorBitSet getStops() {
+		return stops;
+	}
+
+	/**
+	 * Bit words of floors elevator has to stop at, which are safe to share with other threads. 
+	 * Same array is returned until stops change, so publishing state of moving elevator does not copy them.
+	 * @return long[] - words as given by {@link FloorBitSet#toWords()}, must not be modified
+	 */
+	public long[] getStopWords() {
+		if (stopWords == null) {
+			stopWords = stops.toWords();
+		}
+		return stopWords;
+	}
+
+	/**
+	 * Returns true in case elevator has to stop at given floor while leaving it in given direction.
+	 * @param floorIndex - floor index
+	 * @param direction - direction elevator leaves the floor in, null in case it does not move any further
+	 * @return boolean
+	 */
+	public boolean isStopFor(int floorIndex, DIRECTION direction) {
+		if (direction == null) {
+			return stops.contains(floorIndex);
+		}
+		return direction == DIRECTION.UP ? upStops.contains(floorIndex) : downStops.contains(floorIndex);
+	}
+
+	/**
+	 * Returns true in case plan has a stop beyond current floor in given direction.
+	 * @param direction
+	 * @return boolean
+	 */
+	public boolean hasStopBeyond(DIRECTION direction) {
+		return direction == DIRECTION.UP ? lastStop > currentFloor : firstStop != -1 && firstStop < currentFloor;
+	}
+
+	/**
+	 * Next floor elevator stops at, current floor is never the next stop unless elevator just reached it.
+	 * @return int - floor index, -1 if none
+	 */
+	public int getNextStop() {
+		return nextStop;
+	}
+
+	/**
+	 * Direction elevator has to go in to reach next stop.
+	 * @return {@link DIRECTION}
+	 */
+	public DIRECTION getNextDirection() {
+		return nextDirection;
+	}
+
+	public int getFirstStop() {
+		return firstStop;
+	}
+
+	public int getLastStop() {
+		return lastStop;
+	}
+
+	/**
+	 * Number of floors elevator still has to stop at.
+	 * @return int
+	 */
+	public int getRemainingStops() {
+		return stops.size();
+	}
+
+	/**
+	 * Number of floors elevator travels until it serves every stop of the plan.
+	 * @return int
+	 */
+	public int getRouteLength() {
+		return routeLength;
+	}
+
+	/**
+	 * helper method to compute next stop and route length from current floor and direction.
+	 */
+	private void replan() {
+		firstStop = stops.first();
+		lastStop = stops.last();
+		if (firstStop == -1) {
+			nextStop = -1;
+			nextDirection = direction;
+			routeLength = 0;
+			return;
+		}
+		nextDirection = direction;
+		nextStop = direction == DIRECTION.UP ? nextStopUp() : nextStopDown();
+		if (nextStop == -1) {
+			nextDirection = direction == DIRECTION.UP ? DIRECTION.DOWN : DIRECTION.UP;
+			nextStop = direction == DIRECTION.UP ? nextStopDown() : nextStopUp();
+		}
+		routeLength = direction == DIRECTION.UP ? routeLengthUp() : routeLengthDown();
+	}
+
+	/**
+	 * helper method to find next stop above current floor. It is the nearest stop for going up or the highest stop.
+	 * @return int - floor index, -1 if none
+	 */
+	private int nextStopUp() {
+		if (lastStop <= currentFloor) {
+			return -1;
+		}
+		int floor = upStops.nextSetBit(currentFloor + 1);
+		return floor == -1 ? lastStop : floor;
+	}
+
+	/**
+	 * helper method to find next stop below current floor. It is the nearest stop for going down or the lowest stop.
+	 * @return int - floor index, -1 if none
+	 */
+	private int nextStopDown() {
+		if (firstStop >= currentFloor) {
+			return -1;
+		}
+		int floor = downStops.previousSetBit(currentFloor - 1);
+		return floor == -1 ? firstStop : floor;
+	}
+
+	/**
+	 * helper method to measure route which starts going up. Stops at current floor belong to way back, as elevator already left it.
+	 * @return int - number of floors
+	 */
+	private int routeLengthUp() {
+		int top = Math.max(lastStop, currentFloor);
+		// lowest stop left after the way up, stops for going down above current floor were skipped
+		int bottom = firstStop <= currentFloor ? firstStop : downOnlyStops.nextSetBit(currentFloor + 1);
+		if (bottom == -1 || bottom >= top) {
+			return top - currentFloor;
+		}
+		int length = (top - currentFloor) + (top - bottom);
+		// stops for going up below current floor were skipped on the way down
+		int turn = upOnlyStops.previousSetBit(currentFloor);
+		if (turn > bottom) {
+			length += turn - bottom;
+		}
+		return length;
+	}
+
+	/**
+	 * helper method to measure route which starts going down, mirror of {@link #routeLengthUp()}.
+	 * @return int - number of floors
+	 */
+	private int routeLengthDown() {
+		int bottom = firstStop == -1 ? currentFloor : Math.min(firstStop, currentFloor);
+		int top = lastStop >= currentFloor ? lastStop : upOnlyStops.previousSetBit(currentFloor - 1);
+		if (top == -1 || top <= bottom) {
+			return currentFloor - bottom;
+		}
+		int length = (currentFloor - bottom) + (top - bottom);
+		int turn = downOnlyStops.nextSetBit(currentFloor);
+		if (turn != -1 && turn < top) {
+			length += top - turn;
+		}
+		return length;
+	}
+
+	@Override
+	public String toString() {
+		return "currentFloor=" + currentFloor + " direction=" + direction + " nextStop=" + nextStop + " nextDirection=" + nextDirection
+				+ " routeLength=" + routeLength + " stops=" + stops;
+	}
+}
@@ -0,0 +1,264 @@
+package com.alok.ecsystem.core.util;
+
+import java.util.Collections;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Fixed size set of floor indexes backed by bit words.
+ * 
+ * Add, remove and contains are O(1) and never allocate. Next and previous floor lookups scan one word (64 floors) at a time.
+ * 
+ * This class is not thread safe. Owner must guard it, for example with its own monitor.
+ * 
+ * @author Alok Kushwah (akushwah)
+ */
+public final class FloorBitSet {
+
+	private static final int ADDRESS_BITS_PER_WORD = 6;
+
+	private final long[] words;
+	private final int capacity;
+	private int size;
+
+	/**
+	 * Creates an empty set which can hold floor index 0 to capacity-1.
+	 * @param capacity - number of floors
+	 */
+	public FloorBitSet(int capacity) {
+		this.capacity = capacity;
+		this.words = new long[Math.max(1, (capacity + 63) >> ADDRESS_BITS_PER_WORD)];
+	}
+
+	/**
+	 * Adds a floor.
+	 * @param floorIndex
+	 * @return boolean - true in case floor was not in set
+	 * @throws IndexOutOfBoundsException in case floor index is out of capacity
+	 */
+	public boolean add(int floorIndex) {
+		checkIndex(floorIndex);
+		int wordIndex = floorIndex >> ADDRESS_BITS_PER_WORD;
+		long mask = 1L << floorIndex;
+		if ((words[wordIndex] & mask) != 0) {
+			return false;
+		}
+		words[wordIndex] |= mask;
+		size++;
+		return true;
+	}
+
+	/**
+	 * Removes a floor.
+	 * @param floorIndex
+	 * @return boolean - true in case floor was in set
+	 */
+	public boolean remove(int floorIndex) {
+		if (floorIndex < 0 || floorIndex >= capacity) {
+			return false;
+		}
+		int wordIndex = floorIndex >> ADDRESS_BITS_PER_WORD;
+		long mask = 1L << floorIndex;
+		if ((words[wordIndex] & mask) == 0) {
+			return false;
+		}
+		words[wordIndex] &= ~mask;
+		size--;
+		return true;
+	}
+
+	/**
+	 * Returns true in case floor is in set.
+	 * @param floorIndex
+	 * @return boolean
+	 */
+	public boolean contains(int floorIndex) {
+		if (floorIndex < 0 || floorIndex >= capacity) {
+			return false;
+		}
+		return (words[floorIndex >> ADDRESS_BITS_PER_WORD] & (1L << floorIndex)) != 0;
+	}
+
+	/**
+	 * Returns first floor in set which is same or above given floor.
+	 * @param fromIndex - floor index to start from
+	 * @return int - floor index or -1 in case there is none
+	 */
+	public int nextSetBit(int fromIndex) {
+		if (fromIndex < 0) {
+			fromIndex = 0;
+		}
+		if (fromIndex >= capacity) {
+			return -1;
+		}
+		int wordIndex = fromIndex >> ADDRESS_BITS_PER_WORD;
+		long word = words[wordIndex] & (-1L << fromIndex);
+		while (true) {
+			if (word != 0) {
+				return (wordIndex << ADDRESS_BITS_PER_WORD) + Long.numberOfTrailingZeros(word);
+			}
+			if (++wordIndex == words.length) {
+				return -1;
+			}
+			word = words[wordIndex];
+		}
+	}
+
+	/**
+	 * Returns first floor in set which is same or below given floor.
+	 * @param fromIndex - floor index to start from
+	 * @return int - floor index or -1 in case there is none
+	 */
+	public int previousSetBit(int fromIndex) {
+		if (fromIndex < 0) {
+			return -1;
+		}
+		if (fromIndex >= capacity) {
+			fromIndex = capacity - 1;
+		}
+		int wordIndex = fromIndex >> ADDRESS_BITS_PER_WORD;
+		long word = words[wordIndex] & (-1L >>> -(fromIndex + 1));
+		while (true) {
+			if (word != 0) {
+				return ((wordIndex + 1) << ADDRESS_BITS_PER_WORD) - 1 - Long.numberOfLeadingZeros(word);
+			}
+			if (wordIndex-- == 0) {
+				return -1;
+			}
+			word = words[wordIndex];
+		}
+	}
+
+	/**
+	 * Lowest floor in set.
+	 * @return int - floor index or -1 in case set is empty
+	 */
+	public int first() {
+		return nextSetBit(0);
+	}
+
+	/**
+	 * Highest floor in set.
+	 * @return int - floor index or -1 in case set is empty
+	 */
+	public int last() {
+		return previousSetBit(capacity - 1);
+	}
+
+	/**
+	 * Number of floors in set.
+	 * @return int
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns true in case set has no floor.
+	 * @return boolean
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Removes all floors.
+	 */
+	public void clear() {
+		for (int i = 0; i < words.length; i++) {
+			words[i] = 0;
+		}
+		size = 0;
+	}
+
+	/**
+	 * Returns a copy of bit words of set which is safe to share with other threads. It can be read by {@link #count(long[], int, int)}.
+	 * @return long[]
+	 */
+	public long[] toWords() {
+		return words.clone();
+	}
+
+	/**
+	 * Counts floors between given floor indexes, both inclusive, in bit words given by {@link #toWords()}.
+	 * @param words - bit words of set
+	 * @param fromIndex - lowest floor index
+	 * @param toIndex - highest floor index
+	 * @return int - number of floors, 0 in case range is empty
+	 */
+	public static int count(long[] words, int fromIndex, int toIndex) {
+		fromIndex = Math.max(fromIndex, 0);
+		toIndex = Math.min(toIndex, (words.length << ADDRESS_BITS_PER_WORD) - 1);
+		if (fromIndex > toIndex) {
+			return 0;
+		}
+		int fromWord = fromIndex >> ADDRESS_BITS_PER_WORD;
+		int toWord = toIndex >> ADDRESS_BITS_PER_WORD;
+		long fromMask = -1L << fromIndex;
+		long toMask = -1L >>> -(toIndex + 1);
+		if (fromWord == toWord) {
+			return Long.bitCount(words[fromWord] & fromMask & toMask);
+		}
+		int count = Long.bitCount(words[fromWord] & fromMask);
+		for (int i = fromWord + 1; i < toWord; i++) {
+			count += Long.bitCount(words[i]);
+		}
+		return count + Long.bitCount(words[toWord] & toMask);
+	}
+
+	/**
+	 * Returns first floor which is same or above given floor in bit words given by {@link #toWords()}.
+	 * @param words - bit words of set
+	 * @param fromIndex - floor index to start from
+	 * @return int - floor index or -1 in case there is none
+	 */
+	public static int nextSetBit(long[] words, int fromIndex) {
+		if (fromIndex < 0) {
+			fromIndex = 0;
+		}
+		int wordIndex = fromIndex >> ADDRESS_BITS_PER_WORD;
+		if (wordIndex >= words.length) {
+			return -1;
+		}
+		long word = words[wordIndex] & (-1L << fromIndex);
+		while (true) {
+			if (word != 0) {
+				return (wordIndex << ADDRESS_BITS_PER_WORD) + Long.numberOfTrailingZeros(word);
+			}
+			if (++wordIndex == words.length) {
+				return -1;
+			}
+			word = words[wordIndex];
+		}
+	}
+
+	/**
+	 * Returns a copy of set which is safe to share with other threads.
+	 * @return SortedSet<Integer> - unmodifiable copy
+	 */
+	public SortedSet<Integer> toSortedSet() {
+		SortedSet<Integer> copy = new TreeSet<Integer>();
+		for (int i = nextSetBit(0); i >= 0; i = nextSetBit(i + 1)) {
+			copy.add(i);
+		}
+		return Collections.unmodifiableSortedSet(copy);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder("[");
+		for (int i = nextSetBit(0); i >= 0; i = nextSetBit(i + 1)) {
+			if (builder.length() > 1) {
+				builder.append(", ");
+			}
+			builder.append(i);
+		}
+		return builder.append(']').toString();
+	}
+
+	private void checkIndex(int floorIndex) {
+		if (floorIndex < 0 || floorIndex >= capacity) {
+			throw new IndexOutOfBoundsException("Invalid floor index=" + floorIndex + " capacity=" + capacity);
+		}
+	}
+}
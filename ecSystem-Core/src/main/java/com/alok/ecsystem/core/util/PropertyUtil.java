@@ -10,24 +10,23 @@ import java.util.Properties;
 import org.apache.log4j.Logger;
 
 /**
- * Loads the internal and external properties and make them available to system.  
+ * Loads the internal and external properties. Properties are loaded in given {@link Properties} so each 
+ * system keeps its own configuration.
  * @author Alok Kushwah (akushwah)
  */
 public class PropertyUtil {
 
-	public static final Properties properties = new Properties();
-
 	private static Logger logger  = Logger.getLogger(PropertyUtil.class);
 	
-	public static String getProperty(String name){
-		return properties.getProperty(name);
+	private PropertyUtil() {
 	}
 	
 	/**
 	 * Load the property file available in classpath.
+	 * @param properties - properties to load in, existing values are overridden
 	 * @param fileName
 	 */
-	public synchronized static void load(String fileName){
+	public static void load(Properties properties, String fileName){
 		logger.info("Enter load() fileName=" + fileName);
 		try {
 			InputStream  in = PropertyUtil.class.getClassLoader().getResourceAsStream(fileName);
@@ -45,9 +44,10 @@ public class PropertyUtil {
 
 	/**
 	 * Load property file from file system.
+	 * @param properties - properties to load in, existing values are overridden
 	 * @param file
 	 */
-	public synchronized static void load(File file) {
+	public static void load(Properties properties, File file) {
 		logger.info("Enter load() file=" + file.getAbsolutePath());
 		FileInputStream fis  = null;
 		try {
@@ -67,12 +67,5 @@ public class PropertyUtil {
 		}
 		logger.info("Exit load()");
 	}
-	
-	/**
-	 * Utility method to remove all loaded properties. This method is used by Junit test cases.
-	 */
-	public synchronized static void unload(){
-		properties.clear();
-	}
 
 }
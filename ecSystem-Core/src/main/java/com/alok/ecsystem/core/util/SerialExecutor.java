@@ -0,0 +1,94 @@
+package com.alok.ecsystem.core.util;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Mailbox processed by a single event loop. Tasks are run one at a time in the order they were submitted, 
+ * never concurrently, on threads of underlying executor. Many mailboxes can share one thread pool.
+ * 
+ * Submitting never blocks. Failure of a task is logged and does not stop the loop.
+ * 
+ * @author Alok Kushwah (akushwah)
+ */
+public class SerialExecutor implements Executor {
+
+	private static final Logger logger = Logger.getLogger(SerialExecutor.class);
+
+	/**
+	 * Maximum tasks run in one turn before loop gives thread back to other mailboxes.
+	 */
+	private static final int MAX_TASKS_PER_TURN = 64;
+
+	private final String name;
+	private final Executor executor;
+	private final Queue<Runnable> mailbox = new ConcurrentLinkedQueue<Runnable>();
+	private final AtomicBoolean scheduled = new AtomicBoolean();
+	private final Runnable loop = new Runnable() {
+		public void run() {
+			runTurn();
+		}
+	};
+
+	/**
+	 * Creates a new mailbox.
+	 * @param name - name used in log messages
+	 * @param executor - executor to run event loop on
+	 */
+	public SerialExecutor(String name, Executor executor) {
+		this.name = name;
+		this.executor = executor;
+	}
+
+	/**
+	 * Adds task to mailbox. 
+	 */
+	public void execute(Runnable task) {
+		mailbox.offer(task);
+		schedule();
+	}
+
+	/**
+	 * Number of tasks waiting in mailbox.
+	 * @return int
+	 */
+	public int getPendingCount() {
+		return mailbox.size();
+	}
+
+	private void schedule() {
+		if (scheduled.compareAndSet(false, true)) {
+			executor.execute(loop);
+		}
+	}
+
+	private void runTurn() {
+		try {
+			for (int i = 0; i < MAX_TASKS_PER_TURN; i++) {
+				Runnable task = mailbox.poll();
+				if (task == null) {
+					break;
+				}
+				try {
+					task.run();
+				} catch (RuntimeException e) {
+					logger.error("Task failed in event loop of " + name, e);
+				}
+			}
+		} finally {
+			scheduled.set(false);
+			if (!mailbox.isEmpty()) {
+				schedule();
+			}
+		}
+	}
+
+	@Override
+	public String toString() {
+		return name;
+	}
+}
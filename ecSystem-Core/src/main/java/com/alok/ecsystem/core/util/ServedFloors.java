@@ -0,0 +1,244 @@
+package com.alok.ecsystem.core.util;
+
+/**
+ * Immutable set of floors an elevator stops at.
+ *
+ * Contiguous floors are kept as a range without any array. Other sets, like zones with an express run or skip-stop service
+ * which stops at every other floor, are kept as bit words. Contains is O(1) for both and floors are iterated without boxing:
+ *
+ * <pre>
+ * for (int floor = served.first(); floor != -1; floor = served.next(floor + 1))
+ * </pre>
+ *
+ * Elevators with same floors can share one instance. It is safe to share with other threads.
+ *
+ * @author Alok Kushwah (akushwah)
+ */
+public final class ServedFloors {
+
+	private final int first;
+	private final int last;
+	private final int size;
+	private final FloorBitSet floors; // null for contiguous range, never modified
+
+	private ServedFloors(int first, int last, int size, FloorBitSet floors) {
+		this.first = first;
+		this.last = last;
+		this.size = size;
+		this.floors = floors;
+	}
+
+	/**
+	 * Every floor from min to max.
+	 * @param minFloor - lowest floor index
+	 * @param maxFloor - highest floor index
+	 * @return {@link ServedFloors}
+	 * @throws RuntimeException in case range is empty or negative
+	 */
+	public static ServedFloors range(int minFloor, int maxFloor) {
+		if (minFloor < 0 || minFloor > maxFloor) {
+			throw new RuntimeException("Invalid floor range (" + minFloor + "," + maxFloor + ")");
+		}
+		return new ServedFloors(minFloor, maxFloor, maxFloor - minFloor + 1, null);
+	}
+
+	/**
+	 * Floors of given set. Set is copied.
+	 * @param floorSet
+	 * @return {@link ServedFloors}
+	 * @throws RuntimeException in case set is empty
+	 */
+	public static ServedFloors of(FloorBitSet floorSet) {
+		int first = floorSet.first();
+		if (first == -1) {
+			throw new RuntimeException("No floor is served.");
+		}
+		int last = floorSet.last();
+		if (floorSet.size() == last - first + 1) {
+			return range(first, last);
+		}
+		FloorBitSet copy = new FloorBitSet(last + 1);
+		for (int floor = first; floor != -1; floor = floorSet.nextSetBit(floor + 1)) {
+			copy.add(floor);
+		}
+		return new ServedFloors(first, last, copy.size(), copy);
+	}
+
+	/**
+	 * Parses comma separated floor indexes and ranges. Range can have a step for skip-stop service,
+	 * e.g. "0,25-49" for express elevator of high rise zone or "0,1-49/2" for elevator which stops at lobby and odd floors.
+	 * @param spec - floors
+	 * @return {@link ServedFloors}
+	 * @throws RuntimeException in case floors are not valid
+	 */
+	public static ServedFloors parse(String spec) {
+		int maxFloor = -1;
+		int[][] parts = new int[spec.split(",").length][];
+		int p = 0;
+		try {
+			for (String part : spec.split(",")) {
+				part = part.trim();
+				int slash = part.indexOf('/');
+				int step = slash == -1 ? 1 : Integer.parseInt(part.substring(slash + 1).trim());
+				String range = slash == -1 ? part : part.substring(0, slash).trim();
+				int dash = range.indexOf('-', 1);
+				int from = Integer.parseInt((dash == -1 ? range : range.substring(0, dash)).trim());
+				int to = dash == -1 ? from : Integer.parseInt(range.substring(dash + 1).trim());
+				if (from < 0 || from > to || step < 1) {
+					throw new RuntimeException("Invalid floors=" + spec);
+				}
+				parts[p++] = new int[] { from, to, step };
+				maxFloor = Math.max(maxFloor, to);
+			}
+		} catch (NumberFormatException e) {
+			throw new RuntimeException("Invalid floors=" + spec, e);
+		}
+		FloorBitSet floorSet = new FloorBitSet(maxFloor + 1);
+		for (int[] part : parts) {
+			for (int floor = part[0]; floor <= part[1]; floor += part[2]) {
+				floorSet.add(floor);
+			}
+		}
+		return of(floorSet);
+	}
+
+	/**
+	 * Floors of this set between given floors, both inclusive. This instance is returned in case all floors are in between.
+	 * @param minFloor - lowest floor index
+	 * @param maxFloor - highest floor index
+	 * @return {@link ServedFloors}
+	 * @throws RuntimeException in case no floor is in between
+	 */
+	public ServedFloors within(int minFloor, int maxFloor) {
+		if (first >= minFloor && last <= maxFloor) {
+			return this;
+		}
+		if (floors == null) {
+			return range(Math.max(first, minFloor), Math.min(last, maxFloor));
+		}
+		FloorBitSet floorSet = new FloorBitSet(last + 1);
+		for (int floor = next(minFloor); floor != -1 && floor <= maxFloor; floor = next(floor + 1)) {
+			floorSet.add(floor);
+		}
+		return of(floorSet);
+	}
+
+	/**
+	 * Returns true in case elevator stops at given floor.
+	 * @param floorIndex
+	 * @return boolean
+	 */
+	public boolean contains(int floorIndex) {
+		return floorIndex >= first && floorIndex <= last && (floors == null || floors.contains(floorIndex));
+	}
+
+	/**
+	 * First floor of set which is same or above given floor.
+	 * @param fromIndex - floor index to start from
+	 * @return int - floor index or -1 in case there is none
+	 */
+	public int next(int fromIndex) {
+		if (fromIndex > last) {
+			return -1;
+		}
+		if (fromIndex <= first) {
+			return first;
+		}
+		return floors == null ? fromIndex : floors.nextSetBit(fromIndex);
+	}
+
+	/**
+	 * First floor of set which is same or below given floor.
+	 * @param fromIndex - floor index to start from
+	 * @return int - floor index or -1 in case there is none
+	 */
+	public int previous(int fromIndex) {
+		if (fromIndex < first) {
+			return -1;
+		}
+		if (fromIndex >= last) {
+			return last;
+		}
+		return floors == null ? fromIndex : floors.previousSetBit(fromIndex);
+	}
+
+	/**
+	 * Lowest floor.
+	 * @return int
+	 */
+	public int first() {
+		return first;
+	}
+
+	/**
+	 * Highest floor.
+	 * @return int
+	 */
+	public int last() {
+		return last;
+	}
+
+	/**
+	 * Number of floors.
+	 * @return int
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns true in case every floor from first to last is served.
+	 * @return boolean
+	 */
+	public boolean isRange() {
+		return floors == null;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof ServedFloors)) {
+			return false;
+		}
+		ServedFloors other = (ServedFloors) obj;
+		if (first != other.first || last != other.last || size != other.size) {
+			return false;
+		}
+		for (int floor = first; floor != -1; floor = next(floor + 1)) {
+			if (!other.contains(floor)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * (31 * first + last) + size;
+	}
+
+	/**
+	 * Floors in format of {@link #parse(String)}, consecutive floors are joined in ranges.
+	 */
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		for (int floor = first; floor != -1; ) {
+			int end = floor;
+			while (end < last && contains(end + 1)) {
+				end++;
+			}
+			if (builder.length() > 0) {
+				builder.append(',');
+			}
+			builder.append(floor);
+			if (end > floor) {
+				builder.append('-').append(end);
+			}
+			floor = next(end + 1);
+		}
+		return builder.toString();
+	}
+}
@@ -0,0 +1,347 @@
+package com.alok.ecsystem.core.config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.alok.ecsystem.core.ElevatorControlInterface;
+import com.alok.ecsystem.core.ElevatorControlInterface.DIRECTION;
+import com.alok.ecsystem.core.ElevatorControlInterface.STATE;
+import com.alok.ecsystem.core.ElevatorSystemControl;
+import com.alok.ecsystem.core.FloorControlInterface;
+import com.alok.ecsystem.core.FloorControlInterface.FLOOR_EVENT;
+import com.alok.ecsystem.core.dispatch.DestinationDispatcher;
+import com.alok.ecsystem.core.dispatch.DispatchStrategy;
+import com.alok.ecsystem.core.dispatch.ElevatorFloorIndex;
+import com.alok.ecsystem.core.dispatch.Trip;
+import com.alok.ecsystem.core.event.ElevatorEvent;
+import com.alok.ecsystem.core.event.EventSubscriber;
+import com.alok.ecsystem.core.event.FloorEvent;
+import com.alok.ecsystem.core.impl.AbstractBaseElevatorControl;
+
+/**
+ * Unit test for {@link ElevatorSystemConfig}.
+ */
+public class ElevatorSystemConfigTest {
+
+	@Test
+	public void testBuildingsAreIndependent() {
+		ElevatorSystemControl north = new ElevatorSystemControl(new ElevatorSystemConfig(building("North", 10, 2)));
+		ElevatorSystemControl south = new ElevatorSystemControl(new ElevatorSystemConfig(building("South", 5, 1)));
+		try {
+			assertEquals("North", north.getConfig().getName());
+			assertEquals(10, north.getFloorCount());
+			assertEquals(2, north.getElevatorCount());
+			assertEquals(5, south.getFloorCount());
+			assertEquals(1, south.getElevatorCount());
+			assertNotSame(north.getConfig().getScheduler(), south.getConfig().getScheduler());
+
+			// elevator notifies floors of its own building only
+			north.getElevetorControl(0).addFloorRequest(0);
+			assertSame(north.getElevetorControl(0), north.getFloorControl(0).getElevatorControl());
+			assertNull(south.getFloorControl(0).getElevatorControl());
+		} finally {
+			north.shutdown();
+			south.shutdown();
+		}
+	}
+
+	@Test
+	public void testFloorAndElevatorEventsArePublished() {
+		ElevatorSystemControl control = new ElevatorSystemControl(new ElevatorSystemConfig(building("Events", 5, 1)));
+		try {
+			final List<FloorEvent> floorEvents = new ArrayList<FloorEvent>();
+			final List<ElevatorEvent> elevatorEvents = new ArrayList<ElevatorEvent>();
+			control.getConfig().getFloorEvents().subscribe(new EventSubscriber<FloorEvent>() {
+				public void onEvent(FloorEvent event) {
+					floorEvents.add(event);
+				}
+			});
+			control.getConfig().getElevatorEvents().subscribe(new EventSubscriber<ElevatorEvent>() {
+				public void onEvent(ElevatorEvent event) {
+					elevatorEvents.add(event);
+				}
+			});
+
+			control.getElevetorControl(0).addFloorRequest(0);
+			assertEquals(1, floorEvents.size());
+			assertEquals(FLOOR_EVENT.ELEVATOR_ARRIVED, floorEvents.get(0).getType());
+			assertSame(control.getFloorControl(0), floorEvents.get(0).getFloor());
+			assertSame(control.getElevetorControl(0), floorEvents.get(0).getElevator());
+			assertEquals(1, elevatorEvents.size());
+			assertEquals(STATE.IDLE, elevatorEvents.get(0).getPrevious().getState());
+			assertEquals(STATE.DOOR_OPENING, elevatorEvents.get(0).getCurrent().getState());
+		} finally {
+			control.shutdown();
+		}
+	}
+
+	@Test
+	public void testZonedElevatorsServeTheirFloorsOnly() {
+		Properties properties = building("Zoned", 10, 3);
+		properties.setProperty("elevator.0.maxIndex", "5");
+		properties.setProperty("elevator.2.maxIndex", "5");
+		// express elevator of high rise zone, range is taken from its floors
+		properties.setProperty("zone.high.floors", "0, 6-9");
+		properties.setProperty("elevator.1.zone", "high");
+		properties.remove("elevator.1.minIndex");
+		properties.remove("elevator.1.maxIndex");
+		ElevatorSystemControl control = new ElevatorSystemControl(new ElevatorSystemConfig(properties));
+		try {
+			ElevatorControlInterface low = control.getElevetorControl(0);
+			ElevatorControlInterface high = control.getElevetorControl(1);
+			assertEquals("0,6-9", high.getServedFloors().toString());
+			assertSame(high.getServedFloors(), control.getConfig().getServedFloors(1));
+			assertEquals(9, high.getSnapshot().getMaxFloor());
+			assertEquals(Integer.MAX_VALUE, high.estimatedFloorRequestCost(3, null));
+			assertEquals(Integer.MAX_VALUE, low.estimatedFloorRequestCost(7, null));
+			try {
+				high.addFloorRequest(3);
+				fail("express elevator must not stop in low rise zone");
+			} catch (RuntimeException e) {
+				// expected
+			}
+
+			ElevatorFloorIndex index = new ElevatorFloorIndex(control.getConfig().getElevetors(), 10);
+			assertEquals(3, index.getCandidates(0).size());
+			assertEquals(Arrays.asList(high), index.getCandidates(7));
+			DispatchStrategy strategy = control.getConfig().getDispatchStrategy();
+			assertSame(high, strategy.selectElevator(7, DIRECTION.DOWN, index));
+			assertSame(low, strategy.selectElevator(3, DIRECTION.DOWN, index));
+			assertSame(low, strategy.selectElevator(3, DIRECTION.DOWN, control.getConfig().getElevetors()));
+		} finally {
+			control.shutdown();
+		}
+	}
+
+	@Test
+	public void testOutOfServiceElevatorHandsOverHallCalls() {
+		ElevatorSystemControl control = new ElevatorSystemControl(new ElevatorSystemConfig(building("Failover", 10, 2)));
+		try {
+			ElevatorControlInterface first = control.getElevetorControl(0);
+			ElevatorControlInterface second = control.getElevetorControl(1);
+			FloorControlInterface floor = control.getFloorControl(5);
+			floor.setElevatorRequest(DIRECTION.UP, true);
+			assertSame(first, control.getHallCallRegistry().getAssignedElevator(5, DIRECTION.UP));
+
+			assertEquals(1, control.takeOutOfService(0));
+			assertEquals(STATE.OUT_OF_ORDER, first.getState());
+			assertTrue(first.getFloorRequests().isEmpty());
+			assertEquals(Integer.MAX_VALUE, first.estimatedFloorRequestCost(5, DIRECTION.UP));
+			assertSame(second, control.getHallCallRegistry().getAssignedElevator(5, DIRECTION.UP));
+			assertTrue(second.getFloorRequests().contains(5));
+			assertTrue(floor.getElevatorRequest(DIRECTION.UP));
+			assertEquals(0, control.takeOutOfService(0));
+
+			// no elevator is left, call is turned off so it can be made again
+			assertEquals(1, control.takeOutOfService(1));
+			assertNull(control.getHallCallRegistry().getAssignedElevator(5, DIRECTION.UP));
+			assertFalse(floor.getElevatorRequest(DIRECTION.UP));
+			floor.setElevatorRequest(DIRECTION.UP, true);
+			assertFalse(floor.getElevatorRequest(DIRECTION.UP));
+
+			assertTrue(control.returnToService(0));
+			assertEquals(STATE.IDLE, first.getState());
+			floor.setElevatorRequest(DIRECTION.UP, true);
+			assertSame(first, control.getHallCallRegistry().getAssignedElevator(5, DIRECTION.UP));
+			assertEquals(2, control.getFailoverReassignmentCount());
+		} finally {
+			control.shutdown();
+		}
+	}
+
+	@Test
+	public void testCallServedByAnotherElevatorIsWithdrawn() throws Exception {
+		ElevatorSystemControl control = new ElevatorSystemControl(new ElevatorSystemConfig(building("Served", 10, 2)));
+		try {
+			FloorControlInterface floor = control.getFloorControl(5);
+			floor.setElevatorRequest(DIRECTION.UP, true);
+			ElevatorControlInterface assigned = control.getHallCallRegistry().getAssignedElevator(5, DIRECTION.UP);
+			ElevatorControlInterface other = control.getElevetorControl(assigned.getId() == 0 ? 1 : 0);
+			assertTrue(assigned.getFloorRequests().contains(5));
+
+			floor.elevatorArrived(other, DIRECTION.UP);
+			assertNull(control.getHallCallRegistry().getAssignedElevator(5, DIRECTION.UP));
+			// withdrawn on scheduler of building, arrived elevator holds its lock
+			control.getConfig().getScheduler().submit(new Runnable() {
+				public void run() {
+				}
+			}).get(1, TimeUnit.SECONDS);
+			assertFalse(assigned.getFloorRequests().contains(5));
+			assertNull(control.getHallCallArrival(5, DIRECTION.UP));
+		} finally {
+			control.shutdown();
+		}
+	}
+
+	@Test
+	public void testFailoverKeepsCallsWhenOneElevatorIsLeft() {
+		Properties properties = building("ShortFleet", 10, 3);
+		properties.setProperty("elevator.2.maxIndex", "2");
+		ElevatorSystemControl control = new ElevatorSystemControl(new ElevatorSystemConfig(properties));
+		try {
+			ElevatorControlInterface second = control.getElevetorControl(1);
+			control.takeOutOfService(1);
+			for (int floor = 3; floor <= 8; floor++) {
+				control.getFloorControl(floor).setElevatorRequest(DIRECTION.UP, true);
+			}
+			assertTrue(control.returnToService(1));
+
+			// more calls than slots of a fleet of 3, only one working elevator reaches the floors
+			assertEquals(6, control.takeOutOfService(0));
+			for (int floor = 3; floor <= 8; floor++) {
+				assertSame(second, control.getHallCallRegistry().getAssignedElevator(floor, DIRECTION.UP));
+				assertTrue(control.getFloorControl(floor).getElevatorRequest(DIRECTION.UP));
+				assertTrue(second.getFloorRequests().contains(floor));
+			}
+		} finally {
+			control.shutdown();
+		}
+	}
+
+	@Test
+	public void testElevatorCommandsAreQueuedOnEventLoop() throws Exception {
+		Properties properties = building("Loop", 10, 1);
+		properties.setProperty("building.eventLoop", "true");
+		ElevatorSystemConfig config = new ElevatorSystemConfig(properties);
+		assertTrue(config.isEventLoop());
+		ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+		config.setScheduler(scheduler);
+		ElevatorSystemControl control = new ElevatorSystemControl(config);
+		try {
+			// scheduler is busy, so command waits in mailbox of elevator
+			final CountDownLatch latch = new CountDownLatch(1);
+			scheduler.execute(new Runnable() {
+				public void run() {
+					try {
+						latch.await();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				}
+			});
+			ElevatorControlInterface elevator = control.getElevetorControl(0);
+			elevator.addFloorRequest(3);
+			assertTrue(elevator.getFloorRequests().isEmpty());
+			assertEquals(STATE.IDLE, elevator.getState());
+
+			latch.countDown();
+			scheduler.submit(new Runnable() {
+				public void run() {
+				}
+			}).get(1, TimeUnit.SECONDS);
+			assertTrue(elevator.getFloorRequests().contains(3));
+			assertEquals(STATE.MOVING, elevator.getState());
+		} finally {
+			control.shutdown();
+		}
+	}
+
+	@Test
+	public void testConcurrentArrivalsWithTransfersDoNotDeadlock() throws Exception {
+		Properties properties = building("Transfer", 21, 2);
+		properties.setProperty("elevator.0.maxIndex", "10");
+		properties.setProperty("elevator.1.minIndex", "10");
+		properties.setProperty("dispatch.destination.enabled", "true");
+		properties.setProperty("dispatch.transferFloors", "10");
+		ElevatorSystemControl control = new ElevatorSystemControl(new ElevatorSystemConfig(properties));
+		try {
+			final ElevatorControlInterface low = control.getElevetorControl(0);
+			final ElevatorControlInterface high = control.getElevetorControl(1);
+			DestinationDispatcher dispatcher = control.getDestinationDispatcher();
+			Trip up = dispatcher.requestTrip(3, 15);
+			Trip down = dispatcher.requestTrip(17, 2);
+			assertSame(low, up.getElevator(0));
+			assertSame(high, down.getElevator(0));
+
+			// both cars pick up a rider holding their own lock, next leg of each rider is in the other car
+			final CyclicBarrier barrier = new CyclicBarrier(2);
+			Thread lowArrival = arrival(barrier, low, control.getFloorControl(3), DIRECTION.UP);
+			Thread highArrival = arrival(barrier, high, control.getFloorControl(17), DIRECTION.DOWN);
+			lowArrival.join(2000);
+			highArrival.join(2000);
+			assertFalse(lowArrival.isAlive());
+			assertFalse(highArrival.isAlive());
+
+			long deadline = System.currentTimeMillis() + 2000;
+			while ((up.getElevator(1) == null || down.getElevator(1) == null) && System.currentTimeMillis() < deadline) {
+				Thread.sleep(10);
+			}
+			assertSame(high, up.getElevator(1));
+			assertSame(low, down.getElevator(1));
+			assertTrue(low.getFloorRequests().contains(10));
+			assertTrue(high.getFloorRequests().contains(10));
+			assertEquals(2, dispatcher.getWaitingCount());
+		} finally {
+			control.shutdown();
+		}
+	}
+
+	private static Thread arrival(final CyclicBarrier barrier, final ElevatorControlInterface elevator, final FloorControlInterface floor, 
+			final DIRECTION direction) {
+		Thread thread = new Thread(new Runnable() {
+			public void run() {
+				synchronized (elevator) {
+					try {
+						barrier.await(1, TimeUnit.SECONDS);
+					} catch (Exception e) {
+						return;
+					}
+					floor.elevatorArrived(elevator, direction);
+				}
+			}
+		});
+		thread.setDaemon(true);
+		thread.start();
+		return thread;
+	}
+
+	private static Properties building(String name, int floorCount, int elevatorCount) {
+		Properties properties = new Properties();
+		properties.setProperty("building.name", name);
+		properties.setProperty("floor.count", String.valueOf(floorCount));
+		properties.setProperty("elevator.count", String.valueOf(elevatorCount));
+		properties.setProperty("dispatch.reoptimize.periodMillis", "1000");
+		for (int i = 0; i < elevatorCount; i++) {
+			properties.setProperty("elevator." + i + ".className", TestElevator.class.getName());
+			properties.setProperty("elevator." + i + ".minIndex", "0");
+			properties.setProperty("elevator." + i + ".maxIndex", String.valueOf(floorCount - 1));
+		}
+		return properties;
+	}
+
+	public static class TestElevator extends AbstractBaseElevatorControl {
+
+		public TestElevator(ElevatorSystemConfig config, int id, int minFloor, int maxFloor) {
+			super(config, id, minFloor, maxFloor);
+		}
+
+		@Override
+		protected void startDoorClosing() {
+		}
+
+		@Override
+		protected void startDoorOpening() {
+		}
+
+		@Override
+		protected void startMoving() {
+		}
+	}
+}
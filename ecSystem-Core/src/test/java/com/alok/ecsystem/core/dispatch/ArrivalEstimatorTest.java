@@ -0,0 +1,45 @@
+package com.alok.ecsystem.core.dispatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.alok.ecsystem.core.ElevatorControlInterface;
+import com.alok.ecsystem.core.ElevatorControlInterface.DIRECTION;
+
+/**
+ * Unit test for {@link ArrivalEstimator}.
+ */
+public class ArrivalEstimatorTest {
+
+	@Test
+	public void testEstimateFollowsStopsOfElevator() {
+		List<ElevatorControlInterface> elevators = new ArrayList<ElevatorControlInterface>();
+		TestElevator first = new TestElevator(0, 0, 9);
+		TestElevator second = new TestElevator(1, 0, 9);
+		elevators.add(first);
+		elevators.add(second);
+		ArrivalEstimator estimator = new ArrivalEstimator(new TravelTimeModel(), elevators, 10);
+
+		ArrivalEstimate estimate = estimator.estimate(5, DIRECTION.UP);
+		assertSame(first, estimate.getElevator());
+		assertEquals(5 * 3000, estimate.getMillis());
+
+		// stop at 3 on the way costs a door cycle
+		first.addFloorRequest(3);
+		assertEquals(5 * 3000 + 4000, estimator.estimate(first, 5, DIRECTION.UP).getMillis());
+		assertSame(second, estimator.estimate(5, DIRECTION.UP).getElevator());
+		assertEquals(5 * 3000 + 4000, estimator.estimate(first, 5, DIRECTION.UP).getMillis());
+
+		first.step();
+		assertEquals(4 * 3000 + 4000, estimator.estimate(first, 5, DIRECTION.UP).getMillis());
+
+		assertNull(estimator.estimate(12, null));
+		assertNull(estimator.estimate(second, 12, null));
+	}
+}
@@ -0,0 +1,77 @@
+package com.alok.ecsystem.core.dispatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.alok.ecsystem.core.ElevatorControlInterface;
+import com.alok.ecsystem.core.ElevatorControlInterface.DIRECTION;
+import com.alok.ecsystem.core.FloorControlInterface;
+import com.alok.ecsystem.core.impl.BaseFloorControl;
+
+/**
+ * Unit test for {@link BatchDispatcher}.
+ */
+public class BatchDispatcherTest {
+
+	@Test
+	public void testCallsOfZoneServedByOneElevatorAreNotDropped() {
+		List<ElevatorControlInterface> elevators = new ArrayList<ElevatorControlInterface>();
+		TestElevator low = new TestElevator(0, 0, 10);
+		elevators.add(low);
+		elevators.add(new TestElevator(1, 20, 30));
+		elevators.add(new TestElevator(2, 20, 30));
+		HallCallRegistry registry = new HallCallRegistry();
+		BatchDispatcher dispatcher = new BatchDispatcher(new RouteDistanceDispatchStrategy(), new FleetState(elevators), registry, null, 0, 2);
+
+		// 9 calls, only one elevator serves them, slots are sized for 3 elevators
+		Map<HallCall, FloorControlInterface> calls = new LinkedHashMap<HallCall, FloorControlInterface>();
+		for (int floor = 1; floor <= 9; floor++) {
+			FloorControlInterface floorControl = new BaseFloorControl(floor);
+			floorControl.setElevatorRequest(DIRECTION.UP, true);
+			calls.put(new HallCall(floor, DIRECTION.UP), floorControl);
+		}
+		dispatcher.dispatch(calls);
+
+		assertEquals(9, registry.getAssignments().size());
+		for (Map.Entry<HallCall, FloorControlInterface> entry : calls.entrySet()) {
+			assertSame(low, registry.getAssignedElevator(entry.getKey().getFloorIndex(), DIRECTION.UP));
+			assertTrue(entry.getValue().getElevatorRequest(DIRECTION.UP));
+		}
+		assertEquals(9, low.getFloorRequests().size());
+	}
+
+	@Test
+	public void testShutdownKeepsSchedulerOfBuilding() throws Exception {
+		List<ElevatorControlInterface> elevators = new ArrayList<ElevatorControlInterface>();
+		elevators.add(new TestElevator(0, 0, 10));
+		HallCallRegistry registry = new HallCallRegistry();
+		ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+		try {
+			BatchDispatcher dispatcher = new BatchDispatcher(new RouteDistanceDispatchStrategy(), new FleetState(elevators), registry, scheduler, 50, 2);
+			dispatcher.submit(new BaseFloorControl(5), DIRECTION.UP);
+			dispatcher.shutdown();
+
+			// window is cancelled, scheduler keeps running timers of building
+			assertFalse(scheduler.isShutdown());
+			scheduler.schedule(new Runnable() {
+				public void run() {
+				}
+			}, 100, TimeUnit.MILLISECONDS).get();
+			assertTrue(registry.getAssignments().isEmpty());
+		} finally {
+			scheduler.shutdownNow();
+		}
+	}
+}
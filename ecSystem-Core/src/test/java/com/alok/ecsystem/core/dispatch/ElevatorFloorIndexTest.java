@@ -0,0 +1,74 @@
+package com.alok.ecsystem.core.dispatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.alok.ecsystem.core.ElevatorControlInterface;
+import com.alok.ecsystem.core.ElevatorControlInterface.DIRECTION;
+
+/**
+ * Unit test for {@link ElevatorFloorIndex} and indexed dispatch of {@link AbstractDispatchStrategy}.
+ */
+public class ElevatorFloorIndexTest {
+
+	private static final int FLOOR_COUNT = 40;
+	private static final DIRECTION[] DIRECTIONS = { null, DIRECTION.UP, DIRECTION.DOWN };
+
+	@Test
+	public void testIndexFollowsElevator() {
+		List<ElevatorControlInterface> elevators = new ArrayList<ElevatorControlInterface>();
+		TestElevator elevator = new TestElevator(0, 0, FLOOR_COUNT - 1);
+		elevators.add(elevator);
+		ElevatorFloorIndex index = new ElevatorFloorIndex(elevators, FLOOR_COUNT);
+		assertEquals(1, index.getBanks(0)[0].getEntries(0).length);
+
+		elevator.addFloorRequest(3);
+		elevator.step();
+		assertEquals(0, index.getBanks(0)[0].getEntries(0).length);
+		assertSame(elevator, index.getBanks(0)[0].getEntries(1)[0].elevator);
+	}
+
+	@Test
+	public void testSameResultAsFullScan() {
+		Random random = new Random(7);
+		List<ElevatorControlInterface> elevators = new ArrayList<ElevatorControlInterface>();
+		List<TestElevator> testElevators = new ArrayList<TestElevator>();
+		for (int i = 0; i < 60; i++) {
+			TestElevator elevator = new TestElevator(i, 0, FLOOR_COUNT - 1);
+			elevators.add(elevator);
+			testElevators.add(elevator);
+		}
+		ElevatorFloorIndex index = new ElevatorFloorIndex(elevators, FLOOR_COUNT);
+		DispatchStrategy[] strategies = { new NearestCarDispatchStrategy(), new RouteDistanceDispatchStrategy(), new LoadBalancingDispatchStrategy(), new TravelTimeDispatchStrategy() };
+
+		for (int round = 0; round < 200; round++) {
+			TestElevator elevator = testElevators.get(random.nextInt(testElevators.size()));
+			elevator.addFloorRequest(random.nextInt(FLOOR_COUNT));
+			for (int step = random.nextInt(5); step > 0; step--) {
+				elevator.step();
+			}
+			for (DispatchStrategy strategy : strategies) {
+				for (DIRECTION direction : DIRECTIONS) {
+					for (int floor = 0; floor < FLOOR_COUNT; floor++) {
+						assertSame(strategy + " floor=" + floor + " " + direction, strategy.selectElevator(floor, direction, elevators), 
+								strategy.selectElevator(floor, direction, index));
+					}
+				}
+			}
+		}
+		for (DispatchStrategy strategy : strategies) {
+			strategy.getStatistics().reset();
+			for (int floor = 0; floor < FLOOR_COUNT; floor++) {
+				strategy.selectElevator(floor, null, index);
+			}
+			assertTrue(strategy + " " + strategy.getStatistics(), strategy.getStatistics().getAverageCandidates() < elevators.size());
+		}
+	}
+}
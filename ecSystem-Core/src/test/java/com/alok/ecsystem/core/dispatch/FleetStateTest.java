@@ -0,0 +1,105 @@
+package com.alok.ecsystem.core.dispatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.alok.ecsystem.core.ElevatorControlInterface;
+import com.alok.ecsystem.core.ElevatorControlInterface.DIRECTION;
+import com.alok.ecsystem.core.ElevatorControlInterface.STATE;
+
+/**
+ * Unit test for {@link FleetState} and column based cost of {@link DispatchStrategy}.
+ */
+public class FleetStateTest {
+
+	private static final int FLOOR_COUNT = 30;
+	private static final DIRECTION[] DIRECTIONS = { null, DIRECTION.UP, DIRECTION.DOWN };
+
+	@Test
+	public void testSameCostAsElevator() {
+		Random random = new Random(11);
+		List<ElevatorControlInterface> elevators = new ArrayList<ElevatorControlInterface>();
+		List<TestElevator> testElevators = new ArrayList<TestElevator>();
+		for (int i = 0; i < 25; i++) {
+			TestElevator elevator = new TestElevator(i, 0, FLOOR_COUNT - 1);
+			elevators.add(elevator);
+			testElevators.add(elevator);
+		}
+		FleetState fleet = new FleetState(elevators);
+		DispatchStrategy[] strategies = { new NearestCarDispatchStrategy(), new RouteDistanceDispatchStrategy(), new LoadBalancingDispatchStrategy(), new TravelTimeDispatchStrategy() };
+		int[] costs = new int[fleet.size()];
+
+		for (int round = 0; round < 200; round++) {
+			TestElevator elevator = testElevators.get(random.nextInt(testElevators.size()));
+			elevator.addFloorRequest(random.nextInt(FLOOR_COUNT));
+			for (int step = random.nextInt(5); step > 0; step--) {
+				elevator.step();
+			}
+			for (DispatchStrategy strategy : strategies) {
+				for (DIRECTION direction : DIRECTIONS) {
+					for (int floor = 0; floor < FLOOR_COUNT; floor++) {
+						strategy.costs(fleet, floor, direction, costs);
+						for (int i = 0; i < costs.length; i++) {
+							assertEquals(strategy + " floor=" + floor + " " + direction + " elevator=" + i, strategy.cost(elevators.get(i), floor, direction), costs[i]);
+						}
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testBulkReadDoesNotBlockElevators() throws Exception {
+		List<ElevatorControlInterface> elevators = new ArrayList<ElevatorControlInterface>();
+		elevators.add(new TestElevator(0, 0, 9));
+		final TestElevator moving = new TestElevator(1, 0, 9);
+		elevators.add(moving);
+		final FleetState fleet = new FleetState(elevators);
+		final CountDownLatch reading = new CountDownLatch(1);
+		final CountDownLatch moved = new CountDownLatch(1);
+		final boolean[] movedWhileReading = new boolean[1];
+		// slow reader, it is still in first row when other elevator moves
+		final TravelTimeModel model = new TravelTimeModel() {
+			@Override
+			public int estimatedArrivalMillis(int floorIndex, DIRECTION direction, STATE state, boolean up, int currentFloor, int firstStop, 
+					int lastStop, long[] stops, int minFloor, int maxFloor) {
+				if (reading.getCount() > 0) {
+					reading.countDown();
+					try {
+						movedWhileReading[0] = moved.await(2, TimeUnit.SECONDS);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				}
+				return super.estimatedArrivalMillis(floorIndex, direction, state, up, currentFloor, firstStop, lastStop, stops, minFloor, maxFloor);
+			}
+		};
+		final int[] costs = new int[fleet.size()];
+		Thread reader = new Thread(new Runnable() {
+			public void run() {
+				fleet.estimatedArrivalMillis(model, 5, null, costs);
+			}
+		});
+		reader.start();
+		assertTrue(reading.await(5, TimeUnit.SECONDS));
+		moving.addFloorRequest(3);
+		moving.step();
+		moved.countDown();
+		reader.join(5000);
+		assertTrue(movedWhileReading[0]);
+
+		assertEquals(STATE.MOVING, moving.getState());
+		int[] distances = new int[fleet.size()];
+		fleet.distances(5, distances);
+		assertEquals(4, distances[1]);
+		assertEquals(model.estimatedArrivalMillis(moving.getSnapshot(), 5, null), costs[1]);
+	}
+}
@@ -0,0 +1,92 @@
+package com.alok.ecsystem.core.dispatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.alok.ecsystem.core.ElevatorControlInterface;
+import com.alok.ecsystem.core.ElevatorControlInterface.DIRECTION;
+import com.alok.ecsystem.core.ElevatorControlInterface.STATE;
+import com.alok.ecsystem.core.FloorControlInterface;
+import com.alok.ecsystem.core.event.FloorEvent;
+import com.alok.ecsystem.core.impl.BaseFloorControl;
+
+/**
+ * Unit test for directional hall calls and {@link DestinationDispatcher}.
+ */
+public class HallCallDirectionTest {
+
+	@Test
+	public void testCallIsServedInItsDirection() {
+		TestElevator elevator = new TestElevator(0, 0, 9);
+		elevator.addFloorRequest(8);
+		elevator.addHallCall(4, DIRECTION.DOWN);
+		elevator.addHallCall(6, DIRECTION.UP);
+
+		assertEquals(6, stepToNextStop(elevator)); // down call at 4 is passed
+		assertEquals(8, stepToNextStop(elevator));
+		assertEquals(4, stepToNextStop(elevator));
+		assertTrue(elevator.getFloorRequests().isEmpty());
+	}
+
+	@Test
+	public void testCallServedByAnotherElevatorIsReturned() {
+		TestElevator assigned = new TestElevator(0, 0, 9);
+		TestElevator other = new TestElevator(1, 0, 9);
+		HallCallRegistry registry = new HallCallRegistry();
+		registry.assign(new BaseFloorControl(4), DIRECTION.UP, assigned);
+
+		assertTrue(registry.arrived(4, DIRECTION.DOWN, other).isEmpty());
+		assertSame(assigned, registry.getAssignedElevator(4, DIRECTION.UP));
+		Map<HallCall, ElevatorControlInterface> foreign = registry.arrived(4, DIRECTION.UP, other);
+		assertEquals(1, foreign.size());
+		assertSame(assigned, foreign.get(new HallCall(4, DIRECTION.UP)));
+		assertNull(registry.getAssignedElevator(4, DIRECTION.UP));
+
+		registry.assign(new BaseFloorControl(6), DIRECTION.DOWN, assigned);
+		assertTrue(registry.arrived(6, null, assigned).isEmpty());
+		assertNull(registry.getAssignedElevator(6, DIRECTION.DOWN));
+	}
+
+	@Test
+	public void testRidersToSameDestinationAreGrouped() {
+		List<ElevatorControlInterface> elevators = new ArrayList<ElevatorControlInterface>();
+		TestElevator first = new TestElevator(0, 0, 29);
+		elevators.add(first);
+		elevators.add(new TestElevator(1, 0, 29));
+		DestinationDispatcher dispatcher = new DestinationDispatcher(new RouteDistanceDispatchStrategy(), elevators, 4);
+		FloorControlInterface floor = new BaseFloorControl(5);
+
+		assertSame(first, dispatcher.request(floor, 10));
+		assertSame(first, dispatcher.request(floor, 10));
+		assertSame(first, dispatcher.request(floor, 11));
+		assertEquals(3, dispatcher.getWaitingCount());
+		assertEquals(1, dispatcher.getGroupedCount());
+		assertTrue(first.getFloorRequests().contains(5));
+		assertTrue(!first.getFloorRequests().contains(10)); // destination is not known to elevator before pick up
+
+		assertEquals(5, stepToNextStop(first));
+		dispatcher.onEvent(new FloorEvent(floor, FloorControlInterface.FLOOR_EVENT.ELEVATOR_ARRIVED, DIRECTION.UP, first));
+		assertEquals(0, dispatcher.getWaitingCount());
+		assertEquals(10, stepToNextStop(first));
+		assertEquals(11, stepToNextStop(first));
+	}
+
+	/**
+	 * Moves elevator until its door opens and returns the floor.
+	 */
+	private static int stepToNextStop(TestElevator elevator) {
+		do {
+			elevator.step();
+		} while (elevator.getState() == STATE.MOVING);
+		assertEquals(STATE.DOOR_OPENING, elevator.getState());
+		return elevator.getCurrentFloor();
+	}
+}
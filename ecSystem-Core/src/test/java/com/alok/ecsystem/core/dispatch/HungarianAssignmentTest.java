@@ -0,0 +1,45 @@
+package com.alok.ecsystem.core.dispatch;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Unit test for {@link HungarianAssignment}.
+ */
+public class HungarianAssignmentTest {
+
+	@Test
+	public void testSquareMatrix() {
+		long[][] cost = { { 4, 1, 3 }, { 2, 0, 5 }, { 3, 2, 2 } };
+		int[] assignment = HungarianAssignment.solve(cost);
+		assertArrayEquals(new int[] { 1, 0, 2 }, assignment);
+		assertEquals(5, total(cost, assignment));
+	}
+
+	@Test
+	public void testMoreColumnsThanRows() {
+		long[][] cost = { { 9, 2, 7, 8 }, { 6, 4, 3, 7 } };
+		int[] assignment = HungarianAssignment.solve(cost);
+		assertEquals(5, total(cost, assignment));
+	}
+
+	@Test
+	public void testEmpty() {
+		assertEquals(0, HungarianAssignment.solve(new long[0][0]).length);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testMoreRowsThanColumns() {
+		HungarianAssignment.solve(new long[][] { { 1 }, { 2 } });
+	}
+
+	private long total(long[][] cost, int[] assignment) {
+		long total = 0;
+		for (int i = 0; i < assignment.length; i++) {
+			total += cost[i][assignment[i]];
+		}
+		return total;
+	}
+}
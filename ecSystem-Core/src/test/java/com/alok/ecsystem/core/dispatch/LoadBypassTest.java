@@ -0,0 +1,71 @@
+package com.alok.ecsystem.core.dispatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.alok.ecsystem.core.ElevatorControlInterface;
+import com.alok.ecsystem.core.ElevatorControlInterface.DIRECTION;
+import com.alok.ecsystem.core.ElevatorControlInterface.STATE;
+
+/**
+ * Unit test for elevator capacity, load bypass and load aware dispatch.
+ */
+public class LoadBypassTest {
+
+	@Test
+	public void testFullElevatorPassesHallCalls() {
+		TestElevator elevator = new TestElevator(0, 0, 9, 10);
+		elevator.addFloorRequest(9);
+		elevator.addHallCall(5, DIRECTION.UP);
+
+		assertEquals(8, elevator.passengersBoarded(8));
+		assertTrue(elevator.getSnapshot().isLoadBypass());
+		assertEquals(2, elevator.passengersBoarded(5)); // only 2 fit in
+		assertEquals(10, elevator.getLoad());
+		assertEquals(9, stepToNextStop(elevator)); // hall call at 5 is passed
+
+		elevator.passengersAlighted(10);
+		assertFalse(elevator.getSnapshot().isLoadBypass());
+		assertEquals(5, stepToNextStop(elevator));
+	}
+
+	@Test
+	public void testLoadIsPartOfCost() {
+		List<ElevatorControlInterface> elevators = new ArrayList<ElevatorControlInterface>();
+		TestElevator near = new TestElevator(0, 0, 9, 10);
+		TestElevator far = new TestElevator(1, 0, 9, 10);
+		elevators.add(near);
+		elevators.add(far);
+		FleetState fleet = new FleetState(elevators);
+		DispatchStrategy strategy = new RouteDistanceDispatchStrategy();
+		int[] costs = new int[2];
+
+		assertSame(near, strategy.selectElevator(1, DIRECTION.UP, elevators));
+		// 4 floors for full elevator, half of it for 5 of 10 passengers
+		near.passengersBoarded(5);
+		assertEquals(1 + 2, strategy.cost(near, 1, DIRECTION.UP));
+		strategy.costs(fleet, 1, DIRECTION.UP, costs);
+		assertEquals(1 + 2, costs[0]);
+
+		near.passengersBoarded(3);
+		assertEquals(Integer.MAX_VALUE, strategy.cost(near, 1, DIRECTION.UP));
+		strategy.costs(fleet, 1, DIRECTION.UP, costs);
+		assertEquals(Integer.MAX_VALUE, costs[0]);
+		assertSame(far, strategy.selectElevator(1, DIRECTION.UP, elevators));
+	}
+
+	private static int stepToNextStop(TestElevator elevator) {
+		do {
+			elevator.step();
+		} while (elevator.getState() == STATE.MOVING);
+		assertEquals(STATE.DOOR_OPENING, elevator.getState());
+		return elevator.getCurrentFloor();
+	}
+}
@@ -0,0 +1,111 @@
+package com.alok.ecsystem.core.dispatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.alok.ecsystem.core.ElevatorControlInterface;
+import com.alok.ecsystem.core.ElevatorControlInterface.DIRECTION;
+import com.alok.ecsystem.core.ElevatorControlInterface.STATE;
+import com.alok.ecsystem.core.FloorControlInterface;
+import com.alok.ecsystem.core.event.FloorEvent;
+import com.alok.ecsystem.core.impl.BaseFloorControl;
+
+/**
+ * Unit test for {@link ParkingPolicy} and parking of elevators.
+ */
+public class ParkingPolicyTest {
+
+	@Test
+	public void testIdleElevatorIsParkedAtBusyFloor() {
+		List<ElevatorControlInterface> elevators = new ArrayList<ElevatorControlInterface>();
+		TestElevator first = new TestElevator(0, 0, 10);
+		TestElevator second = new TestElevator(1, 0, 10);
+		elevators.add(first);
+		elevators.add(second);
+		ParkingPolicy policy = new ParkingPolicy(elevators, 11, 50, 15, 0, 60000);
+		call(policy, 8, 5);
+
+		// elevators have to be idle for a whole round
+		policy.run();
+		assertEquals(0, policy.getParkingCount());
+		policy.run();
+		assertEquals(1, policy.getParkingCount());
+		assertEquals(8, first.getParkingFloor());
+		assertEquals(STATE.MOVING, first.getState());
+		assertEquals(-1, second.getParkingFloor());
+
+		// parked without opening door, it does not count as request
+		while (first.getState() == STATE.MOVING) {
+			first.step();
+		}
+		assertEquals(8, first.getCurrentFloor());
+		assertEquals(STATE.IDLE, first.getState());
+		assertTrue(first.getFloorRequests().isEmpty());
+		assertEquals(8, first.getParkingFloor());
+
+		// only half of fleet is parked
+		call(policy, 2, 5);
+		policy.run();
+		assertEquals(1, policy.getParkingCount());
+		assertEquals(-1, second.getParkingFloor());
+
+		first.addHallCall(3, DIRECTION.DOWN);
+		assertEquals(-1, first.getParkingFloor());
+		assertEquals(STATE.MOVING, first.getState());
+	}
+
+	@Test
+	public void testParkingIsCancelledOnTheWay() {
+		TestElevator elevator = new TestElevator(0, 0, 10);
+		assertTrue(elevator.park(6));
+		elevator.step();
+		elevator.addFloorRequest(0);
+		assertEquals(-1, elevator.getParkingFloor());
+		assertEquals("[0]", elevator.getFloorRequests().toString());
+		while (elevator.getState() == STATE.MOVING) {
+			elevator.step();
+		}
+		assertEquals(0, elevator.getCurrentFloor());
+		assertEquals(STATE.DOOR_OPENING, elevator.getState());
+		assertEquals(false, elevator.park(6));
+	}
+
+	@Test
+	public void testLobbyIsServedBeforePeakOfNextDay() {
+		List<ElevatorControlInterface> elevators = new ArrayList<ElevatorControlInterface>();
+		TestElevator elevator = new TestElevator(0, 0, 10);
+		elevators.add(elevator);
+		// one round per slot of a quarter
+		ParkingPolicy policy = new ParkingPolicy(elevators, 11, 100, 15, 0, 15 * 60000);
+		call(policy, 0, 10);
+		for (int slot = 0; slot < 94; slot++) {
+			policy.run();
+			if (slot == 50) {
+				assertTrue(policy.getDemand(0) < 1);
+			}
+		}
+		elevator.addFloorRequest(5);
+		while (elevator.getState() != STATE.IDLE) {
+			elevator.step();
+		}
+		long parkingCount = policy.getParkingCount();
+
+		// last quarter of day, lobby was busy in first quarter
+		policy.run();
+		assertEquals(10, policy.getDemand(0), 0.01);
+		assertEquals(0, elevator.getParkingFloor());
+		assertEquals(parkingCount + 1, policy.getParkingCount());
+	}
+
+	private static void call(ParkingPolicy policy, int floorIndex, int count) {
+		FloorControlInterface floor = new BaseFloorControl(floorIndex);
+		for (int i = 0; i < count; i++) {
+			policy.onEvent(new FloorEvent(floor, FloorControlInterface.FLOOR_EVENT.BUTTON_PRESSED, DIRECTION.UP, null));
+		}
+	}
+}
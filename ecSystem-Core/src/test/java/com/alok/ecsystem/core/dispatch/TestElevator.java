@@ -0,0 +1,41 @@
+package com.alok.ecsystem.core.dispatch;
+
+import com.alok.ecsystem.core.impl.AbstractBaseElevatorControl;
+
+/**
+ * Elevator for dispatch test cases. It moves only when test calls {@link #step()}.
+ */
+class TestElevator extends AbstractBaseElevatorControl {
+
+	TestElevator(int id, int minFloor, int maxFloor) {
+		super(id, minFloor, maxFloor);
+	}
+
+	TestElevator(int id, int minFloor, int maxFloor, int capacity) {
+		super(id, minFloor, maxFloor);
+		setCapacity(capacity, 80);
+	}
+
+	/**
+	 * Moves elevator to next floor or through next door operation.
+	 */
+	void step() {
+		if (getState() == STATE.MOVING) {
+			movedToNewFloor();
+		} else if (getState() != STATE.IDLE) {
+			doorClosed();
+		}
+	}
+
+	@Override
+	protected void startDoorClosing() {
+	}
+
+	@Override
+	protected void startDoorOpening() {
+	}
+
+	@Override
+	protected void startMoving() {
+	}
+}
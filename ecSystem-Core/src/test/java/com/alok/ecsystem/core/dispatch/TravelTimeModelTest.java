@@ -0,0 +1,38 @@
+package com.alok.ecsystem.core.dispatch;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import com.alok.ecsystem.core.ElevatorControlInterface.DIRECTION;
+
+/**
+ * Unit test for {@link TravelTimeModel}.
+ */
+public class TravelTimeModelTest {
+
+	// floor 1000, door cycle 4000 and stop overhead 200 milli seconds
+	private final TravelTimeModel model = new TravelTimeModel(1000, 500, 2000, 1500, 200);
+
+	@Test
+	public void testIdleElevator() {
+		TestElevator elevator = new TestElevator(0, 0, 9);
+		assertEquals(0, model.estimatedArrivalMillis(elevator.getSnapshot(), 0, null));
+		assertEquals(5 * 1000 + 200, model.estimatedArrivalMillis(elevator.getSnapshot(), 5, DIRECTION.UP));
+		assertEquals(Integer.MAX_VALUE, model.estimatedArrivalMillis(elevator.getSnapshot(), 12, null));
+	}
+
+	@Test
+	public void testStopsOnTheRouteAreCounted() {
+		TestElevator elevator = new TestElevator(0, 0, 9);
+		elevator.addFloorRequest(8);
+		elevator.addFloorRequest(3);
+
+		// 0 -> 5 with stop at 3
+		assertEquals(5 * 1000 + 4200 + 200, model.estimatedArrivalMillis(elevator.getSnapshot(), 5, DIRECTION.UP));
+		assertEquals(5 * 1000 + 4200 + 200, model.estimatedArrivalMillis(elevator.getSnapshot(), 5, null));
+		// 0 -> 8 -> 5 with stops at 3 and 8
+		assertEquals(11 * 1000 + 2 * 4200 + 200, model.estimatedArrivalMillis(elevator.getSnapshot(), 5, DIRECTION.DOWN));
+		assertEquals(model.lowerBound(1), new TravelTimeDispatchStrategy(model).getFloorCost());
+	}
+}
@@ -0,0 +1,95 @@
+package com.alok.ecsystem.core.dispatch;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.alok.ecsystem.core.ElevatorControlInterface;
+import com.alok.ecsystem.core.ElevatorControlInterface.DIRECTION;
+import com.alok.ecsystem.core.ElevatorControlInterface.STATE;
+import com.alok.ecsystem.core.FloorControlInterface;
+import com.alok.ecsystem.core.event.FloorEvent;
+import com.alok.ecsystem.core.impl.BaseFloorControl;
+import com.alok.ecsystem.core.util.ServedFloors;
+
+/**
+ * Unit test for {@link TripPlanner} and trips through transfer floors of {@link DestinationDispatcher}.
+ */
+public class TripPlannerTest {
+
+	@Test
+	public void testPlanThroughSkyLobby() {
+		List<ElevatorControlInterface> elevators = new ArrayList<ElevatorControlInterface>();
+		elevators.add(new TestElevator(0, 0, 10));
+		elevators.add(new TestElevator(1, 10, 20));
+		elevators.add(new TestElevator(2, 20, 30));
+		TripPlanner planner = new TripPlanner(elevators, ServedFloors.parse("10,20"));
+
+		assertArrayEquals(new int[] { 3, 8 }, planner.plan(3, 8));
+		assertArrayEquals(new int[] { 3, 10, 15 }, planner.plan(3, 15));
+		assertArrayEquals(new int[] { 25, 20, 10, 2 }, planner.plan(25, 2));
+		assertArrayEquals(new int[] { 10, 20, 25 }, planner.plan(10, 25));
+		assertNull(planner.plan(3, 31));
+	}
+
+	@Test
+	public void testNextLegIsAssignedOnPickUp() {
+		List<ElevatorControlInterface> elevators = new ArrayList<ElevatorControlInterface>();
+		TestElevator low = new TestElevator(0, 0, 10);
+		TestElevator high = new TestElevator(1, 10, 20);
+		elevators.add(low);
+		elevators.add(high);
+		DestinationDispatcher dispatcher = new DestinationDispatcher(new RouteDistanceDispatchStrategy(), elevators, 4,
+				new TripPlanner(elevators, ServedFloors.parse("10")));
+		FloorControlInterface origin = new BaseFloorControl(3);
+		FloorControlInterface skyLobby = new BaseFloorControl(10);
+
+		Trip trip = dispatcher.requestTrip(3, 15);
+		assertEquals(2, trip.getLegCount());
+		assertSame(low, trip.getElevator(0));
+		assertNull(trip.getElevator(1));
+		assertEquals(1, dispatcher.getTransferCount());
+
+		assertEquals(3, stepToNextStop(low));
+		dispatcher.onEvent(new FloorEvent(origin, FloorControlInterface.FLOOR_EVENT.ELEVATOR_ARRIVED, DIRECTION.UP, low));
+		// high rise elevator waits at sky lobby, it is called there while rider is still in first elevator
+		assertSame(high, trip.getElevator(1));
+		assertEquals(STATE.DOOR_OPENING, high.getState());
+		assertEquals(0, trip.getLeg());
+
+		// elevator of next leg came first, rider is not there yet
+		dispatcher.onEvent(new FloorEvent(skyLobby, FloorControlInterface.FLOOR_EVENT.ELEVATOR_ARRIVED, DIRECTION.UP, high));
+		assertEquals(1, dispatcher.getWaitingCount());
+		high.step();
+		assertEquals(STATE.IDLE, high.getState());
+
+		// rider reached sky lobby, elevator of next leg is called again once rider is out of first elevator
+		assertEquals(10, stepToNextStop(low));
+		dispatcher.onEvent(new FloorEvent(skyLobby, FloorControlInterface.FLOOR_EVENT.ELEVATOR_ARRIVED, null, low));
+		assertEquals(1, trip.getLeg());
+		assertEquals(STATE.IDLE, high.getState());
+		dispatcher.onEvent(new FloorEvent(skyLobby, FloorControlInterface.FLOOR_EVENT.ELEVATOR_LEFT, null, low));
+		assertEquals(STATE.DOOR_OPENING, high.getState());
+		dispatcher.onEvent(new FloorEvent(skyLobby, FloorControlInterface.FLOOR_EVENT.ELEVATOR_ARRIVED, DIRECTION.UP, high));
+		assertEquals(0, dispatcher.getWaitingCount());
+		assertTrue(high.getFloorRequests().contains(15));
+	}
+
+	/**
+	 * Moves elevator until its door opens and returns the floor.
+	 */
+	private static int stepToNextStop(TestElevator elevator) {
+		do {
+			elevator.step();
+		} while (elevator.getState() == STATE.MOVING);
+		assertEquals(STATE.DOOR_OPENING, elevator.getState());
+		return elevator.getCurrentFloor();
+	}
+}
@@ -0,0 +1,82 @@
+package com.alok.ecsystem.core.event;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Unit test for {@link EventBus}.
+ */
+public class EventBusTest {
+
+	@Test
+	public void testSyncSubscribersInOrderOfSubscription() {
+		EventBus<Integer> bus = new EventBus<Integer>("test");
+		assertFalse(bus.hasSubscribers());
+		final List<String> received = new ArrayList<String>();
+		EventSubscriber<Integer> first = new EventSubscriber<Integer>() {
+			public void onEvent(Integer event) {
+				received.add("first-" + event);
+				throw new RuntimeException("failure must not stop delivery");
+			}
+		};
+		EventSubscriber<Object> second = new EventSubscriber<Object>() {
+			public void onEvent(Object event) {
+				received.add("second-" + event);
+			}
+		};
+		bus.subscribe(first);
+		bus.subscribe(second);
+		assertEquals(2, bus.getSubscriberCount());
+
+		bus.publish(1);
+		assertTrue(bus.unsubscribe(first));
+		assertFalse(bus.unsubscribe(first));
+		bus.publish(2);
+
+		assertEquals(3, received.size());
+		assertEquals("first-1", received.get(0));
+		assertEquals("second-1", received.get(1));
+		assertEquals("second-2", received.get(2));
+	}
+
+	@Test
+	public void testAsyncSubscriberReceivesEventsInOrder() throws InterruptedException {
+		ExecutorService pool = Executors.newFixedThreadPool(4);
+		try {
+			EventBus<Integer> bus = new EventBus<Integer>("test");
+			final List<Integer> received = new ArrayList<Integer>();
+			final CountDownLatch done = new CountDownLatch(1000);
+			final Thread publisher = Thread.currentThread();
+			final boolean[] onPublisherThread = new boolean[1];
+			bus.subscribe(new EventSubscriber<Integer>() {
+				public void onEvent(Integer event) {
+					if (Thread.currentThread() == publisher) {
+						onPublisherThread[0] = true;
+					}
+					received.add(event);
+					done.countDown();
+				}
+			}, pool);
+			for (int i = 0; i < 1000; i++) {
+				bus.publish(i);
+			}
+			assertTrue(done.await(10, TimeUnit.SECONDS));
+			assertFalse(onPublisherThread[0]);
+			for (int i = 0; i < received.size(); i++) {
+				assertEquals(i, received.get(i).intValue());
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+}
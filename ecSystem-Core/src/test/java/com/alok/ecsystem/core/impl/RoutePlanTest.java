@@ -0,0 +1,90 @@
+package com.alok.ecsystem.core.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.alok.ecsystem.core.ElevatorControlInterface.DIRECTION;
+import com.alok.ecsystem.core.util.FloorBitSet;
+
+/**
+ * Unit test for {@link RoutePlan}.
+ */
+public class RoutePlanTest {
+
+	@Test
+	public void testLookRoute() {
+		RoutePlan route = new RoutePlan(9, 2, DIRECTION.UP);
+		assertEquals(-1, route.getNextStop());
+		assertEquals(0, route.getRouteLength());
+
+		assertTrue(route.setStop(6, true, true));
+		assertFalse(route.setStop(6, true, true));
+		route.setStop(4, false, true);
+		route.setStop(0, true, false);
+		// 2 -> 6 -> 0, hall call for going down at 4 is served on the way back
+		assertEquals(6, route.getNextStop());
+		assertEquals(DIRECTION.UP, route.getNextDirection());
+		assertEquals(4 + 6, route.getRouteLength());
+
+		// call for going up at 1 is skipped on the way down, 0 -> 1 after the turn
+		route.setStop(1, true, false);
+		assertEquals(4 + 6 + 1, route.getRouteLength());
+		assertEquals(4, route.getRemainingStops());
+
+		route.moved(3, DIRECTION.UP);
+		assertEquals(6, route.getNextStop());
+		assertEquals(3 + 6 + 1, route.getRouteLength());
+
+		// highest stop is served even if it is only for going down
+		route.setStop(6, false, false);
+		assertEquals(4, route.getNextStop());
+		assertEquals(1 + 4 + 1, route.getRouteLength());
+
+		route.moved(4, DIRECTION.UP);
+		route.setStop(4, false, false);
+		assertEquals(0, route.getNextStop());
+		assertEquals(DIRECTION.DOWN, route.getNextDirection());
+		route.turn(DIRECTION.DOWN);
+		assertEquals(0, route.getNextStop());
+		assertEquals(4 + 1, route.getRouteLength());
+		assertTrue(route.hasStopBeyond(DIRECTION.DOWN));
+		assertFalse(route.hasStopBeyond(DIRECTION.UP));
+	}
+
+	@Test
+	public void testStopDirections() {
+		RoutePlan route = new RoutePlan(9, 0, DIRECTION.UP);
+		route.setStop(3, false, true);
+		route.setStop(7, true, true);
+		assertTrue(route.isStopFor(3, DIRECTION.DOWN));
+		assertFalse(route.isStopFor(3, DIRECTION.UP));
+		assertTrue(route.isStopFor(3, null));
+		assertEquals(7, route.getNextStop());
+		assertEquals(3, route.getFirstStop());
+		assertEquals(7, route.getLastStop());
+		assertEquals(7 + 4, route.getRouteLength());
+	}
+
+	@Test
+	public void testStopWordsAreSharedUntilStopsChange() {
+		RoutePlan route = new RoutePlan(9, 0, DIRECTION.UP);
+		route.setStop(5, true, true);
+		long[] words = route.getStopWords();
+		route.moved(1, DIRECTION.UP);
+		assertSame(words, route.getStopWords());
+		// direction of stop changes, floors do not
+		route.setStop(5, false, true);
+		assertSame(words, route.getStopWords());
+
+		route.setStop(7, true, false);
+		long[] changed = route.getStopWords();
+		assertNotSame(words, changed);
+		assertEquals(2, FloorBitSet.count(changed, 0, 9));
+		assertEquals(1, FloorBitSet.count(words, 0, 9));
+	}
+}
@@ -0,0 +1,101 @@
+package com.alok.ecsystem.core.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+/**
+ * Unit test for {@link FloorBitSet}.
+ */
+public class FloorBitSetTest {
+
+	@Test
+	public void testAddRemoveContains() {
+		FloorBitSet set = new FloorBitSet(200);
+		assertTrue(set.isEmpty());
+		assertTrue(set.add(5));
+		assertFalse(set.add(5));
+		assertTrue(set.add(130));
+		assertTrue(set.contains(5));
+		assertTrue(set.contains(130));
+		assertFalse(set.contains(6));
+		assertEquals(2, set.size());
+		assertTrue(set.remove(5));
+		assertFalse(set.remove(5));
+		assertFalse(set.remove(500));
+		assertEquals(1, set.size());
+	}
+
+	@Test
+	public void testNextAndPreviousAcrossWords() {
+		FloorBitSet set = new FloorBitSet(300);
+		set.add(3);
+		set.add(63);
+		set.add(64);
+		set.add(250);
+		assertEquals(3, set.first());
+		assertEquals(250, set.last());
+		assertEquals(63, set.nextSetBit(4));
+		assertEquals(64, set.nextSetBit(64));
+		assertEquals(250, set.nextSetBit(65));
+		assertEquals(-1, set.nextSetBit(251));
+		long[] words = set.toWords();
+		assertEquals(63, FloorBitSet.nextSetBit(words, 4));
+		assertEquals(250, FloorBitSet.nextSetBit(words, 65));
+		assertEquals(-1, FloorBitSet.nextSetBit(words, 251));
+		assertEquals(-1, FloorBitSet.nextSetBit(words, 1000));
+		assertEquals(64, set.previousSetBit(249));
+		assertEquals(63, set.previousSetBit(63));
+		assertEquals(3, set.previousSetBit(62));
+		assertEquals(-1, set.previousSetBit(2));
+		assertEquals(-1, set.previousSetBit(-1));
+	}
+
+	@Test
+	public void testCountAcrossWords() {
+		FloorBitSet set = new FloorBitSet(300);
+		set.add(0);
+		set.add(63);
+		set.add(64);
+		set.add(200);
+		long[] words = set.toWords();
+		set.add(100); // copy is not changed
+		assertEquals(4, FloorBitSet.count(words, 0, 299));
+		assertEquals(4, FloorBitSet.count(words, -5, 500));
+		assertEquals(2, FloorBitSet.count(words, 63, 64));
+		assertEquals(1, FloorBitSet.count(words, 1, 63));
+		assertEquals(1, FloorBitSet.count(words, 65, 200));
+		assertEquals(0, FloorBitSet.count(words, 65, 199));
+		assertEquals(0, FloorBitSet.count(words, 64, 63));
+	}
+
+	@Test
+	public void testEmpty() {
+		FloorBitSet set = new FloorBitSet(10);
+		assertEquals(-1, set.first());
+		assertEquals(-1, set.last());
+		set.add(9);
+		set.clear();
+		assertTrue(set.isEmpty());
+		assertEquals(-1, set.last());
+	}
+
+	@Test
+	public void testSnapshot() {
+		FloorBitSet set = new FloorBitSet(100);
+		set.add(70);
+		set.add(1);
+		assertEquals(new TreeSet<Integer>(Arrays.asList(1, 70)), set.toSortedSet());
+		assertEquals("[1, 70]", set.toString());
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testOutOfCapacity() {
+		new FloorBitSet(10).add(10);
+	}
+}
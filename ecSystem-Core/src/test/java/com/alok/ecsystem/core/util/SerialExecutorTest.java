@@ -0,0 +1,55 @@
+package com.alok.ecsystem.core.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * Unit test for {@link SerialExecutor}.
+ */
+public class SerialExecutorTest {
+
+	@Test
+	public void testTasksRunOneAtATimeInOrder() throws InterruptedException {
+		ExecutorService pool = Executors.newFixedThreadPool(4);
+		try {
+			final SerialExecutor loop = new SerialExecutor("test", pool);
+			final AtomicInteger running = new AtomicInteger();
+			final List<Integer> order = new ArrayList<Integer>();
+			final CountDownLatch done = new CountDownLatch(1000);
+			final boolean[] overlap = new boolean[1];
+			for (int i = 0; i < 1000; i++) {
+				final int value = i;
+				loop.execute(new Runnable() {
+					public void run() {
+						if (running.incrementAndGet() != 1) {
+							overlap[0] = true;
+						}
+						order.add(value);
+						running.decrementAndGet();
+						done.countDown();
+						if (value == 500) {
+							throw new RuntimeException("failure must not stop the loop");
+						}
+					}
+				});
+			}
+			assertTrue(done.await(10, TimeUnit.SECONDS));
+			assertEquals(false, overlap[0]);
+			for (int i = 0; i < order.size(); i++) {
+				assertEquals(i, order.get(i).intValue());
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+}
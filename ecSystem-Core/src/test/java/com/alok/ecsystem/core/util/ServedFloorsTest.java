@@ -0,0 +1,59 @@
+package com.alok.ecsystem.core.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Unit test for {@link ServedFloors}.
+ */
+public class ServedFloorsTest {
+
+	@Test
+	public void testRange() {
+		ServedFloors floors = ServedFloors.range(2, 5000);
+		assertTrue(floors.isRange());
+		assertTrue(floors.contains(2));
+		assertTrue(floors.contains(5000));
+		assertFalse(floors.contains(1));
+		assertFalse(floors.contains(5001));
+		assertEquals(4999, floors.size());
+		assertEquals(2, floors.next(0));
+		assertEquals(70, floors.next(70));
+		assertEquals(-1, floors.next(5001));
+		assertEquals("2-5000", floors.toString());
+		assertEquals(ServedFloors.range(2, 5000), ServedFloors.parse("2-5000"));
+	}
+
+	@Test
+	public void testExpressAndSkipStop() {
+		ServedFloors express = ServedFloors.parse("0, 25-49");
+		assertFalse(express.isRange());
+		assertTrue(express.contains(0));
+		assertFalse(express.contains(10));
+		assertEquals(26, express.size());
+		assertEquals(25, express.next(1));
+		assertEquals(0, express.previous(24));
+		assertEquals("0,25-49", express.toString());
+
+		ServedFloors odd = ServedFloors.parse("0,1-9/2");
+		assertEquals("0-1,3,5,7,9", odd.toString());
+		int count = 0;
+		for (int floor = odd.first(); floor != -1; floor = odd.next(floor + 1)) {
+			count++;
+		}
+		assertEquals(odd.size(), count);
+
+		assertSame(express, express.within(0, 49));
+		assertEquals(ServedFloors.parse("25-30"), express.within(1, 30));
+		assertTrue(express.within(1, 30).isRange());
+	}
+
+	@Test(expected = RuntimeException.class)
+	public void testInvalidFloors() {
+		ServedFloors.parse("5-2");
+	}
+}
@@ -1,77 +1,102 @@
 package com.alok.ecsystem.core.impl;
 
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import com.alok.ecsystem.core.config.ElevatorSystemConfig;
 import com.alok.ecsystem.core.impl.AbstractBaseElevatorControl;
+import com.alok.ecsystem.core.simulation.VirtualTimeScheduler;
 
 /**
  * Simulated elevator which actually sleeps and does nothing and take credit of doing crucial things.
+ * 
+ * Door and movement timings are simulated by timer tasks on scheduler of building, so number of threads does not grow 
+ * with number of elevators. Scheduler is given by {@link ElevatorSystemConfig#getScheduler()}, it can be 
+ * a real time thread pool or {@link VirtualTimeScheduler} for faster than real time runs. 
+ * In case building runs on event loops, timer callbacks are processed in event loop of elevator. 
+ * Callbacks of timers started before elevator was taken out of service are dropped, see {@link #getServiceEpoch()}.
+ * 
+ * Timings can be configured by "simulator.floorTravelMillis" (default 3000), "simulator.doorOpeningMillis" (default 1000) 
+ * and "simulator.doorClosingMillis" (default 3000) properties.
  *  
  * @author Alok Kushwah (akushwah)
  *
  */
 public class SimulateElevator extends AbstractBaseElevatorControl {
 
-	public SimulateElevator(int id, int minFloor, int maxFloor) {
-		super(id, minFloor, maxFloor);
-	}
+	private final long floorTravelMillis;
+	private final long doorOpeningMillis;
+	private final long doorClosingMillis;
 
-	private Thread doorCloseThread;
+	private ScheduledFuture<?> doorCloseTask;
+	private int doorCloseGeneration;
+
+	public SimulateElevator(ElevatorSystemConfig config, int id, int minFloor, int maxFloor) {
+		super(config, id, minFloor, maxFloor);
+		floorTravelMillis = config.getLongProperty("simulator.floorTravelMillis", 3000);
+		doorOpeningMillis = config.getLongProperty("simulator.doorOpeningMillis", 1000);
+		doorClosingMillis = config.getLongProperty("simulator.doorClosingMillis", 3000);
+	}
 
 	@Override
-	protected void startDoorClosing() {
-		doorCloseThread = new Thread(new Runnable() {
+	protected synchronized void startDoorClosing() {
+		final int generation = ++doorCloseGeneration;
+		final int epoch = getServiceEpoch();
+		doorCloseTask = getScheduler().schedule(inEventLoop(new Runnable() {
 
 			public void run() {
-				try {
-					Thread.sleep(3000);
-				} catch (InterruptedException e) {
-					// interrupted
-					return;
+				synchronized (SimulateElevator.this) {
+					if (generation != doorCloseGeneration || epoch != getServiceEpoch()) {
+						return; // cancelled by door opening or out of service
+					}
+					doorClosed();
 				}
-				doorClosed();
 			}
-		});
-		doorCloseThread.setName("DoorClosingThread");
-		doorCloseThread.start();
+		}), doorClosingMillis, TimeUnit.MILLISECONDS);
 	}
 
 	@Override
-	protected void startDoorOpening() {
-		if (doorCloseThread != null && doorCloseThread.isAlive()) {
-			doorCloseThread.interrupt();
+	protected synchronized void startDoorOpening() {
+		if (doorCloseTask != null) {
+			doorCloseGeneration++;
+			doorCloseTask.cancel(false);
+			doorCloseTask = null;
 		}
-		Thread t = new Thread(new Runnable() {
+		final int epoch = getServiceEpoch();
+		getScheduler().schedule(inEventLoop(new Runnable() {
 
 			public void run() {
-				try {
-					Thread.sleep(1000);
-				} catch (InterruptedException e) {
-					throw new RuntimeException(Thread.currentThread().getName() + ":InterruptedException");
+				synchronized (SimulateElevator.this) {
+					if (epoch != getServiceEpoch()) {
+						return; // out of service
+					}
+					doorOpened();
+					startDoorClosing();
 				}
-				doorOpened();
-				startDoorClosing();
 			}
-		});
-		t.setName("DoorOpeningThread");
-		t.start();
+		}), doorOpeningMillis, TimeUnit.MILLISECONDS);
 	}
 
 	@Override
 	protected void startMoving() {
-		Thread t = new Thread(new Runnable() {
+		final int epoch = getServiceEpoch();
+		getScheduler().schedule(inEventLoop(new Runnable() {
 
 			public void run() {
-				while (true) {
-					try {
-						Thread.sleep(3000);
-					} catch (InterruptedException e) {
-						throw new RuntimeException(Thread.currentThread().getName() + ":InterruptedException");
+				synchronized (SimulateElevator.this) {
+					if (epoch != getServiceEpoch()) {
+						return; // out of service
+					}
+					if (movedToNewFloor()) {
+						getScheduler().schedule(inEventLoop(this), floorTravelMillis, TimeUnit.MILLISECONDS);
 					}
-					if (!movedToNewFloor())
-						return;
 				}
 			}
-		});
-		t.setName("MovingThread");
-		t.start();
+		}), floorTravelMillis, TimeUnit.MILLISECONDS);
+	}
+
+	private ScheduledExecutorService getScheduler() {
+		return getConfig().getScheduler();
 	}
 }
@@ -0,0 +1,131 @@
+package com.alok.ecsystem.core.simulation;
+
+import java.util.Set;
+
+import com.alok.ecsystem.core.ElevatorControlInterface;
+import com.alok.ecsystem.core.ElevatorSnapshot;
+import com.alok.ecsystem.core.ElevatorStateListener;
+import com.alok.ecsystem.core.util.ServedFloors;
+
+/**
+ * {@link ElevatorControlInterface} wrapper which records car calls, door requests and passengers boarding and alighting 
+ * with {@link TrafficRecorder}.
+ * 
+ * @author Alok Kushwah (akushwah)
+ */
+class RecordingElevatorControl implements ElevatorControlInterface {
+
+	private final ElevatorControlInterface delegate;
+	private final TrafficRecorder recorder;
+
+	RecordingElevatorControl(ElevatorControlInterface delegate, TrafficRecorder recorder) {
+		this.delegate = delegate;
+		this.recorder = recorder;
+	}
+
+	public int getId() {
+		return delegate.getId();
+	}
+
+	public ServedFloors getServedFloors() {
+		return delegate.getServedFloors();
+	}
+
+	public STATE getState() {
+		return delegate.getState();
+	}
+
+	public DIRECTION getDirection() {
+		return delegate.getDirection();
+	}
+
+	public int getCurrentFloor() {
+		return delegate.getCurrentFloor();
+	}
+
+	public ElevatorSnapshot getSnapshot() {
+		return delegate.getSnapshot();
+	}
+
+	public void addStateListener(ElevatorStateListener listener) {
+		delegate.addStateListener(listener);
+	}
+
+	public void removeStateListener(ElevatorStateListener listener) {
+		delegate.removeStateListener(listener);
+	}
+
+	public int estimatedFloorRequestCost(int requestedFloorIndex, DIRECTION callDirection) {
+		return delegate.estimatedFloorRequestCost(requestedFloorIndex, callDirection);
+	}
+
+	public void addFloorRequest(int requestedFoorId) {
+		recorder.record(TrafficEvent.TYPE.CAR_CALL, delegate.getId(), requestedFoorId);
+		delegate.addFloorRequest(requestedFoorId);
+	}
+
+	public void addHallCall(int floorIndex, DIRECTION direction) {
+		delegate.addHallCall(floorIndex, direction);
+	}
+
+	public boolean withdrawHallCall(int floorIndex, DIRECTION direction) {
+		return delegate.withdrawHallCall(floorIndex, direction);
+	}
+
+	public Set<Integer> getFloorRequests() {
+		return delegate.getFloorRequests();
+	}
+
+	public int getFloorRequestCount() {
+		return delegate.getFloorRequestCount();
+	}
+
+	public int getCapacity() {
+		return delegate.getCapacity();
+	}
+
+	public int getLoad() {
+		return delegate.getLoad();
+	}
+
+	public int passengersBoarded(int count) {
+		recorder.record(TrafficEvent.TYPE.BOARDED, delegate.getId(), count);
+		return delegate.passengersBoarded(count);
+	}
+
+	public void passengersAlighted(int count) {
+		recorder.record(TrafficEvent.TYPE.ALIGHTED, delegate.getId(), count);
+		delegate.passengersAlighted(count);
+	}
+
+	public boolean park(int floorIndex) {
+		return delegate.park(floorIndex);
+	}
+
+	public int getParkingFloor() {
+		return delegate.getParkingFloor();
+	}
+
+	public boolean takeOutOfService() {
+		return delegate.takeOutOfService();
+	}
+
+	public boolean returnToService() {
+		return delegate.returnToService();
+	}
+
+	public boolean openDoorRequest() {
+		recorder.record(TrafficEvent.TYPE.DOOR_OPEN, delegate.getId(), -1);
+		return delegate.openDoorRequest();
+	}
+
+	public boolean closeDoorRequest() {
+		recorder.record(TrafficEvent.TYPE.DOOR_CLOSE, delegate.getId(), -1);
+		return delegate.closeDoorRequest();
+	}
+
+	@Override
+	public String toString() {
+		return delegate.toString();
+	}
+}
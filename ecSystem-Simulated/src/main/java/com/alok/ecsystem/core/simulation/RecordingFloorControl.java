@@ -0,0 +1,65 @@
+package com.alok.ecsystem.core.simulation;
+
+import com.alok.ecsystem.core.ElevatorControlInterface;
+import com.alok.ecsystem.core.ElevatorControlInterface.DIRECTION;
+import com.alok.ecsystem.core.FloorControlInterface;
+
+/**
+ * {@link FloorControlInterface} wrapper which records hall calls and destination requests with {@link TrafficRecorder}.
+ * 
+ * @author Alok Kushwah (akushwah)
+ */
+class RecordingFloorControl implements FloorControlInterface {
+
+	private final FloorControlInterface delegate;
+	private final TrafficRecorder recorder;
+
+	RecordingFloorControl(FloorControlInterface delegate, TrafficRecorder recorder) {
+		this.delegate = delegate;
+		this.recorder = recorder;
+	}
+
+	public int getId() {
+		return delegate.getId();
+	}
+
+	public void setElevatorRequest(boolean requsted) {
+		if (requsted) {
+			recorder.record(TrafficEvent.TYPE.HALL_CALL, delegate.getId(), -1);
+		}
+		delegate.setElevatorRequest(requsted);
+	}
+
+	public void setElevatorRequest(DIRECTION direction, boolean requested) {
+		if (requested) {
+			recorder.record(direction == null ? TrafficEvent.TYPE.HALL_CALL 
+					: direction == DIRECTION.UP ? TrafficEvent.TYPE.HALL_CALL_UP : TrafficEvent.TYPE.HALL_CALL_DOWN, delegate.getId(), -1);
+		}
+		delegate.setElevatorRequest(direction, requested);
+	}
+
+	public boolean getElevatorRequest() {
+		return delegate.getElevatorRequest();
+	}
+
+	public boolean getElevatorRequest(DIRECTION direction) {
+		return delegate.getElevatorRequest(direction);
+	}
+
+	public ElevatorControlInterface requestDestination(int destinationFloorIndex) {
+		recorder.record(TrafficEvent.TYPE.DESTINATION, delegate.getId(), destinationFloorIndex);
+		return recorder.elevator(delegate.requestDestination(destinationFloorIndex));
+	}
+
+	public ElevatorControlInterface getElevatorControl() {
+		return recorder.elevator(delegate.getElevatorControl());
+	}
+
+	public void elevatorArrived(ElevatorControlInterface elevator, DIRECTION direction) {
+		delegate.elevatorArrived(elevator, direction);
+	}
+
+	public void elevatorLeft(ElevatorControlInterface elevator) {
+		delegate.elevatorLeft(elevator);
+	}
+}
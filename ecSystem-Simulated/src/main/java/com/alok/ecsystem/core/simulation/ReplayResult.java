@@ -0,0 +1,83 @@
+package com.alok.ecsystem.core.simulation;
+
+/**
+ * Outcome of a simulation run used to compare dispatch changes against same traffic.
+ * 
+ * @author Alok Kushwah (akushwah)
+ */
+public class ReplayResult {
+
+	private int hallCallCount;
+	private int servedCount;
+	private long totalWaitMillis;
+	private long maxWaitMillis;
+	private long finishMillis;
+
+	void hallCall() {
+		hallCallCount++;
+	}
+
+	void served(long waitMillis) {
+		servedCount++;
+		totalWaitMillis += waitMillis;
+		maxWaitMillis = Math.max(maxWaitMillis, waitMillis);
+	}
+
+	void finish(long timeMillis) {
+		finishMillis = timeMillis;
+	}
+
+	/**
+	 * Number of hall calls registered at floors.
+	 * @return int
+	 */
+	public int getHallCallCount() {
+		return hallCallCount;
+	}
+
+	/**
+	 * Number of hall calls served by an elevator.
+	 * @return int
+	 */
+	public int getServedCount() {
+		return servedCount;
+	}
+
+	/**
+	 * Sum of wait time of all served hall calls.
+	 * @return long - milli seconds
+	 */
+	public long getTotalWaitMillis() {
+		return totalWaitMillis;
+	}
+
+	/**
+	 * Longest wait of a served hall call.
+	 * @return long - milli seconds
+	 */
+	public long getMaxWaitMillis() {
+		return maxWaitMillis;
+	}
+
+	/**
+	 * Average wait of served hall calls.
+	 * @return long - milli seconds
+	 */
+	public long getAverageWaitMillis() {
+		return servedCount == 0 ? 0 : totalWaitMillis / servedCount;
+	}
+
+	/**
+	 * Virtual time when run was finished.
+	 * @return long - milli seconds
+	 */
+	public long getFinishMillis() {
+		return finishMillis;
+	}
+
+	@Override
+	public String toString() {
+		return "hallCalls=" + hallCallCount + " served=" + servedCount + " avgWaitMillis=" + getAverageWaitMillis() + " maxWaitMillis="
+				+ maxWaitMillis + " finishMillis=" + finishMillis;
+	}
+}
@@ -0,0 +1,56 @@
+package com.alok.ecsystem.core.simulation;
+
+/**
+ * A timed request made by a rider. It is recorded by {@link TrafficRecorder} and played back by {@link TrafficReplayDriver}.
+ * 
+ * @author Alok Kushwah (akushwah)
+ */
+public final class TrafficEvent {
+
+	/**
+	 * Type of request. Recorded by ordinal, so new types are added at the end.
+	 */
+	public enum TYPE {
+		HALL_CALL, CAR_CALL, DOOR_OPEN, DOOR_CLOSE, HALL_CALL_UP, HALL_CALL_DOWN, DESTINATION, BOARDED, ALIGHTED
+	}
+
+	private final long time;
+	private final TYPE type;
+	private final int target;
+	private final int floorIndex;
+
+	/**
+	 * Creates a new event.
+	 * @param time - milli seconds since start of recording
+	 * @param type - type of request
+	 * @param target - floor index for hall call and destination request, elevator id for others
+	 * @param floorIndex - requested floor index for car call and destination request, number of passengers for boarding and alighting, -1 for others
+	 */
+	public TrafficEvent(long time, TYPE type, int target, int floorIndex) {
+		this.time = time;
+		this.type = type;
+		this.target = target;
+		this.floorIndex = floorIndex;
+	}
+
+	public long getTime() {
+		return time;
+	}
+
+	public TYPE getType() {
+		return type;
+	}
+
+	public int getTarget() {
+		return target;
+	}
+
+	public int getFloorIndex() {
+		return floorIndex;
+	}
+
+	@Override
+	public String toString() {
+		return time + " " + type + " " + target + (floorIndex == -1 ? "" : " " + floorIndex);
+	}
+}
@@ -0,0 +1,104 @@
+package com.alok.ecsystem.core.simulation;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact binary format of recorded {@link TrafficEvent}.
+ * 
+ * File starts with magic number and version. Each event is written as variable length time delta from previous event, 
+ * one byte type, variable length target and variable length floor index plus one. Most events take 4 bytes.
+ * 
+ * @author Alok Kushwah (akushwah)
+ */
+public final class TrafficLog {
+
+	private static final int MAGIC = 0x45435352; // "ECSR"
+	private static final int VERSION = 1;
+
+	private TrafficLog() {
+	}
+
+	/**
+	 * Writes file header.
+	 * @param out
+	 * @throws IOException
+	 */
+	static void writeHeader(DataOutputStream out) throws IOException {
+		out.writeInt(MAGIC);
+		out.writeByte(VERSION);
+	}
+
+	/**
+	 * Writes one event.
+	 * @param out
+	 * @param event
+	 * @param previousTime - time of previous event
+	 * @throws IOException
+	 */
+	static void write(DataOutputStream out, TrafficEvent event, long previousTime) throws IOException {
+		writeVarLong(out, event.getTime() - previousTime);
+		out.writeByte(event.getType().ordinal());
+		writeVarLong(out, event.getTarget());
+		writeVarLong(out, event.getFloorIndex() + 1);
+	}
+
+	/**
+	 * Reads all events of a recording.
+	 * @param in
+	 * @return List<TrafficEvent> - events in recorded order
+	 * @throws IOException in case stream is not a valid recording
+	 */
+	public static List<TrafficEvent> read(InputStream in) throws IOException {
+		DataInputStream data = new DataInputStream(in);
+		if (data.readInt() != MAGIC) {
+			throw new IOException("Not a traffic recording.");
+		}
+		int version = data.readByte();
+		if (version != VERSION) {
+			throw new IOException("Unsupported traffic recording version=" + version);
+		}
+		TrafficEvent.TYPE[] types = TrafficEvent.TYPE.values();
+		List<TrafficEvent> events = new ArrayList<TrafficEvent>();
+		long time = 0;
+		while (true) {
+			int first = data.read();
+			if (first == -1) {
+				return events;
+			}
+			time += readVarLong(data, first);
+			TrafficEvent.TYPE type = types[data.readByte()];
+			int target = (int) readVarLong(data, data.readUnsignedByte());
+			int floorIndex = (int) readVarLong(data, data.readUnsignedByte()) - 1;
+			events.add(new TrafficEvent(time, type, target, floorIndex));
+		}
+	}
+
+	private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+		while ((value & ~0x7FL) != 0) {
+			out.writeByte((int) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		out.writeByte((int) value);
+	}
+
+	private static long readVarLong(DataInputStream in, int first) throws IOException {
+		long value = first & 0x7F;
+		int shift = 7;
+		int b = first;
+		while ((b & 0x80) != 0) {
+			b = in.read();
+			if (b == -1) {
+				throw new EOFException("Truncated traffic recording.");
+			}
+			value |= (long) (b & 0x7F) << shift;
+			shift += 7;
+		}
+		return value;
+	}
+}
@@ -0,0 +1,83 @@
+package com.alok.ecsystem.core.simulation;
+
+import java.util.Random;
+
+/**
+ * Passenger origin and destination patterns of a building.
+ * 
+ * @author Alok Kushwah (akushwah)
+ */
+public enum TrafficPattern {
+
+	/**
+	 * Everybody arrives at lobby and goes up. Morning rush.
+	 */
+	UP_PEAK,
+	/**
+	 * Everybody goes down to lobby. Evening rush.
+	 */
+	DOWN_PEAK,
+	/**
+	 * Half of passengers go down to lobby and half come back up from lobby.
+	 */
+	LUNCH,
+	/**
+	 * Passengers travel between upper floors, lobby is not involved.
+	 */
+	INTER_FLOOR,
+	/**
+	 * Origin and destination are random floors.
+	 */
+	POISSON;
+
+	/**
+	 * Picks origin and destination of next passenger.
+	 * @param random - random source
+	 * @param floorCount - number of floors
+	 * @param lobby - lobby floor index
+	 * @param trip - int[2] to fill with origin and destination floor index
+	 */
+	public void nextTrip(Random random, int floorCount, int lobby, int[] trip) {
+		switch (this) {
+		case UP_PEAK:
+			trip[0] = lobby;
+			trip[1] = otherFloor(random, floorCount, lobby, -1);
+			break;
+		case DOWN_PEAK:
+			trip[0] = otherFloor(random, floorCount, lobby, -1);
+			trip[1] = lobby;
+			break;
+		case LUNCH:
+			if (random.nextBoolean()) {
+				UP_PEAK.nextTrip(random, floorCount, lobby, trip);
+			} else {
+				DOWN_PEAK.nextTrip(random, floorCount, lobby, trip);
+			}
+			break;
+		case INTER_FLOOR:
+			if (floorCount < 3) {
+				POISSON.nextTrip(random, floorCount, lobby, trip);
+				return;
+			}
+			trip[0] = otherFloor(random, floorCount, lobby, -1);
+			trip[1] = otherFloor(random, floorCount, lobby, trip[0]);
+			break;
+		default:
+			trip[0] = random.nextInt(floorCount);
+			trip[1] = otherFloor(random, floorCount, trip[0], -1);
+			break;
+		}
+	}
+
+	/**
+	 * Random floor which is neither of given floors.
+	 */
+	private static int otherFloor(Random random, int floorCount, int exclude1, int exclude2) {
+		while (true) {
+			int floor = random.nextInt(floorCount);
+			if (floor != exclude1 && floor != exclude2) {
+				return floor;
+			}
+		}
+	}
+}
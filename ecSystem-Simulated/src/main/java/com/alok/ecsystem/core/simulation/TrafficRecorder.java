@@ -0,0 +1,122 @@
+package com.alok.ecsystem.core.simulation;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.apache.log4j.Logger;
+
+import com.alok.ecsystem.core.ElevatorControlInterface;
+import com.alok.ecsystem.core.FloorControlInterface;
+
+/**
+ * Records timed hall calls, car calls and door requests into compact {@link TrafficLog} format.
+ * 
+ * Requests are captured by wrapping floor and elevator interfaces with {@link #floor(FloorControlInterface)} and 
+ * {@link #elevator(ElevatorControlInterface)}. Clients must use wrapped interfaces to make requests.
+ * 
+ * Time is taken from virtual clock in case simulation runs on {@link VirtualTimeScheduler}, otherwise from wall clock since 
+ * recorder was created.
+ * 
+ * @author Alok Kushwah (akushwah)
+ */
+public class TrafficRecorder implements Closeable {
+
+	private static final Logger logger = Logger.getLogger(TrafficRecorder.class);
+
+	private final DataOutputStream out;
+	private final VirtualTimeScheduler virtualClock;
+	private final long startMillis;
+	private final Map<Integer, ElevatorControlInterface> elevators = new HashMap<Integer, ElevatorControlInterface>();
+	private long previousTime;
+	private int eventCount;
+
+	/**
+	 * Creates a new recorder writing to given file.
+	 * @param file
+	 * @param scheduler - scheduler of recorded building
+	 * @throws IOException
+	 */
+	public TrafficRecorder(File file, ScheduledExecutorService scheduler) throws IOException {
+		this(new FileOutputStream(file), scheduler);
+	}
+
+	/**
+	 * Creates a new recorder writing to given stream.
+	 * @param stream
+	 * @param scheduler - scheduler of recorded building
+	 * @throws IOException
+	 */
+	public TrafficRecorder(OutputStream stream, ScheduledExecutorService scheduler) throws IOException {
+		out = new DataOutputStream(new BufferedOutputStream(stream));
+		TrafficLog.writeHeader(out);
+		virtualClock = scheduler instanceof VirtualTimeScheduler ? (VirtualTimeScheduler) scheduler : null;
+		startMillis = System.currentTimeMillis();
+	}
+
+	/**
+	 * Records a request.
+	 * @param type - type of request
+	 * @param target - floor index for hall call, elevator id for others
+	 * @param floorIndex - requested floor index for car call, number of passengers for boarding and alighting, -1 for others
+	 */
+	public synchronized void record(TrafficEvent.TYPE type, int target, int floorIndex) {
+		long time = virtualClock != null ? virtualClock.now() : System.currentTimeMillis() - startMillis;
+		time = Math.max(time, previousTime);
+		try {
+			TrafficLog.write(out, new TrafficEvent(time, type, target, floorIndex), previousTime);
+			previousTime = time;
+			eventCount++;
+		} catch (IOException e) {
+			logger.error("Unable to record type=" + type + " target=" + target, e);
+		}
+	}
+
+	/**
+	 * Number of recorded requests.
+	 * @return int
+	 */
+	public synchronized int getEventCount() {
+		return eventCount;
+	}
+
+	/**
+	 * Wraps floor interface to record hall calls.
+	 * @param floorControl
+	 * @return {@link FloorControlInterface}
+	 */
+	public FloorControlInterface floor(FloorControlInterface floorControl) {
+		return floorControl == null ? null : new RecordingFloorControl(floorControl, this);
+	}
+
+	/**
+	 * Wraps elevator interface to record car calls and door requests.
+	 * @param elevatorControl
+	 * @return {@link ElevatorControlInterface}
+	 */
+	public synchronized ElevatorControlInterface elevator(ElevatorControlInterface elevatorControl) {
+		if (elevatorControl == null || elevatorControl instanceof RecordingElevatorControl) {
+			return elevatorControl;
+		}
+		ElevatorControlInterface wrapper = elevators.get(elevatorControl.getId());
+		if (wrapper == null) {
+			wrapper = new RecordingElevatorControl(elevatorControl, this);
+			elevators.put(elevatorControl.getId(), wrapper);
+		}
+		return wrapper;
+	}
+
+	/**
+	 * Flush and close the recording.
+	 */
+	public synchronized void close() throws IOException {
+		out.close();
+	}
+}
@@ -0,0 +1,191 @@
+package com.alok.ecsystem.core.simulation;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.Logger;
+
+import com.alok.ecsystem.core.ElevatorControlInterface;
+import com.alok.ecsystem.core.ElevatorControlInterface.DIRECTION;
+import com.alok.ecsystem.core.ElevatorSystemControl;
+import com.alok.ecsystem.core.config.ElevatorSystemConfig;
+import com.alok.ecsystem.core.dispatch.HallCall;
+import com.alok.ecsystem.core.FloorControlInterface;
+import com.alok.ecsystem.core.event.EventSubscriber;
+import com.alok.ecsystem.core.event.FloorEvent;
+
+/**
+ * Plays back recorded traffic against {@link ElevatorSystemControl} on {@link VirtualTimeScheduler}.
+ * 
+ * Every request is fed at its recorded virtual time and simulation runs on single thread, so same recording and configuration 
+ * always give same result. Result has wait time of hall calls and optional trace of every arrival for comparison.
+ * 
+ * Elevators, batch dispatch, re-optimization and parking all run on scheduler of building, so building must be configured with 
+ * the same {@link VirtualTimeScheduler}. Wait time is measured per hall call, up and down calls of a floor separately.
+ * 
+ * Usage: java -DecsPropFile=building.properties com.alok.ecsystem.core.simulation.TrafficReplayDriver recording.ecsr [trace.txt]
+ * 
+ * @author Alok Kushwah (akushwah)
+ */
+public class TrafficReplayDriver implements EventSubscriber<FloorEvent> {
+
+	private static final Logger logger = Logger.getLogger(TrafficReplayDriver.class);
+
+	private final ElevatorSystemControl control;
+	private final VirtualTimeScheduler scheduler;
+	private final Map<HallCall, Long> callTimes = new HashMap<HallCall, Long>();
+	private ReplayResult result;
+	private PrintWriter trace;
+
+	/**
+	 * Creates a new replay driver.
+	 * @param control - system to drive, its elevators must run on given scheduler
+	 * @param scheduler - virtual clock
+	 */
+	public TrafficReplayDriver(ElevatorSystemControl control, VirtualTimeScheduler scheduler) {
+		this.control = control;
+		this.scheduler = scheduler;
+		if (control.getConfig().getScheduler() != scheduler) {
+			logger.warn("Building does not run on given virtual clock. Replay will not be repeatable.");
+		}
+		control.getConfig().getFloorEvents().subscribe(this);
+	}
+
+	/**
+	 * Plays back given requests and runs simulation until all elevators are done or drain time is over after last request.
+	 * @param events - recorded requests
+	 * @param drainMillis - time to let elevators finish after last request
+	 * @param traceWriter - writer for trace of requests and arrivals, can be null
+	 * @return {@link ReplayResult}
+	 */
+	public ReplayResult replay(List<TrafficEvent> events, long drainMillis, Writer traceWriter) {
+		result = new ReplayResult();
+		trace = traceWriter == null ? null : new PrintWriter(traceWriter);
+		callTimes.clear();
+		long start = scheduler.now();
+		long last = start;
+		for (final TrafficEvent event : events) {
+			last = Math.max(last, start + event.getTime());
+			scheduler.schedule(new Runnable() {
+				public void run() {
+					apply(event);
+				}
+			}, start + event.getTime() - scheduler.now(), TimeUnit.MILLISECONDS);
+		}
+		scheduler.runUntilIdle(last + drainMillis);
+		result.finish(scheduler.now() - start);
+		if (trace != null) {
+			trace.flush();
+		}
+		return result;
+	}
+
+	/**
+	 * Receives floor notifications to measure wait time of hall calls.
+	 */
+	public void onEvent(FloorEvent event) {
+		FloorControlInterface floorControl = event.getFloor();
+		FloorControlInterface.FLOOR_EVENT arg = event.getType();
+		int floorIndex = floorControl.getId();
+		DIRECTION direction = event.getDirection();
+		if (FloorControlInterface.FLOOR_EVENT.BUTTON_PRESSED == arg) {
+			callTimes.put(new HallCall(floorIndex, direction), scheduler.now());
+			result.hallCall();
+		} else if (FloorControlInterface.FLOOR_EVENT.ELEVATOR_ARRIVED == arg) {
+			ElevatorControlInterface elevator = floorControl.getElevatorControl();
+			// elevator serves calls of direction it leaves in
+			served(new HallCall(floorIndex, null));
+			if (direction != DIRECTION.DOWN) {
+				served(new HallCall(floorIndex, DIRECTION.UP));
+			}
+			if (direction != DIRECTION.UP) {
+				served(new HallCall(floorIndex, DIRECTION.DOWN));
+			}
+			if (trace != null) {
+				trace.println(scheduler.now() + " ARRIVED " + floorIndex + " " + (elevator == null ? -1 : elevator.getId()));
+			}
+		}
+	}
+
+	private void served(HallCall call) {
+		Long callTime = callTimes.remove(call);
+		if (callTime != null) {
+			result.served(scheduler.now() - callTime);
+		}
+	}
+
+	private void apply(TrafficEvent event) {
+		if (trace != null) {
+			trace.println(scheduler.now() + " " + event.getType() + " " + event.getTarget() + (event.getFloorIndex() == -1 ? "" : " " + event.getFloorIndex()));
+		}
+		try {
+			switch (event.getType()) {
+			case HALL_CALL:
+				control.getFloorControl(event.getTarget()).setElevatorRequest(true);
+				break;
+			case HALL_CALL_UP:
+				control.getFloorControl(event.getTarget()).setElevatorRequest(DIRECTION.UP, true);
+				break;
+			case HALL_CALL_DOWN:
+				control.getFloorControl(event.getTarget()).setElevatorRequest(DIRECTION.DOWN, true);
+				break;
+			case DESTINATION:
+				control.getFloorControl(event.getTarget()).requestDestination(event.getFloorIndex());
+				break;
+			case CAR_CALL:
+				control.getElevetorControl(event.getTarget()).addFloorRequest(event.getFloorIndex());
+				break;
+			case DOOR_OPEN:
+				control.getElevetorControl(event.getTarget()).openDoorRequest();
+				break;
+			case DOOR_CLOSE:
+				control.getElevetorControl(event.getTarget()).closeDoorRequest();
+				break;
+			case BOARDED:
+				control.getElevetorControl(event.getTarget()).passengersBoarded(event.getFloorIndex());
+				break;
+			case ALIGHTED:
+				control.getElevetorControl(event.getTarget()).passengersAlighted(event.getFloorIndex());
+				break;
+			}
+		} catch (RuntimeException e) {
+			logger.warn("Unable to replay event=" + event + ": " + e.getMessage());
+		}
+	}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 1) {
+			System.err.println("Usage: TrafficReplayDriver <recording file> [trace file]");
+			return;
+		}
+		VirtualTimeScheduler scheduler = new VirtualTimeScheduler();
+		ElevatorSystemConfig config = ElevatorSystemConfig.load();
+		config.setScheduler(scheduler);
+		List<TrafficEvent> events;
+		InputStream in = new FileInputStream(new File(args[0]));
+		try {
+			events = TrafficLog.read(in);
+		} finally {
+			in.close();
+		}
+		Writer traceWriter = args.length > 1 ? new FileWriter(args[1]) : null;
+		try {
+			TrafficReplayDriver driver = new TrafficReplayDriver(new ElevatorSystemControl(config), scheduler);
+			ReplayResult result = driver.replay(events, TimeUnit.HOURS.toMillis(1), traceWriter);
+			System.out.println("Replayed " + events.size() + " requests: " + result);
+		} finally {
+			if (traceWriter != null) {
+				traceWriter.close();
+			}
+		}
+	}
+}
@@ -0,0 +1,234 @@
+package com.alok.ecsystem.core.simulation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RunnableScheduledFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Discrete event scheduler with virtual clock.
+ * 
+ * Tasks are kept in a priority queue ordered by virtual time and then by submission order. Nothing runs until 
+ * driver calls {@link #runUntil(long)} or {@link #runUntilIdle(long)}. Clock jumps straight to the next task, 
+ * so simulated hours pass in milli seconds. All tasks run on driver thread one after another, which makes runs repeatable.
+ * Task which fails stops the run, its exception is thrown to the driver, so a simulation never goes on in broken state.
+ * 
+ * It implements {@link ScheduledExecutorService} so it can replace real time scheduler anywhere.
+ * 
+ * @author Alok Kushwah (akushwah)
+ */
+public class VirtualTimeScheduler extends AbstractExecutorService implements ScheduledExecutorService {
+
+	private static final Logger logger = Logger.getLogger(VirtualTimeScheduler.class);
+
+	private final PriorityQueue<VirtualTask<?>> queue = new PriorityQueue<VirtualTask<?>>();
+	private long now;
+	private long sequence;
+	private long executedCount;
+	private boolean shutdown;
+
+	/**
+	 * Current virtual time.
+	 * @return long - milli seconds since start of simulation
+	 */
+	public synchronized long now() {
+		return now;
+	}
+
+	/**
+	 * Number of tasks executed so far.
+	 * @return long
+	 */
+	public synchronized long getExecutedCount() {
+		return executedCount;
+	}
+
+	/**
+	 * Number of tasks waiting to run.
+	 * @return int
+	 */
+	public synchronized int getPendingCount() {
+		return queue.size();
+	}
+
+	/**
+	 * Runs all tasks due till given virtual time and moves clock to that time.
+	 * @param timeMillis - virtual time to run till
+	 * @throws RuntimeException in case a task failed
+	 */
+	public void runUntil(long timeMillis) {
+		while (runNext(timeMillis)) {
+			// keep running
+		}
+		synchronized (this) {
+			if (now < timeMillis) {
+				now = timeMillis;
+			}
+		}
+	}
+
+	/**
+	 * Runs tasks until there is nothing left to run or given virtual time is reached.
+	 * @param limitMillis - virtual time to stop at in case tasks keep coming
+	 * @return boolean - true in case all tasks completed before the limit
+	 * @throws RuntimeException in case a task failed
+	 */
+	public boolean runUntilIdle(long limitMillis) {
+		while (runNext(limitMillis)) {
+			// keep running
+		}
+		synchronized (this) {
+			return queue.isEmpty();
+		}
+	}
+
+	/**
+	 * Runs next task in case it is due by given time.
+	 * @param limitMillis
+	 * @return boolean - true in case a task was run
+	 */
+	private boolean runNext(long limitMillis) {
+		VirtualTask<?> task;
+		synchronized (this) {
+			task = queue.peek();
+			if (task == null || task.time > limitMillis) {
+				return false;
+			}
+			queue.poll();
+			if (task.isCancelled()) {
+				return true;
+			}
+			now = task.time;
+			executedCount++;
+		}
+		// future task keeps exception of the task to itself
+		task.run();
+		if (task.failure != null) {
+			logger.error("Simulation task failed at virtual time=" + task.time, task.failure);
+			throw new RuntimeException("Simulation task failed at virtual time=" + task.time, task.failure);
+		}
+		return true;
+	}
+
+	public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+		return enqueue(new VirtualTask<Object>(Executors.callable(command), delayToTime(delay, unit), 0));
+	}
+
+	public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+		return enqueue(new VirtualTask<V>(callable, delayToTime(delay, unit), 0));
+	}
+
+	public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit) {
+		return enqueue(new VirtualTask<Object>(Executors.callable(command), delayToTime(initialDelay, unit), unit.toMillis(period)));
+	}
+
+	public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay, long delay, TimeUnit unit) {
+		return enqueue(new VirtualTask<Object>(Executors.callable(command), delayToTime(initialDelay, unit), -unit.toMillis(delay)));
+	}
+
+	public void execute(Runnable command) {
+		schedule(command, 0, TimeUnit.MILLISECONDS);
+	}
+
+	public synchronized void shutdown() {
+		shutdown = true;
+	}
+
+	public synchronized List<Runnable> shutdownNow() {
+		shutdown = true;
+		List<Runnable> pending = new ArrayList<Runnable>(queue);
+		queue.clear();
+		return pending;
+	}
+
+	public synchronized boolean isShutdown() {
+		return shutdown;
+	}
+
+	public synchronized boolean isTerminated() {
+		return shutdown && queue.isEmpty();
+	}
+
+	public boolean awaitTermination(long timeout, TimeUnit unit) {
+		return isTerminated();
+	}
+
+	private synchronized long delayToTime(long delay, TimeUnit unit) {
+		return now + Math.max(0, unit.toMillis(delay));
+	}
+
+	private synchronized <V> VirtualTask<V> enqueue(VirtualTask<V> task) {
+		if (!shutdown) {
+			task.sequence = sequence++;
+			queue.add(task);
+		}
+		return task;
+	}
+
+	/**
+	 * Task with virtual execution time. Ties are broken by submission order.
+	 * Period is positive for fixed rate, negative for fixed delay and 0 for one time task.
+	 */
+	private class VirtualTask<V> extends FutureTask<V> implements RunnableScheduledFuture<V> {
+
+		private long time;
+		private long sequence;
+		private final long period;
+		private Throwable failure;
+
+		VirtualTask(Callable<V> callable, long time, long period) {
+			super(callable);
+			this.time = time;
+			this.period = period;
+		}
+
+		public long getDelay(TimeUnit unit) {
+			return unit.convert(time - now(), TimeUnit.MILLISECONDS);
+		}
+
+		public int compareTo(Delayed other) {
+			if (other == this) {
+				return 0;
+			}
+			if (other instanceof VirtualTask) {
+				VirtualTask<?> task = (VirtualTask<?>) other;
+				if (time != task.time) {
+					return time < task.time ? -1 : 1;
+				}
+				return sequence < task.sequence ? -1 : (sequence == task.sequence ? 0 : 1);
+			}
+			long diff = getDelay(TimeUnit.MILLISECONDS) - other.getDelay(TimeUnit.MILLISECONDS);
+			return diff < 0 ? -1 : (diff > 0 ? 1 : 0);
+		}
+
+		@Override
+		protected void setException(Throwable t) {
+			failure = t;
+			super.setException(t);
+		}
+
+		public boolean isPeriodic() {
+			return period != 0;
+		}
+
+		@Override
+		public void run() {
+			if (!isPeriodic()) {
+				super.run();
+			} else if (runAndReset()) {
+				time = period > 0 ? time + period : now() - period;
+				enqueue(this);
+			}
+		}
+	}
+}
@@ -0,0 +1,438 @@
+package com.alok.ecsystem.core.simulation;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.Logger;
+
+import com.alok.ecsystem.core.ElevatorControlInterface;
+import com.alok.ecsystem.core.ElevatorControlInterface.DIRECTION;
+import com.alok.ecsystem.core.ElevatorControlInterface.STATE;
+import com.alok.ecsystem.core.ElevatorSnapshot;
+import com.alok.ecsystem.core.ElevatorSystemControl;
+import com.alok.ecsystem.core.FloorControlInterface;
+import com.alok.ecsystem.core.dispatch.Trip;
+import com.alok.ecsystem.core.event.EventSubscriber;
+import com.alok.ecsystem.core.event.FloorEvent;
+
+/**
+ * Generates passenger traffic as per {@link WorkloadProfile} and drives {@link ElevatorSystemControl} with it.
+ * 
+ * Passengers arrive at floors as Poisson process with rate of current phase. Arriving passenger presses up or down hall button, 
+ * boards first elevator which arrives at the floor leaving in that direction and presses destination button inside it. 
+ * Passengers left behind, or which missed their assigned elevator, press hall button again when elevator leaves. Elevator with capacity takes only as many passengers as fit in, 
+ * others are left behind.
+ * 
+ * With destination dispatch enabled, arriving passenger enters destination at the floor instead and boards only the 
+ * elevator it was assigned to, which already knows the destination. In a zoned building passenger changes elevator 
+ * at transfer floors of its {@link Trip} and boards the elevator assigned to next leg. Passenger which took another elevator 
+ * plans rest of its trip again at transfer floor.
+ * 
+ * Elevators of outages of profile are taken out of service. Passengers inside are let out at floor where it stopped 
+ * and call another elevator from there.
+ * 
+ * It runs on any scheduler. With {@link VirtualTimeScheduler} a day of traffic is simulated in seconds.
+ * 
+ * Usage: java -DecsPropFile=building.properties com.alok.ecsystem.core.simulation.WorkloadGenerator workload.properties
+ * 
+ * @author Alok Kushwah (akushwah)
+ */
+public class WorkloadGenerator implements EventSubscriber<FloorEvent> {
+
+	private static final Logger logger = Logger.getLogger(WorkloadGenerator.class);
+
+	/**
+	 * Passenger waiting at floor or riding an elevator.
+	 */
+	private static class Passenger {
+		final int origin;
+		final int destination;
+		final long arrivalTime;
+		Trip trip; // null in case passenger takes one elevator
+		int leg;
+		int target; // floor where passenger leaves current elevator
+		DIRECTION direction;
+		int assignedElevatorId = -1;
+		boolean boarded; // waiting time is counted once, not again at transfer floor
+
+		Passenger(int origin, int destination, long arrivalTime) {
+			this.origin = origin;
+			this.destination = destination;
+			this.target = destination;
+			this.direction = destination > origin ? DIRECTION.UP : DIRECTION.DOWN;
+			this.arrivalTime = arrivalTime;
+		}
+
+		boolean boards(ElevatorControlInterface elevator, DIRECTION leaving) {
+			if (trip != null && assignedElevatorId != -1) {
+				// leg is given to another elevator in case assigned one went out of service
+				assignedElevatorId = trip.getElevator(leg).getId();
+			}
+			return (leaving == null || leaving == direction) 
+					&& (assignedElevatorId == -1 || assignedElevatorId == elevator.getId())
+					&& elevator.getSnapshot().serves(target);
+		}
+
+		/**
+		 * Starts given leg of trip, elevator of the leg is assigned by then unless no elevator could serve it.
+		 */
+		void startLeg(int newLeg) {
+			leg = newLeg;
+			target = trip.getFloor(leg + 1);
+			direction = trip.getDirection(leg);
+			ElevatorControlInterface elevator = trip.getElevator(leg);
+			assignedElevatorId = elevator == null ? -1 : elevator.getId();
+		}
+	}
+
+	private final ElevatorSystemControl control;
+	private final ScheduledExecutorService scheduler;
+	private final WorkloadProfile profile;
+	private final Random random;
+	private final int floorCount;
+	private final List<Deque<Passenger>> waiting;
+	private final Map<Integer, List<Passenger>> riding = new HashMap<Integer, List<Passenger>>();
+	private final WorkloadStatistics statistics = new WorkloadStatistics();
+	private final int[] trip = new int[2];
+	private long startMillis;
+	private int phaseIndex;
+	private long phaseEnd;
+	private long nextArrival;
+
+	/**
+	 * Creates a new generator.
+	 * @param control - system to drive
+	 * @param scheduler - scheduler to generate arrivals on, same as used by elevators
+	 * @param profile - traffic to generate
+	 */
+	public WorkloadGenerator(ElevatorSystemControl control, ScheduledExecutorService scheduler, WorkloadProfile profile) {
+		this.control = control;
+		this.scheduler = scheduler;
+		this.profile = profile;
+		this.random = new Random(profile.getSeed());
+		this.floorCount = control.getFloorCount();
+		this.waiting = new ArrayList<Deque<Passenger>>(floorCount);
+		for (int i = 0; i < floorCount; i++) {
+			waiting.add(new ArrayDeque<Passenger>());
+		}
+		control.getConfig().getFloorEvents().subscribe(this);
+	}
+
+	/**
+	 * Starts generating passengers.
+	 */
+	public synchronized void start() {
+		startMillis = now();
+		phaseIndex = 0;
+		phaseEnd = 0;
+		nextArrival = 0;
+		if (!profile.getPhases().isEmpty()) {
+			phaseEnd = profile.getPhases().get(0).getDurationMillis();
+			scheduleNextArrival();
+		}
+		for (final WorkloadProfile.Outage outage : profile.getOutages()) {
+			scheduler.schedule(new Runnable() {
+				public void run() {
+					outOfService(outage.getElevatorId());
+				}
+			}, outage.getStartMillis(), TimeUnit.MILLISECONDS);
+			if (outage.getDurationMillis() > 0) {
+				scheduler.schedule(new Runnable() {
+					public void run() {
+						control.returnToService(outage.getElevatorId());
+					}
+				}, outage.getStartMillis() + outage.getDurationMillis(), TimeUnit.MILLISECONDS);
+			}
+		}
+	}
+
+	/**
+	 * Returns results so far.
+	 * @return {@link WorkloadStatistics}
+	 */
+	public WorkloadStatistics getStatistics() {
+		statistics.elapsed(now() - startMillis);
+		return statistics;
+	}
+
+	/**
+	 * Receives floor notifications to move passengers in and out of elevators.
+	 */
+	public void onEvent(FloorEvent event) {
+		FloorControlInterface floorControl = event.getFloor();
+		FloorControlInterface.FLOOR_EVENT arg = event.getType();
+		int floorIndex = floorControl.getId();
+		if (FloorControlInterface.FLOOR_EVENT.ELEVATOR_ARRIVED == arg) {
+			ElevatorControlInterface elevator = floorControl.getElevatorControl();
+			if (elevator != null) {
+				exchange(floorIndex, elevator, event.getDirection());
+			}
+		} else if (FloorControlInterface.FLOOR_EVENT.ELEVATOR_LEFT == arg) {
+			boolean leftUp = false;
+			boolean leftDown = false;
+			ElevatorControlInterface elevator = event.getElevator();
+			synchronized (this) {
+				for (Passenger passenger : waiting.get(floorIndex)) {
+					if (elevator != null && passenger.assignedElevatorId == elevator.getId()) {
+						// missed assigned elevator, e.g. it was at transfer floor before passenger
+						passenger.assignedElevatorId = -1;
+					}
+					if (passenger.assignedElevatorId == -1) {
+						leftUp |= passenger.direction == DIRECTION.UP;
+						leftDown |= passenger.direction == DIRECTION.DOWN;
+					}
+				}
+			}
+			if (leftUp) {
+				floorControl.setElevatorRequest(DIRECTION.UP, true);
+			}
+			if (leftDown) {
+				floorControl.setElevatorRequest(DIRECTION.DOWN, true);
+			}
+		}
+	}
+
+	/**
+	 * Unload passengers for this floor and load waiting passengers as long as they fit in. Elevator calls are made outside of lock, 
+	 * as floor notifications come while elevator holds its own lock.
+	 * Passenger which does not fit in gives up its assigned elevator and waits for any elevator.
+	 */
+	private void exchange(int floorIndex, ElevatorControlInterface elevator, DIRECTION leaving) {
+		long now = now();
+		List<Integer> destinations = new ArrayList<Integer>();
+		List<Passenger> inside;
+		List<Passenger> replanned = null;
+		int alighted = 0;
+		DIRECTION unassigned = null;
+		synchronized (this) {
+			inside = riding.get(elevator.getId());
+			if (inside == null) {
+				inside = new ArrayList<Passenger>();
+				riding.put(elevator.getId(), inside);
+			}
+			for (Iterator<Passenger> it = inside.iterator(); it.hasNext();) {
+				Passenger passenger = it.next();
+				if (passenger.target == floorIndex) {
+					it.remove();
+					alighted++;
+					if (passenger.destination == floorIndex) {
+						statistics.delivered(now - passenger.arrivalTime, now - startMillis);
+					} else if (passenger.trip == null) {
+						// came by an elevator it was not assigned to, plans rest of journey from here
+						replan(passenger, floorIndex);
+						if (replanned == null) {
+							replanned = new ArrayList<Passenger>();
+						}
+						replanned.add(passenger);
+					} else {
+						passenger.startLeg(passenger.leg + 1);
+						waiting.get(floorIndex).add(passenger);
+						if (passenger.assignedElevatorId == -1) {
+							unassigned = passenger.direction;
+						}
+					}
+				}
+			}
+		}
+		elevator.passengersAlighted(alighted);
+		if (unassigned != null) {
+			control.getFloorControl(floorIndex).setElevatorRequest(unassigned, true);
+		}
+		if (replanned != null) {
+			for (Passenger passenger : replanned) {
+				request(passenger, floorIndex);
+			}
+		}
+		int room = elevator.getCapacity() > 0 ? elevator.getCapacity() - elevator.getLoad() : Integer.MAX_VALUE;
+		int boarded = 0;
+		synchronized (this) {
+			Deque<Passenger> queue = waiting.get(floorIndex);
+			for (Iterator<Passenger> it = queue.iterator(); it.hasNext();) {
+				Passenger passenger = it.next();
+				if (passenger.boards(elevator, leaving)) {
+					if (boarded >= room) {
+						passenger.assignedElevatorId = -1;
+						statistics.leftBehind();
+						continue;
+					}
+					it.remove();
+					inside.add(passenger);
+					boarded++;
+					if (!passenger.boarded) {
+						passenger.boarded = true;
+						statistics.boarded(now - passenger.arrivalTime);
+					}
+					if (passenger.assignedElevatorId == -1) {
+						// dispatcher does not know where passenger is anymore
+						destinations.add(passenger.target);
+						passenger.trip = null;
+					}
+				}
+			}
+		}
+		elevator.passengersBoarded(boarded);
+		for (int destination : destinations) {
+			elevator.addFloorRequest(destination);
+		}
+	}
+
+	/**
+	 * Takes elevator out of service. Passengers inside are let out where it stopped.
+	 */
+	private void outOfService(int elevatorId) {
+		control.takeOutOfService(elevatorId);
+		ElevatorControlInterface elevator = control.getElevetorControl(elevatorId);
+		int floorIndex = elevator.getCurrentFloor();
+		long now = now();
+		List<Passenger> rescued = new ArrayList<Passenger>();
+		int alighted = 0;
+		synchronized (this) {
+			List<Passenger> inside = riding.remove(elevatorId);
+			if (inside != null) {
+				alighted = inside.size();
+				for (Passenger passenger : inside) {
+					if (passenger.destination == floorIndex) {
+						statistics.delivered(now - passenger.arrivalTime, now - startMillis);
+					} else {
+						replan(passenger, floorIndex);
+						rescued.add(passenger);
+					}
+				}
+			}
+		}
+		elevator.passengersAlighted(alighted);
+		logger.info("Elevator " + elevatorId + " is out of service at floor " + floorIndex + ", let out passengers=" + rescued.size());
+		for (Passenger passenger : rescued) {
+			request(passenger, floorIndex);
+		}
+	}
+
+	/**
+	 * helper method to make passenger wait at given floor for an elevator to its destination, it has no trip until 
+	 * {@link #request(Passenger, int)} returns.
+	 */
+	private void replan(Passenger passenger, int floorIndex) {
+		passenger.trip = null;
+		passenger.leg = 0;
+		passenger.assignedElevatorId = -1;
+		passenger.target = passenger.destination;
+		passenger.direction = passenger.destination > floorIndex ? DIRECTION.UP : DIRECTION.DOWN;
+		waiting.get(floorIndex).add(passenger);
+	}
+
+	private synchronized void scheduleNextArrival() {
+		while (phaseIndex < profile.getPhases().size()) {
+			WorkloadProfile.Phase phase = profile.getPhases().get(phaseIndex);
+			double ratePerMillis = phase.getArrivalsPerFloorPerMinute() * floorCount / 60000.0;
+			long arrival = ratePerMillis <= 0 ? Long.MAX_VALUE : nextArrival + (long) Math.ceil(-Math.log(1 - random.nextDouble()) / ratePerMillis);
+			if (arrival < phaseEnd) {
+				final long delay = arrival - nextArrival;
+				nextArrival = arrival;
+				final TrafficPattern pattern = phase.getPattern();
+				scheduler.schedule(new Runnable() {
+					public void run() {
+						arrive(pattern);
+					}
+				}, startMillis + arrival - now(), TimeUnit.MILLISECONDS);
+				logger.debug("Next arrival in " + delay + "ms");
+				return;
+			}
+			// no more arrivals in this phase, process is memoryless so next phase starts fresh
+			nextArrival = phaseEnd;
+			phaseIndex++;
+			if (phaseIndex < profile.getPhases().size()) {
+				phaseEnd += profile.getPhases().get(phaseIndex).getDurationMillis();
+			}
+		}
+	}
+
+	private void arrive(TrafficPattern pattern) {
+		Passenger passenger;
+		synchronized (this) {
+			pattern.nextTrip(random, floorCount, profile.getLobbyFloor(), trip);
+			passenger = new Passenger(trip[0], trip[1], now());
+			statistics.generated();
+		}
+		synchronized (this) {
+			waiting.get(passenger.origin).add(passenger);
+		}
+		request(passenger, passenger.origin);
+		scheduleNextArrival();
+	}
+
+	/**
+	 * helper method to call elevator for passenger waiting at given floor.
+	 */
+	private void request(Passenger passenger, int floorIndex) {
+		FloorControlInterface floorControl = control.getFloorControl(floorIndex);
+		if (control.getDestinationDispatcher() == null) {
+			floorControl.setElevatorRequest(passenger.direction, true);
+		} else {
+			// until assigned passenger boards any elevator, as assigned one may arrive before request returns
+			Trip assigned = control.getDestinationDispatcher().requestTrip(floorIndex, passenger.destination);
+			if (assigned == null) {
+				floorControl.setElevatorRequest(passenger.direction, true);
+			} else {
+				synchronized (this) {
+					passenger.trip = assigned;
+					passenger.startLeg(0);
+				}
+				ElevatorControlInterface elevator = assigned.getElevator(0);
+				ElevatorSnapshot snapshot = elevator.getSnapshot();
+				if (snapshot.getCurrentFloor() == floorIndex && (snapshot.getState() == STATE.DOOR_OPENING || snapshot.getState() == STATE.DOOR_OPEN)) {
+					// assigned elevator was at the floor and opened its door before request returned
+					exchange(floorIndex, elevator, passenger.direction);
+				}
+			}
+		}
+	}
+
+	private long now() {
+		return scheduler instanceof VirtualTimeScheduler ? ((VirtualTimeScheduler) scheduler).now() : System.currentTimeMillis();
+	}
+
+	public static void main(String[] args) throws IOException, InterruptedException {
+		if (args.length < 1) {
+			System.err.println("Usage: WorkloadGenerator <workload properties file>");
+			return;
+		}
+		WorkloadProfile profile = WorkloadProfile.load(new File(args[0]));
+		ElevatorSystemControl control = new ElevatorSystemControl();
+		ScheduledExecutorService scheduler = control.getConfig().getScheduler();
+		WorkloadGenerator generator = new WorkloadGenerator(control, scheduler, profile);
+		long drainMillis = TimeUnit.MINUTES.toMillis(30);
+		long wallStart = System.currentTimeMillis();
+		generator.start();
+		if (scheduler instanceof VirtualTimeScheduler) {
+			((VirtualTimeScheduler) scheduler).runUntilIdle(profile.getDurationMillis() + drainMillis);
+		} else {
+			Thread.sleep(profile.getDurationMillis() + drainMillis);
+		}
+		System.out.println("Profile: " + profile);
+		System.out.println("Result: " + generator.getStatistics());
+		System.out.println("Dispatch: " + control.getDispatchStrategy().getStatistics());
+		if (control.getElevetorControl(0).getCapacity() > 0) {
+			System.out.println("Load bypass: reassignedCalls=" + control.getBypassReassignmentCount());
+		}
+		if (control.getDestinationDispatcher() != null) {
+			System.out.println("Destination dispatch: " + control.getDestinationDispatcher());
+		}
+		if (control.getParkingPolicy() != null) {
+			System.out.println("Parking: parkedElevators=" + control.getParkingPolicy().getParkingCount());
+		}
+		if (!profile.getOutages().isEmpty()) {
+			System.out.println("Out of service: reassignedCalls=" + control.getFailoverReassignmentCount());
+		}
+		System.out.println("Wall clock millis: " + (System.currentTimeMillis() - wallStart));
+	}
+}
@@ -0,0 +1,213 @@
+package com.alok.ecsystem.core.simulation;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Traffic to generate by {@link WorkloadGenerator}. Profile is a sequence of phases, each phase has its own pattern and rate.
+ * 
+ * Profile is loaded from properties file.
+ * <pre>
+ * workload.seed=42
+ * workload.lobbyFloor=0
+ * workload.phase.count=2
+ * workload.phase.0.pattern=UP_PEAK
+ * workload.phase.0.durationMinutes=60
+ * workload.phase.0.arrivalsPerFloorPerMinute=0.5
+ * workload.phase.1.pattern=LUNCH
+ * ...
+ * </pre>
+ * 
+ * Elevators can be taken out of service for a while to see how traffic copes with a fault, duration 0 keeps it out till the end.
+ * <pre>
+ * workload.outage.count=1
+ * workload.outage.0.elevator=3
+ * workload.outage.0.atMinutes=30
+ * workload.outage.0.durationMinutes=60
+ * </pre>
+ * 
+ * @author Alok Kushwah (akushwah)
+ */
+public class WorkloadProfile {
+
+	/**
+	 * Part of profile with one pattern and rate.
+	 */
+	public static class Phase {
+		private final TrafficPattern pattern;
+		private final long durationMillis;
+		private final double arrivalsPerFloorPerMinute;
+
+		public Phase(TrafficPattern pattern, long durationMillis, double arrivalsPerFloorPerMinute) {
+			this.pattern = pattern;
+			this.durationMillis = durationMillis;
+			this.arrivalsPerFloorPerMinute = arrivalsPerFloorPerMinute;
+		}
+
+		public TrafficPattern getPattern() {
+			return pattern;
+		}
+
+		public long getDurationMillis() {
+			return durationMillis;
+		}
+
+		public double getArrivalsPerFloorPerMinute() {
+			return arrivalsPerFloorPerMinute;
+		}
+
+		@Override
+		public String toString() {
+			return pattern + "(" + durationMillis / 60000 + "min, " + arrivalsPerFloorPerMinute + "/floor/min)";
+		}
+	}
+
+	/**
+	 * Elevator which is out of service for a while.
+	 */
+	public static class Outage {
+		private final int elevatorId;
+		private final long startMillis;
+		private final long durationMillis;
+
+		public Outage(int elevatorId, long startMillis, long durationMillis) {
+			this.elevatorId = elevatorId;
+			this.startMillis = startMillis;
+			this.durationMillis = durationMillis;
+		}
+
+		public int getElevatorId() {
+			return elevatorId;
+		}
+
+		/**
+		 * Time from start of profile.
+		 * @return long - milli seconds
+		 */
+		public long getStartMillis() {
+			return startMillis;
+		}
+
+		/**
+		 * @return long - milli seconds, 0 in case elevator is not back in service
+		 */
+		public long getDurationMillis() {
+			return durationMillis;
+		}
+
+		@Override
+		public String toString() {
+			return "elevator " + elevatorId + "(" + startMillis / 60000 + "min, " + durationMillis / 60000 + "min)";
+		}
+	}
+
+	private final long seed;
+	private final int lobbyFloor;
+	private final List<Phase> phases;
+	private final List<Outage> outages;
+
+	public WorkloadProfile(long seed, int lobbyFloor, List<Phase> phases) {
+		this(seed, lobbyFloor, phases, Collections.<Outage> emptyList());
+	}
+
+	public WorkloadProfile(long seed, int lobbyFloor, List<Phase> phases, List<Outage> outages) {
+		this.seed = seed;
+		this.lobbyFloor = lobbyFloor;
+		this.phases = Collections.unmodifiableList(new ArrayList<Phase>(phases));
+		this.outages = Collections.unmodifiableList(new ArrayList<Outage>(outages));
+	}
+
+	/**
+	 * Loads profile from properties file.
+	 * @param file
+	 * @return {@link WorkloadProfile}
+	 * @throws IOException
+	 */
+	public static WorkloadProfile load(File file) throws IOException {
+		Properties properties = new Properties();
+		InputStream in = new FileInputStream(file);
+		try {
+			properties.load(in);
+		} finally {
+			in.close();
+		}
+		return load(properties);
+	}
+
+	/**
+	 * Creates profile from properties.
+	 * @param properties
+	 * @return {@link WorkloadProfile}
+	 * @throws RuntimeException in case required property is missing
+	 */
+	public static WorkloadProfile load(Properties properties) {
+		long seed = Long.parseLong(properties.getProperty("workload.seed", "1").trim());
+		int lobbyFloor = Integer.parseInt(properties.getProperty("workload.lobbyFloor", "0").trim());
+		int phaseCount = Integer.parseInt(required(properties, "workload.phase.count"));
+		List<Phase> phases = new ArrayList<Phase>();
+		for (int i = 0; i < phaseCount; i++) {
+			String prefix = "workload.phase." + i + ".";
+			TrafficPattern pattern = TrafficPattern.valueOf(required(properties, prefix + "pattern").toUpperCase());
+			long durationMillis = (long) (Double.parseDouble(required(properties, prefix + "durationMinutes")) * 60000);
+			double rate = Double.parseDouble(required(properties, prefix + "arrivalsPerFloorPerMinute"));
+			phases.add(new Phase(pattern, durationMillis, rate));
+		}
+		int outageCount = Integer.parseInt(properties.getProperty("workload.outage.count", "0").trim());
+		List<Outage> outages = new ArrayList<Outage>();
+		for (int i = 0; i < outageCount; i++) {
+			String prefix = "workload.outage." + i + ".";
+			int elevatorId = Integer.parseInt(required(properties, prefix + "elevator"));
+			long startMillis = (long) (Double.parseDouble(required(properties, prefix + "atMinutes")) * 60000);
+			long durationMillis = (long) (Double.parseDouble(properties.getProperty(prefix + "durationMinutes", "0").trim()) * 60000);
+			outages.add(new Outage(elevatorId, startMillis, durationMillis));
+		}
+		return new WorkloadProfile(seed, lobbyFloor, phases, outages);
+	}
+
+	private static String required(Properties properties, String name) {
+		String value = properties.getProperty(name);
+		if (value == null) {
+			throw new RuntimeException("Missing workload property=" + name);
+		}
+		return value.trim();
+	}
+
+	public long getSeed() {
+		return seed;
+	}
+
+	public int getLobbyFloor() {
+		return lobbyFloor;
+	}
+
+	public List<Phase> getPhases() {
+		return phases;
+	}
+
+	public List<Outage> getOutages() {
+		return outages;
+	}
+
+	/**
+	 * Total duration of all phases.
+	 * @return long - milli seconds
+	 */
+	public long getDurationMillis() {
+		long total = 0;
+		for (Phase phase : phases) {
+			total += phase.getDurationMillis();
+		}
+		return total;
+	}
+
+	@Override
+	public String toString() {
+		return "seed=" + seed + " lobby=" + lobbyFloor + " phases=" + phases + (outages.isEmpty() ? "" : " outages=" + outages);
+	}
+}
@@ -0,0 +1,129 @@
+package com.alok.ecsystem.core.simulation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Passenger level results of a {@link WorkloadGenerator} run.
+ * 
+ * @author Alok Kushwah (akushwah)
+ */
+public class WorkloadStatistics {
+
+	private long generatedCount;
+	private long boardedCount;
+	private long deliveredCount;
+	private long leftBehindCount;
+	private long totalWaitMillis;
+	private long maxWaitMillis;
+	private long totalJourneyMillis;
+	private long maxJourneyMillis;
+	private long elapsedMillis;
+	private final List<Integer> deliveredPerMinute = new ArrayList<Integer>();
+
+	synchronized void generated() {
+		generatedCount++;
+	}
+
+	synchronized void boarded(long waitMillis) {
+		boardedCount++;
+		totalWaitMillis += waitMillis;
+		maxWaitMillis = Math.max(maxWaitMillis, waitMillis);
+	}
+
+	synchronized void delivered(long journeyMillis, long atMillis) {
+		int minute = (int) (atMillis / 60000);
+		while (deliveredPerMinute.size() <= minute) {
+			deliveredPerMinute.add(0);
+		}
+		deliveredPerMinute.set(minute, deliveredPerMinute.get(minute) + 1);
+		deliveredCount++;
+		totalJourneyMillis += journeyMillis;
+		maxJourneyMillis = Math.max(maxJourneyMillis, journeyMillis);
+	}
+
+	synchronized void leftBehind() {
+		leftBehindCount++;
+	}
+
+	synchronized void elapsed(long millis) {
+		elapsedMillis = millis;
+	}
+
+	public synchronized long getGeneratedCount() {
+		return generatedCount;
+	}
+
+	public synchronized long getBoardedCount() {
+		return boardedCount;
+	}
+
+	public synchronized long getDeliveredCount() {
+		return deliveredCount;
+	}
+
+	/**
+	 * Number of times a passenger could not board arrived elevator because it was full.
+	 * @return long
+	 */
+	public synchronized long getLeftBehindCount() {
+		return leftBehindCount;
+	}
+
+	/**
+	 * Average time from arrival at floor to boarding an elevator.
+	 * @return long - milli seconds
+	 */
+	public synchronized long getAverageWaitMillis() {
+		return boardedCount == 0 ? 0 : totalWaitMillis / boardedCount;
+	}
+
+	public synchronized long getMaxWaitMillis() {
+		return maxWaitMillis;
+	}
+
+	/**
+	 * Average time from arrival at floor to reaching destination.
+	 * @return long - milli seconds
+	 */
+	public synchronized long getAverageJourneyMillis() {
+		return deliveredCount == 0 ? 0 : totalJourneyMillis / deliveredCount;
+	}
+
+	public synchronized long getMaxJourneyMillis() {
+		return maxJourneyMillis;
+	}
+
+	/**
+	 * Delivered passengers per hour of simulated time.
+	 * @return double
+	 */
+	public synchronized double getThroughputPerHour() {
+		return elapsedMillis == 0 ? 0 : deliveredCount * 3600000.0 / elapsedMillis;
+	}
+
+	/**
+	 * Most passengers delivered in any 60 minutes of simulated time. It shows handling capacity during peaks, 
+	 * while {@link #getThroughputPerHour()} is limited by arrivals over whole run.
+	 * @return long
+	 */
+	public synchronized long getPeakHourThroughput() {
+		long peak = 0;
+		long window = 0;
+		for (int i = 0; i < deliveredPerMinute.size(); i++) {
+			window += deliveredPerMinute.get(i);
+			if (i >= 60) {
+				window -= deliveredPerMinute.get(i - 60);
+			}
+			peak = Math.max(peak, window);
+		}
+		return peak;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "generated=" + generatedCount + " boarded=" + boardedCount + " delivered=" + deliveredCount + " leftBehind=" + leftBehindCount + " avgWaitMillis=" + getAverageWaitMillis()
+				+ " maxWaitMillis=" + maxWaitMillis + " avgJourneyMillis=" + getAverageJourneyMillis() + " maxJourneyMillis=" + maxJourneyMillis
+				+ " throughputPerHour=" + Math.round(getThroughputPerHour()) + " peakHourThroughput=" + getPeakHourThroughput();
+	}
+}
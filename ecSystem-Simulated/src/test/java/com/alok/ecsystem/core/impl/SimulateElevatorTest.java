@@ -0,0 +1,52 @@
+package com.alok.ecsystem.core.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Properties;
+
+import org.junit.Test;
+
+import com.alok.ecsystem.core.ElevatorControlInterface.STATE;
+import com.alok.ecsystem.core.config.ElevatorSystemConfig;
+import com.alok.ecsystem.core.simulation.VirtualTimeScheduler;
+
+/**
+ * Unit test for {@link SimulateElevator}.
+ */
+public class SimulateElevatorTest {
+
+	@Test
+	public void testTimersBeforeOutOfServiceAreDropped() {
+		Properties properties = new Properties();
+		properties.setProperty("building.name", "Simulated");
+		properties.setProperty("floor.count", "10");
+		properties.setProperty("elevator.count", "1");
+		properties.setProperty("elevator.0.className", SimulateElevator.class.getName());
+		properties.setProperty("elevator.0.minIndex", "0");
+		properties.setProperty("elevator.0.maxIndex", "9");
+		properties.setProperty("building.scheduler.className", VirtualTimeScheduler.class.getName());
+		ElevatorSystemConfig config = new ElevatorSystemConfig(properties);
+		VirtualTimeScheduler scheduler = (VirtualTimeScheduler) config.getScheduler();
+		SimulateElevator elevator = (SimulateElevator) config.getElevetors().get(0);
+
+		// out of service between two floors, timer of next floor is still pending
+		elevator.addFloorRequest(5);
+		scheduler.runUntil(4000);
+		assertEquals(1, elevator.getCurrentFloor());
+		assertTrue(elevator.takeOutOfService());
+		assertTrue(elevator.returnToService());
+
+		// only the new movement moves elevator, one floor per 3000 millis
+		elevator.addFloorRequest(2);
+		scheduler.runUntil(6500);
+		assertEquals(1, elevator.getCurrentFloor());
+		assertEquals(STATE.MOVING, elevator.getState());
+		scheduler.runUntil(7500);
+		assertEquals(2, elevator.getCurrentFloor());
+		assertEquals(STATE.DOOR_OPENING, elevator.getState());
+		assertTrue(scheduler.runUntilIdle(60000));
+		assertEquals(2, elevator.getCurrentFloor());
+		assertEquals(STATE.IDLE, elevator.getState());
+	}
+}
@@ -0,0 +1,82 @@
+package com.alok.ecsystem.core.simulation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Unit test for {@link VirtualTimeScheduler}.
+ */
+public class VirtualTimeSchedulerTest {
+
+	@Test
+	public void testOrderAndClock() {
+		final VirtualTimeScheduler scheduler = new VirtualTimeScheduler();
+		final List<String> log = new ArrayList<String>();
+		scheduler.schedule(record(scheduler, log, "b"), 3000, TimeUnit.MILLISECONDS);
+		scheduler.schedule(record(scheduler, log, "a"), 1000, TimeUnit.MILLISECONDS);
+		scheduler.schedule(record(scheduler, log, "c"), 3000, TimeUnit.MILLISECONDS);
+		scheduler.runUntil(10000);
+		assertEquals("[a@1000, b@3000, c@3000]", log.toString());
+		assertEquals(10000, scheduler.now());
+	}
+
+	@Test
+	public void testNestedScheduleAndCancel() {
+		final VirtualTimeScheduler scheduler = new VirtualTimeScheduler();
+		final List<String> log = new ArrayList<String>();
+		ScheduledFuture<?> cancelled = scheduler.schedule(record(scheduler, log, "x"), 500, TimeUnit.MILLISECONDS);
+		scheduler.schedule(new Runnable() {
+			public void run() {
+				scheduler.schedule(record(scheduler, log, "nested"), 200, TimeUnit.MILLISECONDS);
+			}
+		}, 100, TimeUnit.MILLISECONDS);
+		cancelled.cancel(false);
+		assertTrue(scheduler.runUntilIdle(Long.MAX_VALUE));
+		assertEquals("[nested@300]", log.toString());
+	}
+
+	@Test
+	public void testFixedRate() {
+		VirtualTimeScheduler scheduler = new VirtualTimeScheduler();
+		List<String> log = new ArrayList<String>();
+		scheduler.scheduleAtFixedRate(record(scheduler, log, "tick"), 100, 100, TimeUnit.MILLISECONDS);
+		scheduler.runUntil(350);
+		assertEquals("[tick@100, tick@200, tick@300]", log.toString());
+	}
+
+	@Test
+	public void testFailedTaskStopsRun() {
+		VirtualTimeScheduler scheduler = new VirtualTimeScheduler();
+		List<String> log = new ArrayList<String>();
+		scheduler.schedule(new Runnable() {
+			public void run() {
+				throw new IllegalStateException("broken");
+			}
+		}, 100, TimeUnit.MILLISECONDS);
+		scheduler.schedule(record(scheduler, log, "after"), 200, TimeUnit.MILLISECONDS);
+		try {
+			scheduler.runUntil(1000);
+			fail("failure of task is lost");
+		} catch (RuntimeException e) {
+			assertTrue(e.getCause() instanceof IllegalStateException);
+		}
+		assertEquals(100, scheduler.now());
+		assertEquals("[]", log.toString());
+	}
+
+	private Runnable record(final VirtualTimeScheduler scheduler, final List<String> log, final String name) {
+		return new Runnable() {
+			public void run() {
+				log.add(name + "@" + scheduler.now());
+			}
+		};
+	}
+}
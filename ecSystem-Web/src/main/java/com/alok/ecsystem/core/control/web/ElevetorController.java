@@ -1,11 +1,16 @@
 package com.alok.ecsystem.core.control.web;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.alok.ecsystem.core.control.web.model.Arrival;
 import com.alok.ecsystem.core.control.web.model.Elevator;
 import com.alok.ecsystem.core.control.web.model.ElevatorRequest;
 import com.alok.ecsystem.core.control.web.model.Response;
@@ -17,6 +22,9 @@ import com.alok.ecsystem.core.control.web.service.ElevatorService;
  *  	{"floorIndex":<int>} 
  *    
  *  2. To get the status of elevator "Get" request to "http://<host:port>/elevator"
+ *  
+ *  3. To get predicted arrival at a floor "Get" request to "http://<host:port>/elevator/eta?floorIndex=<int>&direction=<UP|DOWN>"
+ *  	direction is optional, invalid floor index or direction is answered with "400 Bad Request"
  * 
  * @author Alok Kushwah (akushwah)
  *
@@ -52,4 +60,26 @@ public class ElevetorController {
         return elevatorService.getElevatorStatus();
     }
 
+    /**
+     * Returns predicted arrival of elevator at a floor
+     * @param floorIndex
+     * @param direction - "UP" or "DOWN", optional
+     * @return {@link Arrival}
+     */
+    @RequestMapping(value ="/elevator/eta", method = RequestMethod.GET)
+    public Arrival elevatorEta(@RequestParam("floorIndex") int floorIndex, @RequestParam(value = "direction", required = false) String direction) {
+        return elevatorService.getEstimatedArrival(floorIndex, direction);
+    }
+
+    /**
+     * Answers request with invalid parameter, like unknown floor index or direction, with "400 Bad Request".
+     * @param exp
+     * @return {@link Response}
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public Response badRequest(IllegalArgumentException exp) {
+    	return new Response(false, exp.getMessage());
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,44 @@
+package com.alok.ecsystem.core.control.web.model;
+
+/**
+ * Arrival bean to represent predicted arrival of elevator at a floor.
+ * 
+ * @author Alok Kushwah (akushwah)
+ */
+public class Arrival {
+	private int floorIndex;
+	private String direction;
+	private int elevatorId;
+	private long millis;
+	private boolean assigned;
+	public int getFloorIndex() {
+		return floorIndex;
+	}
+	public void setFloorIndex(int floorIndex) {
+		this.floorIndex = floorIndex;
+	}
+	public String getDirection() {
+		return direction;
+	}
+	public void setDirection(String direction) {
+		this.direction = direction;
+	}
+	public int getElevatorId() {
+		return elevatorId;
+	}
+	public void setElevatorId(int elevatorId) {
+		this.elevatorId = elevatorId;
+	}
+	public long getMillis() {
+		return millis;
+	}
+	public void setMillis(long millis) {
+		this.millis = millis;
+	}
+	public boolean isAssigned() {
+		return assigned;
+	}
+	public void setAssigned(boolean assigned) {
+		this.assigned = assigned;
+	}
+}
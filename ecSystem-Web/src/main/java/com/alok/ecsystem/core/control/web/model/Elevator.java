@@ -10,7 +10,13 @@ import java.util.Set;
 public class Elevator {
 	private int id;
 	private int currentFloorIndex;
+	private String state;
+	private String direction;
 	private Set<Integer> pendingRequests;
+	private int nextStop;
+	private int routeLength;
+	private int load;
+	private int capacity;
 	public int getId() {
 		return id;
 	}
@@ -23,10 +29,46 @@ public class Elevator {
 	public void setCurrentFloorIndex(int currentFloorIndex) {
 		this.currentFloorIndex = currentFloorIndex;
 	}
+	public String getState() {
+		return state;
+	}
+	public void setState(String state) {
+		this.state = state;
+	}
+	public String getDirection() {
+		return direction;
+	}
+	public void setDirection(String direction) {
+		this.direction = direction;
+	}
 	public Set<Integer> getPendingRequests() {
 		return pendingRequests;
 	}
 	public void setPendingRequests(Set<Integer> set) {
 		this.pendingRequests = set;
 	}
+	public int getNextStop() {
+		return nextStop;
+	}
+	public void setNextStop(int nextStop) {
+		this.nextStop = nextStop;
+	}
+	public int getRouteLength() {
+		return routeLength;
+	}
+	public void setRouteLength(int routeLength) {
+		this.routeLength = routeLength;
+	}
+	public int getLoad() {
+		return load;
+	}
+	public void setLoad(int load) {
+		this.load = load;
+	}
+	public int getCapacity() {
+		return capacity;
+	}
+	public void setCapacity(int capacity) {
+		this.capacity = capacity;
+	}
 }
@@ -3,9 +3,13 @@ package com.alok.ecsystem.core.control.web.service;
 import org.springframework.stereotype.Component;
 
 import com.alok.ecsystem.core.ElevatorControlInterface;
+import com.alok.ecsystem.core.ElevatorControlInterface.DIRECTION;
+import com.alok.ecsystem.core.ElevatorSnapshot;
 import com.alok.ecsystem.core.ElevatorSystemControl;
 import com.alok.ecsystem.core.FloorControlInterface;
+import com.alok.ecsystem.core.control.web.model.Arrival;
 import com.alok.ecsystem.core.control.web.model.Elevator;
+import com.alok.ecsystem.core.dispatch.ArrivalEstimate;
 
 /**
  * Initialize the Elevator Control system and expose service for controller. 
@@ -39,15 +43,68 @@ public class ElevatorService {
 	}
 
 	/**
-	 * Returns state of elevator
+	 * Returns predicted arrival at a floor. In case hall call of the floor is outstanding, arrival of elevator assigned to it 
+	 * is returned, otherwise arrival of elevator which would come first.
+	 * @param index - floor index
+	 * @param direction - "UP" or "DOWN", null in case it is not known
+	 * @return {@link Arrival}
+	 * @throws IllegalArgumentException in case floor index or direction is invalid
+	 */
+	public Arrival getEstimatedArrival(int index, String direction) {
+		if(control.getFloorControl(index)==null) {
+			throw new IllegalArgumentException("Invalid floor index=" + index +"." );
+		}
+		DIRECTION callDirection = parseDirection(direction);
+		ArrivalEstimate estimate = control.getHallCallArrival(index, callDirection);
+		boolean assigned = estimate != null;
+		if (!assigned) {
+			estimate = control.getEstimatedArrival(index, callDirection);
+		}
+		if (estimate == null) {
+			throw new RuntimeException("No elevator can serve floor index=" + index + ".");
+		}
+		Arrival arrival = new Arrival();
+		arrival.setFloorIndex(index);
+		arrival.setDirection(callDirection == null ? null : callDirection.name());
+		arrival.setElevatorId(estimate.getElevator().getId());
+		arrival.setMillis(estimate.getMillis());
+		arrival.setAssigned(assigned);
+		return arrival;
+	}
+
+	/**
+	 * helper method to read optional direction of request, case does not matter.
+	 * @throws IllegalArgumentException in case it is neither "UP" nor "DOWN"
+	 */
+	private static DIRECTION parseDirection(String direction) {
+		if (direction == null || direction.trim().isEmpty()) {
+			return null;
+		}
+		for (DIRECTION value : DIRECTION.values()) {
+			if (value.name().equalsIgnoreCase(direction.trim())) {
+				return value;
+			}
+		}
+		throw new IllegalArgumentException("Invalid direction=" + direction + ", it must be UP or DOWN.");
+	}
+
+	/**
+	 * Returns state of elevator. Floor, state and direction are read from one consistent snapshot.
 	 * @return
 	 */
 	public Elevator getElevatorStatus() {
 		ElevatorControlInterface elevatorInterface = control.getElevetorControl(0);
+		ElevatorSnapshot snapshot = elevatorInterface.getSnapshot();
 		Elevator elevator = new Elevator();
-		elevator.setId(elevatorInterface.getId());
-		elevator.setCurrentFloorIndex(elevatorInterface.getCurrentFloor());
+		elevator.setId(snapshot.getId());
+		elevator.setCurrentFloorIndex(snapshot.getCurrentFloor());
+		elevator.setState(snapshot.getState().name());
+		elevator.setDirection(snapshot.getDirection().name());
 		elevator.setPendingRequests(elevatorInterface.getFloorRequests());
+		elevator.setNextStop(snapshot.getNextStop());
+		elevator.setRouteLength(snapshot.getRouteLength());
+		elevator.setLoad(snapshot.getLoad());
+		elevator.setCapacity(snapshot.getCapacity());
 		return elevator;
 	}
 